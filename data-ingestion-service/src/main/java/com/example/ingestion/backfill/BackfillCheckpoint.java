@@ -0,0 +1,97 @@
+package com.example.ingestion.backfill;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The progress of a backfill, kept in a local JSON file so that a restarted service resumes it.
+ * The file is rewritten through a temporary file and an atomic move, so a crash leaves either
+ * the previous or the new progress behind, never a partial file.
+ */
+class BackfillCheckpoint {
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+
+    private final Path file;
+
+    BackfillCheckpoint(Path file) {
+        this.file = file.toAbsolutePath();
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return The progress of the last unfinished backfill, if there is one
+     */
+    Optional<Progress> load() {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(objectMapper.readValue(file.toFile(), Progress.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read backfill checkpoint " + file, e);
+        }
+    }
+
+    void save(Progress progress) {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            objectMapper.writeValue(temporary.toFile(), progress);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write backfill checkpoint " + file, e);
+        }
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete backfill checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * What a backfill covers and which of its windows have been published.
+     *
+     * @param completed Targets (see {@link BackfillJob}) whose articles were all acknowledged by the broker
+     */
+    record Progress(LocalDate from, LocalDate to, Duration window, List<String> categories, Set<String> completed) {
+
+        Progress {
+            categories = List.copyOf(categories);
+            completed = new TreeSet<>(completed);
+        }
+
+        boolean covers(LocalDate otherFrom, LocalDate otherTo, Duration otherWindow, List<String> otherCategories) {
+            return from.equals(otherFrom) && to.equals(otherTo) && window.equals(otherWindow)
+                    && categories.equals(otherCategories);
+        }
+
+        Progress withCompleted(String target) {
+            Set<String> updated = new TreeSet<>(completed);
+            updated.add(target);
+            return new Progress(from, to, window, categories, updated);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ingestion.backfill;
+
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Controls the {@link BackfillJob} at {@code /actuator/backfill}: GET for its status, POST with
+ * {@code from}, {@code to} (ISO dates, inclusive) and optional comma-separated {@code categories}
+ * to start a backfill, DELETE to cancel it.
+ */
+@Component
+@Endpoint(id = "backfill")
+public class BackfillEndpoint {
+
+    private final BackfillJob backfillJob;
+
+    public BackfillEndpoint(BackfillJob backfillJob) {
+        this.backfillJob = backfillJob;
+    }
+
+    @ReadOperation
+    public BackfillJob.Status status() {
+        return backfillJob.status();
+    }
+
+    @WriteOperation
+    public BackfillJob.Status start(String from, String to, @Nullable String categories) {
+        List<String> categoryList = categories == null ? List.of() : Arrays.stream(categories.split(","))
+                .map(String::trim)
+                .filter(category -> !category.isEmpty())
+                .toList();
+        try {
+            return backfillJob.start(LocalDate.parse(from), LocalDate.parse(to), categoryList);
+        } catch (DateTimeParseException | IllegalArgumentException | IllegalStateException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), e.getMessage());
+        }
+    }
+
+    @DeleteOperation
+    public BackfillJob.Status cancel() {
+        return backfillJob.cancel();
+    }
+}
@@ -0,0 +1,393 @@
+package com.example.ingestion.backfill;
+
+import com.example.ingestion.model.NewsArticle;
+import com.example.ingestion.service.NewsApiClient;
+import com.example.ingestion.service.NewsApiPollingPlanner;
+import com.example.ingestion.service.NewsIngestionService;
+import com.example.ingestion.service.ResultLimitExceededException;
+import com.example.ingestion.service.SourceConnector;
+import com.example.ingestion.service.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Backfills the NewsAPI archive for a date range.
+ * <p>
+ * The range is split into windows of {@code newsapi.backfill.window} (UTC), and every
+ * (category, window) pair is one target of a connector that searches the everything endpoint.
+ * Up to {@code newsapi.backfill.parallelism} targets are fetched at a time, and published through
+ * {@link NewsIngestionService} exactly like polled articles. A target is checkpointed once all its
+ * articles were acknowledged or spooled; targets whose fetch failed or had articles that could not be
+ * published stay pending and are fetched again when the backfill is restarted for the same range, or
+ * when the service restarts. A window matching more articles than the client pages through is split
+ * in halves, recursively, and counts as completed once all its parts are.
+ * <p>
+ * Live polling uses the same API key, so while a backfill runs it reserves
+ * {@code newsapi.backfill.daily-quota} requests of the {@link NewsApiPollingPlanner}'s daily quota,
+ * which plans live polls within the rest. Backfill requests are paced by a rate limiter of their
+ * own to that share and recorded with the planner, so they count against the key's quota.
+ */
+@Component
+@Slf4j
+public class BackfillJob implements DisposableBean {
+
+    public enum State { IDLE, RUNNING, INCOMPLETE, COMPLETED, CANCELLED }
+
+    /**
+     * A snapshot of the current or last backfill.
+     */
+    public record Status(State state, LocalDate from, LocalDate to, List<String> categories,
+                         int windows, int completedWindows, long articles) {
+    }
+
+    private final NewsApiClient newsApiClient;
+    private final NewsIngestionService ingestionService;
+    private final NewsApiPollingPlanner planner;
+    private final BackfillCheckpoint checkpoint;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final int dailyQuota;
+    private final List<String> defaultCategories;
+    private final Duration window;
+    private final int parallelism;
+    private final boolean resumeOnStartup;
+    private final Counter windowsCompleted;
+    private final AtomicLong articles = new AtomicLong();
+    private final WindowConnector connector = new WindowConnector();
+
+    // Targets of the running fetches that had an article neither published nor spooled
+    private final Set<String> failedTargets = ConcurrentHashMap.newKeySet();
+
+    // Targets of the running fetches that matched more articles than are fetched
+    private final Set<String> truncatedTargets = ConcurrentHashMap.newKeySet();
+
+    private State state = State.IDLE;
+    private BackfillCheckpoint.Progress progress;
+    private List<String> targets = List.of();
+    private Disposable running;
+
+    @Autowired
+    public BackfillJob(
+            NewsApiClient newsApiClient,
+            NewsIngestionService ingestionService,
+            NewsApiPollingPlanner planner,
+            @Value("${newsapi.categories:technology}") String categoriesConfig,
+            @Value("${newsapi.backfill.window:P1D}") Duration window,
+            @Value("${newsapi.backfill.parallelism:2}") int parallelism,
+            @Value("${newsapi.backfill.checkpoint-file:backfill-checkpoint.json}") Path checkpointFile,
+            @Value("${newsapi.backfill.resume-on-startup:true}") boolean resumeOnStartup,
+            @Value("${newsapi.backfill.daily-quota:50}") int dailyQuota,
+            @Value("${newsapi.backfill.rate-limit.capacity:2}") int rateLimitCapacity,
+            MeterRegistry meterRegistry) {
+        this(newsApiClient, ingestionService, planner, split(categoriesConfig), window, parallelism,
+                new BackfillCheckpoint(checkpointFile), resumeOnStartup, dailyQuota,
+                new TokenBucketRateLimiter(rateLimitCapacity, dailyQuota, Duration.ofDays(1)), meterRegistry);
+    }
+
+    BackfillJob(NewsApiClient newsApiClient, NewsIngestionService ingestionService, NewsApiPollingPlanner planner,
+                List<String> defaultCategories, Duration window, int parallelism, BackfillCheckpoint checkpoint,
+                boolean resumeOnStartup, int dailyQuota, TokenBucketRateLimiter rateLimiter,
+                MeterRegistry meterRegistry) {
+        if (window.compareTo(Duration.ofMinutes(1)) < 0 || parallelism < 1) {
+            throw new IllegalArgumentException("Invalid backfill window or parallelism");
+        }
+        if (dailyQuota < 1 || dailyQuota >= planner.getDailyQuota()) {
+            throw new IllegalArgumentException("The backfill's daily quota must be less than the planner's "
+                    + planner.getDailyQuota());
+        }
+        this.newsApiClient = newsApiClient;
+        this.ingestionService = ingestionService;
+        this.planner = planner;
+        this.dailyQuota = dailyQuota;
+        this.defaultCategories = defaultCategories;
+        this.window = window;
+        this.parallelism = parallelism;
+        this.checkpoint = checkpoint;
+        this.resumeOnStartup = resumeOnStartup;
+        this.rateLimiter = rateLimiter;
+        this.windowsCompleted = Counter.builder("ingestion.backfill.windows.completed")
+                .description("Backfill windows of one category whose articles were all published")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.backfill.windows.pending", this, BackfillJob::getPendingWindows)
+                .description("Backfill windows of the current backfill that have not been published yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resumes the backfill left unfinished by a previous run of the service.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStartup() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        checkpoint.load().ifPresent(saved -> {
+            log.info("Resuming backfill of {} to {} from {}", saved.from(), saved.to(), checkpoint.getFile());
+            run(saved);
+        });
+    }
+
+    /**
+     * Starts backfilling the days {@code from} to {@code to}, both inclusive. If the checkpoint holds
+     * an unfinished backfill of the same range, categories and window, its completed windows are skipped.
+     *
+     * @param categories The categories (search terms) to backfill; the configured categories if empty
+     * @return The status of the started backfill
+     * @throws IllegalStateException    if a backfill is already running
+     * @throws IllegalArgumentException if the range is empty
+     */
+    public synchronized Status start(LocalDate from, LocalDate to, List<String> categories) {
+        if (state == State.RUNNING) {
+            throw new IllegalStateException("A backfill of " + progress.from() + " to " + progress.to()
+                    + " is already running");
+        }
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Backfill range ends before it starts: " + from + " to " + to);
+        }
+        List<String> actualCategories = categories.isEmpty() ? defaultCategories : List.copyOf(categories);
+        BackfillCheckpoint.Progress started = checkpoint.load()
+                .filter(saved -> saved.covers(from, to, window, actualCategories))
+                .orElseGet(() -> new BackfillCheckpoint.Progress(from, to, window, actualCategories, Set.of()));
+        checkpoint.save(started);
+        return run(started);
+    }
+
+    /**
+     * Stops the running backfill. Its checkpoint is kept, so starting the same range again resumes it.
+     */
+    public synchronized Status cancel() {
+        if (state == State.RUNNING) {
+            running.dispose();
+            planner.reserve(0);
+            state = State.CANCELLED;
+            log.info("Cancelled backfill of {} to {} with {} windows pending",
+                    progress.from(), progress.to(), getPendingWindows());
+        }
+        return status();
+    }
+
+    public synchronized Status status() {
+        if (progress == null) {
+            return new Status(state, null, null, List.of(), 0, 0, articles.get());
+        }
+        return new Status(state, progress.from(), progress.to(), progress.categories(),
+                targets.size(), getCompletedWindows(), articles.get());
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (running != null) {
+            running.dispose();
+        }
+    }
+
+    private synchronized Status run(BackfillCheckpoint.Progress started) {
+        progress = started;
+        targets = targets(started);
+        articles.set(0);
+        failedTargets.clear();
+        truncatedTargets.clear();
+        List<String> pending = targets.stream()
+                .filter(target -> !started.completed().contains(target))
+                .toList();
+        log.info("Backfilling {} of {} windows from {} to {} for {}", pending.size(), targets.size(),
+                started.from(), started.to(), started.categories());
+
+        state = State.RUNNING;
+        planner.reserve(dailyQuota);
+        running = Flux.fromIterable(pending)
+                .flatMap(this::backfill, parallelism)
+                .subscribe(
+                        unused -> { },
+                        e -> finish(),
+                        this::finish);
+        return status();
+    }
+
+    /**
+     * Fetches and publishes one target. If it matched more articles than are fetched, its halves
+     * are backfilled one after the other instead, and the target is completed once both are.
+     */
+    private Mono<Void> backfill(String target) {
+        return Mono.defer(() -> {
+            if (isCompleted(target)) {
+                return Mono.empty();
+            }
+            return ingestionService.fetchAndPublish(connector, target)
+                    .then(Mono.defer(() -> {
+                        if (!truncatedTargets.remove(target)) {
+                            return Mono.empty();
+                        }
+                        List<String> halves = halves(target);
+                        if (halves.isEmpty()) {
+                            log.warn("Backfill window {} matches too many articles and cannot be split", target);
+                            return Mono.empty();
+                        }
+                        log.info("Splitting backfill window {} into {}", target, halves);
+                        return Flux.fromIterable(halves)
+                                .concatMap(this::backfill)
+                                .then(Mono.fromRunnable(() -> {
+                                    if (halves.stream().allMatch(this::isCompleted)) {
+                                        markCompleted(target, 0);
+                                    }
+                                }));
+                    }));
+        });
+    }
+
+    private synchronized void finish() {
+        if (state != State.RUNNING) {
+            return;
+        }
+        planner.reserve(0);
+        int pending = getPendingWindows();
+        if (pending == 0) {
+            state = State.COMPLETED;
+            checkpoint.delete();
+            log.info("Backfill of {} to {} completed: {} articles published", progress.from(), progress.to(),
+                    articles.get());
+        } else {
+            state = State.INCOMPLETE;
+            log.warn("Backfill of {} to {} finished with {} windows failed; start it again to retry them",
+                    progress.from(), progress.to(), pending);
+        }
+    }
+
+    private synchronized void markCompleted(String target, long newArticles) {
+        progress = progress.withCompleted(target);
+        checkpoint.save(progress);
+        articles.addAndGet(newArticles);
+        if (targets.contains(target)) {
+            windowsCompleted.increment();
+        }
+    }
+
+    private synchronized boolean isCompleted(String target) {
+        return progress.completed().contains(target);
+    }
+
+    private synchronized int getCompletedWindows() {
+        // The checkpoint also holds the completed parts of split windows
+        return progress == null ? 0 : (int) targets.stream().filter(progress.completed()::contains).count();
+    }
+
+    private synchronized int getPendingWindows() {
+        return progress == null ? 0 : targets.size() - getCompletedWindows();
+    }
+
+    /**
+     * One target per category and window, of the form {@code category|windowStart|windowEnd}.
+     * The last window of the range may be shorter than the others.
+     */
+    private static List<String> targets(BackfillCheckpoint.Progress progress) {
+        Instant end = progress.to().plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        List<String> targets = new ArrayList<>();
+        for (String category : progress.categories()) {
+            Instant start = progress.from().atStartOfDay(ZoneOffset.UTC).toInstant();
+            while (start.isBefore(end)) {
+                Instant windowEnd = start.plus(progress.window());
+                if (windowEnd.isAfter(end)) {
+                    windowEnd = end;
+                }
+                targets.add(category + "|" + start + "|" + windowEnd);
+                start = windowEnd;
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * The two halves of a target's window, split at a whole second, or none if it is too short.
+     */
+    private static List<String> halves(String target) {
+        String[] parts = target.split("\\|");
+        Instant start = Instant.parse(parts[1]);
+        Instant end = Instant.parse(parts[2]);
+        long seconds = Duration.between(start, end).toSeconds();
+        if (seconds < 2) {
+            return List.of();
+        }
+        Instant middle = start.plusSeconds(seconds / 2);
+        return List.of(parts[0] + "|" + start + "|" + middle, parts[0] + "|" + middle + "|" + end);
+    }
+
+    private static List<String> split(String config) {
+        return Arrays.stream(config.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Searches the everything endpoint for the articles of one category and window.
+     */
+    private class WindowConnector implements SourceConnector {
+
+        @Override
+        public String getName() {
+            return "backfill";
+        }
+
+        @Override
+        public List<String> getTargets() {
+            return targets;
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return parallelism;
+        }
+
+        @Override
+        public Flux<NewsArticle> fetch(String target) {
+            String[] parts = target.split("\\|");
+            return Flux.defer(() -> {
+                        failedTargets.remove(target);
+                        return newsApiClient.streamEverything(parts[0], Instant.parse(parts[1]),
+                                Instant.parse(parts[2]), rateLimiter, () -> planner.recordUnplannedRequests(1));
+                    })
+                    .doOnError(ResultLimitExceededException.class, e -> truncatedTargets.add(target));
+        }
+
+        @Override
+        public String getMetricCategory(String target) {
+            return target.substring(0, target.indexOf('|'));
+        }
+
+        @Override
+        public void onFetchCompleted(String target, long newArticles) {
+            if (failedTargets.remove(target)) {
+                log.warn("Backfill window {} had articles that could not be published, it stays pending", target);
+                return;
+            }
+            markCompleted(target, newArticles);
+        }
+
+        @Override
+        public void onPublishFailed(String target, NewsArticle article) {
+            failedTargets.add(target);
+        }
+    }
+}
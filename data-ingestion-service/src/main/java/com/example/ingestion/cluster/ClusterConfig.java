@@ -0,0 +1,25 @@
+package com.example.ingestion.cluster;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Creates the topic whose partitions {@link TargetOwnership} distributes across instances.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ingestion.cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    @Bean
+    public NewTopic ownershipTopic(
+            @Value("${ingestion.cluster.topic:ingestion.ownership}") String topic,
+            @Value("${ingestion.cluster.partitions:12}") int partitions) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.ingestion.cluster;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.CooperativeStickyAssignor;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which ingestion targets this instance polls when several replicas run side by side.
+ * <p>
+ * Every instance joins the Kafka consumer group {@code ingestion.cluster.group-id} on the otherwise
+ * unused topic {@code ingestion.cluster.topic}, and owns the targets that hash (murmur2, like the
+ * Kafka partitioner) to one of the partitions assigned to it. The group coordinator thus does the
+ * membership bookkeeping: when an instance joins, leaves or stops heartbeating, the partitions and
+ * with them the targets are rebalanced across the live instances. The cooperative sticky assignor
+ * keeps moves to the minimum, and the number of partitions caps how many instances share the work.
+ * <p>
+ * An instance owns nothing until its first assignment and drops partitions as soon as its consumer
+ * learns they were revoked or lost, so a target is polled twice at most briefly during a rebalance.
+ * With {@code ingestion.cluster.enabled=false} (the default) the instance owns every target.
+ */
+@Component
+@Slf4j
+public class TargetOwnership implements SmartLifecycle, ConsumerAwareRebalanceListener {
+
+    private final boolean enabled;
+    private final String topic;
+    private final Map<String, Object> consumerProperties;
+    private final Set<Integer> ownedPartitions = ConcurrentHashMap.newKeySet();
+    private final Counter rebalances;
+
+    private volatile int partitionCount;
+    private KafkaMessageListenerContainer<byte[], byte[]> container;
+
+    @Autowired
+    public TargetOwnership(
+            @Value("${ingestion.cluster.enabled:false}") boolean enabled,
+            @Value("${ingestion.cluster.topic:ingestion.ownership}") String topic,
+            @Value("${ingestion.cluster.group-id:data-ingestion-service}") String groupId,
+            @Value("${ingestion.cluster.session-timeout:PT10S}") Duration sessionTimeout,
+            KafkaProperties kafkaProperties,
+            MeterRegistry meterRegistry) {
+        this(enabled, topic, consumerProperties(kafkaProperties.buildConsumerProperties(null), groupId,
+                sessionTimeout), meterRegistry);
+    }
+
+    TargetOwnership(boolean enabled, String topic, Map<String, Object> consumerProperties,
+                    MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.topic = topic;
+        this.consumerProperties = consumerProperties;
+        this.rebalances = Counter.builder("ingestion.cluster.rebalances")
+                .description("Target partitions assigned to or revoked from this instance")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.cluster.partitions.owned", ownedPartitions, Set::size)
+                .description("Target partitions this instance currently polls")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true if this instance is responsible for polling the target
+     */
+    public boolean owns(String target) {
+        if (!enabled) {
+            return true;
+        }
+        int partitions = partitionCount;
+        return partitions > 0 && ownedPartitions.contains(partition(target, partitions));
+    }
+
+    static int partition(String target, int partitions) {
+        return Utils.toPositive(Utils.murmur2(target.getBytes(StandardCharsets.UTF_8))) % partitions;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || container != null) {
+            return;
+        }
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setConsumerRebalanceListener(this);
+        // Nobody writes to the topic, the subscription only serves group membership
+        containerProperties.setMessageListener((MessageListener<byte[], byte[]>) record -> { });
+        container = new KafkaMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(consumerProperties,
+                new ByteArrayDeserializer(), new ByteArrayDeserializer()), containerProperties);
+        container.setBeanName("target-ownership");
+        container.start();
+        log.info("Joining ingestion group {} on topic {}", consumerProperties.get(ConsumerConfig.GROUP_ID_CONFIG),
+                topic);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (container != null) {
+            // Leaving the group hands this instance's partitions to the others right away
+            container.stop();
+            container = null;
+        }
+        ownedPartitions.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return container != null && container.isRunning();
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitionCount = consumer.partitionsFor(topic).size();
+        partitions.forEach(partition -> ownedPartitions.add(partition.partition()));
+        rebalances.increment(partitions.size());
+        log.info("Assigned target partitions {}, now owning {} of {}", partitionNumbers(partitions),
+                ownedPartitions.size(), partitionCount);
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        revoke(partitions);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        revoke(partitions);
+    }
+
+    private void revoke(Collection<TopicPartition> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        partitions.forEach(partition -> ownedPartitions.remove(partition.partition()));
+        rebalances.increment(partitions.size());
+        log.info("Revoked target partitions {}, now owning {} of {}", partitionNumbers(partitions),
+                ownedPartitions.size(), partitionCount);
+    }
+
+    private static Set<Integer> partitionNumbers(Collection<TopicPartition> partitions) {
+        return partitions.stream().map(TopicPartition::partition).collect(Collectors.toSet());
+    }
+
+    static Map<String, Object> consumerProperties(Map<String, Object> base, String groupId,
+                                                  Duration sessionTimeout) {
+        Map<String, Object> properties = new HashMap<>(base);
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        properties.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG, CooperativeStickyAssignor.class.getName());
+        properties.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, (int) sessionTimeout.toMillis());
+        properties.put(ConsumerConfig.HEARTBEAT_INTERVAL_MS_CONFIG, (int) sessionTimeout.toMillis() / 3);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        return properties;
+    }
+}
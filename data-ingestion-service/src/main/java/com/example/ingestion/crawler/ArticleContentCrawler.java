@@ -0,0 +1,348 @@
+package com.example.ingestion.crawler;
+
+import com.example.ingestion.enrichment.EnrichmentPipeline;
+import com.example.ingestion.kafka.ArticleKeyStrategy;
+import com.example.ingestion.model.NewsArticle;
+import com.example.ingestion.service.ReactiveKafkaSender;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fetches the page behind each published article and publishes the article again with the full
+ * text, as extracted by {@link ContentExtractor}, to {@code kafka.topic.enriched}. NewsAPI cuts
+ * {@code content} off after about 200 characters, so the news topic only carries stubs. Enriched
+ * records are keyed by {@code ingestion.publish.key-strategy}, like those on the news topic.
+ * <p>
+ * Crawling runs beside ingestion and never slows it down: {@link #submit} only queues the
+ * article, and articles beyond {@code ingestion.crawler.max-pending} are not crawled. Each crawl
+ * runs on a virtual thread and blocks while it waits for its turn. Towards one host at most
+ * {@code per-host-concurrency} requests are open, and requests start at least
+ * {@code politeness-delay} apart, in the order the articles were queued; across all hosts at
+ * most {@code max-concurrency} requests are open. One HTTP client serves all requests, so
+ * connections to a host are kept alive and reused. A host's queue is dropped once no crawl
+ * of it is running or waiting and its politeness delay has passed; the last crawl to finish
+ * checks that right away or, within the delay, once the delay is over.
+ * <p>
+ * The enriched article runs through the {@link EnrichmentPipeline} again, so language and
+ * reading time reflect the full text. Pages without more text than the article already has are
+ * not published again.
+ */
+@Component
+@Slf4j
+public class ArticleContentCrawler implements DisposableBean {
+
+    private static final Pattern CHARSET = Pattern.compile("charset=\"?([\\w.:-]+)", Pattern.CASE_INSENSITIVE);
+
+    private final boolean enabled;
+    private final String topic;
+    private final int perHostConcurrency;
+    private final Duration politenessDelay;
+    private final Duration timeout;
+    private final int maxPageBytes;
+    private final String userAgent;
+    private final ArticleKeyStrategy keyStrategy;
+    private final ReactiveKafkaSender kafkaSender;
+    private final EnrichmentPipeline enrichmentPipeline;
+    private final MeterRegistry meterRegistry;
+
+    private final Semaphore pending;
+    private final Semaphore requests;
+    private final Map<String, HostQueue> hosts = new ConcurrentHashMap<>();
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final Timer politenessWait;
+
+    public ArticleContentCrawler(
+            @Value("${ingestion.crawler.enabled:true}") boolean enabled,
+            @Value("${kafka.topic.enriched:news.enriched}") String topic,
+            @Value("${ingestion.crawler.max-concurrency:64}") int maxConcurrency,
+            @Value("${ingestion.crawler.per-host-concurrency:1}") int perHostConcurrency,
+            @Value("${ingestion.crawler.politeness-delay:PT1S}") Duration politenessDelay,
+            @Value("${ingestion.crawler.timeout:PT10S}") Duration timeout,
+            @Value("${ingestion.crawler.max-page-size:2MB}") DataSize maxPageSize,
+            @Value("${ingestion.crawler.max-pending:10000}") int maxPending,
+            @Value("${ingestion.crawler.user-agent:news-ingestion-crawler/1.0}") String userAgent,
+            @Value("${ingestion.publish.key-strategy:url}") ArticleKeyStrategy keyStrategy,
+            ReactiveKafkaSender kafkaSender,
+            EnrichmentPipeline enrichmentPipeline,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.topic = topic;
+        this.perHostConcurrency = perHostConcurrency;
+        this.politenessDelay = politenessDelay;
+        this.timeout = timeout;
+        this.maxPageBytes = (int) Math.min(Integer.MAX_VALUE - 8, maxPageSize.toBytes());
+        this.userAgent = userAgent;
+        this.keyStrategy = keyStrategy;
+        this.kafkaSender = kafkaSender;
+        this.enrichmentPipeline = enrichmentPipeline;
+        this.meterRegistry = meterRegistry;
+        this.pending = new Semaphore(maxPending);
+        this.requests = new Semaphore(maxConcurrency, true);
+        this.httpClient = HttpClient.newBuilder()
+                .executor(virtualThreads)
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+
+        Gauge.builder("ingestion.crawler.pending", pending, permits -> maxPending - permits.availablePermits())
+                .description("Articles queued or being crawled")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.crawler.hosts", hosts, Map::size)
+                .description("Hosts being crawled or within their politeness delay, each with a queue of its own")
+                .register(meterRegistry);
+        this.politenessWait = Timer.builder("ingestion.crawler.politeness.wait")
+                .description("Time a crawl waited for its turn at the host")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues the article for crawling, unless crawling is off, the article has no HTTP URL or
+     * too many articles are queued already. The article itself is not modified.
+     *
+     * @return true if the article was queued
+     */
+    public boolean submit(NewsArticle article) {
+        if (!enabled || !isHttp(article.getUrl())) {
+            return false;
+        }
+        if (!pending.tryAcquire()) {
+            count("dropped");
+            log.debug("Crawler queue full, not crawling {}", article.getUrl());
+            return false;
+        }
+        NewsArticle copy = article.copy();
+        try {
+            virtualThreads.execute(() -> {
+                try {
+                    crawl(copy);
+                } finally {
+                    pending.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Shutting down
+            pending.release();
+            return false;
+        }
+        return true;
+    }
+
+    private void crawl(NewsArticle article) {
+        try {
+            URI uri = URI.create(article.getUrl());
+            String html = fetch(uri);
+            String text = html == null ? null : ContentExtractor.extract(html);
+            String current = article.getContent();
+            if (text == null || (current != null && text.length() <= current.length())) {
+                count("no-content");
+                log.debug("No article text found at {}", article.getUrl());
+                return;
+            }
+            article.setContent(text);
+            enrichmentPipeline.enrich(article);
+            kafkaSender.send(new ProducerRecord<>(topic, keyStrategy.keyOf(article), article)).block(timeout);
+            count("enriched");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            count("failed");
+            log.debug("Failed to crawl {}: {}", article.getUrl(), e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for a turn at the host and within the overall limit, then downloads the page.
+     *
+     * @return The page, or null if it is not an HTML page
+     */
+    private String fetch(URI uri) throws IOException, InterruptedException {
+        if (uri.getHost() == null) {
+            throw new IOException("No host in " + uri);
+        }
+        String name = uri.getHost().toLowerCase(Locale.ROOT);
+        HostQueue host = hosts.compute(name, (key, queue) -> {
+            HostQueue current = queue == null ? new HostQueue(perHostConcurrency) : queue;
+            current.users++;
+            return current;
+        });
+        try {
+            long waitStart = System.nanoTime();
+            host.acquire(politenessDelay);
+            try {
+                requests.acquire();
+                try {
+                    politenessWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+                    return download(uri);
+                } finally {
+                    requests.release();
+                }
+            } finally {
+                host.release();
+            }
+        } finally {
+            release(name);
+        }
+    }
+
+    /**
+     * Ends a crawl's use of the host's queue. The last crawl to finish drops the queue if the
+     * host's next request may start right away, or else checks again once the delay is over, so
+     * a new queue for the host starts without losing any politeness delay.
+     */
+    private void release(String name) {
+        long[] remainingDelay = {0};
+        hosts.computeIfPresent(name, (key, queue) -> {
+            if (--queue.users > 0) {
+                return queue;
+            }
+            remainingDelay[0] = queue.remainingDelay(System.nanoTime());
+            return remainingDelay[0] > 0 ? queue : null;
+        });
+        if (remainingDelay[0] > 0) {
+            try {
+                CompletableFuture.delayedExecutor(remainingDelay[0], TimeUnit.NANOSECONDS, virtualThreads)
+                        .execute(() -> evictIfIdle(name));
+            } catch (RuntimeException e) {
+                // Shutting down
+            }
+        }
+    }
+
+    /**
+     * Drops the host's queue if no crawl uses it and its next request may start right away. A
+     * crawl that used it in the meantime checks again when it finishes.
+     */
+    private void evictIfIdle(String name) {
+        long now = System.nanoTime();
+        hosts.computeIfPresent(name, (key, queue) -> queue.isIdle(now) ? null : queue);
+    }
+
+    private String download(URI uri) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("User-Agent", userAgent)
+                .header("Accept", "text/html, application/xhtml+xml;q=0.9")
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        // Reading the body to its end, or closing it, returns the connection to the pool
+        try (InputStream body = response.body()) {
+            String contentType = response.headers().firstValue("Content-Type").orElse("text/html");
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+            if (!contentType.toLowerCase(Locale.ROOT).contains("html")) {
+                return null;
+            }
+            return new String(body.readNBytes(maxPageBytes), charset(contentType));
+        }
+    }
+
+    private static Charset charset(String contentType) {
+        Matcher matcher = CHARSET.matcher(contentType);
+        if (matcher.find()) {
+            try {
+                return Charset.forName(matcher.group(1));
+            } catch (IllegalArgumentException e) {
+                // Unknown charset, fall through
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static boolean isHttp(String url) {
+        if (url == null) {
+            return false;
+        }
+        String lower = url.toLowerCase(Locale.ROOT);
+        return lower.startsWith("http://") || lower.startsWith("https://");
+    }
+
+    private void count(String outcome) {
+        Counter.builder("ingestion.crawler.pages")
+                .description("Article pages crawled, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void destroy() {
+        virtualThreads.shutdownNow();
+        httpClient.close();
+    }
+
+    /**
+     * The requests towards one host: a fair semaphore queues them in arrival order, and each
+     * request reserves the next start time, {@code politeness-delay} after the previous one.
+     * {@code users} counts the crawls running or waiting, and only changes within the map's compute calls.
+     */
+    private static final class HostQueue {
+        private final Semaphore slots;
+        private long nextStart = System.nanoTime();
+        private int users;
+
+        private HostQueue(int concurrency) {
+            this.slots = new Semaphore(concurrency, true);
+        }
+
+        private void acquire(Duration delay) throws InterruptedException {
+            slots.acquire();
+            try {
+                long wait;
+                synchronized (this) {
+                    long now = System.nanoTime();
+                    long start = Math.max(now, nextStart);
+                    nextStart = start + delay.toNanos();
+                    wait = start - now;
+                }
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                slots.release();
+                throw e;
+            }
+        }
+
+        private void release() {
+            slots.release();
+        }
+
+        private synchronized long remainingDelay(long now) {
+            return Math.max(0, nextStart - now);
+        }
+
+        private boolean isIdle(long now) {
+            return users == 0 && remainingDelay(now) == 0;
+        }
+    }
+}
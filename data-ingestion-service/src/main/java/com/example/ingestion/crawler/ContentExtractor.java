@@ -0,0 +1,188 @@
+package com.example.ingestion.crawler;
+
+import com.example.ingestion.enrichment.HtmlStrippingStage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Extracts the main text of an article page and drops the boilerplate around it (navigation,
+ * teasers, share buttons, footers), along the lines of the shallow text features of boilerpipe.
+ * <p>
+ * The page is cut into text blocks at block-level tags. Text inside elements that never hold the
+ * article ({@code nav}, {@code header}, {@code footer}, {@code aside}, {@code script}, ...) is
+ * skipped. A block is content when it has enough words and little of its text is link text;
+ * a short block such as a subheading is content when content surrounds it. If the page marks its
+ * article with {@code article} or {@code main}, only blocks inside count, unless that leaves none.
+ */
+final class ContentExtractor {
+
+    // Blocks with at least this many words are content unless they are mostly links
+    static final int MIN_CONTENT_WORDS = 10;
+
+    // Share of link words above which a block is navigation
+    static final double MAX_LINK_DENSITY = 0.33;
+
+    private static final Set<String> SKIPPED_ELEMENTS = Set.of(
+            "script", "style", "noscript", "template", "nav", "header", "footer", "aside", "form",
+            "button", "select", "iframe", "svg", "figure");
+
+    private static final Set<String> BLOCK_ELEMENTS = Set.of(
+            "p", "div", "section", "article", "main", "h1", "h2", "h3", "h4", "h5", "h6", "li", "ul", "ol",
+            "br", "hr", "table", "tr", "td", "th", "blockquote", "pre", "dl", "dt", "dd", "body", "title");
+
+    private static final Set<String> MAIN_ELEMENTS = Set.of("article", "main");
+
+    private ContentExtractor() {
+    }
+
+    private static final class Block {
+        private final StringBuilder text = new StringBuilder();
+        private final boolean inMain;
+        private int words;
+        private int linkWords;
+        private boolean inWord;
+
+        private Block(boolean inMain) {
+            this.inMain = inMain;
+        }
+
+        private double linkDensity() {
+            return words == 0 ? 0 : (double) linkWords / words;
+        }
+    }
+
+    /**
+     * @return The main text with one paragraph per line, or null if the page has none
+     */
+    static String extract(String html) {
+        List<Block> blocks = blocks(html);
+        boolean hasMain = blocks.stream().anyMatch(block -> block.inMain && isContent(block));
+        List<Block> candidates = blocks.stream()
+                .filter(block -> !hasMain || block.inMain)
+                .toList();
+
+        List<String> paragraphs = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            Block block = candidates.get(i);
+            boolean content = isContent(block)
+                    || (block.linkDensity() <= MAX_LINK_DENSITY
+                        && isContent(candidates, i - 1) && isContent(candidates, i + 1));
+            if (content) {
+                String text = HtmlStrippingStage.strip(block.text.toString()).strip();
+                if (!text.isEmpty()) {
+                    paragraphs.add(text);
+                }
+            }
+        }
+        return paragraphs.isEmpty() ? null : String.join("\n", paragraphs);
+    }
+
+    private static boolean isContent(List<Block> blocks, int i) {
+        return i >= 0 && i < blocks.size() && isContent(blocks.get(i));
+    }
+
+    private static boolean isContent(Block block) {
+        return block.words >= MIN_CONTENT_WORDS && block.linkDensity() <= MAX_LINK_DENSITY;
+    }
+
+    private static List<Block> blocks(String html) {
+        List<Block> blocks = new ArrayList<>();
+        int skipDepth = 0;
+        int linkDepth = 0;
+        int mainDepth = 0;
+        Block block = new Block(false);
+        int length = html.length();
+        int i = 0;
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '<' && html.startsWith("<!--", i)) {
+                int end = html.indexOf("-->", i + 4);
+                i = end < 0 ? length : end + 3;
+                continue;
+            }
+            if (c == '<' && startsTag(html, i)) {
+                int end = html.indexOf('>', i);
+                if (end < 0) {
+                    break;
+                }
+                boolean closing = html.charAt(i + 1) == '/';
+                boolean selfClosing = html.charAt(end - 1) == '/';
+                String name = tagName(html, closing ? i + 2 : i + 1);
+                i = end + 1;
+
+                if (SKIPPED_ELEMENTS.contains(name)) {
+                    if (name.equals("script") || name.equals("style")) {
+                        // Their text may contain '<', so jump to the end tag
+                        if (!closing && !selfClosing) {
+                            int close = indexOfIgnoreCase(html, "</" + name, i);
+                            i = close < 0 ? length : close;
+                        }
+                        continue;
+                    }
+                    if (!selfClosing) {
+                        skipDepth = Math.max(0, skipDepth + (closing ? -1 : 1));
+                    }
+                } else if (name.equals("a") && !selfClosing) {
+                    linkDepth = Math.max(0, linkDepth + (closing ? -1 : 1));
+                }
+                if (BLOCK_ELEMENTS.contains(name)) {
+                    if (block.words > 0) {
+                        blocks.add(block);
+                    }
+                    if (MAIN_ELEMENTS.contains(name) && !selfClosing) {
+                        mainDepth = Math.max(0, mainDepth + (closing ? -1 : 1));
+                    }
+                    block = new Block(mainDepth > 0);
+                } else {
+                    block.text.append(' ');
+                    block.inWord = false;
+                }
+                continue;
+            }
+            if (skipDepth == 0) {
+                block.text.append(c);
+                boolean wordChar = Character.isLetterOrDigit(c);
+                if (wordChar && !block.inWord) {
+                    block.words++;
+                    if (linkDepth > 0) {
+                        block.linkWords++;
+                    }
+                }
+                block.inWord = wordChar;
+            }
+            i++;
+        }
+        if (block.words > 0) {
+            blocks.add(block);
+        }
+        return blocks;
+    }
+
+    private static boolean startsTag(String html, int i) {
+        if (i + 1 >= html.length()) {
+            return false;
+        }
+        char next = html.charAt(i + 1);
+        return Character.isLetter(next) || next == '/' || next == '!' || next == '?';
+    }
+
+    private static String tagName(String html, int start) {
+        int end = start;
+        while (end < html.length() && Character.isLetterOrDigit(html.charAt(end))) {
+            end++;
+        }
+        return html.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static int indexOfIgnoreCase(String html, String needle, int from) {
+        for (int i = from; i <= html.length() - needle.length(); i++) {
+            if (html.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.ingestion.enrichment;
+
+import lombok.Data;
+
+/**
+ * What stages learn about an article that is not part of the article itself.
+ * One context is created per article and passed through all stages.
+ */
+@Data
+public class EnrichmentContext {
+
+    // Characters of the content the upstream cut off, as announced by a "[+N chars]" marker
+    private int truncatedChars;
+}
@@ -0,0 +1,20 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+
+/**
+ * One step of the {@link EnrichmentPipeline}. Stages are Spring beans and run in
+ * {@link org.springframework.core.annotation.Order} order, each seeing the result of the previous ones.
+ * <p>
+ * A stage modifies the article in place. It is called for many articles concurrently, so it must
+ * not keep per-article state in fields; state that later stages need goes into the context.
+ */
+public interface EnrichmentStage {
+
+    /**
+     * Short, stable name of the stage, used in metric tags and in {@code ingestion.enrichment.disabled-stages}.
+     */
+    String getName();
+
+    void enrich(NewsArticle article, EnrichmentContext context);
+}
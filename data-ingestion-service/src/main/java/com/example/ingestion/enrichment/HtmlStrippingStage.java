@@ -0,0 +1,143 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Removes HTML markup from the description and content and decodes character references.
+ * Block-level tags become a space so that words of adjacent paragraphs do not run together;
+ * the text of {@code script} and {@code style} elements is dropped. A {@code <} that does not
+ * start a tag is kept as text.
+ */
+@Component
+@Order(100)
+public class HtmlStrippingStage implements EnrichmentStage {
+
+    private static final Map<String, String> NAMED_ENTITIES = Map.ofEntries(
+            Map.entry("amp", "&"), Map.entry("lt", "<"), Map.entry("gt", ">"),
+            Map.entry("quot", "\""), Map.entry("apos", "'"), Map.entry("nbsp", "\u00A0"),
+            Map.entry("hellip", "\u2026"), Map.entry("mdash", "\u2014"), Map.entry("ndash", "\u2013"),
+            Map.entry("lsquo", "\u2018"), Map.entry("rsquo", "\u2019"),
+            Map.entry("ldquo", "\u201C"), Map.entry("rdquo", "\u201D"), Map.entry("copy", "\u00A9"));
+
+    // Longest reference decoded, e.g. "&#x1F600;" or "&hellip;"
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    @Override
+    public String getName() {
+        return "html-strip";
+    }
+
+    @Override
+    public void enrich(NewsArticle article, EnrichmentContext context) {
+        article.setTitle(strip(article.getTitle()));
+        article.setDescription(strip(article.getDescription()));
+        article.setContent(strip(article.getContent()));
+    }
+
+    /**
+     * Removes the markup of an HTML fragment and decodes its character references.
+     */
+    public static String strip(String html) {
+        if (html == null || (html.indexOf('<') < 0 && html.indexOf('&') < 0)) {
+            return html;
+        }
+        int length = html.length();
+        StringBuilder text = new StringBuilder(length);
+        int i = 0;
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '<' && startsTag(html, i)) {
+                int end = html.indexOf('>', i);
+                if (end < 0) {
+                    // An unterminated tag at the end, as left by truncation
+                    break;
+                }
+                String name = tagName(html, i);
+                if (name.equals("script") || name.equals("style")) {
+                    end = endOfElement(html, end, name);
+                }
+                text.append(' ');
+                i = end + 1;
+            } else if (c == '&') {
+                i = appendReference(html, i, text);
+            } else {
+                text.append(c);
+                i++;
+            }
+        }
+        return text.toString();
+    }
+
+    private static boolean startsTag(String html, int i) {
+        if (i + 1 >= html.length()) {
+            return false;
+        }
+        char next = html.charAt(i + 1);
+        return Character.isLetter(next) || next == '/' || next == '!' || next == '?';
+    }
+
+    private static String tagName(String html, int i) {
+        int start = i + 1;
+        int end = start;
+        while (end < html.length() && Character.isLetterOrDigit(html.charAt(end))) {
+            end++;
+        }
+        return html.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static int endOfElement(String html, int from, String name) {
+        int close = indexOfIgnoreCase(html, "</" + name, from);
+        if (close < 0) {
+            return html.length() - 1;
+        }
+        int end = html.indexOf('>', close);
+        return end < 0 ? html.length() - 1 : end;
+    }
+
+    private static int indexOfIgnoreCase(String html, String needle, int from) {
+        for (int i = from; i <= html.length() - needle.length(); i++) {
+            if (html.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the character reference starting at {@code i}, or a literal '&' if there is none.
+     *
+     * @return The index after the reference
+     */
+    private static int appendReference(String html, int i, StringBuilder text) {
+        int semicolon = html.indexOf(';', i);
+        if (semicolon > i + 1 && semicolon - i <= MAX_ENTITY_LENGTH) {
+            String decoded = decode(html.substring(i + 1, semicolon));
+            if (decoded != null) {
+                text.append(decoded);
+                return semicolon + 1;
+            }
+        }
+        text.append('&');
+        return i + 1;
+    }
+
+    private static String decode(String reference) {
+        if (reference.charAt(0) != '#') {
+            return NAMED_ENTITIES.get(reference);
+        }
+        try {
+            boolean hex = reference.length() > 1 && (reference.charAt(1) == 'x' || reference.charAt(1) == 'X');
+            int codePoint = hex
+                    ? Integer.parseInt(reference, 2, reference.length(), 16)
+                    : Integer.parseInt(reference, 1, reference.length(), 10);
+            return Character.isValidCodePoint(codePoint) ? Character.toString(codePoint) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Guesses the language of an article from the function words in its title, description and content.
+ * <p>
+ * Every language has a set of very frequent short words ("the", "und", "les", ...) that appear in
+ * almost any sentence. The language whose words occur most often wins, if it occurs at least
+ * {@link #MIN_HITS} times and clearly more often than the runner-up; otherwise the language stays unknown.
+ * This covers the languages of the sources we ingest and is cheap enough to run on every article.
+ */
+@Component
+@Order(400)
+public class LanguageDetectionStage implements EnrichmentStage {
+
+    static final int MIN_HITS = 3;
+
+    // Only the start of long texts is looked at; the language does not change halfway
+    private static final int MAX_CHARS = 2_000;
+
+    private static final Map<String, List<String>> LANGUAGES_BY_WORD = languagesByWord(Map.of(
+            "en", Set.of("the", "and", "of", "to", "in", "is", "that", "for", "it", "with", "was", "on", "are", "as",
+                    "by", "this", "be", "at", "from", "has", "have", "its", "but", "not", "which", "will", "were"),
+            "de", Set.of("der", "die", "und", "das", "den", "ist", "nicht", "mit", "ein", "eine", "sich", "auf", "dem",
+                    "auch", "es", "von", "zu", "im", "für", "wird", "sind", "wie", "bei", "noch", "nach", "werden"),
+            "fr", Set.of("le", "la", "les", "et", "des", "est", "une", "un", "du", "que", "qui", "dans", "pour", "pas",
+                    "sur", "au", "avec", "il", "elle", "sont", "mais", "par", "ce", "cette", "aux", "ont"),
+            "es", Set.of("el", "la", "los", "las", "y", "que", "de", "del", "en", "es", "un", "una", "por", "con",
+                    "para", "se", "su", "al", "lo", "como", "más", "pero", "sus", "fue", "ha", "este"),
+            "it", Set.of("il", "di", "che", "e", "la", "per", "un", "una", "del", "della", "non", "sono", "nel",
+                    "gli", "le", "alla", "con", "si", "come", "anche", "più", "dei", "ha", "questo", "è"),
+            "pt", Set.of("o", "a", "os", "as", "de", "que", "e", "do", "da", "em", "um", "uma", "para", "com", "não",
+                    "no", "na", "se", "por", "mais", "dos", "das", "foi", "ao", "são", "é"),
+            "nl", Set.of("de", "het", "een", "en", "van", "is", "dat", "niet", "op", "te", "zijn", "voor", "met",
+                    "die", "ook", "er", "aan", "maar", "bij", "wordt", "nog", "naar", "worden", "deze", "heeft")));
+
+    @Override
+    public String getName() {
+        return "language";
+    }
+
+    @Override
+    public void enrich(NewsArticle article, EnrichmentContext context) {
+        Map<String, Integer> hits = new HashMap<>();
+        int remaining = MAX_CHARS;
+        for (String text : new String[]{article.getTitle(), article.getDescription(), article.getContent()}) {
+            if (text != null && remaining > 0) {
+                countHits(text, Math.min(text.length(), remaining), hits);
+                remaining -= text.length();
+            }
+        }
+        article.setLanguage(detect(hits));
+    }
+
+    private static void countHits(String text, int length, Map<String, Integer> hits) {
+        int i = 0;
+        while (i < length) {
+            while (i < length && !Character.isLetter(text.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            while (i < length && Character.isLetter(text.charAt(i))) {
+                i++;
+            }
+            if (i > start) {
+                List<String> languages = LANGUAGES_BY_WORD.get(text.substring(start, i).toLowerCase(Locale.ROOT));
+                if (languages != null) {
+                    languages.forEach(language -> hits.merge(language, 1, Integer::sum));
+                }
+            }
+        }
+    }
+
+    private static String detect(Map<String, Integer> hits) {
+        String best = null;
+        int bestHits = 0;
+        int runnerUpHits = 0;
+        for (Map.Entry<String, Integer> entry : hits.entrySet()) {
+            int count = entry.getValue();
+            if (count > bestHits) {
+                runnerUpHits = bestHits;
+                best = entry.getKey();
+                bestHits = count;
+            } else if (count > runnerUpHits) {
+                runnerUpHits = count;
+            }
+        }
+        // Related languages share words, so a narrow lead is not a decision
+        return bestHits >= MIN_HITS && bestHits >= runnerUpHits * 3 / 2 + 1 ? best : null;
+    }
+
+    private static Map<String, List<String>> languagesByWord(Map<String, Set<String>> wordsByLanguage) {
+        Map<String, List<String>> languagesByWord = new HashMap<>();
+        wordsByLanguage.forEach((language, words) -> words.forEach(word ->
+                languagesByWord.merge(word, List.of(language), (existing, added) ->
+                        Stream.concat(existing.stream(), added.stream()).toList())));
+        return Map.copyOf(languagesByWord);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estimates the minutes needed to read an article from the words of its content, or of its
+ * description when there is no content. Characters cut off upstream (see {@link TruncationMarkerStage})
+ * are converted to words at an average word length, so truncated NewsAPI content is not
+ * reported as a one-minute read.
+ */
+@Component
+@Order(500)
+public class ReadingTimeStage implements EnrichmentStage {
+
+    static final int WORDS_PER_MINUTE = 230;
+
+    // Average length of an English word including the following space
+    private static final int CHARS_PER_WORD = 6;
+
+    @Override
+    public String getName() {
+        return "reading-time";
+    }
+
+    @Override
+    public void enrich(NewsArticle article, EnrichmentContext context) {
+        String text = article.getContent() != null ? article.getContent() : article.getDescription();
+        int words = countWords(text) + context.getTruncatedChars() / CHARS_PER_WORD;
+        article.setReadingTimeMinutes(words == 0 ? null : Math.max(1, Math.round((float) words / WORDS_PER_MINUTE)));
+    }
+
+    static int countWords(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean wordChar = Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && !inWord) {
+                words++;
+            }
+            inWord = wordChar;
+        }
+        return words;
+    }
+}
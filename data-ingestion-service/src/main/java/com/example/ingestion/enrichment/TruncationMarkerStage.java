@@ -0,0 +1,37 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Removes the "… [+1234 chars]" suffix NewsAPI appends to truncated content, and records the
+ * number of cut-off characters in the context for stages that estimate the full length.
+ */
+@Component
+@Order(200)
+public class TruncationMarkerStage implements EnrichmentStage {
+
+    private static final Pattern MARKER = Pattern.compile("\\s*(?:\u2026|\\.\\.\\.)?\\s*\\[\\+(\\d{1,9}) chars]\\s*$");
+
+    @Override
+    public String getName() {
+        return "truncation-marker";
+    }
+
+    @Override
+    public void enrich(NewsArticle article, EnrichmentContext context) {
+        String content = article.getContent();
+        if (content == null || content.indexOf("chars]") < 0) {
+            return;
+        }
+        Matcher matcher = MARKER.matcher(content);
+        if (matcher.find()) {
+            context.setTruncatedChars(Integer.parseInt(matcher.group(1)));
+            article.setContent(content.substring(0, matcher.start()));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Collapses runs of whitespace, including the non-breaking spaces decoded from HTML, into one
+ * space and trims the text fields. Optional fields left empty become null; the title stays,
+ * as storage requires one.
+ */
+@Component
+@Order(300)
+public class WhitespaceNormalizationStage implements EnrichmentStage {
+
+    @Override
+    public String getName() {
+        return "whitespace";
+    }
+
+    @Override
+    public void enrich(NewsArticle article, EnrichmentContext context) {
+        article.setTitle(normalize(article.getTitle()));
+        article.setDescription(emptyToNull(normalize(article.getDescription())));
+        article.setContent(emptyToNull(normalize(article.getContent())));
+        article.setAuthor(emptyToNull(normalize(article.getAuthor())));
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static String emptyToNull(String text) {
+        return text == null || text.isEmpty() ? null : text;
+    }
+}
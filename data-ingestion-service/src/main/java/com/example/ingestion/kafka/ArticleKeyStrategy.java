@@ -0,0 +1,45 @@
+package com.example.ingestion.kafka;
+
+import com.example.ingestion.model.NewsArticle;
+
+import java.util.Locale;
+
+/**
+ * How articles are keyed on the news topic. The producer assigns a partition by hashing the key,
+ * and storage-service consumes each partition on one thread, so records with the same key are
+ * applied in the order they were published. Which version of an article is stored does not rely
+ * on that order: storage-service keeps the latest by {@code fetchedAt}, also when a version comes
+ * back through a retry topic or the spool.
+ */
+public enum ArticleKeyStrategy {
+
+    /**
+     * The article ID, which is a hash of the normalized article URL (see
+     * {@code ArticleIdGenerator}). Spreads articles evenly over all partitions.
+     */
+    URL {
+        @Override
+        public String keyOf(NewsArticle article) {
+            return article.getId();
+        }
+    },
+
+    /**
+     * The source, so that each source's articles stay in publishing order. Large sources make
+     * their partition hotter than the others; articles without a source are keyed by ID.
+     */
+    SOURCE {
+        @Override
+        public String keyOf(NewsArticle article) {
+            if (article.getSourceId() != null && !article.getSourceId().isBlank()) {
+                return article.getSourceId().strip();
+            }
+            if (article.getSourceName() != null && !article.getSourceName().isBlank()) {
+                return article.getSourceName().strip().toLowerCase(Locale.ROOT);
+            }
+            return article.getId();
+        }
+    };
+
+    public abstract String keyOf(NewsArticle article);
+}
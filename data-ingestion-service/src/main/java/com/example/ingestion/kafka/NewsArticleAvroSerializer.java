@@ -0,0 +1,17 @@
+package com.example.ingestion.kafka;
+
+import com.example.ingestion.model.NewsArticle;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link NewsArticle}s in the compact Avro format of {@link NewsArticleAvroCodec}.
+ */
+public class NewsArticleAvroSerializer implements Serializer<NewsArticle> {
+
+    private final NewsArticleAvroCodec codec = new NewsArticleAvroCodec();
+
+    @Override
+    public byte[] serialize(String topic, NewsArticle article) {
+        return article != null ? codec.encode(article) : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ingestion.kafka;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+/**
+ * Creates the news topic with {@code kafka.topic.news.partitions} partitions, the upper bound on
+ * how many threads storage-service consumes it with. An existing topic with fewer partitions is
+ * extended; this moves keys to other partitions, so records published before and after the
+ * change may be applied out of order. storage-service still keeps the latest fetched version.
+ * <p>
+ * Also creates the lag topic storage-service reports to, with the single partition that
+ * {@link com.example.ingestion.service.ConsumerLagThrottle} reads.
+ */
+@Configuration
+public class NewsTopicConfig {
+
+    @Bean
+    public NewTopic newsTopic(
+            @Value("${kafka.topic.news}") String topic,
+            @Value("${kafka.topic.news.partitions:12}") int partitions) {
+        return TopicBuilder.name(topic)
+                .partitions(partitions)
+                .build();
+    }
+
+    @Bean
+    public NewTopic lagTopic(@Value("${kafka.topic.lag:storage.lag}") String topic) {
+        return TopicBuilder.name(topic)
+                .partitions(1)
+                .build();
+    }
+}
@@ -4,13 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
-import java.util.UUID;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class NewsArticle {
-    private String id = UUID.randomUUID().toString();
+    // Derived from the URL by the mappers (see ArticleIdGenerator)
+    private String id;
     private String title;
     private String description;
     private String content;
@@ -22,4 +22,18 @@ public class NewsArticle {
     private LocalDateTime publishedAt;
     private LocalDateTime fetchedAt = LocalDateTime.now();
     private String category;
+    // ID of the first article of the same story when this one is a near-duplicate (see NearDuplicateDetector)
+    private String canonicalId;
+    // Set by the enrichment pipeline (see com.example.ingestion.enrichment)
+    private String language;
+    private Integer readingTimeMinutes;
+
+    /**
+     * A copy for holders that must keep the article as it is now, since the enrichment stages
+     * modify articles in place.
+     */
+    public NewsArticle copy() {
+        return new NewsArticle(id, title, description, content, author, sourceId, sourceName, url, imageUrl,
+                publishedAt, fetchedAt, category, canonicalId, language, readingTimeMinutes);
+    }
 }
@@ -0,0 +1,125 @@
+package com.example.ingestion.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.example.ingestion.service.SourceConnector;
+import com.example.ingestion.service.TokenBucketRateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+
+/**
+ * Runs ingestion cycles one at a time.
+ * Within a cycle all connectors are polled side by side, each with at most
+ * {@link SourceConnector#getMaxConcurrency()} target fetches in flight; the NewsAPI quota
+ * itself is enforced per request by the {@link TokenBucketRateLimiter} in the client.
+ * A cycle requested while the previous one is still running is either dropped or, when
+ * coalescing is enabled, folded into a single follow-up cycle that starts as soon as the
+ * running one finishes.
+ */
+@Component
+@Slf4j
+public class IngestionCycleCoordinator {
+
+    private final boolean coalesce;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean pending = new AtomicBoolean();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Fetch function of the latest coalesced request, used by the follow-up cycle
+    private volatile BiFunction<SourceConnector, String, Mono<Void>> pendingFetch;
+
+    private final Timer cycleDuration;
+    private final Counter skippedCycles;
+    private final Counter coalescedCycles;
+
+    public IngestionCycleCoordinator(
+            MeterRegistry meterRegistry,
+            @Value("${ingestion.cycle.coalesce:true}") boolean coalesce) {
+        this.coalesce = coalesce;
+
+        this.cycleDuration = Timer.builder("ingestion.cycle.duration")
+                .description("Wall-clock time of a complete ingestion cycle")
+                .register(meterRegistry);
+        this.skippedCycles = Counter.builder("ingestion.cycles.skipped")
+                .description("Cycles dropped because the previous cycle was still running")
+                .register(meterRegistry);
+        this.coalescedCycles = Counter.builder("ingestion.cycles.coalesced")
+                .description("Cycle requests folded into a follow-up cycle while the previous one was running")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.fetches.inflight", inFlight, AtomicInteger::get)
+                .description("Target fetches currently in flight, across all connectors")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts a cycle over the targets of the given connectors unless one is already running.
+     * Targets are read from the connectors when the cycle starts, so a coalesced follow-up
+     * cycle picks up targets added in the meantime.
+     *
+     * @param connectors The connectors to poll in this cycle
+     * @param fetch      Fetches and publishes a single target of a connector
+     * @return true if a cycle was started, false if the request was skipped or coalesced
+     */
+    public boolean requestCycle(List<SourceConnector> connectors,
+                                BiFunction<SourceConnector, String, Mono<Void>> fetch) {
+        if (!running.compareAndSet(false, true)) {
+            if (coalesce) {
+                pendingFetch = fetch;
+                pending.set(true);
+                coalescedCycles.increment();
+                log.warn("Previous ingestion cycle still running, coalescing this request into a follow-up cycle");
+            } else {
+                skippedCycles.increment();
+                log.warn("Previous ingestion cycle still running, skipping this cycle");
+            }
+            return false;
+        }
+
+        runCycle(connectors, fetch);
+        return true;
+    }
+
+    public boolean isCycleRunning() {
+        return running.get();
+    }
+
+    public int getInFlightFetches() {
+        return inFlight.get();
+    }
+
+    private void runCycle(List<SourceConnector> connectors, BiFunction<SourceConnector, String, Mono<Void>> fetch) {
+        Timer.Sample sample = Timer.start();
+
+        Flux.fromIterable(connectors)
+                .flatMap(connector -> Flux.defer(() -> Flux.fromIterable(connector.getTargets()))
+                        .flatMap(target -> Mono.defer(() -> {
+                            inFlight.incrementAndGet();
+                            return fetch.apply(connector, target)
+                                    .doFinally(signal -> inFlight.decrementAndGet());
+                        }), connector.getMaxConcurrency()), Math.max(1, connectors.size()))
+                .doOnComplete(() -> log.info("Completed news ingestion cycle at {}", LocalDateTime.now()))
+                .doFinally(signal -> {
+                    sample.stop(cycleDuration);
+                    running.set(false);
+                    if (pending.getAndSet(false) && running.compareAndSet(false, true)) {
+                        log.info("Starting coalesced ingestion cycle");
+                        runCycle(connectors, pendingFetch);
+                    }
+                })
+                .subscribe(
+                        v -> { },
+                        e -> log.error("Ingestion cycle failed: {}", e.getMessage(), e));
+    }
+}
@@ -1,17 +1,19 @@
 package com.example.ingestion.scheduler;
 
+import com.example.ingestion.service.ConsumerLagThrottle;
 import com.example.ingestion.service.NewsIngestionService;
+import com.example.ingestion.service.SourceConnector;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @EnableScheduling
@@ -19,35 +21,65 @@ import java.util.List;
 public class NewsIngestionScheduler {
 
     private final NewsIngestionService newsIngestionService;
-    private final List<String> categories;
+    private final IngestionCycleCoordinator cycleCoordinator;
+    private final List<SourceConnector> connectors;
+    private final ConsumerLagThrottle lagThrottle;
+    private final MeterRegistry meterRegistry;
 
     public NewsIngestionScheduler(
             NewsIngestionService newsIngestionService,
-            @Value("${newsapi.categories:technology}") String categoriesConfig) {
+            IngestionCycleCoordinator cycleCoordinator,
+            List<SourceConnector> connectors,
+            ConsumerLagThrottle lagThrottle,
+            MeterRegistry meterRegistry) {
         this.newsIngestionService = newsIngestionService;
-        this.categories = Arrays.asList(categoriesConfig.split(","));
-        log.info("Configured news categories for ingestion: {}", this.categories);
+        this.cycleCoordinator = cycleCoordinator;
+        this.connectors = connectors;
+        this.lagThrottle = lagThrottle;
+        this.meterRegistry = meterRegistry;
+        log.info("Configured source connectors for ingestion: {}",
+                connectors.stream().map(SourceConnector::getName).toList());
     }
 
     /**
-     * Periodically fetches news for all configured categories.
+     * Periodically fetches news from all targets of all source connectors.
      * The fixedRateString is configured in milliseconds via application properties.
+     * The cycle itself runs asynchronously; the coordinator makes sure cycles never overlap.
+     * How long each target waited for its fetch to start, behind a still running cycle or the
+     * connector's concurrency limit, is recorded as {@code ingestion.target.start.delay}.
+     * Targets of low-priority categories are skipped while storage-service is falling behind,
+     * see {@link ConsumerLagThrottle}, and handed back to their connector to be claimed again.
      */
     @Scheduled(fixedRateString = "${newsapi.fetch.interval:300000}")
     public void fetchNewsForAllCategories() {
         log.info("Starting scheduled news ingestion at {}", LocalDateTime.now());
-        
-        Flux.fromIterable(categories)
-            .flatMap(category -> {
-                log.info("Fetching news for category: {}", category);
-                return newsIngestionService.fetchAndPublishArticles(category)
-                    .doOnSuccess(v -> log.info("Completed ingestion for category: {}", category))
-                    .onErrorResume(e -> {
-                        log.error("Error ingesting category {}: {}", category, e.getMessage());
-                        return Mono.empty();
-                    });
-            })
-            .doOnComplete(() -> log.info("Completed news ingestion cycle at {}", LocalDateTime.now()))
-            .subscribe();
+        long requestedAt = System.nanoTime();
+
+        cycleCoordinator.requestCycle(connectors, (connector, target) -> fetchTarget(connector, target, requestedAt));
+    }
+
+    private Mono<Void> fetchTarget(SourceConnector connector, String target, long requestedAt) {
+        if (!lagThrottle.admit(connector, target)) {
+            log.info("Deferring {} target {}: storage is behind, throttling {}", connector.getName(), target,
+                    lagThrottle.getLevel());
+            connector.onFetchDeferred(target);
+            return Mono.empty();
+        }
+        log.info("Fetching news from {} target: {}", connector.getName(), target);
+        startDelayTimer(connector).record(System.nanoTime() - requestedAt, TimeUnit.NANOSECONDS);
+        return newsIngestionService.fetchAndPublish(connector, target)
+            .doOnSuccess(v -> log.info("Completed ingestion for {} target: {}", connector.getName(), target))
+            .onErrorResume(e -> {
+                log.error("Error ingesting {} target {}: {}", connector.getName(), target, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private Timer startDelayTimer(SourceConnector connector) {
+        return Timer.builder("ingestion.target.start.delay")
+                .description("Time from a scheduler tick until the fetch of one of its targets started")
+                .tag("connector", connector.getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,94 @@
+package com.example.ingestion.service;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Derives stable article IDs from the article URL, so the same story fetched in
+ * two different cycles maps to the same ID (and the same Kafka key / database row).
+ */
+public final class ArticleIdGenerator {
+
+    private ArticleIdGenerator() {
+    }
+
+    /**
+     * Returns a name-based UUID built from the normalized URL, or a random UUID
+     * when the article has no usable URL.
+     */
+    public static String fromUrl(String url) {
+        String normalized = normalizeUrl(url);
+        if (normalized == null) {
+            return UUID.randomUUID().toString();
+        }
+        return UUID.nameUUIDFromBytes(normalized.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Normalizes a URL so that cosmetic differences do not produce different IDs:
+     * scheme and host are lower-cased, default ports, fragments, tracking
+     * parameters (utm_*) and trailing slashes are dropped.
+     *
+     * @return the normalized URL, or null if the input is blank
+     */
+    static String normalizeUrl(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        String trimmed = url.trim();
+        try {
+            URI uri = new URI(trimmed);
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return trimmed;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            String host = uri.getHost().toLowerCase(Locale.ROOT);
+            if (host.startsWith("www.")) {
+                host = host.substring(4);
+            }
+
+            StringBuilder normalized = new StringBuilder(trimmed.length())
+                    .append(scheme).append("://").append(host);
+            int port = uri.getPort();
+            if (port != -1 && !isDefaultPort(scheme, port)) {
+                normalized.append(':').append(port);
+            }
+
+            String path = uri.getRawPath();
+            if (path != null) {
+                while (path.endsWith("/")) {
+                    path = path.substring(0, path.length() - 1);
+                }
+                normalized.append(path);
+            }
+
+            String query = stripTrackingParameters(uri.getRawQuery());
+            if (!query.isEmpty()) {
+                normalized.append('?').append(query);
+            }
+            return normalized.toString();
+        } catch (URISyntaxException e) {
+            return trimmed;
+        }
+    }
+
+    private static boolean isDefaultPort(String scheme, int port) {
+        return ("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443);
+    }
+
+    private static String stripTrackingParameters(String query) {
+        if (query == null || query.isEmpty()) {
+            return "";
+        }
+        return Arrays.stream(query.split("&"))
+                .filter(param -> !param.isEmpty())
+                .filter(param -> !param.toLowerCase(Locale.ROOT).startsWith("utm_"))
+                .sorted()
+                .collect(Collectors.joining("&"));
+    }
+}
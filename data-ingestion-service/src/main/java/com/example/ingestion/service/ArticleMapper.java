@@ -2,23 +2,42 @@ package com.example.ingestion.service;
 
 import com.example.ingestion.model.NewsArticle;
 import com.example.ingestion.model.NewsApiResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.time.ZonedDateTime;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
 public class ArticleMapper {
 
+    private final Timer mappingTime;
+
+    public ArticleMapper(MeterRegistry meterRegistry) {
+        this.mappingTime = Timer.builder("ingestion.mapping.time")
+                .description("CPU time spent decoding and mapping the articles of one upstream response")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     public List<NewsArticle> mapFromNewsApiResponse(NewsApiResponse response, String category) {
-        return response.getArticles().stream()
+        return mappingTime.record(() -> response.getArticles().stream()
                 .map(article -> mapArticle(article, category))
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
-    private NewsArticle mapArticle(NewsApiResponse.Article apiArticle, String category) {
+    /**
+     * Records the time a streaming decoder spent turning one response into articles, excluding
+     * the time it waited for the response bytes.
+     */
+    void recordMappingTime(long nanos) {
+        mappingTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public NewsArticle mapArticle(NewsApiResponse.Article apiArticle, String category) {
         NewsArticle article = new NewsArticle();
         
         article.setTitle(apiArticle.getTitle());
@@ -26,6 +45,7 @@ public class ArticleMapper {
         article.setContent(apiArticle.getContent());
         article.setAuthor(apiArticle.getAuthor());
         article.setUrl(apiArticle.getUrl());
+        article.setId(ArticleIdGenerator.fromUrl(apiArticle.getUrl()));
         article.setImageUrl(apiArticle.getUrlToImage());
         
         // Map source information
@@ -35,16 +55,35 @@ public class ArticleMapper {
         }
         
         // Parse and set the publication date
-        if (apiArticle.getPublishedAt() != null) {
-            try {
-                article.setPublishedAt(ZonedDateTime.parse(apiArticle.getPublishedAt()).toLocalDateTime());
-            } catch (Exception e) {
-                article.setPublishedAt(LocalDateTime.now());
-            }
-        }
+        article.setPublishedAt(parsePublishedAt(apiArticle.getPublishedAt()));
         
         article.setCategory(category);
         
         return article;
     }
+
+    /**
+     * Parses a News API publication timestamp.
+     *
+     * @return the local date-time, the current time if the value is malformed, or null if absent
+     */
+    public LocalDateTime parsePublishedAt(String publishedAt) {
+        if (publishedAt == null) {
+            return null;
+        }
+        return orNow(IsoDateTimeParser.parse(publishedAt));
+    }
+
+    /**
+     * Parses a publication timestamp straight from a parser's character buffer, without creating a String.
+     *
+     * @return the local date-time, or the current time if the value is malformed
+     */
+    public LocalDateTime parsePublishedAt(char[] chars, int offset, int length) {
+        return orNow(IsoDateTimeParser.parse(chars, offset, length));
+    }
+
+    private static LocalDateTime orNow(LocalDateTime parsed) {
+        return parsed != null ? parsed : LocalDateTime.now();
+    }
 }
@@ -0,0 +1,156 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.kafka.ArticleKeyStrategy;
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Publishes articles to Kafka and completes only once every article has been accepted, i.e.
+ * acknowledged by the broker or appended to the spool.
+ * Batching itself happens in the producer (see the {@code spring.kafka.producer.*} settings);
+ * this class bounds the number of unacknowledged sends and reports per-category delivery metrics.
+ * <p>
+ * Articles whose send fails with a retriable error, e.g. because the broker is unreachable, go
+ * to the {@link ArticleSpool}, and as long as the spool holds articles, new ones are appended
+ * behind them instead of being sent, so that {@link SpoolReplayer} publishes everything in the
+ * order it was fetched. Articles that cannot be sent at all, e.g. because they are too large or
+ * cannot be serialized, are never spooled; they would fail the same way on every replay.
+ */
+@Component
+@Slf4j
+public class ArticlePublisher {
+
+    private final ReactiveKafkaSender kafkaSender;
+    private final ArticleSpool spool;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kafka.topic.news}")
+    private String kafkaTopic;
+
+    @Value("${ingestion.publish.key-strategy:url}")
+    private ArticleKeyStrategy keyStrategy = ArticleKeyStrategy.URL;
+
+    // Maximum number of unacknowledged Kafka sends; together with the sender's blocking on a
+    // full producer buffer, this is what throttles page fetching
+    @Value("${ingestion.publish.max-in-flight:64}")
+    private int maxInFlightSends = 64;
+
+    public ArticlePublisher(ReactiveKafkaSender kafkaSender, ArticleSpool spool, MeterRegistry meterRegistry) {
+        this.kafkaSender = kafkaSender;
+        this.spool = spool;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Publishes all articles of one category fetch.
+     * A failed send is counted and logged but does not stop the remaining articles.
+     *
+     * @param articles  The articles to publish, keyed by {@code ingestion.publish.key-strategy}
+     * @param category  The category the articles were fetched for (used as a metric tag)
+     * @param onFailure Called with every article that was neither published nor spooled
+     * @return A Mono emitting the number of accepted articles, acknowledged or spooled; only the
+     * acknowledged ones are recorded as {@code ingestion.publish.batch.size}
+     */
+    public Mono<Long> publishAll(Flux<NewsArticle> articles, String category, Consumer<NewsArticle> onFailure) {
+        return publishAll(articles, category, article -> { }, onFailure);
+    }
+
+    /**
+     * Like {@link #publishAll(Flux, String, Consumer)}, but also calls back with every article
+     * once it was acknowledged by the broker or spooled.
+     *
+     * @param onAccepted Called with every article that was published or spooled
+     */
+    public Mono<Long> publishAll(Flux<NewsArticle> articles, String category, Consumer<NewsArticle> onAccepted,
+                                 Consumer<NewsArticle> onFailure) {
+        Timer latency = latencyTimer(category);
+        Counter failures = failureCounter(category);
+        AtomicLong acknowledged = new AtomicLong();
+
+        return articles
+                .flatMap(article -> {
+                    if (!spool.isEmpty()) {
+                        return spool(article, onAccepted, onFailure);
+                    }
+                    return publish(article, latency)
+                            .doOnSuccess(unused -> {
+                                acknowledged.incrementAndGet();
+                                onAccepted.accept(article);
+                            })
+                            .thenReturn(1L)
+                            .onErrorResume(e -> {
+                                log.error("Failed to publish article {}: {}", article.getId(), e.getMessage());
+                                failures.increment();
+                                if (!isRetriable(e)) {
+                                    onFailure.accept(article);
+                                    return Mono.empty();
+                                }
+                                return spool(article, onAccepted, onFailure);
+                            });
+                }, maxInFlightSends)
+                .count()
+                .doOnNext(count -> batchSizeSummary(category).record(acknowledged.get()));
+    }
+
+    private Mono<Void> publish(NewsArticle article, Timer latency) {
+        log.debug("Publishing article: {} - {}", article.getId(), article.getTitle());
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return kafkaSender.send(new ProducerRecord<>(kafkaTopic, keyStrategy.keyOf(article), article))
+                    .doOnSuccess(result -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .then();
+        });
+    }
+
+    /**
+     * Whether a send that failed with the given error may succeed later, e.g. once the broker
+     * is reachable again. Timeouts are retriable too.
+     */
+    static boolean isRetriable(Throwable e) {
+        return e instanceof RetriableException || e.getCause() instanceof RetriableException;
+    }
+
+    private Mono<Long> spool(NewsArticle article, Consumer<NewsArticle> onAccepted, Consumer<NewsArticle> onFailure) {
+        if (spool.append(article)) {
+            onAccepted.accept(article);
+            return Mono.just(1L);
+        }
+        onFailure.accept(article);
+        return Mono.empty();
+    }
+
+    private Timer latencyTimer(String category) {
+        return Timer.builder("ingestion.publish.latency")
+                .description("Time from handing an article to the producer until the broker acknowledged it")
+                .tag("category", category)
+                .register(meterRegistry);
+    }
+
+    private Counter failureCounter(String category) {
+        return Counter.builder("ingestion.publish.failures")
+                .description("Articles whose Kafka send failed")
+                .tag("category", category)
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary batchSizeSummary(String category) {
+        return DistributionSummary.builder("ingestion.publish.batch.size")
+                .description("Articles acknowledged by the broker per category fetch, not counting spooled ones")
+                .tag("category", category)
+                .register(meterRegistry);
+    }
+}
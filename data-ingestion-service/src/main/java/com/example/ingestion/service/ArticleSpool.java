@@ -0,0 +1,362 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.kafka.NewsArticleAvroCodec;
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, append-only queue of articles that could not be published, replayed in order by
+ * {@link SpoolReplayer} once the broker is reachable again.
+ * <p>
+ * The spool is a sequence of fixed-size segment files in {@code ingestion.spool.directory}, each
+ * memory-mapped, so an append is a memory copy and survives a crash of the process; {@link #flush()}
+ * makes it survive a crash of the machine. A segment starts with a header holding how far it has
+ * been replayed, followed by records of [payload length, CRC32C, Avro single-object encoded article].
+ * Records are written payload first and length last, so a record torn by a crash is never read.
+ * Fully replayed segments are deleted, and at most {@code max-size / segment-size} segments exist;
+ * when they are full, appends are refused and the caller falls back to refetching the article.
+ */
+@Component
+@Slf4j
+public class ArticleSpool implements DisposableBean {
+
+    private static final String SEGMENT_PREFIX = "spool-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // Segment header: magic, unused, replayed-up-to position
+    private static final int MAGIC = 0x4E535031;
+    private static final int READ_POSITION_OFFSET = 8;
+    private static final int HEADER_SIZE = 16;
+
+    // Record header: payload length, CRC32C of the payload
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final NewsArticleAvroCodec codec = new NewsArticleAvroCodec();
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private long nextSequence;
+    private long pendingRecords;
+
+    private final Counter appended;
+    private final Counter rejected;
+
+    public ArticleSpool(
+            @Value("${ingestion.spool.enabled:true}") boolean enabled,
+            @Value("${ingestion.spool.directory:spool}") Path directory,
+            @Value("${ingestion.spool.segment-size:16MB}") DataSize segmentSize,
+            @Value("${ingestion.spool.max-size:512MB}") DataSize maxSize,
+            MeterRegistry meterRegistry) {
+        if (segmentSize.toBytes() <= HEADER_SIZE + RECORD_HEADER_SIZE || segmentSize.toBytes() > Integer.MAX_VALUE
+                || maxSize.compareTo(segmentSize) < 0) {
+            throw new IllegalArgumentException("Invalid spool configuration");
+        }
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.maxSegments = (int) (maxSize.toBytes() / segmentSize.toBytes());
+
+        this.appended = Counter.builder("ingestion.spool.appended")
+                .description("Articles written to the spool because they could not be published")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ingestion.spool.rejected")
+                .description("Articles the spool refused because it was full or they could not be encoded")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.spool.depth", this, ArticleSpool::getPendingRecords)
+                .description("Spooled articles waiting to be replayed")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.spool.disk.bytes", this, ArticleSpool::getDiskBytes)
+                .description("Disk space taken by spool segments")
+                .register(meterRegistry);
+
+        if (enabled) {
+            open();
+        }
+    }
+
+    /**
+     * Appends an article to the end of the spool.
+     *
+     * @return false if the spool is disabled or full, or the article cannot be encoded
+     */
+    public boolean append(NewsArticle article) {
+        if (!enabled) {
+            return false;
+        }
+        byte[] payload;
+        try {
+            payload = codec.encode(article);
+        } catch (RuntimeException e) {
+            log.error("Cannot spool article {}: {}", article.getId(), e.getMessage());
+            rejected.increment();
+            return false;
+        }
+        int recordSize = RECORD_HEADER_SIZE + payload.length;
+        synchronized (this) {
+            Segment tail = segments.peekLast();
+            if (tail == null || tail.writePosition + recordSize > segmentSize) {
+                if (HEADER_SIZE + recordSize > segmentSize || segments.size() >= maxSegments) {
+                    rejected.increment();
+                    return false;
+                }
+                tail = createSegment();
+            }
+            MappedByteBuffer buffer = tail.buffer;
+            int position = tail.writePosition;
+            buffer.put(position + RECORD_HEADER_SIZE, payload);
+            buffer.putInt(position + Integer.BYTES, crc(payload));
+            buffer.putInt(position, payload.length);
+            tail.writePosition += recordSize;
+            pendingRecords++;
+        }
+        appended.increment();
+        return true;
+    }
+
+    /**
+     * Reads up to {@code maxRecords} of the oldest articles without removing them;
+     * they are removed by {@link #commit(Batch)} once they were published.
+     */
+    public synchronized Batch read(int maxRecords) {
+        List<NewsArticle> articles = new ArrayList<>();
+        int records = 0;
+        Segment end = null;
+        int endPosition = HEADER_SIZE;
+        for (Segment segment : segments) {
+            int position = segment.readPosition;
+            while (records < maxRecords && position < segment.writePosition) {
+                int length = segment.buffer.getInt(position);
+                byte[] payload = new byte[length];
+                segment.buffer.get(position + RECORD_HEADER_SIZE, payload);
+                position += RECORD_HEADER_SIZE + length;
+                records++;
+                try {
+                    articles.add(codec.decode(payload));
+                } catch (SerializationException e) {
+                    log.error("Skipping spooled article that cannot be decoded: {}", e.getMessage());
+                }
+            }
+            end = segment;
+            endPosition = position;
+            if (records == maxRecords) {
+                break;
+            }
+        }
+        return new Batch(articles, records, end != null ? end.sequence : -1, endPosition);
+    }
+
+    /**
+     * Removes the articles of a batch, and all before it, from the spool.
+     */
+    public synchronized void commit(Batch batch) {
+        if (batch.records == 0) {
+            return;
+        }
+        while (!segments.isEmpty() && segments.peekFirst().sequence < batch.segment) {
+            delete(segments.removeFirst());
+        }
+        Segment head = segments.peekFirst();
+        if (head == null || head.sequence != batch.segment) {
+            return;
+        }
+        head.readPosition = batch.position;
+        head.buffer.putInt(READ_POSITION_OFFSET, batch.position);
+        pendingRecords = Math.max(0, pendingRecords - batch.records);
+        if (head.readPosition == head.writePosition && (segments.size() > 1 || pendingRecords == 0)) {
+            delete(segments.removeFirst());
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return pendingRecords == 0;
+    }
+
+    public synchronized long getPendingRecords() {
+        return pendingRecords;
+    }
+
+    public synchronized long getDiskBytes() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    /**
+     * Writes appended and committed data through to disk.
+     */
+    public synchronized void flush() {
+        segments.forEach(segment -> segment.buffer.force());
+    }
+
+    @Override
+    public synchronized void destroy() {
+        flush();
+        segments.forEach(Segment::close);
+        segments.clear();
+    }
+
+    private void open() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files;
+            try (Stream<Path> listing = Files.list(directory)) {
+                files = listing
+                        .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                                && path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                        .sorted()
+                        .toList();
+            }
+            for (Path file : files) {
+                Segment segment = map(file, sequenceOf(file));
+                if (segment.buffer.getInt(0) != MAGIC) {
+                    log.error("Ignoring spool file {} without a valid header", file);
+                    segment.close();
+                    continue;
+                }
+                recover(segment, segments.isEmpty());
+                nextSequence = segment.sequence + 1;
+                segments.addLast(segment);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open spool in " + directory, e);
+        }
+        // Segments replayed completely before a restart are not needed any more
+        while (segments.size() > 1 && segments.peekFirst().readPosition == segments.peekFirst().writePosition) {
+            delete(segments.removeFirst());
+        }
+        if (pendingRecords > 0) {
+            log.info("Spool in {} holds {} articles to replay", directory, pendingRecords);
+        }
+    }
+
+    /**
+     * Finds the end of the valid records of a segment and counts those not yet replayed.
+     * Only the oldest segment can be partly replayed; in all others every record is pending.
+     */
+    private void recover(Segment segment, boolean oldest) {
+        int readPosition = oldest ? segment.buffer.getInt(READ_POSITION_OFFSET) : HEADER_SIZE;
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= segmentSize) {
+            int length = segment.buffer.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            segment.buffer.get(position + RECORD_HEADER_SIZE, payload);
+            if (crc(payload) != segment.buffer.getInt(position + Integer.BYTES)) {
+                log.warn("Spool segment {} ends with a torn record at {}", segment.path, position);
+                break;
+            }
+            if (position >= readPosition) {
+                pendingRecords++;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        segment.writePosition = position;
+        segment.readPosition = Math.min(Math.max(readPosition, HEADER_SIZE), position);
+    }
+
+    private Segment createSegment() {
+        long sequence = nextSequence++;
+        Path file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+        try {
+            Files.deleteIfExists(file);
+            Segment segment = map(file, sequence);
+            segment.buffer.putInt(0, MAGIC);
+            segment.buffer.putInt(READ_POSITION_OFFSET, HEADER_SIZE);
+            segment.readPosition = HEADER_SIZE;
+            segment.writePosition = HEADER_SIZE;
+            segments.addLast(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create spool segment " + file, e);
+        }
+    }
+
+    private Segment map(Path file, long sequence) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new Segment(sequence, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void delete(Segment segment) {
+        segment.close();
+        try {
+            // The mapping itself is released once the buffer is garbage collected
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Could not delete replayed spool segment {}: {}", segment.path, e.getMessage());
+        }
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment {
+        private final long sequence;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int readPosition;
+        private int writePosition;
+
+        private Segment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close spool segment {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Articles read from the spool, and the position after the last of them.
+     *
+     * @param articles The decodable articles, oldest first
+     * @param records  The number of records read, including undecodable ones
+     */
+    public record Batch(List<NewsArticle> articles, int records, long segment, int position) {
+    }
+}
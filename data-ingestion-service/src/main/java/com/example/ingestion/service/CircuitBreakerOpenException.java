@@ -0,0 +1,11 @@
+package com.example.ingestion.service;
+
+/**
+ * Signals that a call was not made because the endpoint's {@link CircuitBreaker} is open.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    public CircuitBreakerOpenException(String endpoint) {
+        super("Circuit breaker for " + endpoint + " is open");
+    }
+}
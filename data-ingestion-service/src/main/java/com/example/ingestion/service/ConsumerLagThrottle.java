@@ -0,0 +1,177 @@
+package com.example.ingestion.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Slows down ingestion while storage-service falls behind.
+ * <p>
+ * storage-service publishes the lag of its consumer group to {@code kafka.topic.lag} every few
+ * seconds. Once the lag reaches {@code ingestion.backpressure.slow-lag} records, targets of the
+ * low-priority categories are fetched at most once per {@code ingestion.backpressure.slow-interval};
+ * from {@code ingestion.backpressure.pause-lag} records on they are not fetched at all. Other
+ * categories are always fetched. Without a report younger than
+ * {@code ingestion.backpressure.max-report-age}, e.g. while storage-service is down, nothing is
+ * throttled, so a lost feedback loop never stops ingestion.
+ */
+@Component
+@Slf4j
+public class ConsumerLagThrottle {
+
+    public enum Level { NORMAL, SLOW, PAUSED }
+
+    /**
+     * The lag report published by storage-service.
+     */
+    record LagReport(String group, String topic, long lag, double recordsPerSecond, long timestamp) {
+    }
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final Set<String> lowPriorityCategories;
+    private final long slowLag;
+    private final long pauseLag;
+    private final Duration slowInterval;
+    private final Duration maxReportAge;
+    private final Clock clock;
+    private final MeterRegistry meterRegistry;
+
+    // Last time each low-priority target was let through, by connector and target
+    private final Map<String, Instant> lastAdmitted = new ConcurrentHashMap<>();
+
+    private volatile LagReport latest;
+
+    @Autowired
+    public ConsumerLagThrottle(
+            @Value("${ingestion.backpressure.low-priority-categories:entertainment,sports}") String lowPriorityCategories,
+            @Value("${ingestion.backpressure.slow-lag:10000}") long slowLag,
+            @Value("${ingestion.backpressure.pause-lag:50000}") long pauseLag,
+            @Value("${ingestion.backpressure.slow-interval:PT30M}") Duration slowInterval,
+            @Value("${ingestion.backpressure.max-report-age:PT1M}") Duration maxReportAge,
+            MeterRegistry meterRegistry) {
+        this(lowPriorityCategories, slowLag, pauseLag, slowInterval, maxReportAge, meterRegistry, Clock.systemUTC());
+    }
+
+    ConsumerLagThrottle(String lowPriorityCategories, long slowLag, long pauseLag, Duration slowInterval,
+                        Duration maxReportAge, MeterRegistry meterRegistry, Clock clock) {
+        if (slowLag < 0 || pauseLag < slowLag) {
+            throw new IllegalArgumentException("Backpressure lag thresholds must satisfy 0 <= slow-lag <= pause-lag");
+        }
+        this.lowPriorityCategories = Arrays.stream(lowPriorityCategories.split(","))
+                .map(category -> category.trim().toLowerCase(Locale.ROOT))
+                .filter(category -> !category.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.slowLag = slowLag;
+        this.pauseLag = pauseLag;
+        this.slowInterval = slowInterval;
+        this.maxReportAge = maxReportAge;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("ingestion.backpressure.level", this, throttle -> throttle.getLevel().ordinal())
+                .description("Throttling of low-priority categories: 0 normal, 1 slowed down, 2 paused")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.backpressure.consumer.lag", this, ConsumerLagThrottle::getConsumerLag)
+                .description("Consumer lag of storage-service according to its latest current report")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Receives a lag report. Every instance reads all reports, so the single partition of the lag
+     * topic is assigned directly, without a consumer group, and read from its end.
+     */
+    @KafkaListener(
+            id = "consumer-lag-throttle",
+            topicPartitions = @TopicPartition(topic = "${kafka.topic.lag:storage.lag}",
+                    partitionOffsets = @PartitionOffset(partition = "0", initialOffset = "0", seekPosition = "END")),
+            autoStartup = "${ingestion.backpressure.enabled:true}",
+            properties = "enable.auto.commit=false")
+    public void onReport(String json) {
+        try {
+            LagReport report = OBJECT_MAPPER.readValue(json, LagReport.class);
+            Level previous = getLevel();
+            latest = report;
+            Level current = getLevel();
+            if (current != previous) {
+                log.warn("Consumer lag of {} is {} records ({} records/s), ingestion throttling now {}",
+                        report.group(), report.lag(), String.format(Locale.ROOT, "%.1f", report.recordsPerSecond()),
+                        current);
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring malformed consumer lag report: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The current throttling level, derived from the latest report that is not too old.
+     */
+    public Level getLevel() {
+        long lag = getConsumerLag();
+        if (lag >= pauseLag) {
+            return Level.PAUSED;
+        }
+        return lag >= slowLag ? Level.SLOW : Level.NORMAL;
+    }
+
+    /**
+     * Decides whether a target may be fetched now. Targets of low-priority categories are let
+     * through at most once per slow interval while slowed down, and not at all while paused.
+     *
+     * @return false if the fetch should be skipped in this cycle
+     */
+    public boolean admit(SourceConnector connector, String target) {
+        String category = connector.getMetricCategory(target);
+        if (category == null || !lowPriorityCategories.contains(category.toLowerCase(Locale.ROOT))) {
+            return true;
+        }
+        String key = connector.getName() + "|" + target;
+        Instant now = clock.instant();
+        Level level = getLevel();
+        Instant previous = lastAdmitted.get(key);
+        boolean admitted = switch (level) {
+            case NORMAL -> true;
+            case SLOW -> previous == null || !previous.plus(slowInterval).isAfter(now);
+            case PAUSED -> false;
+        };
+        if (admitted) {
+            lastAdmitted.put(key, now);
+        } else {
+            Counter.builder("ingestion.backpressure.deferred")
+                    .description("Target fetches skipped because storage-service is falling behind")
+                    .tag("category", category)
+                    .tag("level", level.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry)
+                    .increment();
+        }
+        return admitted;
+    }
+
+    private long getConsumerLag() {
+        LagReport report = latest;
+        if (report == null || Instant.ofEpochMilli(report.timestamp()).plus(maxReportAge).isBefore(clock.instant())) {
+            return 0;
+        }
+        return report.lag();
+    }
+}
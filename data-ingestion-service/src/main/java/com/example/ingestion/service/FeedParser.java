@@ -0,0 +1,228 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Streaming RSS 2.0 / Atom 1.0 parser built on StAX.
+ * Items are read one at a time with {@link #next()}, so only the current item is in memory
+ * no matter how large the feed is. Elements the parser does not map are skipped.
+ *
+ * <p>Instances are stateful and must be used for a single feed only.
+ */
+class FeedParser implements AutoCloseable {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private final XMLStreamReader reader;
+    private final String category;
+    private String feedTitle;
+
+    FeedParser(InputStream in, String category) throws XMLStreamException {
+        this.reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+        this.category = category;
+    }
+
+    /**
+     * @return the next article of the feed, or null once all items have been read
+     */
+    NewsArticle next() throws XMLStreamException {
+        while (reader.hasNext()) {
+            if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String name = reader.getLocalName();
+            if ("item".equals(name) || "entry".equals(name)) {
+                return readItem();
+            }
+            if ("title".equals(name) && feedTitle == null) {
+                // channel/title (RSS) or feed/title (Atom) precede the items
+                feedTitle = readText();
+            }
+        }
+        return null;
+    }
+
+    String getFeedTitle() {
+        return feedTitle;
+    }
+
+    @Override
+    public void close() throws XMLStreamException {
+        reader.close();
+    }
+
+    private NewsArticle readItem() throws XMLStreamException {
+        NewsArticle article = new NewsArticle();
+        String guid = null;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                // Children are always consumed completely, so this closes the item itself
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            String prefix = reader.getPrefix();
+            switch (reader.getLocalName()) {
+                case "title" -> article.setTitle(readText());
+                case "link" -> readLink(article);
+                case "description", "summary" -> article.setDescription(readText());
+                case "encoded", "content" -> article.setContent(readText());
+                case "creator" -> article.setAuthor(readText());
+                case "author" -> article.setAuthor(readAuthor());
+                case "pubDate" -> article.setPublishedAt(parseRfc1123(readText()));
+                case "published", "date" -> article.setPublishedAt(IsoDateTimeParser.parse(readText()));
+                case "updated" -> {
+                    LocalDateTime updated = IsoDateTimeParser.parse(readText());
+                    if (article.getPublishedAt() == null) {
+                        article.setPublishedAt(updated);
+                    }
+                }
+                case "guid", "id" -> guid = readText();
+                case "thumbnail" -> readImage(article, "media".equals(prefix));
+                case "enclosure" -> readEnclosure(article);
+                default -> skipElement();
+            }
+        }
+
+        if (article.getUrl() == null && guid != null && guid.startsWith("http")) {
+            article.setUrl(guid);
+        }
+        article.setId(ArticleIdGenerator.fromUrl(article.getUrl()));
+        article.setSourceName(feedTitle);
+        article.setCategory(category);
+        return article;
+    }
+
+    private void readLink(NewsArticle article) throws XMLStreamException {
+        String href = reader.getAttributeValue(null, "href");
+        if (href == null) {
+            // RSS: <link>https://...</link>
+            article.setUrl(readText());
+            return;
+        }
+        // Atom: <link rel="alternate" href="..."/>, a missing rel means alternate
+        String rel = reader.getAttributeValue(null, "rel");
+        if (rel == null || "alternate".equals(rel)) {
+            article.setUrl(href.trim());
+        }
+        skipElement();
+    }
+
+    private String readAuthor() throws XMLStreamException {
+        // RSS: <author>email (Name)</author>, Atom: <author><name>Name</name></author>
+        StringBuilder text = new StringBuilder();
+        String name = null;
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if ("name".equals(reader.getLocalName())) {
+                    name = readText();
+                } else {
+                    depth++;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (isText(event) && depth == 1) {
+                text.append(reader.getText());
+            }
+        }
+        return name != null ? name : blankToNull(text.toString());
+    }
+
+    private void readImage(NewsArticle article, boolean isMedia) throws XMLStreamException {
+        String url = reader.getAttributeValue(null, "url");
+        if (isMedia && url != null && article.getImageUrl() == null) {
+            article.setImageUrl(url);
+        }
+        skipElement();
+    }
+
+    private void readEnclosure(NewsArticle article) throws XMLStreamException {
+        String type = reader.getAttributeValue(null, "type");
+        String url = reader.getAttributeValue(null, "url");
+        if (type != null && type.startsWith("image/") && url != null && article.getImageUrl() == null) {
+            article.setImageUrl(url);
+        }
+        skipElement();
+    }
+
+    /**
+     * Reads the text of the current element, including the text of nested markup
+     * (e.g. Atom content of type xhtml), and leaves the reader on its end tag.
+     */
+    private String readText() throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (isText(event)) {
+                text.append(reader.getText());
+            }
+        }
+        return blankToNull(text.toString().trim());
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static boolean isText(int event) {
+        return event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    /**
+     * Parses an RSS pubDate such as {@code Wed, 10 Apr 2024 18:05:12 GMT}.
+     *
+     * @return the local date-time as written, or null if the date is missing or malformed
+     */
+    private static LocalDateTime parseRfc1123(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        // Feeds are untrusted input: no DTDs and no external entities
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.ingestion.service;
+
+import java.nio.CharBuffer;
+import java.time.LocalDateTime;
+
+/**
+ * Exception-free parser for the ISO-8601 timestamp shapes news sources send, e.g.
+ * {@code 2024-04-10T18:05:12Z}, {@code 2024-04-10T18:05:12.1234567Z},
+ * {@code 2024-04-10T18:05:12+02:00} or {@code 2024-04-10 18:05}.
+ * The result is the local date-time as written; like {@code ZonedDateTime.toLocalDateTime()}
+ * the offset is validated but not applied. Malformed input yields null instead of an exception,
+ * and no intermediate strings or temporal objects are created.
+ */
+final class IsoDateTimeParser {
+
+    private IsoDateTimeParser() {
+    }
+
+    /**
+     * @return the parsed date-time, or null if the text is null or not an ISO-8601 date-time
+     */
+    static LocalDateTime parse(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Parses a date-time directly from a character buffer, e.g. a JSON parser's text buffer.
+     *
+     * @return the parsed date-time, or null if the characters are not an ISO-8601 date-time
+     */
+    static LocalDateTime parse(char[] chars, int offset, int length) {
+        return parse(CharBuffer.wrap(chars, offset, length), 0, length);
+    }
+
+    private static LocalDateTime parse(CharSequence s, int start, int length) {
+        int end = start + length;
+        // yyyy-MM-ddTHH:mm is the shortest accepted shape
+        if (length < 16 || s.charAt(start + 4) != '-' || s.charAt(start + 7) != '-'
+                || s.charAt(start + 13) != ':') {
+            return null;
+        }
+        char separator = s.charAt(start + 10);
+        if (separator != 'T' && separator != 't' && separator != ' ') {
+            return null;
+        }
+
+        int year = digits(s, start, 4);
+        int month = digits(s, start + 5, 2);
+        int day = digits(s, start + 8, 2);
+        int hour = digits(s, start + 11, 2);
+        int minute = digits(s, start + 14, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return null;
+        }
+
+        int pos = start + 16;
+        int second = 0;
+        int nano = 0;
+        if (pos < end && s.charAt(pos) == ':') {
+            second = pos + 3 <= end ? digits(s, pos + 1, 2) : -1;
+            if (second < 0 || second > 59) {
+                return null;
+            }
+            pos += 3;
+
+            if (pos < end && (s.charAt(pos) == '.' || s.charAt(pos) == ',')) {
+                pos++;
+                int fractionDigits = 0;
+                while (pos < end && isDigit(s.charAt(pos))) {
+                    if (fractionDigits < 9) {
+                        nano = nano * 10 + (s.charAt(pos) - '0');
+                    }
+                    fractionDigits++;
+                    pos++;
+                }
+                if (fractionDigits == 0) {
+                    return null;
+                }
+                for (int i = fractionDigits; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+
+        if (!isValidOffset(s, pos, end)) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano);
+    }
+
+    /**
+     * Accepts no offset, {@code Z}, or {@code ±HH}, {@code ±HHMM}, {@code ±HH:MM}.
+     */
+    private static boolean isValidOffset(CharSequence s, int pos, int end) {
+        int remaining = end - pos;
+        if (remaining == 0) {
+            return true;
+        }
+        char sign = s.charAt(pos);
+        if (sign == 'Z' || sign == 'z') {
+            return remaining == 1;
+        }
+        if (sign != '+' && sign != '-') {
+            return false;
+        }
+        int hours = remaining >= 3 ? digits(s, pos + 1, 2) : -1;
+        int minutes;
+        if (remaining == 3) {
+            minutes = 0;
+        } else if (remaining == 5) {
+            minutes = digits(s, pos + 3, 2);
+        } else if (remaining == 6 && s.charAt(pos + 3) == ':') {
+            minutes = digits(s, pos + 4, 2);
+        } else {
+            return false;
+        }
+        return hours >= 0 && hours <= 18 && minutes >= 0 && minutes <= 59;
+    }
+
+    /**
+     * @return the value of {@code count} decimal digits starting at {@code pos}, or -1 if any is not a digit
+     */
+    private static int digits(CharSequence s, int pos, int count) {
+        int value = 0;
+        for (int i = pos; i < pos + count; i++) {
+            char c = s.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.ingestion.service;
+
+import java.util.Arrays;
+
+/**
+ * MinHash signatures over the set of words of a text. The fraction of positions in which two
+ * signatures agree estimates the Jaccard similarity of the two word sets, which stays high
+ * under the small edits wire stories get when they are republished (a word added to a
+ * headline, a reworded clause), even for texts only a few dozen words long.
+ * <p>
+ * Words are case-folded runs of letters and digits; words shorter than
+ * {@link #MIN_WORD_LENGTH} are ignored as they are mostly stop words. Every word is hashed once
+ * while it is scanned, without creating substrings, and the {@link #SIGNATURE_LENGTH} hash
+ * functions are derived from that hash by multiply-shift, so a signature costs one small array.
+ */
+final class MinHash {
+
+    static final int SIGNATURE_LENGTH = 32;
+    static final int MIN_WORD_LENGTH = 3;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // Odd multipliers and offsets of the hash functions, fixed so signatures are stable across restarts
+    private static final long[] MULTIPLIERS = new long[SIGNATURE_LENGTH];
+    private static final long[] OFFSETS = new long[SIGNATURE_LENGTH];
+
+    static {
+        long seed = 0x9e3779b97f4a7c15L;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            seed = mix(seed + 0x9e3779b97f4a7c15L);
+            MULTIPLIERS[i] = seed | 1L;
+            seed = mix(seed + 0x9e3779b97f4a7c15L);
+            OFFSETS[i] = seed;
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * Computes the signature of the words of the given texts together; null texts are skipped.
+     */
+    static Signature of(CharSequence... texts) {
+        int[] minima = new int[SIGNATURE_LENGTH];
+        Arrays.fill(minima, Integer.MAX_VALUE);
+        int words = 0;
+
+        for (CharSequence text : texts) {
+            if (text == null) {
+                continue;
+            }
+            long hash = FNV_OFFSET_BASIS;
+            int length = 0;
+            for (int i = 0, n = text.length(); i <= n; i++) {
+                char c = i < n ? text.charAt(i) : ' ';
+                if (Character.isLetterOrDigit(c)) {
+                    hash = (hash ^ Character.toLowerCase(c)) * FNV_PRIME;
+                    length++;
+                } else if (length > 0) {
+                    if (length >= MIN_WORD_LENGTH) {
+                        addWord(minima, mix(hash));
+                        words++;
+                    }
+                    hash = FNV_OFFSET_BASIS;
+                    length = 0;
+                }
+            }
+        }
+        return new Signature(minima, words);
+    }
+
+    /**
+     * @return the estimated Jaccard similarity of the word sets behind two signatures
+     */
+    static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / SIGNATURE_LENGTH;
+    }
+
+    private static void addWord(int[] minima, long wordHash) {
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            // The high bits of a multiply-shift hash are the well mixed ones; branch-free so C2 can vectorize
+            minima[i] = Math.min(minima[i], (int) ((wordHash * MULTIPLIERS[i] + OFFSETS[i]) >>> 32));
+        }
+    }
+
+    /**
+     * MurmurHash3's 64-bit finalizer.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    /**
+     * @param minima the signature, one minimum per hash function
+     * @param words  the number of words the signature was computed from
+     */
+    record Signature(int[] minima, int words) {
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds articles that tell the same story as an article seen earlier, e.g. one wire story
+ * republished by several sources with small edits to title and description.
+ * <p>
+ * Articles are fingerprinted with a {@link MinHash} signature of the words of their title and
+ * description, and two articles are near-duplicates when their estimated word overlap
+ * (Jaccard similarity) reaches {@code similarity}. Candidates are found with a banded LSH index:
+ * the signature is split into {@value #BANDS} bands of {@value #ROWS} values, and only articles
+ * agreeing on a whole band are compared. Pairs at 0.7 similarity share a band with about 90%
+ * probability, at 0.8 with 99%, while unrelated articles (0.1 to 0.2) almost never do, so a
+ * lookup costs a few hash-map probes instead of a scan of the window.
+ * <p>
+ * The index covers a sliding time window and is bounded in size; the oldest entries go first.
+ */
+@Component
+@Slf4j
+public class NearDuplicateDetector {
+
+    public enum Mode {
+        /** Near-duplicates are published as usual. */
+        OFF,
+        /** Near-duplicates are published with the ID of the first article of the story as canonical ID. */
+        TAG,
+        /** Near-duplicates are not published. */
+        DROP
+    }
+
+    static final int BANDS = 8;
+    static final int ROWS = MinHash.SIGNATURE_LENGTH / BANDS;
+
+    private final Mode mode;
+    private final double similarity;
+    private final int minWords;
+    private final Duration window;
+    private final int maxEntries;
+    private final Clock clock;
+
+    // Band key -> articles with that band; the key hashes the band index and its values
+    private final Map<Long, List<Entry>> bands = new HashMap<>();
+    private final ArrayDeque<Entry> entriesByAge = new ArrayDeque<>();
+
+    @Autowired
+    public NearDuplicateDetector(
+            @Value("${ingestion.near-dedup.mode:tag}") String mode,
+            @Value("${ingestion.near-dedup.similarity:0.7}") double similarity,
+            @Value("${ingestion.near-dedup.min-words:6}") int minWords,
+            @Value("${ingestion.near-dedup.window:PT24H}") Duration window,
+            @Value("${ingestion.near-dedup.max-entries:100000}") int maxEntries) {
+        this(Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT)), similarity, minWords, window, maxEntries,
+                Clock.systemUTC());
+    }
+
+    NearDuplicateDetector(Mode mode, double similarity, int minWords, Duration window, int maxEntries, Clock clock) {
+        if (similarity <= 0 || similarity > 1) {
+            throw new IllegalArgumentException("Near-duplicate similarity must be in (0, 1]");
+        }
+        this.mode = mode;
+        this.similarity = similarity;
+        this.minWords = minWords;
+        this.window = window;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        log.info("Near-duplicate detection: mode {}, similarity {}, {} window", mode, similarity, window);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Indexes the article and checks it against the articles seen within the window.
+     * An article matching an earlier version of itself (same ID, e.g. a retried publish) is not
+     * a near-duplicate. Articles with too few words to fingerprint reliably are never matched.
+     *
+     * @return the canonical ID of the story if the article is a near-duplicate, otherwise null
+     */
+    public String findCanonicalId(NewsArticle article) {
+        // Fingerprinting needs no lock, only the index does
+        MinHash.Signature signature = MinHash.of(article.getTitle(), article.getDescription());
+        if (signature.words() < minWords) {
+            return null;
+        }
+        long[] keys = bandKeys(signature.minima());
+
+        synchronized (this) {
+            long now = clock.millis();
+            evictExpired(now);
+
+            Entry match = null;
+            double matchSimilarity = similarity;
+            for (long key : keys) {
+                List<Entry> candidates = bands.get(key);
+                if (candidates == null) {
+                    continue;
+                }
+                for (Entry candidate : candidates) {
+                    double candidateSimilarity = MinHash.similarity(signature.minima(), candidate.signature);
+                    if (candidateSimilarity >= matchSimilarity && !candidate.articleId.equals(article.getId())) {
+                        match = candidate;
+                        matchSimilarity = candidateSimilarity;
+                    }
+                }
+            }
+
+            String canonicalId = match != null ? match.canonicalId : null;
+            add(new Entry(signature.minima(), keys, article.getId(),
+                    canonicalId != null ? canonicalId : article.getId(), now));
+            return canonicalId;
+        }
+    }
+
+    public synchronized int size() {
+        return entriesByAge.size();
+    }
+
+    private void add(Entry entry) {
+        entriesByAge.addLast(entry);
+        for (long key : entry.bandKeys) {
+            bands.computeIfAbsent(key, k -> new ArrayList<>(2)).add(entry);
+        }
+        if (entriesByAge.size() > maxEntries) {
+            remove(entriesByAge.removeFirst());
+        }
+    }
+
+    private void evictExpired(long now) {
+        long cutoff = now - window.toMillis();
+        while (!entriesByAge.isEmpty() && entriesByAge.peekFirst().indexedAt <= cutoff) {
+            remove(entriesByAge.removeFirst());
+        }
+    }
+
+    private void remove(Entry entry) {
+        for (long key : entry.bandKeys) {
+            List<Entry> bucket = bands.get(key);
+            bucket.remove(entry);
+            if (bucket.isEmpty()) {
+                bands.remove(key);
+            }
+        }
+    }
+
+    private static long[] bandKeys(int[] minima) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+                key = key * 0x9e3779b97f4a7c15L + minima[row];
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    // Compared by identity, so removing an entry from its buckets never removes a look-alike
+    private static final class Entry {
+        private final int[] signature;
+        private final long[] bandKeys;
+        private final String articleId;
+        private final String canonicalId;
+        private final long indexedAt;
+
+        private Entry(int[] signature, long[] bandKeys, String articleId, String canonicalId, long indexedAt) {
+            this.signature = signature;
+            this.bandKeys = bandKeys;
+            this.articleId = articleId;
+            this.canonicalId = canonicalId;
+            this.indexedAt = indexedAt;
+        }
+    }
+}
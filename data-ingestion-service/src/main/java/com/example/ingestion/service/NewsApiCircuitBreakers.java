@@ -0,0 +1,76 @@
+package com.example.ingestion.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * One {@link CircuitBreaker} per NewsAPI endpoint, all with the {@code newsapi.circuit-breaker.*}
+ * settings. The state of every breaker is exported as {@code newsapi.circuit.state}
+ * (0 closed, 1 half-open, 2 open) and refused calls as {@code newsapi.circuit.rejected}.
+ */
+@Component
+public class NewsApiCircuitBreakers {
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final Duration openDuration;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public NewsApiCircuitBreakers(
+            @Value("${newsapi.circuit-breaker.window-size:10}") int windowSize,
+            @Value("${newsapi.circuit-breaker.minimum-calls:5}") int minimumCalls,
+            @Value("${newsapi.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+            @Value("${newsapi.circuit-breaker.open-duration:PT2M}") Duration openDuration,
+            MeterRegistry meterRegistry) {
+        this(windowSize, minimumCalls, failureRateThreshold, openDuration, meterRegistry, System::nanoTime);
+    }
+
+    NewsApiCircuitBreakers(int windowSize, int minimumCalls, int failureRateThreshold, Duration openDuration,
+                           MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openDuration = openDuration;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    public CircuitBreaker forEndpoint(String endpoint) {
+        return breakers.computeIfAbsent(endpoint, this::create);
+    }
+
+    /**
+     * Counts a call refused by the breaker of an endpoint.
+     */
+    public void recordRejected(String endpoint) {
+        Counter.builder("newsapi.circuit.rejected")
+                .description("NewsAPI requests not sent because the endpoint's circuit breaker was open")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private CircuitBreaker create(String endpoint) {
+        CircuitBreaker breaker = new CircuitBreaker(endpoint, windowSize, minimumCalls, failureRateThreshold,
+                openDuration, nanoClock);
+        Gauge.builder("newsapi.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("Circuit breaker state of a NewsAPI endpoint: 0 closed, 1 half-open, 2 open")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return breaker;
+    }
+}
@@ -1,48 +1,532 @@
 package com.example.ingestion.service;
 
-import com.example.ingestion.model.NewsApiResponse;
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SignalType;
+import reactor.netty.http.client.HttpClient;
+import reactor.util.retry.Retry;
 
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Client for the NewsAPI top-headlines and everything endpoints.
+ * <p>
+ * Every request goes through the endpoint's {@link CircuitBreaker} and the shared rate limiter.
+ * A page request that fails before delivering any article with a transient error (I/O, timeout,
+ * 5xx, 429) is retried with jittered exponential backoff for up to {@code newsapi.retry.max-attempts}
+ * attempts, as long as the next attempt still starts within {@code newsapi.retry.budget} and the
+ * breaker has not opened in the meantime. When a target cannot be fetched at all, e.g. because
+ * the breaker is open, the first page of its last successful poll is served instead, if that poll
+ * is no older than {@code newsapi.cache.max-age}. Served articles go through the published-article
+ * check like fetched ones, so only those that were not delivered before are published again.
+ */
 @Service
 @Slf4j
 public class NewsApiClient {
 
+    private static final String TOP_HEADLINES = "top-headlines";
+    private static final String EVERYTHING = "everything";
+
+    // Share of the backoff randomized, so retries of many targets do not arrive in lockstep
+    private static final double RETRY_JITTER = 0.5;
+
+    // Decoded articles buffered per prefetched page before its body reads are paused
+    private static final int ARTICLE_PREFETCH = 32;
+
+    // Network buffers read ahead of the decoder, keeps heap use independent of the body size
+    private static final int BODY_CHUNK_PREFETCH = 4;
+
     private final WebClient webClient;
     private final String apiKey;
     private final String defaultCategory;
+    private final String defaultCountry;
+    private final ArticleMapper articleMapper;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final NewsApiCircuitBreakers circuitBreakers;
+    private final MeterRegistry meterRegistry;
+    private final int pageSize;
+    private final int pagePrefetch;
+    private final int maxPages;
+
+    // Last successful response per (country, category, page), used to skip unchanged polls
+    private final Map<String, ResponseFingerprint> fingerprints = new ConcurrentHashMap<>();
+
+    // First page of the last complete, successful poll per (country, category)
+    private final Map<String, CachedPage> lastGoodResponses = new ConcurrentHashMap<>();
+
+    @Value("${newsapi.retry.max-attempts:3}")
+    private int maxAttempts = 3;
+
+    @Value("${newsapi.retry.backoff:PT1S}")
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    @Value("${newsapi.retry.budget:PT20S}")
+    private Duration retryBudget = Duration.ofSeconds(20);
+
+    @Value("${newsapi.cache.max-age:PT6H}")
+    private Duration cacheMaxAge = Duration.ofHours(6);
 
     public NewsApiClient(
             @Value("${newsapi.url}") String apiUrl,
             @Value("${newsapi.key}") String apiKey,
-            @Value("${newsapi.default.category}") String defaultCategory) {
-        
+            @Value("${newsapi.default.category}") String defaultCategory,
+            @Value("${newsapi.default.country:us}") String defaultCountry,
+            @Value("${newsapi.page-size:100}") int pageSize,
+            @Value("${newsapi.page-prefetch:1}") int pagePrefetch,
+            @Value("${newsapi.max-pages:10}") int maxPages,
+            @Value("${newsapi.response-timeout:PT10S}") Duration responseTimeout,
+            ArticleMapper articleMapper,
+            TokenBucketRateLimiter rateLimiter,
+            NewsApiCircuitBreakers circuitBreakers,
+            MeterRegistry meterRegistry) {
+
         this.webClient = WebClient.builder()
                 .baseUrl(apiUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create().responseTimeout(responseTimeout)))
                 .build();
         this.apiKey = apiKey;
         this.defaultCategory = defaultCategory;
+        this.defaultCountry = defaultCountry;
+        this.pageSize = pageSize;
+        this.pagePrefetch = pagePrefetch;
+        this.maxPages = maxPages;
+        this.articleMapper = articleMapper;
+        this.rateLimiter = rateLimiter;
+        this.circuitBreakers = circuitBreakers;
+        this.meterRegistry = meterRegistry;
     }
 
-    public Mono<NewsApiResponse> fetchTopHeadlines(String category) {
+    /**
+     * Streams the top headlines of a category in the default country.
+     *
+     * @see #streamTopHeadlines(String, String, Runnable)
+     */
+    public Flux<NewsArticle> streamTopHeadlines(String category) {
+        return streamTopHeadlines(defaultCountry, category, () -> { });
+    }
+
+    /**
+     * Streams the articles of all result pages for a country and category, decoded into
+     * {@link NewsArticle}s as the response bytes arrive.
+     * Page 1 tells us {@code totalResults}; the remaining pages (up to {@code newsapi.max-pages})
+     * are requested lazily, at most {@code newsapi.page-prefetch} pages ahead of what the
+     * subscriber has consumed, so a slow downstream stage also slows down page fetching.
+     * If page 1 is unchanged since the previous poll, the remaining pages are not requested.
+     * If page 1 fails, the page 1 articles of the last successful poll are emitted instead.
+     *
+     * @param onRequest Called for every request sent upstream, i.e. every unit of quota used
+     */
+    public Flux<NewsArticle> streamTopHeadlines(String country, String category, Runnable onRequest) {
+        String actualCountry = country != null ? country : defaultCountry;
         String actualCategory = category != null ? category : defaultCategory;
-        
-        log.info("Fetching news articles for category: {}", actualCategory);
-        
-        return webClient.get()
-                .uri(uriBuilder -> uriBuilder
-                        .path("/top-headlines")
-                        .queryParam("category", actualCategory)
-                        .queryParam("language", "en")
-                        // Add this line:
-                        .queryParam("country", "us")  // The News API requires a country parameter
-                        .queryParam("apiKey", apiKey)
-                        .build())
-                .retrieve()
-                .bodyToMono(NewsApiResponse.class)
-                .doOnError(e -> log.error("Error fetching news: {}", e.getMessage()));
+        String cacheKey = actualCountry + ":" + actualCategory;
+        Query query = new Query(TOP_HEADLINES, actualCategory, rateLimiter, Map.of(
+                "category", actualCategory,
+                "language", "en",
+                "country", actualCountry));
+
+        return Flux.defer(() -> {
+            PageOutcome firstPage = new PageOutcome();
+            List<NewsArticle> firstPageArticles = new ArrayList<>();
+            AtomicBoolean emitted = new AtomicBoolean();
+            return streamPages(query, firstPage, onRequest, article -> firstPageArticles.add(article.copy()))
+                    .doOnNext(article -> emitted.set(true))
+                    .doOnComplete(() -> rememberLastGood(cacheKey, firstPage, firstPageArticles))
+                    .onErrorResume(e -> !emitted.get() && isCached(cacheKey),
+                            e -> serveLastGood(cacheKey, actualCategory, e));
+        });
+    }
+
+    /**
+     * Streams all articles published in {@code [from, to)} that match a search term, from the
+     * everything endpoint, oldest first. Used to backfill history; each request is charged to the
+     * given rate limiter instead of the one shared by live polling. A search either delivers all its
+     * pages or fails: nothing is served from the last-good cache, pages are never skipped as
+     * unchanged, a failed page fails the Flux, and a search matching more than
+     * {@code newsapi.max-pages} pages fails with a {@link ResultLimitExceededException} after page 1.
+     *
+     * @param query     The search term; articles are tagged with it as their category
+     * @param limiter   The rate limiter the requests are charged to
+     * @param onRequest Called for every request sent upstream
+     */
+    public Flux<NewsArticle> streamEverything(String query, Instant from, Instant to, TokenBucketRateLimiter limiter,
+                                              Runnable onRequest) {
+        Query everything = new Query(EVERYTHING, query, limiter, Map.of(
+                "q", query,
+                "language", "en",
+                "from", from.toString(),
+                // the upstream's "to" is inclusive, with second precision
+                "to", to.minusSeconds(1).toString(),
+                "sortBy", "publishedAt"));
+        return Flux.defer(() -> streamPages(everything, new PageOutcome(), onRequest, article -> { }));
+    }
+
+    private Flux<NewsArticle> streamPages(Query query, PageOutcome firstPage, Runnable onRequest,
+                                          Consumer<NewsArticle> onFirstPageArticle) {
+        return fetchPage(query, 1, firstPage, onRequest)
+                .doOnNext(onFirstPageArticle)
+                .concatWith(Flux.defer(() -> {
+                    int pages = Math.min(maxPages, pageCount(firstPage.totalResults));
+                    if (firstPage.unchanged) {
+                        recordSavedBytes(query.category(), previousBodyLength(query, 2, pages));
+                        return Flux.empty();
+                    }
+                    if (query.isSearch() && firstPage.totalResults > maxPages * pageSize) {
+                        return Flux.error(new ResultLimitExceededException(query.describe(),
+                                firstPage.totalResults, maxPages * pageSize));
+                    }
+                    Flux<NewsArticle> remainingPages = Flux.range(2, Math.max(0, pages - 1))
+                            .flatMapSequentialDelayError(
+                                    page -> fetchPage(query, page, new PageOutcome(), onRequest),
+                                    pagePrefetch, ARTICLE_PREFETCH);
+                    if (query.isSearch()) {
+                        return remainingPages;
+                    }
+                    return remainingPages.onErrorResume(e -> {
+                        // e.g. the upstream refusing to page past its result limit
+                        log.warn("Stopping pagination for {}: {}", query.describe(), e.getMessage());
+                        return Flux.empty();
+                    });
+                }));
+    }
+
+    private void rememberLastGood(String cacheKey, PageOutcome firstPage, List<NewsArticle> articles) {
+        long now = System.nanoTime();
+        if (!firstPage.unchanged) {
+            lastGoodResponses.put(cacheKey, new CachedPage(List.copyOf(articles), now));
+        } else {
+            // Confirmed current by the upstream, so it ages from now
+            lastGoodResponses.computeIfPresent(cacheKey, (key, cached) -> new CachedPage(cached.articles(), now));
+        }
+        lastGoodResponses.values().removeIf(cached -> isExpired(cached, now));
+    }
+
+    private boolean isCached(String cacheKey) {
+        CachedPage cached = lastGoodResponses.get(cacheKey);
+        return cached != null && !isExpired(cached, System.nanoTime());
+    }
+
+    private boolean isExpired(CachedPage cached, long now) {
+        return now - cached.storedAt() > cacheMaxAge.toNanos();
+    }
+
+    private Flux<NewsArticle> serveLastGood(String cacheKey, String category, Throwable error) {
+        List<NewsArticle> cached = lastGoodResponses.get(cacheKey).articles();
+        log.warn("Serving {} articles of the last successful poll of {}: {}", cached.size(), cacheKey,
+                error.getMessage());
+        Counter.builder("newsapi.cache.served")
+                .description("Articles served from the last successful poll because the upstream could not be reached")
+                .tag("category", category)
+                .register(meterRegistry)
+                .increment(cached.size());
+        return Flux.fromIterable(cached).map(NewsArticle::copy);
+    }
+
+    private int pageCount(int totalResults) {
+        return Math.max(1, (totalResults + pageSize - 1) / pageSize);
+    }
+
+    /**
+     * Fetches one page of a query and decodes its articles incrementally.
+     * Sends If-None-Match / If-Modified-Since when the upstream supplied validators on the
+     * previous poll; a 304 completes without reading a body. Otherwise a hash of the body is
+     * computed while decoding and compared with the previous poll's once the page is complete.
+     * Transient failures before the first article are retried (see the class comment).
+     *
+     * @param outcome receives totalResults and whether the page was unchanged once the Flux completes
+     */
+    private Flux<NewsArticle> fetchPage(Query query, int page, PageOutcome outcome, Runnable onRequest) {
+        return Flux.defer(() -> {
+            long deadline = System.nanoTime() + retryBudget.toNanos();
+            AtomicBoolean emitted = new AtomicBoolean();
+            AtomicInteger retries = new AtomicInteger();
+            return attemptPage(query, page, outcome, onRequest)
+                    .doOnNext(article -> emitted.set(true))
+                    .retryWhen(Retry.backoff(Math.max(0, maxAttempts - 1), retryBackoff)
+                            .jitter(RETRY_JITTER)
+                            .filter(e -> !emitted.get() && isTransient(e)
+                                    && maxBackoffNanos(retries.get()) < deadline - System.nanoTime()
+                                    && circuitBreakers.forEndpoint(query.endpoint()).getState() != CircuitBreaker.State.OPEN)
+                            .doBeforeRetry(signal -> {
+                                retries.incrementAndGet();
+                                log.warn("Retrying {} (page {}) after: {}",
+                                        query.describe(), page, signal.failure().getMessage());
+                                recordRetry(query.endpoint());
+                            })
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        }).doOnError(e -> log.error("Error fetching news: {}", e.getMessage()));
+    }
+
+    /**
+     * One request for a page, guarded by the endpoint's circuit breaker. Failures count against the
+     * breaker unless the upstream answered with a client error other than 429, which says nothing
+     * about its health.
+     */
+    private Flux<NewsArticle> attemptPage(Query query, int page, PageOutcome outcome, Runnable onRequest) {
+        String fingerprintKey = fingerprintKey(query, page);
+        CircuitBreaker breaker = circuitBreakers.forEndpoint(query.endpoint());
+
+        return Flux.defer(() -> {
+            if (!breaker.tryAcquire()) {
+                circuitBreakers.recordRejected(query.endpoint());
+                return Flux.error(new CircuitBreakerOpenException(query.endpoint()));
+            }
+            return query.rateLimiter().acquire()
+                    .thenMany(Flux.defer(() -> {
+                        // A search must deliver every page, so it is never answered as unchanged
+                        ResponseFingerprint previous = query.isSearch() ? null : fingerprints.get(fingerprintKey);
+                        long start = System.nanoTime();
+                        log.info("Fetching news articles for {} (page {})", query.describe(), page);
+                        onRequest.run();
+
+                        return webClient.get()
+                                .uri(uriBuilder -> {
+                                    uriBuilder.path("/" + query.endpoint());
+                                    query.params().forEach(uriBuilder::queryParam);
+                                    return uriBuilder
+                                            .queryParam("pageSize", pageSize)
+                                            .queryParam("page", page)
+                                            .queryParam("apiKey", apiKey)
+                                            .build();
+                                })
+                                .headers(headers -> addConditionalHeaders(headers, previous))
+                                .exchangeToFlux(response -> decodeIfModified(response, query, fingerprintKey,
+                                        previous, outcome))
+                                .doFinally(signal -> latencyTimer(query.endpoint(), signal)
+                                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+                    }))
+                    .doOnComplete(breaker::onSuccess)
+                    .doOnError(e -> {
+                        if (isClientError(e)) {
+                            breaker.onSuccess();
+                        } else {
+                            breaker.onFailure();
+                        }
+                    })
+                    .doOnCancel(breaker::onIgnored);
+        });
+    }
+
+    /**
+     * The longest backoff before retry number {@code retries + 1}: exponential, plus the largest jitter.
+     */
+    private long maxBackoffNanos(int retries) {
+        double backoff = retryBackoff.toNanos() * Math.pow(2, retries) * (1 + RETRY_JITTER);
+        return backoff >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) backoff;
+    }
+
+    private static boolean isTransient(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError()
+                    || response.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+        }
+        return e instanceof WebClientRequestException || e instanceof IOException || e instanceof TimeoutException;
+    }
+
+    private static boolean isClientError(Throwable e) {
+        return e instanceof WebClientResponseException response
+                && response.getStatusCode().is4xxClientError()
+                && !response.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    private void addConditionalHeaders(HttpHeaders headers, ResponseFingerprint previous) {
+        if (previous == null) {
+            return;
+        }
+        if (previous.etag() != null) {
+            headers.setIfNoneMatch(previous.etag());
+        }
+        if (previous.lastModified() != null) {
+            headers.set(HttpHeaders.IF_MODIFIED_SINCE, previous.lastModified());
+        }
+    }
+
+    private Flux<NewsArticle> decodeIfModified(ClientResponse response, Query query, String fingerprintKey,
+                                               ResponseFingerprint previous, PageOutcome outcome) {
+        String category = query.category();
+        if (response.statusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            outcome.unchanged = true;
+            outcome.totalResults = previous != null ? previous.totalResults() : 0;
+            recordSkippedPoll(category, "not-modified");
+            recordSavedBytes(category, previous != null ? previous.bodyLength() : 0);
+            return response.releaseBody().thenMany(Flux.empty());
+        }
+        if (response.statusCode().isError()) {
+            return response.<NewsArticle>createError().flux();
+        }
+
+        HttpHeaders headers = response.headers().asHttpHeaders();
+        NewsApiStreamDecoder decoder = new NewsApiStreamDecoder(articleMapper, category);
+        MessageDigest digest = sha256();
+        long[] bodyLength = new long[1];
+
+        return response.bodyToFlux(DataBuffer.class)
+                .concatMapIterable(buffer -> {
+                    byte[] chunk = new byte[buffer.readableByteCount()];
+                    buffer.read(chunk);
+                    DataBufferUtils.release(buffer);
+                    digest.update(chunk);
+                    bodyLength[0] += chunk.length;
+                    return decoder.feed(chunk);
+                }, BODY_CHUNK_PREFETCH)
+                .concatWith(Flux.defer(() -> Flux.fromIterable(decoder.endOfInput())))
+                .doOnComplete(() -> {
+                    responseSizeSummary(query.endpoint()).record(bodyLength[0]);
+                    outcome.totalResults = decoder.getTotalResults();
+                    byte[] bodyHash = digest.digest();
+                    if (previous != null && MessageDigest.isEqual(previous.bodyHash(), bodyHash)) {
+                        // The articles have already been emitted; the published-article cache drops them
+                        log.info("Response for category {} unchanged since last poll", category);
+                        outcome.unchanged = true;
+                        recordSkippedPoll(category, "unchanged-body");
+                    } else if (!"ok".equals(decoder.getStatus())) {
+                        // Not remembered: error payloads must not suppress the next successful response
+                        log.warn("News API returned status {} for category {}", decoder.getStatus(), category);
+                    } else if (!query.isSearch()) {
+                        fingerprints.put(fingerprintKey, new ResponseFingerprint(
+                                headers.getETag(),
+                                headers.getFirst(HttpHeaders.LAST_MODIFIED),
+                                bodyHash,
+                                bodyLength[0],
+                                decoder.getTotalResults()));
+                    }
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private String fingerprintKey(Query query, int page) {
+        return query.describe() + ":" + page;
+    }
+
+    private long previousBodyLength(Query query, int fromPage, int toPage) {
+        long total = 0;
+        for (int page = fromPage; page <= toPage; page++) {
+            ResponseFingerprint previous = fingerprints.get(fingerprintKey(query, page));
+            if (previous != null) {
+                total += previous.bodyLength();
+            }
+        }
+        return total;
+    }
+
+    private Timer latencyTimer(String endpoint, SignalType signal) {
+        String outcome = switch (signal) {
+            case ON_COMPLETE -> "success";
+            case ON_ERROR -> "error";
+            default -> "cancelled";
+        };
+        return Timer.builder("newsapi.fetch.latency")
+                .description("Time from sending a NewsAPI request until its response body was fully decoded")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary responseSizeSummary(String endpoint) {
+        return DistributionSummary.builder("newsapi.response.size")
+                .description("Bytes of a NewsAPI response body that was read in full")
+                .baseUnit("bytes")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private void recordRetry(String endpoint) {
+        Counter.builder("newsapi.retries")
+                .description("NewsAPI requests repeated after a transient failure")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void recordSkippedPoll(String category, String reason) {
+        Counter.builder("newsapi.polls.skipped")
+                .description("Polls that found the response unchanged since the previous poll")
+                .tag("category", category)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void recordSavedBytes(String category, long bytesSaved) {
+        Counter.builder("newsapi.bytes.saved")
+                .description("Response bytes not downloaded because the previous response was still current")
+                .baseUnit("bytes")
+                .tag("category", category)
+                .register(meterRegistry)
+                .increment(bytesSaved);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * One upstream query: the endpoint, its parameters apart from paging, and the rate limiter it is charged to.
+     */
+    private record Query(String endpoint, String category, TokenBucketRateLimiter rateLimiter,
+                         Map<String, String> params) {
+
+        private Query {
+            params = new TreeMap<>(params);
+        }
+
+        private String describe() {
+            return endpoint + params;
+        }
+
+        private boolean isSearch() {
+            return EVERYTHING.equals(endpoint);
+        }
+    }
+
+    private record CachedPage(List<NewsArticle> articles, long storedAt) {
+    }
+
+    private record ResponseFingerprint(String etag, String lastModified, byte[] bodyHash, long bodyLength,
+                                       int totalResults) {
+    }
+
+    /**
+     * What a page fetch learned about the result set; filled in when the page's Flux completes.
+     */
+    private static final class PageOutcome {
+        private int totalResults;
+        private boolean unchanged;
     }
 }
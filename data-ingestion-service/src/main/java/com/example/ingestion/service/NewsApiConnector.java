@@ -0,0 +1,91 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.cluster.TargetOwnership;
+import com.example.ingestion.model.NewsArticle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls the NewsAPI top headlines of every configured (country, category) pair.
+ * Targets have the form {@code country:category}; which of them are polled in a cycle is
+ * decided by the {@link NewsApiPollingPlanner}, which is fed back every poll's cost and yield,
+ * among the targets that {@link TargetOwnership} assigns to this instance.
+ */
+@Component
+@Slf4j
+public class NewsApiConnector implements SourceConnector {
+
+    private final NewsApiClient newsApiClient;
+    private final NewsApiPollingPlanner planner;
+    private final TargetOwnership ownership;
+    private final int maxConcurrency;
+
+    public NewsApiConnector(
+            NewsApiClient newsApiClient,
+            NewsApiPollingPlanner planner,
+            TargetOwnership ownership,
+            @Value("${newsapi.max-concurrency:4}") int maxConcurrency) {
+        this.newsApiClient = newsApiClient;
+        this.planner = planner;
+        this.ownership = ownership;
+        this.maxConcurrency = maxConcurrency;
+        log.info("Configured news targets for ingestion: {}", planner.getTargets());
+    }
+
+    @Override
+    public String getName() {
+        return "newsapi";
+    }
+
+    /**
+     * Only the targets the planner considers due and this instance owns, so most cycles poll a
+     * subset of the matrix.
+     */
+    @Override
+    public List<String> getTargets() {
+        return planner.claimDueTargets(ownership::owns);
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public Flux<NewsArticle> fetch(String target) {
+        return Flux.defer(() -> {
+            AtomicInteger requests = new AtomicInteger();
+            return newsApiClient.streamTopHeadlines(
+                            NewsApiPollingPlanner.country(target),
+                            NewsApiPollingPlanner.category(target),
+                            requests::incrementAndGet)
+                    .doFinally(signal -> planner.recordRequests(target, requests.get()));
+        });
+    }
+
+    /**
+     * Tags metrics with the category only, keeping the existing per-category series.
+     */
+    @Override
+    public String getMetricCategory(String target) {
+        return NewsApiPollingPlanner.category(target);
+    }
+
+    /**
+     * Releases the target's claim, so the planner keeps it due instead of waiting a full interval.
+     */
+    @Override
+    public void onFetchDeferred(String target) {
+        planner.release(target);
+    }
+
+    @Override
+    public void onFetchCompleted(String target, long newArticles) {
+        planner.recordNewArticles(target, newArticles);
+    }
+}
@@ -0,0 +1,349 @@
+package com.example.ingestion.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Plans when each NewsAPI target, a (country, category) pair, is polled next.
+ * <p>
+ * The daily request quota is shared among targets in proportion to their observed rate of new
+ * articles, so fast-moving targets are polled often and quiet ones rarely. A target's share,
+ * divided by the requests one poll of it costs (pages), gives its polls per day and thus its
+ * interval, kept between {@code min-interval} and {@code max-interval}. Quota a target cannot use
+ * because of the minimum interval goes to the others. Targets are only handed out while the
+ * day's remaining quota covers them, most overdue first; the quota window resets at midnight UTC.
+ * Rates and poll costs are exponentially smoothed so one busy or quiet poll does not swing the plan.
+ * <p>
+ * Other users of the same API key, such as a backfill, {@link #reserve reserve} a share of the quota
+ * and {@link #recordUnplannedRequests record} what they send; the targets are planned within the rest,
+ * and the unused part of the reserve is never handed out to them.
+ */
+@Component
+@Slf4j
+public class NewsApiPollingPlanner {
+
+    // Keeps targets with no new articles in the plan, in articles per hour
+    private static final double BASE_RATE = 1.0;
+
+    private final int dailyQuota;
+    private final Duration minInterval;
+    private final Duration maxInterval;
+    private final double smoothing;
+    private final Clock clock;
+
+    private final Map<String, TargetState> targets = new LinkedHashMap<>();
+
+    private LocalDate quotaDay;
+    private int usedToday;
+    private int reserved;
+    private int unplannedToday;
+
+    @Autowired
+    public NewsApiPollingPlanner(
+            @Value("${newsapi.countries:us}") String countriesConfig,
+            @Value("${newsapi.categories:technology}") String categoriesConfig,
+            @Value("${newsapi.planner.daily-quota:100}") int dailyQuota,
+            @Value("${newsapi.planner.min-interval:PT5M}") Duration minInterval,
+            @Value("${newsapi.planner.max-interval:PT6H}") Duration maxInterval,
+            @Value("${newsapi.planner.smoothing:0.3}") double smoothing,
+            MeterRegistry meterRegistry) {
+        this(split(countriesConfig), split(categoriesConfig), dailyQuota, minInterval, maxInterval, smoothing,
+                Clock.systemUTC());
+
+        Gauge.builder("newsapi.quota.used", this, NewsApiPollingPlanner::getUsedToday)
+                .description("NewsAPI requests sent since the daily quota was last reset")
+                .register(meterRegistry);
+        Gauge.builder("newsapi.quota.remaining", this, NewsApiPollingPlanner::getRemainingToday)
+                .description("NewsAPI requests left in today's quota")
+                .register(meterRegistry);
+    }
+
+    NewsApiPollingPlanner(List<String> countries, List<String> categories, int dailyQuota,
+                          Duration minInterval, Duration maxInterval, double smoothing, Clock clock) {
+        if (dailyQuota < 1 || minInterval.compareTo(maxInterval) > 0 || smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("Invalid NewsAPI polling plan configuration");
+        }
+        this.dailyQuota = dailyQuota;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.smoothing = smoothing;
+        this.clock = clock;
+        this.quotaDay = today();
+
+        Instant now = clock.instant();
+        for (String country : countries) {
+            for (String category : categories) {
+                targets.put(target(country, category), new TargetState(country, category, now));
+            }
+        }
+        replan();
+        log.info("Planning {} NewsAPI targets within {} requests per day", targets.size(), dailyQuota);
+    }
+
+    /**
+     * All targets, whether due or not.
+     */
+    public synchronized List<String> getTargets() {
+        return List.copyOf(targets.keySet());
+    }
+
+    /**
+     * Hands out the targets due now that fit into the remaining daily quota, most overdue first,
+     * and schedules their next poll. Each target is handed out at most once per call.
+     */
+    public List<String> claimDueTargets() {
+        return claimDueTargets(target -> true);
+    }
+
+    /**
+     * Like {@link #claimDueTargets()}, but only for the targets this instance owns. The plan still
+     * covers all targets, so when several instances split the targets, each one spends about the
+     * quota share of the targets it owns.
+     */
+    public synchronized List<String> claimDueTargets(Predicate<String> owned) {
+        Instant now = clock.instant();
+        rollQuotaDay();
+
+        List<TargetState> due = targets.values().stream()
+                .filter(state -> !state.nextPollAt.isAfter(now))
+                .filter(state -> owned.test(target(state.country, state.category)))
+                .sorted(Comparator.comparing(state -> state.nextPollAt))
+                .toList();
+
+        List<String> claimed = new ArrayList<>();
+        double claimedCost = Math.max(0, reserved - unplannedToday);
+        for (TargetState state : due) {
+            double cost = Math.ceil(state.requestsPerPoll);
+            if (usedToday + claimedCost + cost > dailyQuota) {
+                continue;
+            }
+            claimedCost += cost;
+            state.claimedFrom = state.nextPollAt;
+            state.nextPollAt = now.plus(state.interval);
+            claimed.add(target(state.country, state.category));
+        }
+        if (claimed.size() < due.size()) {
+            log.warn("Deferring {} due NewsAPI targets, {} of {} daily requests used",
+                    due.size() - claimed.size(), usedToday, dailyQuota);
+        }
+        return claimed;
+    }
+
+    /**
+     * Hands a claimed target back without polling it, so it is due again when it was before the claim.
+     */
+    public synchronized void release(String target) {
+        TargetState state = targets.get(target);
+        if (state == null || state.claimedFrom == null) {
+            return;
+        }
+        state.nextPollAt = state.claimedFrom;
+        state.claimedFrom = null;
+    }
+
+    /**
+     * Records the upstream requests one poll of a target used.
+     */
+    public synchronized void recordRequests(String target, int requests) {
+        TargetState state = targets.get(target);
+        if (state == null) {
+            return;
+        }
+        state.claimedFrom = null;
+        rollQuotaDay();
+        usedToday += requests;
+        state.requestsToday += requests;
+        state.requestsPerPoll = smooth(state.requestsPerPoll, Math.max(1, requests));
+        replan();
+    }
+
+    /**
+     * Sets aside requests per day for use of the API key outside the plan, and re-plans the targets
+     * within the rest of the daily quota. Zero releases the reserve.
+     */
+    public synchronized void reserve(int requestsPerDay) {
+        if (requestsPerDay < 0 || requestsPerDay >= dailyQuota) {
+            throw new IllegalArgumentException("Cannot reserve " + requestsPerDay + " of " + dailyQuota
+                    + " daily NewsAPI requests");
+        }
+        reserved = requestsPerDay;
+        replan();
+    }
+
+    /**
+     * Records requests sent outside the plan, which count against the day's quota like planned ones.
+     */
+    public synchronized void recordUnplannedRequests(int requests) {
+        rollQuotaDay();
+        usedToday += requests;
+        unplannedToday += requests;
+    }
+
+    /**
+     * Records how many new articles a completed poll of a target found, and re-plans all intervals.
+     * The first poll of a target has no previous poll to measure a rate against and only sets the baseline.
+     */
+    public synchronized void recordNewArticles(String target, long newArticles) {
+        TargetState state = targets.get(target);
+        if (state == null) {
+            return;
+        }
+        Instant now = clock.instant();
+        if (state.lastPolledAt != null) {
+            double hours = Math.max(Duration.between(state.lastPolledAt, now).toMillis(), 1) / 3_600_000.0;
+            state.newArticlesPerHour = smooth(state.newArticlesPerHour, newArticles / hours);
+        }
+        state.lastPolledAt = now;
+        replan();
+        state.nextPollAt = now.plus(state.interval);
+    }
+
+    public int getDailyQuota() {
+        return dailyQuota;
+    }
+
+    public synchronized int getUsedToday() {
+        rollQuotaDay();
+        return usedToday;
+    }
+
+    public synchronized int getRemainingToday() {
+        return Math.max(0, dailyQuota - getUsedToday());
+    }
+
+    public synchronized PollingPlan snapshot() {
+        rollQuotaDay();
+        List<TargetPlan> plans = targets.entrySet().stream()
+                .map(entry -> {
+                    TargetState state = entry.getValue();
+                    return new TargetPlan(entry.getKey(), state.country, state.category, state.interval,
+                            state.nextPollAt, state.lastPolledAt, state.newArticlesPerHour, state.requestsPerPoll,
+                            state.requestsToday, state.requestsPerPoll * Duration.ofDays(1).toMillis()
+                                    / state.interval.toMillis());
+                })
+                .toList();
+        return new PollingPlan(dailyQuota, reserved, usedToday, getRemainingToday(),
+                quotaDay.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant(), plans);
+    }
+
+    /**
+     * Splits the daily quota by weight (new-article rate) and turns each share into an interval.
+     * Targets whose share would poll them more often than the minimum interval are pinned to it,
+     * and their unused quota is split among the remaining targets.
+     */
+    private void replan() {
+        List<TargetState> open = new ArrayList<>(targets.values());
+        double quota = dailyQuota - reserved;
+        double dayMillis = Duration.ofDays(1).toMillis();
+
+        boolean pinned = true;
+        while (pinned && !open.isEmpty()) {
+            pinned = false;
+            double totalWeight = open.stream().mapToDouble(TargetState::weight).sum();
+            for (TargetState state : List.copyOf(open)) {
+                double pollsPerDay = quota * state.weight() / totalWeight / state.requestsPerPoll;
+                if (dayMillis / pollsPerDay < minInterval.toMillis()) {
+                    state.interval = minInterval;
+                    quota -= state.requestsPerPoll * dayMillis / minInterval.toMillis();
+                    open.remove(state);
+                    pinned = true;
+                }
+            }
+        }
+
+        double totalWeight = open.stream().mapToDouble(TargetState::weight).sum();
+        for (TargetState state : open) {
+            double pollsPerDay = Math.max(quota, 0) * state.weight() / totalWeight / state.requestsPerPoll;
+            long millis = pollsPerDay > 0 ? (long) (dayMillis / pollsPerDay) : maxInterval.toMillis();
+            state.interval = Duration.ofMillis(Math.min(millis, maxInterval.toMillis()));
+        }
+    }
+
+    private void rollQuotaDay() {
+        LocalDate today = today();
+        if (!today.equals(quotaDay)) {
+            quotaDay = today;
+            usedToday = 0;
+            unplannedToday = 0;
+            targets.values().forEach(state -> state.requestsToday = 0);
+        }
+    }
+
+    private LocalDate today() {
+        return LocalDate.ofInstant(clock.instant(), ZoneOffset.UTC);
+    }
+
+    private double smooth(double previous, double observed) {
+        return previous + smoothing * (observed - previous);
+    }
+
+    static String target(String country, String category) {
+        return country + ":" + category;
+    }
+
+    static String country(String target) {
+        return target.substring(0, target.indexOf(':'));
+    }
+
+    static String category(String target) {
+        return target.substring(target.indexOf(':') + 1);
+    }
+
+    private static List<String> split(String config) {
+        return Arrays.stream(config.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    private static final class TargetState {
+        private final String country;
+        private final String category;
+        private Instant nextPollAt;
+        private Instant claimedFrom;
+        private Instant lastPolledAt;
+        private Duration interval;
+        private double newArticlesPerHour;
+        private double requestsPerPoll = 1;
+        private int requestsToday;
+
+        private TargetState(String country, String category, Instant nextPollAt) {
+            this.country = country;
+            this.category = category;
+            this.nextPollAt = nextPollAt;
+        }
+
+        private double weight() {
+            return newArticlesPerHour + BASE_RATE;
+        }
+    }
+
+    /**
+     * The current plan, as exposed by the {@code pollingplan} actuator endpoint.
+     */
+    public record PollingPlan(int dailyQuota, int reservedPerDay, int usedToday, int remainingToday,
+                              Instant quotaResetsAt, List<TargetPlan> targets) {
+    }
+
+    public record TargetPlan(String target, String country, String category, Duration interval,
+                             Instant nextPollAt, Instant lastPolledAt, double newArticlesPerHour,
+                             double requestsPerPoll, int requestsToday, double plannedRequestsPerDay) {
+    }
+}
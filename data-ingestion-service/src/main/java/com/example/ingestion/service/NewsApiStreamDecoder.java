@@ -0,0 +1,225 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental decoder for one News API top-headlines response.
+ * Bytes are fed chunk by chunk as they arrive from the network, and every article is turned
+ * into a {@link NewsArticle} as soon as its closing brace has been read. Nothing but the
+ * article currently being decoded is held in memory, so heap use does not depend on the
+ * size of the response.
+ *
+ * <p>Instances are stateful and must be used for a single response only.
+ */
+class NewsApiStreamDecoder {
+
+    // Nesting levels of the News API payload: {root: {articles: [{article: {source}}]}}
+    private static final int ROOT = 1;
+    private static final int ARTICLES = 2;
+    private static final int ARTICLE = 3;
+    private static final int SOURCE = 4;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final ArticleMapper articleMapper;
+    private final String category;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+
+    private int depth;
+    private int skipUntilDepth = -1;
+    private String fieldName;
+    private boolean inArticles;
+    private boolean inSource;
+    private NewsArticle current;
+
+    private String status;
+    private int totalResults;
+
+    // Time spent in feed and endOfInput, i.e. decoding without waiting for the network
+    private long decodingNanos;
+
+    NewsApiStreamDecoder(ArticleMapper articleMapper, String category) {
+        this.articleMapper = articleMapper;
+        this.category = category;
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feeds the next chunk of the response body.
+     *
+     * @return the articles completed by this chunk, usually zero or one
+     */
+    List<NewsArticle> feed(byte[] chunk) {
+        long start = System.nanoTime();
+        try {
+            feeder.feedInput(chunk, 0, chunk.length);
+            return drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            decodingNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Signals the end of the response body and reports the time spent decoding it to the mapper.
+     *
+     * @return any articles completed by the remaining buffered input
+     */
+    List<NewsArticle> endOfInput() {
+        long start = System.nanoTime();
+        try {
+            feeder.endOfInput();
+            return drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            decodingNanos += System.nanoTime() - start;
+            articleMapper.recordMappingTime(decodingNanos);
+        }
+    }
+
+    String getStatus() {
+        return status;
+    }
+
+    int getTotalResults() {
+        return totalResults;
+    }
+
+    private List<NewsArticle> drain() throws IOException {
+        List<NewsArticle> completed = null;
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            NewsArticle article = handle(token);
+            if (article != null) {
+                if (completed == null) {
+                    completed = new ArrayList<>(2);
+                }
+                completed.add(article);
+            }
+        }
+        return completed != null ? completed : List.of();
+    }
+
+    /**
+     * Applies one token to the decoder state.
+     *
+     * @return the finished article when the token closes an article object, otherwise null
+     */
+    private NewsArticle handle(JsonToken token) throws IOException {
+        switch (token) {
+            case START_OBJECT, START_ARRAY -> {
+                depth++;
+                if (skipUntilDepth >= 0) {
+                    return null;
+                }
+                if (depth == ROOT && token == JsonToken.START_OBJECT) {
+                    return null;
+                }
+                if (depth == ARTICLES && token == JsonToken.START_ARRAY && "articles".equals(fieldName)) {
+                    inArticles = true;
+                } else if (depth == ARTICLE && inArticles && token == JsonToken.START_OBJECT) {
+                    current = new NewsArticle();
+                } else if (depth == SOURCE && current != null && token == JsonToken.START_OBJECT
+                        && "source".equals(fieldName)) {
+                    inSource = true;
+                } else {
+                    // A value we do not map (unknown nested field), skip all of its children
+                    skipUntilDepth = depth - 1;
+                }
+                return null;
+            }
+            case END_OBJECT, END_ARRAY -> {
+                depth--;
+                if (skipUntilDepth >= 0) {
+                    if (depth == skipUntilDepth) {
+                        skipUntilDepth = -1;
+                    }
+                    return null;
+                }
+                if (inSource && depth == ARTICLE) {
+                    inSource = false;
+                } else if (current != null && depth == ARTICLES) {
+                    NewsArticle finished = finish(current);
+                    current = null;
+                    return finished;
+                } else if (inArticles && depth == ROOT) {
+                    inArticles = false;
+                }
+                return null;
+            }
+            case FIELD_NAME -> {
+                if (skipUntilDepth < 0) {
+                    fieldName = parser.currentName();
+                }
+                return null;
+            }
+            default -> {
+                if (skipUntilDepth < 0) {
+                    handleScalar(token);
+                }
+                return null;
+            }
+        }
+    }
+
+    private void handleScalar(JsonToken token) throws IOException {
+        if (depth == ARTICLE && current != null && "publishedAt".equals(fieldName)) {
+            // Parsed from the parser's buffer, the timestamp string itself is never materialized
+            current.setPublishedAt(token == JsonToken.VALUE_STRING
+                    ? articleMapper.parsePublishedAt(
+                            parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())
+                    : null);
+            return;
+        }
+        String value = token == JsonToken.VALUE_NULL ? null : parser.getText();
+
+        if (depth == ROOT) {
+            if ("status".equals(fieldName)) {
+                status = value;
+            } else if ("totalResults".equals(fieldName) && token == JsonToken.VALUE_NUMBER_INT) {
+                totalResults = parser.getIntValue();
+            }
+        } else if (depth == SOURCE && inSource) {
+            if ("id".equals(fieldName)) {
+                current.setSourceId(value);
+            } else if ("name".equals(fieldName)) {
+                current.setSourceName(value);
+            }
+        } else if (depth == ARTICLE && current != null) {
+            switch (fieldName) {
+                case "title" -> current.setTitle(value);
+                case "description" -> current.setDescription(value);
+                case "content" -> current.setContent(value);
+                case "author" -> current.setAuthor(value);
+                case "url" -> current.setUrl(value);
+                case "urlToImage" -> current.setImageUrl(value);
+                default -> {
+                    // Field not used by NewsArticle
+                }
+            }
+        }
+    }
+
+    private NewsArticle finish(NewsArticle article) {
+        article.setId(ArticleIdGenerator.fromUrl(article.getUrl()));
+        article.setCategory(category);
+        return article;
+    }
+}
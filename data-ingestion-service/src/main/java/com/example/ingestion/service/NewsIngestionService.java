@@ -1,67 +1,163 @@
 package com.example.ingestion.service;
 
-import com.example.ingestion.model.NewsApiResponse;
+import com.example.ingestion.crawler.ArticleContentCrawler;
+import com.example.ingestion.enrichment.EnrichmentPipeline;
 import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.util.Locale;
 
 @Service
 @Slf4j
 public class NewsIngestionService {
 
-    private final NewsApiClient newsApiClient;
-    private final ArticleMapper articleMapper;
-    private final KafkaTemplate<String, NewsArticle> kafkaTemplate;
-    
-    @Value("${kafka.topic.news}")
-    private String kafkaTopic;
-    
+    private final ArticlePublisher articlePublisher;
+    private final PublishedArticleCache publishedArticles;
+    private final NearDuplicateDetector nearDuplicates;
+    private final EnrichmentPipeline enrichmentPipeline;
+    private final ArticleContentCrawler contentCrawler;
+    private final MeterRegistry meterRegistry;
+
     public NewsIngestionService(
-            NewsApiClient newsApiClient,
-            ArticleMapper articleMapper,
-            KafkaTemplate<String, NewsArticle> kafkaTemplate) {
-        this.newsApiClient = newsApiClient;
-        this.articleMapper = articleMapper;
-        this.kafkaTemplate = kafkaTemplate;
+            ArticlePublisher articlePublisher,
+            PublishedArticleCache publishedArticles,
+            NearDuplicateDetector nearDuplicates,
+            EnrichmentPipeline enrichmentPipeline,
+            ArticleContentCrawler contentCrawler,
+            MeterRegistry meterRegistry) {
+        this.articlePublisher = articlePublisher;
+        this.publishedArticles = publishedArticles;
+        this.nearDuplicates = nearDuplicates;
+        this.enrichmentPipeline = enrichmentPipeline;
+        this.contentCrawler = contentCrawler;
+        this.meterRegistry = meterRegistry;
     }
-    
+
     /**
-     * Fetches articles from the News API for a given category and publishes them to Kafka.
-     * 
-     * @param category The news category to fetch (e.g., "technology", "business")
-     * @return A Mono that completes when all articles have been published
+     * Fetches one target of a source connector and publishes its articles to Kafka.
+     * Articles are published one by one as the connector decodes them, and the number of
+     * unacknowledged sends is bounded, so large targets never sit in memory as a whole.
+     * Articles whose send fails are not remembered as published, so the next cycle retries them;
+     * the connector learns about each of them through {@link SourceConnector#onPublishFailed}.
+     * New articles are enriched before the near-duplicate check, so that it compares cleaned-up text.
+     * Articles that pass it are handed to the {@link ArticleContentCrawler} once they were acknowledged
+     * or spooled, so the enriched topic never gets ahead of the news topic, and the crawler publishes
+     * them again with their full text.
+     * The time from starting the fetch until the last article was acknowledged is recorded as
+     * {@code ingestion.fetch-to-ack}, per connector and category.
+     *
+     * @param connector The connector to fetch from
+     * @param target    The target to fetch (e.g. a NewsAPI category or a feed URL)
+     * @return A Mono that completes when all articles have been acknowledged by the broker or spooled
      */
-    public Mono<Void> fetchAndPublishArticles(String category) {
-        return newsApiClient.fetchTopHeadlines(category)
-                .doOnNext(response -> log.info("Fetched {} articles for category: {}", 
-                        response.getArticles() != null ? response.getArticles().size() : 0, 
-                        category))
-                .map(apiResponse -> articleMapper.mapFromNewsApiResponse(apiResponse, category))
-                .doOnNext(articles -> log.info("Mapped {} articles for publishing", articles.size()))
-                .flatMap(this::publishArticlesToKafka)
+    public Mono<Void> fetchAndPublish(SourceConnector connector, String target) {
+        String category = connector.getMetricCategory(target);
+        Counter fetched = articlesCounter("ingestion.articles.fetched",
+                "Articles received from a source, before deduplication", connector, category);
+        Flux<NewsArticle> articles = enrichmentPipeline.enrichAll(connector.fetch(target)
+                        .doOnNext(article -> fetched.increment())
+                        .filter(article -> isNotYetPublished(article, category)))
+                .filter(article -> isNotDroppedNearDuplicate(article, category));
+
+        return Mono.defer(() -> {
+                    Timer.Sample fetchToAck = Timer.start();
+                    return articlePublisher.publishAll(articles, category, contentCrawler::submit, article -> {
+                                publishedArticles.forget(article.getId());
+                                connector.onPublishFailed(target, article);
+                            })
+                            .doOnNext(count -> fetchToAck.stop(fetchToAckTimer(connector, category)));
+                })
+                .doOnNext(count -> {
+                    log.info("Published {} articles from {} target: {}", count, connector.getName(), target);
+                    articlesCounter("ingestion.articles.published",
+                            "Articles acknowledged by the broker or spooled for a later send", connector, category)
+                            .increment(count);
+                    connector.onFetchCompleted(target, count);
+                })
+                .then()
                 .onErrorResume(e -> {
                     log.error("Error fetching or publishing articles: {}", e.getMessage(), e);
                     return Mono.empty();
                 });
     }
-    
+
+    /**
+     * Checks whether the article was already published in a previous cycle.
+     * Article IDs are derived from the article URL, so a repeated headline has the same ID.
+     *
+     * @param article  The decoded article
+     * @param category The metric category of the target the article was fetched from
+     * @return true if the article has not been published yet
+     */
+    private boolean isNotYetPublished(NewsArticle article, String category) {
+        if (publishedArticles.markIfAbsent(article.getId())) {
+            return true;
+        }
+        log.debug("Suppressing already published article: {} - {}", article.getId(), article.getTitle());
+        duplicatesCounter(category).increment();
+        return false;
+    }
+
     /**
-     * Publishes a list of articles to Kafka, using each article's ID as the message key.
-     * 
-     * @param articles The list of articles to publish
-     * @return A Mono that completes when all articles have been published
+     * Checks the article against recently seen stories from any source. Depending on the
+     * configured mode a near-duplicate is dropped or tagged with the canonical ID of its story.
+     *
+     * @param article  The article that passed exact deduplication
+     * @param category The metric category of the target the article was fetched from
+     * @return false if the article is a near-duplicate that must not be published
      */
-    private Mono<Void> publishArticlesToKafka(List<NewsArticle> articles) {
-        articles.forEach(article -> {
-            log.debug("Publishing article: {} - {}", article.getId(), article.getTitle());
-            kafkaTemplate.send(kafkaTopic, article.getId(), article);
-        });
-        
-        return Mono.empty(); // Return an empty Mono to indicate completion
+    private boolean isNotDroppedNearDuplicate(NewsArticle article, String category) {
+        if (nearDuplicates.getMode() == NearDuplicateDetector.Mode.OFF) {
+            return true;
+        }
+        String canonicalId = nearDuplicates.findCanonicalId(article);
+        if (canonicalId == null) {
+            return true;
+        }
+        nearDuplicatesCounter(category).increment();
+        if (nearDuplicates.getMode() == NearDuplicateDetector.Mode.DROP) {
+            log.debug("Dropping near-duplicate of {}: {} - {}", canonicalId, article.getId(), article.getTitle());
+            return false;
+        }
+        article.setCanonicalId(canonicalId);
+        return true;
+    }
+
+    private Counter articlesCounter(String name, String description, SourceConnector connector, String category) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("connector", connector.getName())
+                .tag("category", category)
+                .register(meterRegistry);
+    }
+
+    private Timer fetchToAckTimer(SourceConnector connector, String category) {
+        return Timer.builder("ingestion.fetch-to-ack")
+                .description("Time from starting to fetch a target until all its new articles were acknowledged")
+                .tag("connector", connector.getName())
+                .tag("category", category)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private Counter nearDuplicatesCounter(String category) {
+        return Counter.builder("ingestion.articles.near-duplicates")
+                .description("Articles found to repeat a story already seen from this or another source")
+                .tag("category", category)
+                .tag("mode", nearDuplicates.getMode().name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry);
+    }
+
+    private Counter duplicatesCounter(String category) {
+        return Counter.builder("ingestion.articles.duplicates.suppressed")
+                .description("Articles dropped because they were already published in an earlier cycle")
+                .tag("category", category)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,25 @@
+package com.example.ingestion.service;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the NewsAPI polling plan at {@code /actuator/pollingplan}: quota use for the current
+ * day and, per (country, category) target, its interval, next poll time and observed rates.
+ */
+@Component
+@Endpoint(id = "pollingplan")
+public class PollingPlanEndpoint {
+
+    private final NewsApiPollingPlanner planner;
+
+    public PollingPlanEndpoint(NewsApiPollingPlanner planner) {
+        this.planner = planner;
+    }
+
+    @ReadOperation
+    public NewsApiPollingPlanner.PollingPlan pollingPlan() {
+        return planner.snapshot();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ingestion.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, time-limited set of article IDs that have already been published.
+ * Entries expire after the configured TTL, and the oldest entries are evicted
+ * once the maximum size is reached, so memory use stays flat no matter how
+ * long the service runs.
+ */
+@Component
+public class PublishedArticleCache {
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Clock clock;
+
+    // Insertion-ordered, so the eldest entry is always the first to expire
+    private final LinkedHashMap<String, Long> publishedAt = new LinkedHashMap<>();
+
+    @Autowired
+    public PublishedArticleCache(
+            @Value("${ingestion.dedup.ttl:PT24H}") Duration ttl,
+            @Value("${ingestion.dedup.max-entries:100000}") int maxEntries) {
+        this(ttl, maxEntries, Clock.systemUTC());
+    }
+
+    PublishedArticleCache(Duration ttl, int maxEntries, Clock clock) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Records the ID as published.
+     *
+     * @return true if the ID was not seen within the TTL window, false if it is a duplicate
+     */
+    public synchronized boolean markIfAbsent(String articleId) {
+        long now = clock.millis();
+        evictExpired(now);
+
+        Long seenAt = publishedAt.get(articleId);
+        if (seenAt != null) {
+            return false;
+        }
+
+        publishedAt.put(articleId, now);
+        if (publishedAt.size() > maxEntries) {
+            Iterator<String> eldest = publishedAt.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+        return true;
+    }
+
+    /**
+     * Removes the ID again, e.g. because publishing it failed and it should be retried next cycle.
+     */
+    public synchronized void forget(String articleId) {
+        publishedAt.remove(articleId);
+    }
+
+    public synchronized int size() {
+        return publishedAt.size();
+    }
+
+    private void evictExpired(long now) {
+        long cutoff = now - ttl.toMillis();
+        Iterator<Map.Entry<String, Long>> entries = publishedAt.entrySet().iterator();
+        while (entries.hasNext()) {
+            if (entries.next().getValue() > cutoff) {
+                break;
+            }
+            entries.remove();
+        }
+    }
+}
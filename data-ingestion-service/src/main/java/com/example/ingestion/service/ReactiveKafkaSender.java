@@ -0,0 +1,98 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking adapter over the Kafka producer for the Reactor based ingestion pipeline.
+ * <p>
+ * {@code Producer.send} is asynchronous except when the producer's record buffer is full, in
+ * which case it blocks for up to {@code max.block.ms}. All sends therefore run on a single
+ * dedicated thread: when the buffer is full that thread stalls, sends queue up behind it, and
+ * callers bounding their in-flight sends stop requesting upstream elements. Broker pressure
+ * thus throttles fetching instead of growing memory, and no Reactor or Netty thread ever blocks.
+ * Acknowledgements are handed off the producer's network thread before they are emitted.
+ */
+@Component
+@Slf4j
+public class ReactiveKafkaSender implements DisposableBean {
+
+    private final ProducerFactory<String, NewsArticle> producerFactory;
+    private final Scheduler sendScheduler;
+    private final AtomicInteger pendingSends = new AtomicInteger();
+
+    private volatile Producer<String, NewsArticle> producer;
+
+    public ReactiveKafkaSender(ProducerFactory<String, NewsArticle> producerFactory, MeterRegistry meterRegistry) {
+        this.producerFactory = producerFactory;
+        this.sendScheduler = Schedulers.newSingle("kafka-sender");
+
+        Gauge.builder("ingestion.publish.sends.pending", pendingSends, AtomicInteger::get)
+                .description("Sends handed to the sender that the broker has not acknowledged yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends a record.
+     *
+     * @param record The record to send
+     * @return A Mono emitting the record metadata once the broker has acknowledged the record
+     */
+    public Mono<RecordMetadata> send(ProducerRecord<String, NewsArticle> record) {
+        return Mono.<RecordMetadata>create(sink -> {
+                    pendingSends.incrementAndGet();
+                    sink.onDispose(pendingSends::decrementAndGet);
+                    producer().send(record, (metadata, exception) -> {
+                        if (exception != null) {
+                            sink.error(exception);
+                        } else {
+                            sink.success(metadata);
+                        }
+                    });
+                })
+                .subscribeOn(sendScheduler)
+                // Never run downstream (and thus upstream fetching) on the producer network thread
+                .publishOn(Schedulers.parallel());
+    }
+
+    public int getPendingSends() {
+        return pendingSends.get();
+    }
+
+    private Producer<String, NewsArticle> producer() {
+        Producer<String, NewsArticle> current = producer;
+        if (current == null) {
+            synchronized (this) {
+                current = producer;
+                if (current == null) {
+                    current = producerFactory.createProducer();
+                    producer = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public void destroy() {
+        sendScheduler.dispose();
+        Producer<String, NewsArticle> current = producer;
+        if (current != null) {
+            log.info("Closing Kafka producer used by the reactive sender");
+            current.close();
+        }
+    }
+}
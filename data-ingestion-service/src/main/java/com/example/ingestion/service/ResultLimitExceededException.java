@@ -0,0 +1,19 @@
+package com.example.ingestion.service;
+
+/**
+ * Signals that a search matches more articles than the client pages through, so that the
+ * caller can split it into narrower searches instead of silently missing the rest.
+ */
+public class ResultLimitExceededException extends RuntimeException {
+
+    private final int totalResults;
+
+    public ResultLimitExceededException(String query, int totalResults, int limit) {
+        super(query + " matches " + totalResults + " articles, more than the " + limit + " that are fetched");
+        this.totalResults = totalResults;
+    }
+
+    public int getTotalResults() {
+        return totalResults;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.cluster.TargetOwnership;
+import com.example.ingestion.model.NewsArticle;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Polls RSS 2.0 and Atom feeds.
+ * Feeds are fetched with blocking I/O on virtual threads and parsed item by item with
+ * {@link FeedParser}, so thousands of feeds can be in flight per cycle without a large
+ * thread pool and without buffering whole feed documents.
+ * <p>
+ * Targets are the configured feed URLs plus every {@code .xml}, {@code .rss} and {@code .atom}
+ * file in the optional feed directory, which stands in for remote feeds in tests and local runs.
+ */
+@Component
+@Slf4j
+public class RssFeedConnector implements SourceConnector, DisposableBean {
+
+    private static final List<String> FEED_FILE_EXTENSIONS = List.of(".xml", ".rss", ".atom");
+
+    private final List<String> feedUrls;
+    private final Path feedDirectory;
+    private final String category;
+    private final int maxConcurrency;
+    private final Duration timeout;
+    private final TargetOwnership ownership;
+
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final Scheduler fetchScheduler = Schedulers.fromExecutorService(virtualThreads, "feed-fetch");
+    private final HttpClient httpClient;
+
+    public RssFeedConnector(
+            @Value("${ingestion.rss.feeds:}") String feedsConfig,
+            @Value("${ingestion.rss.feed-directory:}") String feedDirectory,
+            @Value("${ingestion.rss.category:general}") String category,
+            @Value("${ingestion.rss.max-concurrency:256}") int maxConcurrency,
+            @Value("${ingestion.rss.timeout:PT10S}") Duration timeout,
+            TargetOwnership ownership) {
+        this.feedUrls = Arrays.stream(feedsConfig.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+        this.feedDirectory = feedDirectory.isBlank() ? null : Path.of(feedDirectory);
+        this.category = category;
+        this.maxConcurrency = maxConcurrency;
+        this.timeout = timeout;
+        this.ownership = ownership;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(virtualThreads)
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        log.info("Configured {} RSS/Atom feeds and feed directory {}", feedUrls.size(), this.feedDirectory);
+    }
+
+    @Override
+    public String getName() {
+        return "rss";
+    }
+
+    /**
+     * The configured feed URLs followed by the {@code file:} URIs of the feed directory,
+     * which is listed again on every cycle so feeds can be added without a restart.
+     * Only the feeds this instance owns are returned.
+     */
+    @Override
+    public List<String> getTargets() {
+        return allFeeds().stream()
+                .filter(ownership::owns)
+                .toList();
+    }
+
+    private List<String> allFeeds() {
+        if (feedDirectory == null) {
+            return feedUrls;
+        }
+        List<String> targets = new ArrayList<>(feedUrls);
+        try (Stream<Path> files = Files.list(feedDirectory)) {
+            files.filter(RssFeedConnector::isFeedFile)
+                    .sorted()
+                    .map(file -> file.toUri().toString())
+                    .forEach(targets::add);
+        } catch (IOException e) {
+            log.error("Failed to list feed directory {}: {}", feedDirectory, e.getMessage());
+        }
+        return targets;
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * All feeds share one category, so the feed URL never ends up as a metric tag.
+     */
+    @Override
+    public String getMetricCategory(String target) {
+        return category;
+    }
+
+    @Override
+    public Flux<NewsArticle> fetch(String target) {
+        return Flux.using(
+                        () -> open(target),
+                        in -> Flux.<NewsArticle, FeedParser>generate(
+                                () -> new FeedParser(in, category),
+                                (parser, sink) -> {
+                                    try {
+                                        NewsArticle article = parser.next();
+                                        if (article == null) {
+                                            sink.complete();
+                                        } else {
+                                            sink.next(article);
+                                        }
+                                    } catch (XMLStreamException e) {
+                                        sink.error(new IOException("Malformed feed " + target + ": " + e.getMessage(), e));
+                                    }
+                                    return parser;
+                                },
+                                this::closeQuietly),
+                        this::closeQuietly)
+                // Opening, reading and every downstream request run on virtual threads
+                .subscribeOn(fetchScheduler);
+    }
+
+    private InputStream open(String target) throws IOException, InterruptedException {
+        URI uri = URI.create(target);
+        if ("file".equals(uri.getScheme())) {
+            return Files.newInputStream(Path.of(uri));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Accept", "application/rss+xml, application/atom+xml, application/xml;q=0.9, */*;q=0.8")
+                .GET()
+                .build();
+        HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() != 200) {
+            response.body().close();
+            throw new IOException("Feed " + target + " returned HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private void closeQuietly(AutoCloseable resource) {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            log.debug("Failed to close feed resource: {}", e.getMessage());
+        }
+    }
+
+    private static boolean isFeedFile(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return Files.isRegularFile(file) && FEED_FILE_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    @Override
+    public void destroy() {
+        fetchScheduler.dispose();
+        httpClient.close();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * A source of news articles polled once per ingestion cycle.
+ * Each connector exposes the targets it polls (e.g. NewsAPI categories or feed URLs) and
+ * fetches one target at a time; the ingestion cycle fetches up to
+ * {@link #getMaxConcurrency()} targets of a connector in parallel and publishes what they emit.
+ */
+public interface SourceConnector {
+
+    /**
+     * Short, stable name of the connector, used in logs and metric tags.
+     */
+    String getName();
+
+    /**
+     * The targets to poll in the next cycle.
+     */
+    List<String> getTargets();
+
+    /**
+     * Maximum number of targets of this connector fetched in parallel.
+     */
+    int getMaxConcurrency();
+
+    /**
+     * Fetches the current articles of one target.
+     * The returned Flux must respect backpressure and must not block the subscribing thread.
+     */
+    Flux<NewsArticle> fetch(String target);
+
+    /**
+     * The category metric tag for a target. Must have a low cardinality, so connectors with
+     * many targets should override it.
+     */
+    default String getMetricCategory(String target) {
+        return target;
+    }
+
+    /**
+     * Called instead of {@link #fetch(String)} for a target of {@link #getTargets()} that is skipped
+     * this cycle, so connectors that schedule their targets can hand it back.
+     */
+    default void onFetchDeferred(String target) {
+    }
+
+    /**
+     * Called once a fetch of a target has been published, with the number of articles that
+     * were new, i.e. not published by an earlier cycle.
+     */
+    default void onFetchCompleted(String target, long newArticles) {
+    }
+
+    /**
+     * Called for every article of a fetch of the target that was neither acknowledged nor spooled.
+     * It is not remembered as published, so a later fetch of the target publishes it again.
+     */
+    default void onPublishFailed(String target, NewsArticle article) {
+    }
+}
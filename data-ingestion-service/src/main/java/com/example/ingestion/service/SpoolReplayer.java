@@ -0,0 +1,113 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.kafka.ArticleKeyStrategy;
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Replays spooled articles to Kafka, oldest first, and removes them from the spool once the
+ * broker acknowledged them.
+ * <p>
+ * Every {@code ingestion.spool.replay-interval} the replayer tries to send the oldest batch; this
+ * attempt is also what detects that the broker is back. Batches are committed only when all of
+ * their sends were acknowledged, so a batch interrupted by another outage is sent again in full
+ * (storage-service keeps the latest fetched version of each article, so repeated records of a
+ * version it stored already change nothing). An article whose send fails with an error that is
+ * not retriable, e.g. because it is too large, is logged and dropped instead, so that it cannot
+ * hold up the spool.
+ */
+@Component
+@Slf4j
+public class SpoolReplayer {
+
+    private final ArticleSpool spool;
+    private final ReactiveKafkaSender kafkaSender;
+    private final Counter replayed;
+    private final Counter dropped;
+    private final AtomicBoolean replaying = new AtomicBoolean();
+
+    @Value("${kafka.topic.news}")
+    private String kafkaTopic;
+
+    @Value("${ingestion.publish.key-strategy:url}")
+    private ArticleKeyStrategy keyStrategy = ArticleKeyStrategy.URL;
+
+    @Value("${ingestion.spool.replay-batch:500}")
+    private int batchSize = 500;
+
+    @Value("${ingestion.publish.max-in-flight:64}")
+    private int maxInFlightSends = 64;
+
+    public SpoolReplayer(ArticleSpool spool, ReactiveKafkaSender kafkaSender, MeterRegistry meterRegistry) {
+        this.spool = spool;
+        this.kafkaSender = kafkaSender;
+        this.replayed = Counter.builder("ingestion.spool.replayed")
+                .description("Spooled articles published to Kafka after an outage")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("ingestion.spool.dropped")
+                .description("Spooled articles dropped because their send failed with a non-retriable error")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.spool.replay-interval:PT5S}")
+    public void replayPending() {
+        spool.flush();
+        if (spool.isEmpty() || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+        replay()
+                .doFinally(signal -> replaying.set(false))
+                .subscribe(
+                        count -> log.info("Replayed {} spooled articles to Kafka", count),
+                        e -> log.warn("Spool replay paused with {} articles left: {}",
+                                spool.getPendingRecords(), e.getMessage()));
+    }
+
+    /**
+     * Replays batches until the spool is empty or a send fails.
+     *
+     * @return A Mono emitting the number of replayed articles
+     */
+    Mono<Long> replay() {
+        return replayBatch()
+                .expand(count -> count > 0 && !spool.isEmpty() ? replayBatch() : Mono.empty())
+                .reduce(0L, Long::sum);
+    }
+
+    private Mono<Long> replayBatch() {
+        return Mono.defer(() -> {
+            ArticleSpool.Batch batch = spool.read(batchSize);
+            return Flux.fromIterable(batch.articles())
+                    .flatMap(this::send, maxInFlightSends)
+                    .count()
+                    .map(sent -> {
+                        spool.commit(batch);
+                        replayed.increment(sent);
+                        return (long) batch.records();
+                    });
+        });
+    }
+
+    /**
+     * @return A Mono emitting the article once acknowledged, or completing empty if it was dropped
+     */
+    private Mono<NewsArticle> send(NewsArticle article) {
+        return Mono.defer(() -> kafkaSender.send(new ProducerRecord<>(kafkaTopic, keyStrategy.keyOf(article), article)))
+                .thenReturn(article)
+                .onErrorResume(e -> !ArticlePublisher.isRetriable(e), e -> {
+                    log.error("Dropping spooled article {} that cannot be published: {}", article.getId(), e.getMessage());
+                    dropped.increment();
+                    return Mono.empty();
+                });
+    }
+}
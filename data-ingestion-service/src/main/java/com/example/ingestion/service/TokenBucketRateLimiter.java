@@ -0,0 +1,73 @@
+package com.example.ingestion.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket that keeps outgoing News API requests within the upstream quota.
+ * The bucket holds up to {@code capacity} tokens and refills continuously at
+ * {@code requestsPerPeriod / period}. Callers that find the bucket empty are not
+ * rejected; they reserve a future token and are delayed until it is available.
+ */
+@Component
+public class TokenBucketRateLimiter {
+
+    private final double capacity;
+    private final double nanosPerToken;
+    private final LongSupplier nanoClock;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    @Autowired
+    public TokenBucketRateLimiter(
+            @Value("${newsapi.rate-limit.capacity:10}") int capacity,
+            @Value("${newsapi.rate-limit.requests-per-period:100}") int requestsPerPeriod,
+            @Value("${newsapi.rate-limit.period:PT24H}") Duration period) {
+        this(capacity, requestsPerPeriod, period, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int capacity, int requestsPerPeriod, Duration period, LongSupplier nanoClock) {
+        if (capacity < 1 || requestsPerPeriod < 1) {
+            throw new IllegalArgumentException("Rate limit capacity and requests per period must be positive");
+        }
+        this.capacity = capacity;
+        this.nanosPerToken = (double) period.toNanos() / requestsPerPeriod;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefillNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes one token, waiting for the bucket to refill if necessary.
+     *
+     * @return a Mono that completes once the caller may issue its request
+     */
+    public Mono<Void> acquire() {
+        return Mono.defer(() -> {
+            Duration wait = reserve();
+            return wait.isZero() ? Mono.empty() : Mono.delay(wait).then();
+        });
+    }
+
+    /**
+     * Reserves the next token and returns how long the caller has to wait for it.
+     * The token count may go negative; that represents reservations queued behind each other.
+     */
+    synchronized Duration reserve() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) / nanosPerToken);
+        lastRefillNanos = now;
+
+        tokens -= 1;
+        if (tokens >= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) Math.ceil(-tokens * nanosPerToken));
+    }
+}
@@ -3,7 +3,7 @@ package com.example.ingestion;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = {"ingestion.backpressure.enabled=false", "spring.kafka.admin.auto-create=false"})
 class DataIngestionServiceApplicationTests {
 
 	@Test
@@ -0,0 +1,287 @@
+package com.example.ingestion.backfill;
+
+import com.example.ingestion.service.ArticleMapper;
+import com.example.ingestion.service.NewsApiCircuitBreakers;
+import com.example.ingestion.service.NewsApiClient;
+import com.example.ingestion.service.NewsApiPollingPlanner;
+import com.example.ingestion.service.NewsIngestionService;
+import com.example.ingestion.service.SourceConnector;
+import com.example.ingestion.service.TokenBucketRateLimiter;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BackfillJobTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // "q|from" of every request received by the mock upstream
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    // Quota the planner had reserved when the mock upstream received each request
+    private final List<Integer> reservedAtRequest = new CopyOnWriteArrayList<>();
+
+    // Window starts the mock upstream answers with 500
+    private volatile Set<String> failingWindows = Set.of();
+
+    // Window starts whose article the mock ingestion service cannot publish
+    private volatile Set<String> undeliverableWindows = Set.of();
+
+    // Whether windows longer than 12 hours match more articles than the client pages through
+    private volatile boolean crowded;
+
+    private HttpServer server;
+    private NewsApiClient newsApiClient;
+    private NewsIngestionService ingestionService;
+    private NewsApiPollingPlanner planner;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/everything", exchange -> {
+            var params = UriComponentsBuilder.fromUri(exchange.getRequestURI()).build().getQueryParams();
+            String query = params.getFirst("q");
+            String from = params.getFirst("from");
+            requests.add(query + "|" + from);
+            reservedAtRequest.add(planner.snapshot().reservedPerDay());
+            if (failingWindows.contains(from)) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            boolean tooMany = crowded && Duration.between(Instant.parse(from), Instant.parse(params.getFirst("to")))
+                    .compareTo(Duration.ofHours(12)) > 0;
+            String title = undeliverableWindows.contains(from) ? "Undeliverable" : "Archived";
+            byte[] body = ("{\"status\":\"ok\",\"totalResults\":" + (tooMany ? 5000 : 1) + ",\"articles\":["
+                    + "{\"title\":\"" + title + "\",\"url\":\"https://example.com/" + query + "/" + from + "\"}]}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        newsApiClient = new NewsApiClient("http://localhost:" + server.getAddress().getPort(), "test-api-key",
+                "technology", "us", 100, 1, 10, Duration.ofSeconds(5), new ArticleMapper(meterRegistry),
+                new TokenBucketRateLimiter(1000, 1000, Duration.ofSeconds(1)),
+                new NewsApiCircuitBreakers(10, 10, 100, Duration.ofMinutes(1), meterRegistry), meterRegistry);
+        ReflectionTestUtils.setField(newsApiClient, "maxAttempts", 1);
+
+        planner = new NewsApiPollingPlanner("us", "technology", 100, Duration.ofMinutes(5), Duration.ofHours(6),
+                0.3, meterRegistry);
+
+        // Publishes like the real service: completion is reported only for fetches that succeeded
+        ingestionService = mock(NewsIngestionService.class);
+        when(ingestionService.fetchAndPublish(any(), anyString())).thenAnswer(invocation -> {
+            SourceConnector connector = invocation.getArgument(0);
+            String target = invocation.getArgument(1);
+            return connector.fetch(target)
+                    .filter(article -> {
+                        if ("Undeliverable".equals(article.getTitle())) {
+                            connector.onPublishFailed(target, article);
+                            return false;
+                        }
+                        return true;
+                    })
+                    .count()
+                    .doOnNext(count -> connector.onFetchCompleted(target, count))
+                    .then()
+                    .onErrorResume(e -> Mono.empty());
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private BackfillJob job(Duration window) {
+        return new BackfillJob(newsApiClient, ingestionService, planner, List.of("technology"), window, 2,
+                new BackfillCheckpoint(directory.resolve("checkpoint.json")), true, 40,
+                new TokenBucketRateLimiter(1000, 1000, Duration.ofSeconds(1)), meterRegistry);
+    }
+
+    private static BackfillJob.Status awaitFinished(BackfillJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (job.status().state() == BackfillJob.State.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return job.status();
+    }
+
+    @Test
+    void shouldFetchEveryWindowOfEveryCategory() throws InterruptedException {
+        // Arrange
+        BackfillJob job = job(Duration.ofHours(12));
+
+        // Act
+        job.start(LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-01"), List.of("science", "health"));
+        BackfillJob.Status status = awaitFinished(job);
+
+        // Assert
+        assertEquals(BackfillJob.State.COMPLETED, status.state());
+        assertEquals(4, status.windows());
+        assertEquals(4, status.completedWindows());
+        assertEquals(4, status.articles());
+        assertEquals(Set.of(
+                "science|2024-03-01T00:00:00Z", "science|2024-03-01T12:00:00Z",
+                "health|2024-03-01T00:00:00Z", "health|2024-03-01T12:00:00Z"), Set.copyOf(requests));
+        assertFalse(Files.exists(directory.resolve("checkpoint.json")));
+        assertEquals(4.0, meterRegistry.get("ingestion.backfill.windows.completed").counter().count());
+    }
+
+    @Test
+    void shouldCheckpointFailedWindowsAndResumeThemAfterRestart() throws InterruptedException {
+        // Arrange - the upstream fails the second day
+        failingWindows = Set.of("2024-03-02T00:00:00Z");
+        BackfillJob job = job(Duration.ofDays(1));
+        job.start(LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-03"), List.of());
+        BackfillJob.Status status = awaitFinished(job);
+        assertEquals(BackfillJob.State.INCOMPLETE, status.state());
+        assertEquals(2, status.completedWindows());
+        BackfillCheckpoint.Progress saved = new BackfillCheckpoint(directory.resolve("checkpoint.json")).load()
+                .orElseThrow();
+        assertEquals(Set.of(
+                "technology|2024-03-01T00:00:00Z|2024-03-02T00:00:00Z",
+                "technology|2024-03-03T00:00:00Z|2024-03-04T00:00:00Z"), saved.completed());
+        assertEquals(1.0, meterRegistry.get("ingestion.backfill.windows.pending").gauge().value());
+
+        // Act - a new instance, as after a restart, with the upstream recovered
+        failingWindows = Set.of();
+        requests.clear();
+        BackfillJob restarted = job(Duration.ofDays(1));
+        restarted.resumeOnStartup();
+        BackfillJob.Status resumed = awaitFinished(restarted);
+
+        // Assert - only the failed window is fetched again
+        assertEquals(List.of("technology|2024-03-02T00:00:00Z"), requests);
+        assertEquals(BackfillJob.State.COMPLETED, resumed.state());
+        assertEquals(3, resumed.completedWindows());
+        assertFalse(Files.exists(directory.resolve("checkpoint.json")));
+    }
+
+    @Test
+    void shouldKeepWindowPendingWhenArticlesCouldNotBePublished() throws InterruptedException {
+        // Arrange
+        undeliverableWindows = Set.of("2024-03-02T00:00:00Z");
+        BackfillJob job = job(Duration.ofDays(1));
+
+        // Act
+        job.start(LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-02"), List.of());
+        BackfillJob.Status status = awaitFinished(job);
+
+        // Assert
+        assertEquals(BackfillJob.State.INCOMPLETE, status.state());
+        assertEquals(1, status.completedWindows());
+        assertEquals(Set.of("technology|2024-03-01T00:00:00Z|2024-03-02T00:00:00Z"),
+                new BackfillCheckpoint(directory.resolve("checkpoint.json")).load().orElseThrow().completed());
+    }
+
+    @Test
+    void shouldSplitWindowsMatchingMoreArticlesThanFetched() throws InterruptedException {
+        // Arrange
+        crowded = true;
+        BackfillJob job = job(Duration.ofDays(1));
+
+        // Act
+        job.start(LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-01"), List.of());
+        BackfillJob.Status status = awaitFinished(job);
+
+        // Assert - the day is searched again as two halves, and completed once both are
+        assertEquals(List.of("technology|2024-03-01T00:00:00Z", "technology|2024-03-01T00:00:00Z",
+                "technology|2024-03-01T12:00:00Z"), requests);
+        assertEquals(BackfillJob.State.COMPLETED, status.state());
+        assertEquals(1, status.windows());
+        assertEquals(1, status.completedWindows());
+        assertEquals(2, status.articles());
+        assertEquals(1.0, meterRegistry.get("ingestion.backfill.windows.completed").counter().count());
+    }
+
+    @Test
+    void shouldStartOverWhenRangeDiffersFromCheckpoint() throws InterruptedException {
+        // Arrange - an unfinished backfill of another range
+        failingWindows = Set.of("2024-03-01T00:00:00Z");
+        BackfillJob job = job(Duration.ofDays(1));
+        job.start(LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-01"), List.of());
+        awaitFinished(job);
+        failingWindows = Set.of();
+        requests.clear();
+
+        // Act
+        job.start(LocalDate.parse("2024-04-01"), LocalDate.parse("2024-04-02"), List.of());
+        BackfillJob.Status status = awaitFinished(job);
+
+        // Assert
+        assertEquals(BackfillJob.State.COMPLETED, status.state());
+        assertEquals(LocalDate.parse("2024-04-01"), status.from());
+        assertEquals(2, requests.size());
+        assertTrue(requests.stream().allMatch(request -> request.contains("2024-04-0")));
+    }
+
+    @Test
+    void shouldReserveQuotaWhileRunningAndChargeRequestsToPlanner() throws InterruptedException {
+        // Arrange
+        BackfillJob job = job(Duration.ofHours(12));
+
+        // Act
+        job.start(LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-01"), List.of());
+        awaitFinished(job);
+
+        // Assert - the reserve is released, the requests stay charged to the day's quota
+        assertEquals(List.of(40, 40), reservedAtRequest);
+        assertEquals(0, planner.snapshot().reservedPerDay());
+        assertEquals(2, planner.getUsedToday());
+    }
+
+    @Test
+    void shouldRejectQuotaNotLeftToLivePolling() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new BackfillJob(newsApiClient, ingestionService, planner,
+                List.of("technology"), Duration.ofDays(1), 2, new BackfillCheckpoint(directory.resolve("c.json")),
+                true, 100, new TokenBucketRateLimiter(1, 1, Duration.ofSeconds(1)), meterRegistry));
+    }
+
+    @Test
+    void shouldRejectEmptyRange() {
+        // Arrange
+        BackfillJob job = job(Duration.ofDays(1));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> job.start(LocalDate.parse("2024-03-02"), LocalDate.parse("2024-03-01"), List.of()));
+        assertEquals(BackfillJob.State.IDLE, job.status().state());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.ingestion.cluster;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TargetOwnershipTest {
+
+    private static final String TOPIC = "ingestion.ownership";
+    private static final int PARTITIONS = 6;
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    // Enough targets that every partition owns some
+    private static final List<String> TARGETS = IntStream.range(0, 60)
+            .mapToObj(i -> "country-" + i + ":category")
+            .toList();
+
+    private final List<TargetOwnership> instances = new ArrayList<>();
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, PARTITIONS, TOPIC);
+        broker.brokerProperty("group.initial.rebalance.delay.ms", "0");
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        instances.forEach(TargetOwnership::stop);
+    }
+
+    private TargetOwnership instance(String groupId) {
+        Map<String, Object> consumerProperties = TargetOwnership.consumerProperties(
+                KafkaTestUtils.consumerProps(broker.getBrokersAsString(), groupId), groupId, Duration.ofSeconds(6));
+        TargetOwnership ownership = new TargetOwnership(true, TOPIC, consumerProperties, new SimpleMeterRegistry());
+        instances.add(ownership);
+        ownership.start();
+        return ownership;
+    }
+
+    private static long owned(TargetOwnership ownership) {
+        return TARGETS.stream().filter(ownership::owns).count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 30 seconds");
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void shouldOwnEveryTargetWhenDisabled() {
+        // Arrange
+        TargetOwnership ownership = new TargetOwnership(false, TOPIC, Map.of(), new SimpleMeterRegistry());
+
+        // Act
+        ownership.start();
+
+        // Assert - no group is joined
+        assertFalse(ownership.isRunning());
+        assertEquals(TARGETS.size(), owned(ownership));
+    }
+
+    @Test
+    void shouldSplitTargetsAcrossInstancesAndRebalanceWhenOneLeaves() throws InterruptedException {
+        // Arrange
+        TargetOwnership first = instance("split");
+        await(() -> owned(first) == TARGETS.size());
+
+        // Act - a second instance joins
+        TargetOwnership second = instance("split");
+        await(() -> owned(first) > 0 && owned(second) > 0 && owned(first) + owned(second) == TARGETS.size());
+
+        // Assert - every target has exactly one owner
+        assertTrue(TARGETS.stream().allMatch(target -> first.owns(target) ^ second.owns(target)));
+
+        // Act - the second instance leaves
+        second.stop();
+
+        // Assert - its targets move back to the first
+        await(() -> owned(first) == TARGETS.size());
+        assertEquals(0, owned(second));
+    }
+
+    @Test
+    void shouldOwnNothingBeforeFirstAssignment() {
+        // Arrange - a group that has not been joined yet
+        TargetOwnership ownership = new TargetOwnership(true, TOPIC,
+                TargetOwnership.consumerProperties(KafkaTestUtils.consumerProps(broker.getBrokersAsString(), "idle"),
+                        "idle", Duration.ofSeconds(6)), new SimpleMeterRegistry());
+
+        // Act & Assert
+        assertEquals(0, owned(ownership));
+    }
+
+    @Test
+    void shouldMapTargetsToPartitionsLikeTheKafkaPartitioner() {
+        // Act & Assert - stable across instances and restarts
+        assertEquals(TargetOwnership.partition("us:business", PARTITIONS),
+                TargetOwnership.partition("us:business", PARTITIONS));
+        assertEquals(PARTITIONS, TARGETS.stream()
+                .map(target -> TargetOwnership.partition(target, PARTITIONS))
+                .distinct()
+                .count());
+    }
+}
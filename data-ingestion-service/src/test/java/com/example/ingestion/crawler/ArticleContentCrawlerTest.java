@@ -0,0 +1,265 @@
+package com.example.ingestion.crawler;
+
+import com.example.ingestion.enrichment.EnrichmentPipeline;
+import com.example.ingestion.enrichment.ReadingTimeStage;
+import com.example.ingestion.kafka.ArticleKeyStrategy;
+import com.example.ingestion.model.NewsArticle;
+import com.example.ingestion.service.ReactiveKafkaSender;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ArticleContentCrawlerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReactiveKafkaSender kafkaSender = mock(ReactiveKafkaSender.class);
+    private final Queue<ProducerRecord<String, NewsArticle>> published = new ConcurrentLinkedQueue<>();
+
+    // Arrival time in nanos and client port of every request, by host header
+    private final Map<String, Queue<long[]>> requests = new ConcurrentHashMap<>();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    private HttpServer server;
+    private ArticleContentCrawler crawler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        // Bound to all interfaces, so "localhost" and "127.0.0.1" act as two hosts
+        server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+
+        when(kafkaSender.send(any())).thenAnswer(invocation -> {
+            published.add(invocation.getArgument(0));
+            return Mono.just(new RecordMetadata(new TopicPartition("news.enriched", 0), 0, 0, 0, 0, 0));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (crawler != null) {
+            crawler.destroy();
+        }
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String host = exchange.getRequestHeaders().getFirst("Host").split(":")[0];
+        requests.computeIfAbsent(host, h -> new ConcurrentLinkedQueue<>())
+                .add(new long[] {System.nanoTime(), exchange.getRemoteAddress().getPort()});
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        String path = exchange.getRequestURI().getPath();
+        if (path.startsWith("/missing")) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        boolean json = path.startsWith("/feed");
+        byte[] body = (json ? "{\"not\":\"html\"}" : ContentExtractorTest.ARTICLE_PAGE).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", json ? "application/json" : "text/html; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private ArticleContentCrawler crawler(int maxConcurrency, int perHostConcurrency, Duration politenessDelay,
+                                          int maxPending) {
+        crawler = new ArticleContentCrawler(true, "news.enriched", maxConcurrency, perHostConcurrency,
+                politenessDelay, Duration.ofSeconds(10), DataSize.ofMegabytes(1), maxPending, "test-crawler",
+                ArticleKeyStrategy.SOURCE, kafkaSender, new EnrichmentPipeline(List.of(new ReadingTimeStage()), meterRegistry, 1, ""),
+                meterRegistry);
+        return crawler;
+    }
+
+    private NewsArticle article(String host, String path) {
+        NewsArticle article = new NewsArticle();
+        article.setId(path);
+        article.setSourceId("reuters");
+        article.setTitle("Markets rally");
+        article.setContent("Stocks rose sharply on Tuesday after the central bank signalled… [+1432 chars]");
+        article.setUrl("http://" + host + ":" + server.getAddress().getPort() + path);
+        return article;
+    }
+
+    private double pages(String outcome) {
+        var counter = meterRegistry.find("ingestion.crawler.pages").tag("outcome", outcome).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 30 seconds");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void shouldPublishArticleWithFullTextToEnrichedTopic() throws InterruptedException {
+        // Arrange
+        ArticleContentCrawler crawler = crawler(4, 1, Duration.ZERO, 10);
+        NewsArticle article = article("localhost", "/markets-rally");
+
+        // Act
+        assertTrue(crawler.submit(article));
+        await(() -> published.size() == 1);
+
+        // Assert - a copy is published, the original is left alone
+        ProducerRecord<String, NewsArticle> record = published.peek();
+        assertEquals("news.enriched", record.topic());
+        assertEquals("reuters", record.key());
+        assertTrue(record.value().getContent().startsWith("Stocks rose sharply on Tuesday"));
+        assertTrue(record.value().getContent().contains("Bond yields fell"));
+        assertFalse(record.value().getContent().contains("Copyright"));
+        assertNotNull(record.value().getReadingTimeMinutes());
+        assertTrue(article.getContent().endsWith("[+1432 chars]"));
+        assertNull(article.getReadingTimeMinutes());
+        assertEquals(1.0, pages("enriched"));
+    }
+
+    @Test
+    void shouldSpaceRequestsToOneHostAndReuseTheConnection() throws InterruptedException {
+        // Arrange
+        ArticleContentCrawler crawler = crawler(4, 1, Duration.ofMillis(200), 10);
+
+        // Act - the first request opens the connection, which would skew its arrival time
+        crawler.submit(article("localhost", "/story-0"));
+        await(() -> published.size() == 1);
+        IntStream.range(1, 5).forEach(i -> crawler.submit(article("localhost", "/story-" + i)));
+        await(() -> published.size() == 5);
+
+        // Assert
+        List<long[]> received = List.copyOf(requests.get("localhost"));
+        for (int i = 2; i < received.size(); i++) {
+            long gapMillis = TimeUnit.NANOSECONDS.toMillis(received.get(i)[0] - received.get(i - 1)[0]);
+            assertTrue(gapMillis >= 180, "Requests only " + gapMillis + " ms apart");
+        }
+        assertEquals(1, received.stream().map(request -> request[1]).distinct().count(),
+                "Expected one kept-alive connection");
+    }
+
+    @Test
+    void shouldCrawlDifferentHostsInParallel() throws InterruptedException {
+        // Arrange - 2 x 4 pages, 300 ms apart per host
+        ArticleContentCrawler crawler = crawler(4, 1, Duration.ofMillis(300), 10);
+        long start = System.nanoTime();
+
+        // Act
+        IntStream.range(0, 4).forEach(i -> {
+            crawler.submit(article("localhost", "/local-" + i));
+            crawler.submit(article("127.0.0.1", "/loopback-" + i));
+        });
+        await(() -> published.size() == 8);
+
+        // Assert - about 3 delays in total rather than 7
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(Set.of("localhost", "127.0.0.1"), requests.keySet());
+        assertTrue(elapsedMillis < 1800, "Hosts were crawled one after the other: " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void shouldSustainManyPagesAcrossHosts() throws InterruptedException {
+        // Arrange
+        ArticleContentCrawler crawler = crawler(16, 8, Duration.ZERO, 1000);
+
+        // Act
+        IntStream.range(0, 200).forEach(i ->
+                crawler.submit(article(i % 2 == 0 ? "localhost" : "127.0.0.1", "/bulk-" + i)));
+
+        // Assert
+        await(() -> published.size() == 200);
+        assertEquals(200.0, pages("enriched"));
+    }
+
+    @Test
+    void shouldDropQueueOfIdleHostOnceItsDelayHasPassed() throws InterruptedException {
+        // Arrange
+        ArticleContentCrawler crawler = crawler(4, 1, Duration.ofMillis(500), 10);
+
+        // Act
+        crawler.submit(article("localhost", "/first"));
+        await(() -> published.size() == 1);
+
+        // Assert - the host keeps its queue only while it is within its politeness delay
+        assertEquals(1.0, meterRegistry.get("ingestion.crawler.hosts").gauge().value());
+        await(() -> meterRegistry.get("ingestion.crawler.hosts").gauge().value() == 0.0);
+    }
+
+    @Test
+    void shouldNotPublishPagesWithoutArticleText() throws InterruptedException {
+        // Arrange
+        ArticleContentCrawler crawler = crawler(4, 1, Duration.ZERO, 10);
+
+        // Act
+        crawler.submit(article("localhost", "/missing"));
+        crawler.submit(article("localhost", "/feed.json"));
+        NewsArticle notHttp = article("localhost", "/ignored");
+        notHttp.setUrl("file:///tmp/feed.xml");
+
+        // Assert
+        assertFalse(crawler.submit(notHttp));
+        await(() -> pages("failed") == 1 && pages("no-content") == 1);
+        assertTrue(published.isEmpty());
+    }
+
+    @Test
+    void shouldDropArticlesBeyondMaxPending() throws InterruptedException {
+        // Arrange - the server holds the first request
+        release = new CountDownLatch(1);
+        ArticleContentCrawler crawler = crawler(4, 1, Duration.ZERO, 1);
+
+        // Act
+        boolean first = crawler.submit(article("localhost", "/first"));
+        boolean second = crawler.submit(article("localhost", "/second"));
+        release.countDown();
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(1.0, pages("dropped"));
+        await(() -> published.size() == 1);
+    }
+}
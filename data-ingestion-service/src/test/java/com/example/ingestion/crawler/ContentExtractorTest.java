@@ -0,0 +1,83 @@
+package com.example.ingestion.crawler;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentExtractorTest {
+
+    static final String ARTICLE_PAGE = """
+            <!DOCTYPE html>
+            <html><head><title>Markets rally</title>
+            <style>p { color: red; }</style>
+            <script>var ads = "<p>not content</p>";</script></head>
+            <body>
+            <header><a href="/">Home</a> <a href="/world">World</a> <a href="/business">Business</a></header>
+            <nav><ul><li><a href="/a">Politics</a></li><li><a href="/b">Sports and other sections of the site</a></li></ul></nav>
+            <div class="teaser"><a href="/x">Read more stories about markets, rates, stocks and bonds today</a></div>
+            <div class="body">
+              <h1>Markets rally</h1>
+              <p>Stocks rose sharply on Tuesday after the central bank signalled that interest rates would stay on hold.</p>
+              <h2>Bonds</h2>
+              <p>Bond yields fell to their lowest level in three months as investors priced in fewer rate increases &amp; cuts.</p>
+              <p>Analysts said the rally could continue if inflation data due on <a href="/thursday">Thursday</a> confirms the trend.</p>
+            </div>
+            <footer><p>Copyright 2024 Example News. All rights reserved. Terms of use and privacy policy apply here.</p></footer>
+            </body></html>
+            """;
+
+    @Test
+    void shouldKeepArticleParagraphsAndDropBoilerplate() {
+        // Act
+        String text = ContentExtractor.extract(ARTICLE_PAGE);
+
+        // Assert
+        assertEquals("""
+                Stocks rose sharply on Tuesday after the central bank signalled that interest rates would stay on hold.
+                Bonds
+                Bond yields fell to their lowest level in three months as investors priced in fewer rate increases & cuts.
+                Analysts said the rally could continue if inflation data due on  Thursday  confirms the trend.""", text);
+    }
+
+    @Test
+    void shouldPreferTextInsideArticleElement() {
+        // Arrange
+        String html = "<body><div><p>Sign up for our newsletter to receive the most important stories of the day "
+                + "in your inbox every morning.</p></div><article><p>The council approved the new budget on "
+                + "Monday after a debate that lasted more than six hours.</p></article></body>";
+
+        // Act
+        String text = ContentExtractor.extract(html);
+
+        // Assert
+        assertEquals("The council approved the new budget on Monday after a debate that lasted more than six hours.",
+                text);
+    }
+
+    @Test
+    void shouldDropLinkListsAndShortFragments() {
+        // Arrange
+        String html = "<div><a href=1>One story</a> <a href=2>Another story</a> <a href=3>Third story here</a> "
+                + "<a href=4>And a fourth story</a></div><p>Share</p><p>Subscribe</p>";
+
+        // Act & Assert
+        assertNull(ContentExtractor.extract(html));
+    }
+
+    @Test
+    void shouldSkipCommentsAndUnterminatedTags() {
+        // Arrange
+        String html = "<p><!-- <p>hidden</p> -->Researchers found that the new material conducts heat twice as "
+                + "well as copper at room temperature.</p><p";
+
+        // Act
+        String text = ContentExtractor.extract(html);
+
+        // Assert
+        assertTrue(text.startsWith("Researchers found"));
+        assertFalse(text.contains("hidden"));
+    }
+}
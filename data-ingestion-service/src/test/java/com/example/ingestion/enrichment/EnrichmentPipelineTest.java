@@ -0,0 +1,118 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EnrichmentPipelineTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private static EnrichmentStage appending(String name) {
+        return new EnrichmentStage() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void enrich(NewsArticle article, EnrichmentContext context) {
+                article.setTitle(article.getTitle() + "+" + name);
+            }
+        };
+    }
+
+    private static NewsArticle article(String id) {
+        NewsArticle article = new NewsArticle();
+        article.setId(id);
+        article.setTitle(id);
+        return article;
+    }
+
+    @Test
+    void shouldRunStagesInOrderAndSkipDisabledOnes() {
+        // Arrange
+        EnrichmentPipeline pipeline = new EnrichmentPipeline(
+                List.of(appending("a"), appending("b"), appending("c")), meterRegistry, 2, "b, x");
+
+        // Act
+        NewsArticle enriched = pipeline.enrich(article("1"));
+
+        // Assert
+        assertEquals("1+a+c", enriched.getTitle());
+    }
+
+    @Test
+    void shouldKeepArticleWhenStageFails() {
+        // Arrange
+        EnrichmentStage failing = new EnrichmentStage() {
+            @Override
+            public String getName() {
+                return "failing";
+            }
+
+            @Override
+            public void enrich(NewsArticle article, EnrichmentContext context) {
+                throw new IllegalStateException("Malformed input");
+            }
+        };
+        EnrichmentPipeline pipeline = new EnrichmentPipeline(
+                List.of(appending("a"), failing, appending("c")), meterRegistry, 2, "");
+
+        // Act
+        NewsArticle enriched = pipeline.enrich(article("1"));
+
+        // Assert - later stages still ran
+        assertEquals("1+a+c", enriched.getTitle());
+        assertEquals(1.0, meterRegistry.get("ingestion.enrichment.stage.failures")
+                .tag("stage", "failing")
+                .counter()
+                .count());
+    }
+
+    @Test
+    void shouldEnrichInParallelAndKeepOrder() {
+        // Arrange - a stage whose latency varies per article, so completion order differs from input order
+        EnrichmentStage slow = new EnrichmentStage() {
+            @Override
+            public String getName() {
+                return "slow";
+            }
+
+            @Override
+            public void enrich(NewsArticle article, EnrichmentContext context) {
+                LockSupport.parkNanos(Duration.ofMillis(ThreadLocalRandom.current().nextInt(5)).toNanos());
+            }
+        };
+        EnrichmentPipeline pipeline = new EnrichmentPipeline(List.of(slow), meterRegistry, 4, "");
+        List<String> ids = IntStream.range(0, 50).mapToObj(String::valueOf).toList();
+
+        // Act & Assert
+        StepVerifier.create(pipeline.enrichAll(Flux.fromIterable(ids).map(EnrichmentPipelineTest::article))
+                        .map(NewsArticle::getId)
+                        .collectList())
+                .expectNext(ids)
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+        assertEquals(50, meterRegistry.get("ingestion.enrichment.stage.latency")
+                .tag("stage", "slow")
+                .timer()
+                .count());
+    }
+}
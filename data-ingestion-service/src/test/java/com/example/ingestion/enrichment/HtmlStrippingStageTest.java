@@ -0,0 +1,58 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class HtmlStrippingStageTest {
+
+    private final HtmlStrippingStage stage = new HtmlStrippingStage();
+
+    @Test
+    void shouldRemoveTagsAndSeparateBlocks() {
+        // Arrange
+        NewsArticle article = new NewsArticle();
+        article.setDescription("<p>First <b>bold</b> paragraph.</p><p>Second<br/>line</p>");
+
+        // Act
+        stage.enrich(article, new EnrichmentContext());
+
+        // Assert
+        assertEquals(" First  bold  paragraph.  Second line ", article.getDescription());
+    }
+
+    @Test
+    void shouldDecodeCharacterReferences() {
+        // Act & Assert
+        assertEquals("Q&A: \"AI\" — what's next… é",
+                HtmlStrippingStage.strip("Q&amp;A: &quot;AI&quot; &mdash; what&#39;s next&hellip; &#xE9;"));
+        assertEquals("AT&T & co; &unknown;", HtmlStrippingStage.strip("AT&T & co; &unknown;"));
+    }
+
+    @Test
+    void shouldDropScriptsAndKeepLiteralLessThan() {
+        // Act & Assert
+        assertEquals("Before   after", HtmlStrippingStage.strip("Before <script>var a = '<p>';</script> after"));
+        assertEquals("1 < 2 and 3 <= 4", HtmlStrippingStage.strip("1 < 2 and 3 <= 4"));
+        assertEquals("Cut off ", HtmlStrippingStage.strip("Cut off <a href=\"https://exa"));
+    }
+
+    @Test
+    void shouldFindClosingTagRegardlessOfCaseAndPrecedingText() {
+        // Act & Assert - "İ" lowercases to two chars, which must not shift the closing tag's position
+        assertEquals("İstanbul   news", HtmlStrippingStage.strip("İstanbul <STYLE>p { }</Style> news"));
+    }
+
+    @Test
+    void shouldLeavePlainTextUntouched() {
+        // Arrange
+        String plain = "Nothing to strip here";
+
+        // Act & Assert
+        assertSame(plain, HtmlStrippingStage.strip(plain));
+        assertNull(HtmlStrippingStage.strip(null));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class LanguageDetectionStageTest {
+
+    private final LanguageDetectionStage stage = new LanguageDetectionStage();
+
+    private String detect(String title, String description) {
+        NewsArticle article = new NewsArticle();
+        article.setTitle(title);
+        article.setDescription(description);
+        stage.enrich(article, new EnrichmentContext());
+        return article.getLanguage();
+    }
+
+    @Test
+    void shouldDetectLanguagesOfIngestedSources() {
+        // Act & Assert
+        assertEquals("en", detect("Central bank holds rates steady",
+                "The decision was expected by most of the analysts and is seen as a pause in the cycle."));
+        assertEquals("de", detect("Zentralbank lässt Leitzins unverändert",
+                "Die Entscheidung wurde von den meisten Analysten erwartet und ist auch nicht überraschend."));
+        assertEquals("fr", detect("La banque centrale maintient ses taux",
+                "La décision était attendue par les analystes et elle est vue comme une pause dans le cycle."));
+        assertEquals("es", detect("El banco central mantiene los tipos",
+                "La decisión era esperada por los analistas y se ve como una pausa en el ciclo del mercado."));
+    }
+
+    @Test
+    void shouldLeaveLanguageUnknownForTooLittleText() {
+        // Act & Assert
+        assertNull(detect("Apple unveils iPhone 17", null));
+        assertNull(detect(null, null));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReadingTimeStageTest {
+
+    private final ReadingTimeStage stage = new ReadingTimeStage();
+
+    @Test
+    void shouldEstimateFromContentWords() {
+        // Arrange - 690 words
+        NewsArticle article = new NewsArticle();
+        article.setContent("word ".repeat(690));
+        article.setDescription("Only a short teaser");
+
+        // Act
+        stage.enrich(article, new EnrichmentContext());
+
+        // Assert
+        assertEquals(3, article.getReadingTimeMinutes());
+    }
+
+    @Test
+    void shouldIncludeCharactersCutOffUpstream() {
+        // Arrange - a 200 character NewsAPI excerpt of a 2760 character article
+        NewsArticle article = new NewsArticle();
+        article.setContent("Shares rose sharply in early trading after the announcement");
+        EnrichmentContext context = new EnrichmentContext();
+        context.setTruncatedChars(2760);
+
+        // Act
+        stage.enrich(article, context);
+
+        // Assert - (9 + 460) words at 230 words per minute
+        assertEquals(2, article.getReadingTimeMinutes());
+    }
+
+    @Test
+    void shouldFallBackToDescriptionAndRoundUpShortTexts() {
+        // Arrange
+        NewsArticle article = new NewsArticle();
+        article.setDescription("A two-sentence teaser. Nothing more.");
+
+        // Act
+        stage.enrich(article, new EnrichmentContext());
+
+        // Assert
+        assertEquals(1, article.getReadingTimeMinutes());
+    }
+
+    @Test
+    void shouldLeaveReadingTimeUnknownWithoutText() {
+        // Arrange
+        NewsArticle article = new NewsArticle();
+
+        // Act
+        stage.enrich(article, new EnrichmentContext());
+
+        // Assert
+        assertNull(article.getReadingTimeMinutes());
+    }
+
+    @Test
+    void shouldCountWordsSeparatedByPunctuation() {
+        // Act & Assert
+        assertEquals(5, ReadingTimeStage.countWords("It's 9:30 -- go!"));
+        assertEquals(0, ReadingTimeStage.countWords(" ... "));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TruncationMarkerStageTest {
+
+    private final TruncationMarkerStage stage = new TruncationMarkerStage();
+
+    @Test
+    void shouldRemoveMarkerAndRecordCutOffCharacters() {
+        // Arrange
+        NewsArticle article = new NewsArticle();
+        article.setContent("Shares rose sharply in early trading after the announcement… [+2310 chars]");
+        EnrichmentContext context = new EnrichmentContext();
+
+        // Act
+        stage.enrich(article, context);
+
+        // Assert
+        assertEquals("Shares rose sharply in early trading after the announcement", article.getContent());
+        assertEquals(2310, context.getTruncatedChars());
+    }
+
+    @Test
+    void shouldRemoveMarkerWithAsciiEllipsis() {
+        // Arrange
+        NewsArticle article = new NewsArticle();
+        article.setContent("The report was published on Monday... [+98 chars]");
+        EnrichmentContext context = new EnrichmentContext();
+
+        // Act
+        stage.enrich(article, context);
+
+        // Assert
+        assertEquals("The report was published on Monday", article.getContent());
+        assertEquals(98, context.getTruncatedChars());
+    }
+
+    @Test
+    void shouldKeepContentWithoutTrailingMarker() {
+        // Arrange - the marker text quoted mid-sentence is not a marker
+        NewsArticle article = new NewsArticle();
+        article.setContent("NewsAPI appends [+123 chars] to truncated content, as explained here.");
+        EnrichmentContext context = new EnrichmentContext();
+
+        // Act
+        stage.enrich(article, context);
+
+        // Assert
+        assertEquals("NewsAPI appends [+123 chars] to truncated content, as explained here.", article.getContent());
+        assertEquals(0, context.getTruncatedChars());
+    }
+}
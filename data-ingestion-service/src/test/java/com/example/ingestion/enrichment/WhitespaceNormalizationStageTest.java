@@ -0,0 +1,45 @@
+package com.example.ingestion.enrichment;
+
+import com.example.ingestion.model.NewsArticle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class WhitespaceNormalizationStageTest {
+
+    private final WhitespaceNormalizationStage stage = new WhitespaceNormalizationStage();
+
+    @Test
+    void shouldCollapseWhitespaceIncludingNonBreakingSpaces() {
+        // Arrange
+        NewsArticle article = new NewsArticle();
+        article.setTitle("  Markets  rally \n");
+        article.setContent("Line one\r\n\r\n\tLine two  ");
+
+        // Act
+        stage.enrich(article, new EnrichmentContext());
+
+        // Assert
+        assertEquals("Markets rally", article.getTitle());
+        assertEquals("Line one Line two", article.getContent());
+    }
+
+    @Test
+    void shouldTurnBlankOptionalFieldsIntoNull() {
+        // Arrange
+        NewsArticle article = new NewsArticle();
+        article.setTitle("   ");
+        article.setDescription("   ");
+        article.setAuthor("\n");
+
+        // Act
+        stage.enrich(article, new EnrichmentContext());
+
+        // Assert
+        assertEquals("", article.getTitle());
+        assertNull(article.getDescription());
+        assertNull(article.getAuthor());
+        assertNull(article.getContent());
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.ingestion.kafka;
+
+import com.example.ingestion.model.NewsArticle;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ArticleKeyStrategyTest {
+
+    private static NewsArticle article(String sourceId, String sourceName) {
+        NewsArticle article = new NewsArticle();
+        article.setId("article-1");
+        article.setSourceId(sourceId);
+        article.setSourceName(sourceName);
+        return article;
+    }
+
+    @Test
+    void urlStrategyShouldKeyByArticleId() {
+        // Arrange
+        NewsArticle article = article("bbc-news", "BBC News");
+
+        // Act
+        String key = ArticleKeyStrategy.URL.keyOf(article);
+
+        // Assert
+        assertEquals("article-1", key);
+    }
+
+    @Test
+    void sourceStrategyShouldPreferSourceIdThenNameThenArticleId() {
+        // Arrange / Act / Assert
+        assertEquals("bbc-news", ArticleKeyStrategy.SOURCE.keyOf(article(" bbc-news ", "BBC News")));
+        assertEquals("bbc news", ArticleKeyStrategy.SOURCE.keyOf(article(" ", "BBC News ")));
+        assertEquals("article-1", ArticleKeyStrategy.SOURCE.keyOf(article(null, null)));
+    }
+}
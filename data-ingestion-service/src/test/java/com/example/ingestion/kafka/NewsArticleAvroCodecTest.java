@@ -0,0 +1,149 @@
+package com.example.ingestion.kafka;
+
+import com.example.ingestion.model.NewsArticle;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageEncoder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NewsArticleAvroCodecTest {
+
+    private final NewsArticleAvroCodec codec = new NewsArticleAvroCodec();
+
+    static NewsArticle sampleArticle() {
+        NewsArticle article = new NewsArticle();
+        article.setId("4f3c2b1a-1111-2222-3333-444455556666");
+        article.setTitle("Central bank holds rates steady as inflation cools");
+        article.setDescription("Policymakers signalled that cuts could come later this year.");
+        article.setContent("The central bank left its benchmark rate unchanged on Wednesday… [+2310 chars]");
+        article.setAuthor("Jane Doe");
+        article.setSourceId("reuters");
+        article.setSourceName("Reuters");
+        article.setUrl("https://www.reuters.com/markets/central-bank-holds-rates-2024-04-10/");
+        article.setImageUrl("https://www.reuters.com/resizer/image.jpg");
+        article.setPublishedAt(LocalDateTime.of(2024, 4, 10, 18, 5, 12));
+        article.setFetchedAt(LocalDateTime.of(2024, 4, 10, 18, 9, 47, 123_456_000));
+        article.setCategory("business");
+        return article;
+    }
+
+    @Test
+    void shouldRoundTripAllFields() {
+        // Arrange
+        NewsArticle article = sampleArticle();
+
+        // Act
+        NewsArticle decoded = codec.decode(codec.encode(article));
+
+        // Assert
+        assertEquals(article, decoded);
+    }
+
+    @Test
+    void shouldRoundTripNullFields() {
+        // Arrange
+        NewsArticle article = new NewsArticle();
+        article.setId("only-id");
+        article.setFetchedAt(null);
+
+        // Act
+        NewsArticle decoded = codec.decode(codec.encode(article));
+
+        // Assert
+        assertEquals("only-id", decoded.getId());
+        assertNull(decoded.getTitle());
+        assertNull(decoded.getPublishedAt());
+        assertNull(decoded.getFetchedAt());
+    }
+
+    @Test
+    void shouldBeSmallerThanJson() {
+        // Arrange
+        NewsArticle article = sampleArticle();
+        byte[] json;
+        try (JsonSerializer<NewsArticle> jsonSerializer = new JsonSerializer<>()) {
+            json = jsonSerializer.serialize("news.incoming", article);
+        }
+
+        // Act
+        byte[] avro = codec.encode(article);
+
+        // Assert
+        assertTrue(avro.length < json.length * 0.8,
+                "Expected Avro (" + avro.length + " bytes) to be well below JSON (" + json.length + " bytes)");
+    }
+
+    @Test
+    void shouldRoundTripCanonicalId() {
+        // Arrange
+        NewsArticle article = sampleArticle();
+        article.setCanonicalId("first-article-of-story");
+
+        // Act
+        NewsArticle decoded = codec.decode(codec.encode(article));
+
+        // Assert
+        assertEquals("first-article-of-story", decoded.getCanonicalId());
+    }
+
+    @Test
+    void shouldRoundTripEnrichmentFields() {
+        // Arrange
+        NewsArticle article = sampleArticle();
+        article.setLanguage("de");
+        article.setReadingTimeMinutes(7);
+
+        // Act
+        NewsArticle decoded = codec.decode(codec.encode(article));
+
+        // Assert
+        assertEquals("de", decoded.getLanguage());
+        assertEquals(7, decoded.getReadingTimeMinutes());
+    }
+
+    @Test
+    void shouldDecodeRecordWrittenWithPreviousSchema() throws IOException {
+        // Arrange - a record as written before canonicalId existed
+        Schema v1;
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("avro/news-article-v1.avsc")) {
+            v1 = new Schema.Parser().parse(in);
+        }
+        GenericRecord record = new GenericData.Record(v1);
+        record.put("id", "old-1");
+        record.put("title", "Written by the previous release");
+        record.put("category", "business");
+        byte[] data = new BinaryMessageEncoder<GenericRecord>(GenericData.get(), v1).encode(record).array();
+
+        // Act
+        NewsArticle decoded = codec.decode(data);
+
+        // Assert
+        assertEquals("old-1", decoded.getId());
+        assertEquals("Written by the previous release", decoded.getTitle());
+        assertEquals("business", decoded.getCategory());
+        assertNull(decoded.getCanonicalId());
+        assertNull(decoded.getReadingTimeMinutes());
+    }
+
+    @Test
+    void shouldRejectRecordWrittenWithUnknownSchema() {
+        // Arrange - a valid single-object header with a fingerprint no known schema has
+        byte[] data = codec.encode(sampleArticle());
+        data[2] ^= 0x7f;
+
+        // Act & Assert
+        assertThrows(SerializationException.class, () -> codec.decode(data));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ingestion.kafka;
+
+import com.example.ingestion.model.NewsArticle;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Avro codec with the JSON path it replaced (Spring's JsonSerializer and
+ * JsonDeserializer with type headers). Not part of the test suite; run it from the IDE or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.example.ingestion.kafka.NewsArticleCodecBenchmark}.
+ * Bytes per article are printed once at setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewsArticleCodecBenchmark {
+
+    private static final String TOPIC = "news.incoming";
+
+    private NewsArticle article;
+    private NewsArticleAvroCodec avroCodec;
+    private JsonSerializer<NewsArticle> jsonSerializer;
+    private JsonDeserializer<NewsArticle> jsonDeserializer;
+
+    private byte[] avroBytes;
+    private byte[] jsonBytes;
+    private RecordHeaders jsonHeaders;
+
+    @Setup
+    public void setUp() {
+        article = NewsArticleAvroCodecTest.sampleArticle();
+        avroCodec = new NewsArticleAvroCodec();
+        jsonSerializer = new JsonSerializer<>();
+        jsonDeserializer = new JsonDeserializer<>(NewsArticle.class);
+        jsonDeserializer.addTrustedPackages("com.example.*");
+
+        avroBytes = avroCodec.encode(article);
+        jsonHeaders = new RecordHeaders();
+        jsonBytes = jsonSerializer.serialize(TOPIC, jsonHeaders, article);
+
+        int jsonHeaderBytes = 0;
+        for (var header : jsonHeaders) {
+            jsonHeaderBytes += header.key().length() + header.value().length;
+        }
+        System.out.printf("%nBytes per article: avro=%d, json=%d (+%d in type headers)%n",
+                avroBytes.length, jsonBytes.length, jsonHeaderBytes);
+    }
+
+    @TearDown
+    public void tearDown() {
+        jsonSerializer.close();
+        jsonDeserializer.close();
+    }
+
+    @Benchmark
+    public byte[] avroEncode() {
+        return avroCodec.encode(article);
+    }
+
+    @Benchmark
+    public NewsArticle avroDecode() {
+        return avroCodec.decode(avroBytes);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), article);
+    }
+
+    @Benchmark
+    public NewsArticle jsonDecode() {
+        return jsonDeserializer.deserialize(TOPIC, jsonHeaders, jsonBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NewsArticleCodecBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
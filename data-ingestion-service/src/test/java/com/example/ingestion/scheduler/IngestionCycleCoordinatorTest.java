@@ -0,0 +1,189 @@
+package com.example.ingestion.scheduler;
+
+import com.example.ingestion.model.NewsArticle;
+import com.example.ingestion.service.SourceConnector;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionCycleCoordinatorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    // One completion sink per target fetch, so tests decide when a fetch finishes
+    private final Map<String, Sinks.Empty<Void>> pendingFetches = new ConcurrentHashMap<>();
+    private final AtomicInteger fetchCount = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private Mono<Void> controlledFetch(SourceConnector connector, String target) {
+        fetchCount.incrementAndGet();
+        Sinks.Empty<Void> sink = Sinks.empty();
+        pendingFetches.put(target, sink);
+        return sink.asMono();
+    }
+
+    private void complete(String target) {
+        pendingFetches.remove(target).tryEmitEmpty();
+    }
+
+    private static SourceConnector connector(String name, int maxConcurrency, String... targets) {
+        return new SourceConnector() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public List<String> getTargets() {
+                return List.of(targets);
+            }
+
+            @Override
+            public int getMaxConcurrency() {
+                return maxConcurrency;
+            }
+
+            @Override
+            public Flux<NewsArticle> fetch(String target) {
+                return Flux.empty();
+            }
+        };
+    }
+
+    private static List<SourceConnector> single(String... targets) {
+        return List.of(connector("test", 4, targets));
+    }
+
+    @Test
+    void shouldCapInFlightFetches() {
+        // Arrange
+        IngestionCycleCoordinator coordinator = new IngestionCycleCoordinator(meterRegistry, true);
+        
+        // Act
+        coordinator.requestCycle(List.of(connector("test", 2, "a", "b", "c")), this::controlledFetch);
+        
+        // Assert - only two fetches started, the third waits for a free slot
+        assertEquals(2, coordinator.getInFlightFetches());
+        assertEquals(2, meterRegistry.get("ingestion.fetches.inflight").gauge().value());
+        
+        complete("a");
+        assertEquals(3, fetchCount.get());
+        assertEquals(2, coordinator.getInFlightFetches());
+        
+        complete("b");
+        complete("c");
+        assertFalse(coordinator.isCycleRunning());
+        assertEquals(1, meterRegistry.get("ingestion.cycle.duration").timer().count());
+    }
+    
+    @Test
+    void shouldPollConnectorsSideBySideWithTheirOwnConcurrency() {
+        // Arrange
+        IngestionCycleCoordinator coordinator = new IngestionCycleCoordinator(meterRegistry, true);
+        SourceConnector api = connector("api", 1, "api-1", "api-2");
+        SourceConnector feeds = connector("feeds", 3, "feed-1", "feed-2", "feed-3");
+
+        // Act
+        coordinator.requestCycle(List.of(api, feeds), this::controlledFetch);
+
+        // Assert - a slow connector does not hold back the other one
+        assertEquals(4, coordinator.getInFlightFetches());
+        assertTrue(pendingFetches.keySet().containsAll(List.of("api-1", "feed-1", "feed-2", "feed-3")));
+
+        List.of("api-1", "feed-1", "feed-2", "feed-3").forEach(this::complete);
+        assertEquals(1, coordinator.getInFlightFetches());
+        complete("api-2");
+        assertFalse(coordinator.isCycleRunning());
+    }
+
+    @Test
+    void shouldSkipCycleWhilePreviousIsRunning() {
+        // Arrange
+        IngestionCycleCoordinator coordinator = new IngestionCycleCoordinator(meterRegistry, false);
+        coordinator.requestCycle(single("a"), this::controlledFetch);
+        
+        // Act
+        boolean started = coordinator.requestCycle(single("a"), this::controlledFetch);
+        
+        // Assert
+        assertFalse(started);
+        assertEquals(1, fetchCount.get());
+        assertEquals(1.0, meterRegistry.get("ingestion.cycles.skipped").counter().count());
+        
+        complete("a");
+        assertFalse(coordinator.isCycleRunning(), "Skipped cycles must not run later");
+        assertEquals(1, fetchCount.get());
+    }
+    
+    @Test
+    void shouldCoalesceRequestsIntoSingleFollowUpCycle() {
+        // Arrange
+        IngestionCycleCoordinator coordinator = new IngestionCycleCoordinator(meterRegistry, true);
+        coordinator.requestCycle(single("a"), this::controlledFetch);
+        
+        // Act - two requests arrive while the first cycle is running
+        coordinator.requestCycle(single("a"), this::controlledFetch);
+        coordinator.requestCycle(single("a"), this::controlledFetch);
+        complete("a");
+        
+        // Assert - exactly one follow-up cycle started
+        assertEquals(2, fetchCount.get());
+        assertTrue(coordinator.isCycleRunning());
+        assertEquals(2.0, meterRegistry.get("ingestion.cycles.coalesced").counter().count());
+        
+        complete("a");
+        assertFalse(coordinator.isCycleRunning());
+        assertEquals(2, fetchCount.get());
+    }
+    
+    @Test
+    void shouldRunFollowUpCycleWithLatestRequestedFetch() {
+        // Arrange
+        IngestionCycleCoordinator coordinator = new IngestionCycleCoordinator(meterRegistry, true);
+        List<String> fetchedBy = new CopyOnWriteArrayList<>();
+        coordinator.requestCycle(single("a"), this::controlledFetch);
+
+        // Act - the scheduler hands in a new fetch function with every tick
+        coordinator.requestCycle(single("a"), (connector, target) -> {
+            fetchedBy.add("second");
+            return Mono.empty();
+        });
+        coordinator.requestCycle(single("a"), (connector, target) -> {
+            fetchedBy.add("third");
+            return Mono.empty();
+        });
+        complete("a");
+
+        // Assert
+        assertEquals(List.of("third"), fetchedBy);
+        assertFalse(coordinator.isCycleRunning());
+    }
+
+    @Test
+    void shouldKeepRunningCyclesAfterFetchError() {
+        // Arrange
+        IngestionCycleCoordinator coordinator = new IngestionCycleCoordinator(meterRegistry, true);
+        
+        // Act
+        coordinator.requestCycle(single("a"), (connector, target) -> Mono.error(new RuntimeException("boom")));
+        
+        // Assert - the failed cycle released the coordinator
+        assertFalse(coordinator.isCycleRunning());
+        assertTrue(coordinator.requestCycle(single("a"), this::controlledFetch));
+    }
+}
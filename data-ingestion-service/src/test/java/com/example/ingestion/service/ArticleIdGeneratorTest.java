@@ -0,0 +1,41 @@
+package com.example.ingestion.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArticleIdGeneratorTest {
+
+    @Test
+    void shouldGenerateSameIdForSameUrl() {
+        String first = ArticleIdGenerator.fromUrl("https://example.com/news/story-1");
+        String second = ArticleIdGenerator.fromUrl("https://example.com/news/story-1");
+        
+        assertEquals(first, second);
+    }
+    
+    @Test
+    void shouldIgnoreCosmeticUrlDifferences() {
+        String canonical = ArticleIdGenerator.fromUrl("https://example.com/news/story-1?id=7");
+        
+        assertEquals(canonical, ArticleIdGenerator.fromUrl("HTTPS://www.Example.com:443/news/story-1/?id=7"));
+        assertEquals(canonical, ArticleIdGenerator.fromUrl("https://example.com/news/story-1?utm_source=rss&id=7#comments"));
+    }
+    
+    @Test
+    void shouldGenerateDifferentIdsForDifferentUrls() {
+        assertNotEquals(
+                ArticleIdGenerator.fromUrl("https://example.com/news/story-1"),
+                ArticleIdGenerator.fromUrl("https://example.com/news/story-2"));
+    }
+    
+    @Test
+    void shouldFallBackToRandomIdWithoutUrl() {
+        String first = ArticleIdGenerator.fromUrl(null);
+        String second = ArticleIdGenerator.fromUrl("  ");
+        
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNotEquals(first, second);
+    }
+}
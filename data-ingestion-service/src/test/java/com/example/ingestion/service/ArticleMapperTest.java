@@ -2,6 +2,7 @@ package com.example.ingestion.service;
 
 import com.example.ingestion.model.NewsApiResponse;
 import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -17,7 +18,7 @@ class ArticleMapperTest {
     @BeforeEach
     void setUp() {
         // Initialize the mapper
-        articleMapper = new ArticleMapper();
+        articleMapper = new ArticleMapper(new SimpleMeterRegistry());
         
         // Create a test NewsApiResponse
         testResponse = new NewsApiResponse();
@@ -134,4 +135,28 @@ class ArticleMapperTest {
         NewsArticle mappedArticle = result.get(0);
         assertNotNull(mappedArticle.getPublishedAt(), "Should set a fallback date when parsing fails");
     }
+    
+    @Test
+    void shouldDeriveStableIdFromArticleUrl() {
+        // Act - map the same response twice, as two ingestion cycles would
+        NewsArticle firstCycle = articleMapper.mapFromNewsApiResponse(testResponse, "technology").get(0);
+        NewsArticle secondCycle = articleMapper.mapFromNewsApiResponse(testResponse, "technology").get(0);
+        
+        // Assert
+        assertEquals(firstCycle.getId(), secondCycle.getId(), "Same URL should produce the same ID");
+        assertEquals(ArticleIdGenerator.fromUrl("https://example.com/test-article"), firstCycle.getId());
+    }
+
+    @Test
+    void shouldRecordMappingTime() {
+        // Arrange
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ArticleMapper timedMapper = new ArticleMapper(meterRegistry);
+
+        // Act
+        timedMapper.mapFromNewsApiResponse(testResponse, "technology");
+
+        // Assert
+        assertEquals(1, meterRegistry.get("ingestion.mapping.time").timer().count());
+    }
 }
@@ -0,0 +1,110 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsApiResponse;
+import com.example.ingestion.model.NewsArticle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping throughput of a full News API page (100 articles) through the streaming decoder,
+ * and the timestamp parser against the {@code ZonedDateTime.parse} path it replaced.
+ * Not part of the test suite; run {@link #main} from the IDE, or add {@code -prof gc} to the
+ * JMH options to see allocations per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArticleMappingBenchmark {
+
+    private static final int ARTICLES_PER_PAGE = 100;
+    private static final String PUBLISHED_AT = "2024-04-10T18:05:12.1234567Z";
+
+    private final ArticleMapper articleMapper = new ArticleMapper(new SimpleMeterRegistry());
+    private byte[] page;
+    private NewsApiResponse.Article apiArticle;
+
+    @Setup
+    public void setUp() throws Exception {
+        NewsApiResponse response = new NewsApiResponse();
+        response.setStatus("ok");
+        response.setTotalResults(ARTICLES_PER_PAGE);
+        List<NewsApiResponse.Article> articles = new ArrayList<>();
+        for (int i = 0; i < ARTICLES_PER_PAGE; i++) {
+            NewsApiResponse.Article article = new NewsApiResponse.Article();
+            NewsApiResponse.Source source = new NewsApiResponse.Source();
+            source.setId("reuters");
+            source.setName("Reuters");
+            article.setSource(source);
+            article.setAuthor("Jane Doe");
+            article.setTitle("Central bank holds rates steady as inflation cools " + i);
+            article.setDescription("Policymakers signalled that cuts could come later this year.");
+            article.setUrl("https://www.reuters.com/markets/central-bank-holds-rates-" + i + "/");
+            article.setUrlToImage("https://www.reuters.com/resizer/image-" + i + ".jpg");
+            article.setPublishedAt(PUBLISHED_AT);
+            article.setContent("The central bank left its benchmark rate unchanged on Wednesday… [+2310 chars]");
+            articles.add(article);
+        }
+        response.setArticles(articles);
+        page = new ObjectMapper().writeValueAsBytes(response);
+        apiArticle = articles.get(0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ARTICLES_PER_PAGE)
+    public List<NewsArticle> decodePage() {
+        NewsApiStreamDecoder decoder = new NewsApiStreamDecoder(articleMapper, "business");
+        List<NewsArticle> articles = new ArrayList<>(decoder.feed(page));
+        articles.addAll(decoder.endOfInput());
+        return articles;
+    }
+
+    @Benchmark
+    public NewsArticle mapArticle() {
+        return articleMapper.mapArticle(apiArticle, "business");
+    }
+
+    @Benchmark
+    public LocalDateTime parseIsoTimestamp() {
+        return articleMapper.parsePublishedAt(PUBLISHED_AT);
+    }
+
+    @Benchmark
+    public LocalDateTime parseZonedDateTime() {
+        return ZonedDateTime.parse(PUBLISHED_AT).toLocalDateTime();
+    }
+
+    @Benchmark
+    public LocalDateTime parseMalformedTimestamp() {
+        return IsoDateTimeParser.parse("not-a-date-format");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ArticleMappingBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.kafka.ArticleKeyStrategy;
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArticlePublisherTest {
+
+    private static final RecordMetadata ACKNOWLEDGED =
+            new RecordMetadata(new TopicPartition("news.incoming", 0), 0, 0, 0, 0, 0);
+
+    @Mock
+    private ReactiveKafkaSender kafkaSender;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ArticlePublisher articlePublisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        articlePublisher = publisherWith(disabledSpool(meterRegistry));
+    }
+
+    static ArticleSpool disabledSpool(SimpleMeterRegistry meterRegistry) {
+        return new ArticleSpool(false, Path.of("unused"), DataSize.ofMegabytes(1), DataSize.ofMegabytes(1), meterRegistry);
+    }
+
+    private ArticlePublisher publisherWith(ArticleSpool spool) {
+        ArticlePublisher publisher = new ArticlePublisher(kafkaSender, spool, meterRegistry);
+        ReflectionTestUtils.setField(publisher, "kafkaTopic", "news.incoming");
+        return publisher;
+    }
+
+    private NewsArticle article(String id) {
+        NewsArticle article = new NewsArticle();
+        article.setId(id);
+        article.setTitle("Article " + id);
+        return article;
+    }
+
+    @Test
+    void shouldCompleteOnlyAfterAllSendsAreAcknowledged() {
+        // Arrange
+        Sinks.One<RecordMetadata> acknowledgement = Sinks.one();
+        when(kafkaSender.send(any())).thenReturn(acknowledgement.asMono());
+
+        // Act
+        Mono<Long> result = articlePublisher.publishAll(Flux.just(article("1"), article("2")), "business", a -> { });
+
+        // Assert - nothing completes until the broker acknowledges
+        StepVerifier.create(result)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .then(() -> acknowledgement.tryEmitValue(ACKNOWLEDGED))
+                .expectNext(2L)
+                .verifyComplete();
+        verify(kafkaSender).send(argThat((ProducerRecord<String, NewsArticle> record) ->
+                "news.incoming".equals(record.topic()) && "1".equals(record.key())));
+    }
+
+    @Test
+    void shouldKeyRecordsWithConfiguredStrategy() {
+        // Arrange
+        when(kafkaSender.send(any())).thenReturn(Mono.just(ACKNOWLEDGED));
+        ReflectionTestUtils.setField(articlePublisher, "keyStrategy", ArticleKeyStrategy.SOURCE);
+        NewsArticle article = article("1");
+        article.setSourceId("reuters");
+
+        // Act
+        articlePublisher.publishAll(Flux.just(article), "business", a -> { }).block();
+
+        // Assert
+        verify(kafkaSender).send(argThat((ProducerRecord<String, NewsArticle> record) ->
+                "reuters".equals(record.key()) && record.value() == article));
+    }
+
+    @Test
+    void shouldRecordLatencyAndBatchSizePerCategory() {
+        // Arrange
+        when(kafkaSender.send(any()))
+                .thenReturn(Mono.just(ACKNOWLEDGED));
+
+        // Act
+        articlePublisher.publishAll(Flux.just(article("1"), article("2"), article("3")), "science", a -> { })
+                .block();
+
+        // Assert
+        assertEquals(3, meterRegistry.get("ingestion.publish.latency")
+                .tag("category", "science")
+                .timer()
+                .count());
+        assertEquals(3.0, meterRegistry.get("ingestion.publish.batch.size")
+                .tag("category", "science")
+                .summary()
+                .totalAmount());
+    }
+
+    @Test
+    void shouldContinueAfterFailedSendAndReportIt() {
+        // Arrange - the second send fails, one of them synchronously
+        when(kafkaSender.send(any()))
+                .thenReturn(Mono.just(ACKNOWLEDGED))
+                .thenThrow(new IllegalStateException("Buffer exhausted"))
+                .thenReturn(Mono.just(ACKNOWLEDGED));
+        List<NewsArticle> accepted = new ArrayList<>();
+        List<NewsArticle> failed = new ArrayList<>();
+
+        // Act
+        Long published = articlePublisher.publishAll(
+                Flux.just(article("1"), article("2"), article("3")), "health", accepted::add, failed::add).block();
+
+        // Assert
+        assertEquals(2L, published);
+        assertEquals(List.of("1", "3"), accepted.stream().map(NewsArticle::getId).toList());
+        assertEquals(List.of("2"), failed.stream().map(NewsArticle::getId).toList());
+        assertEquals(1.0, meterRegistry.get("ingestion.publish.failures")
+                .tag("category", "health")
+                .counter()
+                .count());
+    }
+
+    @Test
+    void shouldBoundUnacknowledgedSends() {
+        // Arrange - the broker never acknowledges, and only 2 sends may be in flight
+        ReflectionTestUtils.setField(articlePublisher, "maxInFlightSends", 2);
+        AtomicInteger emitted = new AtomicInteger();
+        Flux<NewsArticle> articles = Flux.range(0, 10)
+                .map(i -> article(String.valueOf(i)))
+                .doOnNext(article -> emitted.incrementAndGet());
+        when(kafkaSender.send(any()))
+                .thenReturn(Mono.never());
+
+        // Act
+        articlePublisher.publishAll(articles, "technology", a -> { }).subscribe();
+
+        // Assert - the upstream stopped emitting once the in-flight limit was reached
+        verify(kafkaSender, times(2)).send(any());
+        assertEquals(2, emitted.get());
+    }
+
+    @Test
+    void shouldSpoolFailedSendAndQueueLaterArticlesBehindIt(@TempDir Path directory) {
+        // Arrange - the broker becomes unreachable after the first article
+        ArticleSpool spool = new ArticleSpool(true, directory, DataSize.ofKilobytes(64), DataSize.ofKilobytes(64),
+                meterRegistry);
+        ArticlePublisher publisher = publisherWith(spool);
+        ReflectionTestUtils.setField(publisher, "maxInFlightSends", 1);
+        when(kafkaSender.send(any()))
+                .thenReturn(Mono.just(ACKNOWLEDGED))
+                .thenReturn(Mono.error(new TimeoutException("Broker unavailable")));
+        List<NewsArticle> spooledOrSent = new ArrayList<>();
+        List<NewsArticle> failed = new ArrayList<>();
+
+        // Act
+        Long accepted = publisher.publishAll(
+                Flux.just(article("1"), article("2"), article("3")), "world", spooledOrSent::add, failed::add).block();
+
+        // Assert - article 3 was not even attempted, and nothing has to be refetched
+        assertEquals(3L, accepted);
+        assertEquals(3, spooledOrSent.size());
+        assertTrue(failed.isEmpty());
+        verify(kafkaSender, times(2)).send(any());
+        assertEquals(List.of("2", "3"), spool.read(10).articles().stream().map(NewsArticle::getId).toList());
+        assertEquals(1.0, meterRegistry.get("ingestion.publish.batch.size")
+                .tag("category", "world")
+                .summary()
+                .totalAmount());
+        spool.destroy();
+    }
+
+    @Test
+    void shouldNotSpoolArticleThatCannotBeSent(@TempDir Path directory) {
+        // Arrange - the first article is too large for the broker, the second is accepted
+        ArticleSpool spool = new ArticleSpool(true, directory, DataSize.ofKilobytes(64), DataSize.ofKilobytes(64),
+                meterRegistry);
+        ArticlePublisher publisher = publisherWith(spool);
+        ReflectionTestUtils.setField(publisher, "maxInFlightSends", 1);
+        when(kafkaSender.send(any()))
+                .thenReturn(Mono.error(new RecordTooLargeException("Record too large")))
+                .thenReturn(Mono.just(ACKNOWLEDGED));
+        List<NewsArticle> accepted = new ArrayList<>();
+        List<NewsArticle> failed = new ArrayList<>();
+
+        // Act
+        Long published = publisher.publishAll(
+                Flux.just(article("1"), article("2")), "world", accepted::add, failed::add).block();
+
+        // Assert - the article is reported as failed and does not hold up the next one
+        assertEquals(1L, published);
+        assertEquals(List.of("2"), accepted.stream().map(NewsArticle::getId).toList());
+        assertEquals(List.of("1"), failed.stream().map(NewsArticle::getId).toList());
+        assertTrue(spool.isEmpty());
+        spool.destroy();
+    }
+}
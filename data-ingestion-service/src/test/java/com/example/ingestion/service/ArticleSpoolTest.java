@@ -0,0 +1,178 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArticleSpoolTest {
+
+    @TempDir
+    private Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<ArticleSpool> spools = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        spools.forEach(ArticleSpool::destroy);
+    }
+
+    private ArticleSpool spool(DataSize segmentSize, DataSize maxSize) {
+        ArticleSpool spool = new ArticleSpool(true, directory, segmentSize, maxSize, meterRegistry);
+        spools.add(spool);
+        return spool;
+    }
+
+    private static NewsArticle article(int id) {
+        NewsArticle article = new NewsArticle();
+        article.setId(String.valueOf(id));
+        article.setTitle("Spooled article " + id);
+        article.setDescription("x".repeat(200));
+        return article;
+    }
+
+    private static List<String> ids(ArticleSpool.Batch batch) {
+        return batch.articles().stream().map(NewsArticle::getId).toList();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void shouldReadInAppendOrderAcrossSegments() {
+        // Arrange - about 15 records per segment
+        ArticleSpool spool = spool(DataSize.ofKilobytes(4), DataSize.ofKilobytes(64));
+        IntStream.range(0, 40).forEach(i -> assertTrue(spool.append(article(i))));
+
+        // Act
+        ArticleSpool.Batch first = spool.read(25);
+        spool.commit(first);
+        ArticleSpool.Batch second = spool.read(25);
+
+        // Assert
+        assertEquals(IntStream.range(0, 25).mapToObj(String::valueOf).toList(), ids(first));
+        assertEquals(IntStream.range(25, 40).mapToObj(String::valueOf).toList(), ids(second));
+        assertEquals(15, spool.getPendingRecords());
+        assertEquals(15.0, meterRegistry.get("ingestion.spool.depth").gauge().value());
+    }
+
+    @Test
+    void shouldNotRemoveArticlesUntilCommitted() {
+        // Arrange
+        ArticleSpool spool = spool(DataSize.ofKilobytes(4), DataSize.ofKilobytes(64));
+        spool.append(article(1));
+
+        // Act
+        spool.read(10);
+
+        // Assert
+        assertEquals(List.of("1"), ids(spool.read(10)));
+        assertFalse(spool.isEmpty());
+    }
+
+    @Test
+    void shouldDeleteSegmentsOnceReplayed() throws IOException {
+        // Arrange
+        ArticleSpool spool = spool(DataSize.ofKilobytes(4), DataSize.ofKilobytes(64));
+        IntStream.range(0, 40).forEach(i -> spool.append(article(i)));
+        assertEquals(3, segmentFiles());
+
+        // Act
+        spool.commit(spool.read(100));
+
+        // Assert
+        assertTrue(spool.isEmpty());
+        assertEquals(0, segmentFiles());
+        assertEquals(0, spool.getDiskBytes());
+    }
+
+    @Test
+    void shouldRefuseArticlesWhenFull() {
+        // Arrange - two segments of about 15 records
+        ArticleSpool spool = spool(DataSize.ofKilobytes(4), DataSize.ofKilobytes(8));
+
+        // Act
+        long accepted = IntStream.range(0, 40).filter(i -> spool.append(article(i))).count();
+
+        // Assert
+        assertTrue(accepted > 20 && accepted < 40, "accepted " + accepted);
+        assertEquals(40 - accepted, meterRegistry.get("ingestion.spool.rejected").counter().count());
+        assertEquals(8192, spool.getDiskBytes());
+    }
+
+    @Test
+    void shouldRefuseArticleThatCannotBeEncoded() {
+        // Arrange - an article without ID
+        ArticleSpool spool = spool(DataSize.ofKilobytes(4), DataSize.ofKilobytes(8));
+
+        // Act
+        boolean accepted = spool.append(new NewsArticle());
+
+        // Assert
+        assertFalse(accepted);
+        assertTrue(spool.isEmpty());
+        assertEquals(1.0, meterRegistry.get("ingestion.spool.rejected").counter().count());
+    }
+
+    @Test
+    void shouldResumeAfterRestart() {
+        // Arrange
+        ArticleSpool spool = spool(DataSize.ofKilobytes(4), DataSize.ofKilobytes(64));
+        IntStream.range(0, 40).forEach(i -> spool.append(article(i)));
+        spool.commit(spool.read(10));
+        spool.destroy();
+
+        // Act
+        ArticleSpool reopened = spool(DataSize.ofKilobytes(4), DataSize.ofKilobytes(64));
+        reopened.append(article(40));
+
+        // Assert
+        assertEquals(31, reopened.getPendingRecords());
+        assertEquals(IntStream.rangeClosed(10, 40).mapToObj(String::valueOf).toList(), ids(reopened.read(100)));
+    }
+
+    @Test
+    void shouldIgnoreTornRecordAfterCrash() throws IOException {
+        // Arrange - a crash while writing the third record left its payload, but a corrupt checksum
+        ArticleSpool spool = spool(DataSize.ofKilobytes(4), DataSize.ofKilobytes(64));
+        IntStream.range(0, 3).forEach(i -> spool.append(article(i)));
+        spool.destroy();
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int third = 16 + 2 * (8 + buffer.getInt(16));
+            buffer.putInt(third + Integer.BYTES, buffer.getInt(third + Integer.BYTES) ^ 1);
+            buffer.force();
+        }
+
+        // Act
+        ArticleSpool reopened = spool(DataSize.ofKilobytes(4), DataSize.ofKilobytes(64));
+        reopened.append(article(3));
+
+        // Assert
+        assertEquals(List.of("0", "1", "3"), ids(reopened.read(10)));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ingestion.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private long nanoTime;
+
+    private final CircuitBreaker breaker =
+            new CircuitBreaker("top-headlines", 4, 2, 50, Duration.ofSeconds(30), () -> nanoTime);
+
+    private void call(boolean success) {
+        assertTrue(breaker.tryAcquire());
+        if (success) {
+            breaker.onSuccess();
+        } else {
+            breaker.onFailure();
+        }
+    }
+
+    @Test
+    void shouldOpenWhenFailureRateReachesThreshold() {
+        // Arrange
+        call(true);
+        call(true);
+        call(false);
+
+        // Act - 2 of the last 4 calls failed
+        call(false);
+
+        // Assert
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldForgetOutcomesOutsideWindow() {
+        // Arrange - an old failure followed by a full window of successes
+        call(false);
+        call(true);
+        call(true);
+        call(true);
+        call(true);
+
+        // Act
+        call(false);
+
+        // Assert - 1 of the last 4 calls failed
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void shouldLetOneTrialCallThroughAfterOpenDuration() {
+        // Arrange
+        call(false);
+        call(false);
+        nanoTime += Duration.ofSeconds(30).toNanos();
+
+        // Act
+        boolean trial = breaker.tryAcquire();
+
+        // Assert - concurrent calls wait for the trial's outcome
+        assertTrue(trial);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void shouldReopenWhenTrialCallFails() {
+        // Arrange
+        call(false);
+        call(false);
+        nanoTime += Duration.ofSeconds(30).toNanos();
+
+        // Act
+        call(false);
+
+        // Assert - the open duration starts again
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        nanoTime += Duration.ofSeconds(29).toNanos();
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void shouldReleaseTrialPermitOfCancelledCall() {
+        // Arrange
+        call(false);
+        call(false);
+        nanoTime += Duration.ofSeconds(30).toNanos();
+        assertTrue(breaker.tryAcquire());
+
+        // Act
+        breaker.onIgnored();
+
+        // Assert
+        assertTrue(breaker.tryAcquire());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.ingestion.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The ingestion half of the lag feedback loop: reports as storage-service publishes them to the
+ * lag topic switch the throttle's level.
+ */
+@SpringJUnitConfig
+@EmbeddedKafka(partitions = 1, topics = "storage.lag")
+class ConsumerLagThrottleKafkaTest {
+
+    @Configuration
+    @EnableKafka
+    static class Config {
+
+        @Bean
+        ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
+                @Value("${spring.embedded.kafka.brokers}") String brokers) {
+            ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                    new ConcurrentKafkaListenerContainerFactory<>();
+            // Like the application's consumer factory, without a group id
+            Map<String, Object> consumerProps = KafkaTestUtils.consumerProps(brokers, "unused");
+            consumerProps.remove(ConsumerConfig.GROUP_ID_CONFIG);
+            factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(consumerProps,
+                    new StringDeserializer(), new StringDeserializer()));
+            return factory;
+        }
+
+        @Bean
+        ConsumerLagThrottle consumerLagThrottle() {
+            return new ConsumerLagThrottle("sports", 100, 1000, Duration.ofMinutes(30), Duration.ofMinutes(1),
+                    new SimpleMeterRegistry(), Clock.systemUTC());
+        }
+    }
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private KafkaListenerEndpointRegistry registry;
+
+    @Autowired
+    private ConsumerLagThrottle throttle;
+
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // The listener starts at the latest offset, so it must be assigned before reports are sent
+        ContainerTestUtils.waitForAssignment(registry.getListenerContainer("consumer-lag-throttle"), 1);
+        kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                KafkaTestUtils.producerProps(broker.getBrokersAsString()),
+                new StringSerializer(), new StringSerializer()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        kafkaTemplate.destroy();
+    }
+
+    private void report(long lag) {
+        kafkaTemplate.send(new ProducerRecord<>("storage.lag", "storage-service-group", """
+                {"group":"storage-service-group","topic":"news.incoming","lag":%d,
+                 "recordsPerSecond":3.0,"timestamp":%d}""".formatted(lag, System.currentTimeMillis())));
+        kafkaTemplate.flush();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 30 seconds");
+            Thread.sleep(50);
+        }
+    }
+
+    @Test
+    void shouldPauseAndResumeLowPriorityCategoriesAsLagReportsArrive() throws InterruptedException {
+        // Act - storage-service falls far behind
+        report(5000);
+        await(() -> throttle.getLevel() == ConsumerLagThrottle.Level.PAUSED);
+
+        // Assert
+        assertFalse(throttle.admit(ConsumerLagThrottleTest.CONNECTOR, "us:sports"));
+        assertTrue(throttle.admit(ConsumerLagThrottleTest.CONNECTOR, "us:business"));
+
+        // Act - and catches up again
+        report(10);
+        await(() -> throttle.getLevel() == ConsumerLagThrottle.Level.NORMAL);
+
+        // Assert
+        assertTrue(throttle.admit(ConsumerLagThrottleTest.CONNECTOR, "us:sports"));
+    }
+}
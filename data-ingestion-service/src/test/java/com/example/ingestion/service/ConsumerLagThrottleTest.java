@@ -0,0 +1,151 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsumerLagThrottleTest {
+
+    /**
+     * Targets are {@code country:category}, like the NewsAPI connector's.
+     */
+    static final SourceConnector CONNECTOR = new SourceConnector() {
+        @Override
+        public String getName() {
+            return "test";
+        }
+
+        @Override
+        public List<String> getTargets() {
+            return List.of();
+        }
+
+        @Override
+        public int getMaxConcurrency() {
+            return 1;
+        }
+
+        @Override
+        public Flux<NewsArticle> fetch(String target) {
+            return Flux.empty();
+        }
+
+        @Override
+        public String getMetricCategory(String target) {
+            return target.substring(target.indexOf(':') + 1);
+        }
+    };
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-05-01T12:00:00Z"));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ConsumerLagThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        throttle = new ConsumerLagThrottle("Sports, entertainment", 100, 1000, Duration.ofMinutes(30),
+                Duration.ofMinutes(1), meterRegistry, clock);
+    }
+
+    private void report(long lag) {
+        throttle.onReport("""
+                {"group":"storage-service-group","topic":"news.incoming","lag":%d,
+                 "recordsPerSecond":12.5,"timestamp":%d}""".formatted(lag, clock.millis()));
+    }
+
+    @Test
+    void shouldAdmitEverythingWithoutReport() {
+        // Act & Assert
+        assertEquals(ConsumerLagThrottle.Level.NORMAL, throttle.getLevel());
+        assertTrue(throttle.admit(CONNECTOR, "us:sports"));
+        assertTrue(throttle.admit(CONNECTOR, "us:sports"));
+    }
+
+    @Test
+    void shouldDeriveLevelFromLag() {
+        // Act & Assert
+        report(99);
+        assertEquals(ConsumerLagThrottle.Level.NORMAL, throttle.getLevel());
+        report(100);
+        assertEquals(ConsumerLagThrottle.Level.SLOW, throttle.getLevel());
+        report(1000);
+        assertEquals(ConsumerLagThrottle.Level.PAUSED, throttle.getLevel());
+        assertEquals(2.0, meterRegistry.get("ingestion.backpressure.level").gauge().value());
+        assertEquals(1000.0, meterRegistry.get("ingestion.backpressure.consumer.lag").gauge().value());
+        report(0);
+        assertEquals(ConsumerLagThrottle.Level.NORMAL, throttle.getLevel());
+    }
+
+    @Test
+    void shouldFetchLowPriorityTargetsOncePerSlowIntervalWhileSlow() {
+        // Arrange
+        report(500);
+
+        // Act & Assert - the first fetch goes through, the next ones wait for the slow interval
+        assertTrue(throttle.admit(CONNECTOR, "us:sports"));
+        clock.advance(Duration.ofMinutes(29));
+        report(500);
+        assertFalse(throttle.admit(CONNECTOR, "us:sports"));
+        assertTrue(throttle.admit(CONNECTOR, "gb:sports"));
+        clock.advance(Duration.ofMinutes(1));
+        report(500);
+        assertTrue(throttle.admit(CONNECTOR, "us:sports"));
+
+        assertEquals(1.0, meterRegistry.get("ingestion.backpressure.deferred")
+                .tag("category", "sports").tag("level", "slow").counter().count());
+    }
+
+    @Test
+    void shouldPauseOnlyLowPriorityCategories() {
+        // Arrange
+        report(5000);
+
+        // Act & Assert
+        assertFalse(throttle.admit(CONNECTOR, "us:sports"));
+        assertFalse(throttle.admit(CONNECTOR, "us:Entertainment"));
+        assertTrue(throttle.admit(CONNECTOR, "us:business"));
+    }
+
+    @Test
+    void shouldIgnoreStaleReports() {
+        // Arrange - storage-service stopped reporting
+        report(5000);
+
+        // Act
+        clock.advance(Duration.ofMinutes(2));
+
+        // Assert - fail open rather than pausing forever
+        assertEquals(ConsumerLagThrottle.Level.NORMAL, throttle.getLevel());
+        assertTrue(throttle.admit(CONNECTOR, "us:sports"));
+    }
+
+    @Test
+    void shouldIgnoreMalformedReports() {
+        // Arrange
+        report(5000);
+
+        // Act
+        throttle.onReport("not json");
+
+        // Assert - the last valid report still applies
+        assertEquals(ConsumerLagThrottle.Level.PAUSED, throttle.getLevel());
+    }
+
+    @Test
+    void shouldRejectPauseThresholdBelowSlowThreshold() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new ConsumerLagThrottle("sports", 100, 10,
+                Duration.ofMinutes(30), Duration.ofMinutes(1), meterRegistry, clock));
+    }
+}
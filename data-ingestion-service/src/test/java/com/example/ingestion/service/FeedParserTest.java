@@ -0,0 +1,125 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeedParserTest {
+
+    @Test
+    void shouldParseRssItems() throws Exception {
+        // Act
+        List<NewsArticle> articles = parse(resource("/feeds/tech-blog.rss"));
+
+        // Assert
+        assertEquals(2, articles.size());
+
+        NewsArticle first = articles.get(0);
+        assertEquals("Virtual threads in practice", first.getTitle());
+        assertEquals("https://blog.example.com/virtual-threads", first.getUrl());
+        assertEquals(ArticleIdGenerator.fromUrl("https://blog.example.com/virtual-threads"), first.getId());
+        assertEquals("<p>How we moved to <b>virtual threads</b>.</p>", first.getDescription());
+        assertEquals("<p>The full post.</p>", first.getContent());
+        assertEquals("Jane Doe", first.getAuthor());
+        assertEquals(LocalDateTime.of(2024, 4, 10, 18, 5, 12), first.getPublishedAt());
+        assertEquals("https://blog.example.com/virtual-threads.jpg", first.getImageUrl());
+        assertEquals("Tech Blog", first.getSourceName());
+        assertEquals("general", first.getCategory());
+
+        // No link: the permalink guid is used; an unparsable pubDate is dropped
+        NewsArticle second = articles.get(1);
+        assertEquals("https://blog.example.com/stax", second.getUrl());
+        assertEquals("john@example.com (John Roe)", second.getAuthor());
+        assertNull(second.getPublishedAt());
+        assertEquals("https://blog.example.com/stax.png", second.getImageUrl());
+    }
+
+    @Test
+    void shouldParseAtomEntries() throws Exception {
+        // Act
+        List<NewsArticle> articles = parse(resource("/feeds/science-news.atom"));
+
+        // Assert
+        assertEquals(2, articles.size());
+
+        NewsArticle first = articles.get(0);
+        assertEquals("Comet spotted", first.getTitle());
+        assertEquals("https://science.example.org/comet", first.getUrl());
+        assertEquals("A new comet is visible.", first.getDescription());
+        assertEquals("Look north after sunset.", first.getContent());
+        assertEquals("Ada Lovelace", first.getAuthor());
+        assertEquals(LocalDateTime.of(2024, 4, 11, 8, 30), first.getPublishedAt());
+        assertEquals("Science News", first.getSourceName());
+
+        // Without a published date the updated date is used
+        NewsArticle second = articles.get(1);
+        assertEquals("https://science.example.org/updated-only", second.getUrl());
+        assertEquals(LocalDateTime.of(2024, 4, 10, 12, 0), second.getPublishedAt());
+    }
+
+    @Test
+    void shouldReturnNullForFeedWithoutItems() throws Exception {
+        // Arrange
+        String feed = "<rss version=\"2.0\"><channel><title>Empty</title></channel></rss>";
+
+        // Act & Assert
+        try (FeedParser parser = new FeedParser(stream(feed), "general")) {
+            assertNull(parser.next());
+            assertEquals("Empty", parser.getFeedTitle());
+        }
+    }
+
+    @Test
+    void shouldRejectDoctypeDeclarations() {
+        // Arrange - an external entity must never be resolved
+        String feed = """
+                <?xml version="1.0"?>
+                <!DOCTYPE rss [<!ENTITY xxe SYSTEM "file:///etc/passwd">]>
+                <rss><channel><item><title>&xxe;</title></item></channel></rss>
+                """;
+
+        // Act & Assert
+        assertThrows(XMLStreamException.class, () -> parse(stream(feed)));
+    }
+
+    @Test
+    void shouldFailOnMalformedXml() {
+        // Arrange
+        String feed = "<rss><channel><item><title>Broken</item></channel></rss>";
+
+        // Act & Assert
+        assertThrows(XMLStreamException.class, () -> parse(stream(feed)));
+    }
+
+    private static List<NewsArticle> parse(InputStream in) throws XMLStreamException, IOException {
+        List<NewsArticle> articles = new ArrayList<>();
+        try (in; FeedParser parser = new FeedParser(in, "general")) {
+            for (NewsArticle article = parser.next(); article != null; article = parser.next()) {
+                articles.add(article);
+            }
+        }
+        assertTrue(articles.stream().allMatch(article -> article.getId() != null));
+        return articles;
+    }
+
+    private static InputStream resource(String name) {
+        return FeedParserTest.class.getResourceAsStream(name);
+    }
+
+    private static InputStream stream(String xml) {
+        return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+    }
+}
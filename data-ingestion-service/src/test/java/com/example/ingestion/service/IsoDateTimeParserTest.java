@@ -0,0 +1,81 @@
+package com.example.ingestion.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class IsoDateTimeParserTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "2024-04-10T18:05:12Z",
+            "2024-04-10T18:05:12.1Z",
+            "2024-04-10T18:05:12.123Z",
+            "2024-04-10T18:05:12.1234567Z",
+            "2024-04-10T18:05:12.123456789Z",
+            "2024-04-10T18:05:12+02:00",
+            "2024-04-10T18:05:12-05:30",
+            "2024-02-29T00:00:00Z"
+    })
+    void shouldMatchZonedDateTimeForNewsApiShapes(String text) {
+        // Act & Assert - same result as the java.time parser it replaces
+        assertEquals(ZonedDateTime.parse(text).toLocalDateTime(), IsoDateTimeParser.parse(text));
+    }
+
+    @Test
+    void shouldAcceptShapesWithoutSecondsOrOffset() {
+        // Assert
+        assertEquals(LocalDateTime.of(2024, 4, 10, 18, 5), IsoDateTimeParser.parse("2024-04-10T18:05"));
+        assertEquals(LocalDateTime.of(2024, 4, 10, 18, 5, 12), IsoDateTimeParser.parse("2024-04-10 18:05:12"));
+        assertEquals(LocalDateTime.of(2024, 4, 10, 18, 5, 12), IsoDateTimeParser.parse("2024-04-10T18:05:12+0200"));
+        assertEquals(LocalDateTime.of(2024, 4, 10, 18, 5, 12), IsoDateTimeParser.parse("2024-04-10T18:05:12-03"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "not-a-date-format",
+            "2024-04-10",
+            "2024-04-10T18",
+            "2024-13-10T18:05:12Z",
+            "2023-02-29T18:05:12Z",
+            "2024-04-31T18:05:12Z",
+            "2024-04-10T24:00:00Z",
+            "2024-04-10T18:60:00Z",
+            "2024-04-10T18:05:61Z",
+            "2024-04-10T18:05:12.Z",
+            "2024-04-10T18:05:12ZZ",
+            "2024-04-10T18:05:12+2",
+            "2024-04-10T18:05:12+19:00",
+            "2024-04-10X18:05:12Z",
+            "2024-04-1OT18:05:12Z",
+            "Wed, 10 Apr 2024 18:05:12 GMT"
+    })
+    void shouldReturnNullForMalformedInput(String text) {
+        // Act & Assert - no exception, just no value
+        assertNull(IsoDateTimeParser.parse(text));
+    }
+
+    @Test
+    void shouldReturnNullForNull() {
+        assertNull(IsoDateTimeParser.parse((CharSequence) null));
+    }
+
+    @Test
+    void shouldParseFromCharacterBufferSlice() {
+        // Arrange - the timestamp sits in the middle of a larger buffer, as in a JSON parser
+        char[] buffer = "\"publishedAt\":\"2024-04-10T18:05:12Z\",".toCharArray();
+
+        // Act
+        LocalDateTime parsed = IsoDateTimeParser.parse(buffer, 15, 20);
+
+        // Assert
+        assertEquals(LocalDateTime.of(2024, 4, 10, 18, 5, 12), parsed);
+    }
+}
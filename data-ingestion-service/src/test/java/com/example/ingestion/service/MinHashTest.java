@@ -0,0 +1,59 @@
+package com.example.ingestion.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinHashTest {
+
+    private static final String TITLE = "Central bank holds rates steady as inflation cools";
+    private static final String DESCRIPTION = "Policymakers signalled that rate cuts could come later this year "
+            + "as price growth slowed for a third straight month across most of the economy.";
+
+    @Test
+    void shouldIgnoreCasePunctuationAndShortWords() {
+        // Act
+        MinHash.Signature plain = MinHash.of("central bank holds rates steady inflation cools");
+        MinHash.Signature styled = MinHash.of("CENTRAL BANK holds rates steady, as inflation cools!");
+
+        // Assert
+        assertArrayEquals(plain.minima(), styled.minima());
+        assertEquals(7, styled.words());
+    }
+
+    @Test
+    void shouldEstimateHighSimilarityForLightlyEditedStory() {
+        // Act
+        MinHash.Signature original = MinHash.of(TITLE, DESCRIPTION);
+        MinHash.Signature edited = MinHash.of("Central bank holds interest rates steady as inflation cools",
+                DESCRIPTION.replace("signalled", "indicated"));
+
+        // Assert - 26 of 30 distinct words shared
+        assertTrue(MinHash.similarity(original.minima(), edited.minima()) >= 0.7);
+    }
+
+    @Test
+    void shouldEstimateLowSimilarityForDifferentStories() {
+        // Act
+        MinHash.Signature rates = MinHash.of(TITLE, DESCRIPTION);
+        MinHash.Signature football = MinHash.of("Late penalty sends home side into the cup final",
+                "A stoppage-time spot kick settled a tense semi-final that had been goalless for most of the evening.");
+
+        // Assert
+        assertTrue(MinHash.similarity(rates.minima(), football.minima()) < 0.3);
+    }
+
+    @Test
+    void shouldTreatTextsAsOneWordSet() {
+        // Act
+        MinHash.Signature split = MinHash.of(TITLE, DESCRIPTION);
+        MinHash.Signature joined = MinHash.of(TITLE + " " + DESCRIPTION);
+        MinHash.Signature withNull = MinHash.of(TITLE, null, DESCRIPTION);
+
+        // Assert
+        assertArrayEquals(joined.minima(), split.minima());
+        assertArrayEquals(joined.minima(), withNull.minima());
+    }
+}
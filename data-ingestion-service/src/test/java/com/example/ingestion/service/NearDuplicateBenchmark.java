@@ -0,0 +1,97 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded near-duplicate detection throughput: fingerprinting an article, and a full
+ * lookup against an index filled to its default capacity of 100,000 articles.
+ * Not part of the test suite; run {@link #main} from the IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(1)
+@Fork(1)
+public class NearDuplicateBenchmark {
+
+    private static final int INDEXED_ARTICLES = 100_000;
+    private static final String[] VOCABULARY = ("bank rates inflation market shares election vote minister "
+            + "storm flood wildfire court ruling trial player coach season league launch rocket mission "
+            + "vaccine study patients company profit earnings merger strike union workers prices energy oil "
+            + "climate summit treaty border police arrest investigation software chip device outage record").split(" ");
+
+    private NearDuplicateDetector detector;
+    private NewsArticle[] articles;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        detector = new NearDuplicateDetector(NearDuplicateDetector.Mode.TAG, 0.7, 6, Duration.ofDays(1),
+                INDEXED_ARTICLES, Clock.systemUTC());
+        articles = new NewsArticle[INDEXED_ARTICLES * 2];
+        for (int i = 0; i < articles.length; i++) {
+            articles[i] = article(i);
+        }
+        for (int i = 0; i < INDEXED_ARTICLES; i++) {
+            detector.findCanonicalId(articles[i]);
+        }
+        next = INDEXED_ARTICLES;
+    }
+
+    private static NewsArticle article(int seed) {
+        StringBuilder title = new StringBuilder();
+        StringBuilder description = new StringBuilder();
+        long state = seed * 0x9e3779b97f4a7c15L;
+        for (int word = 0; word < 30; word++) {
+            state = state * 6364136223846793005L + 1442695040888963407L;
+            String token = VOCABULARY[(int) ((state >>> 33) % VOCABULARY.length)] + (state >>> 60);
+            (word < 8 ? title : description).append(token).append(' ');
+        }
+        NewsArticle article = new NewsArticle();
+        article.setId("article-" + seed);
+        article.setTitle(title.toString());
+        article.setDescription(description.toString());
+        return article;
+    }
+
+    @Benchmark
+    public MinHash.Signature fingerprint() {
+        NewsArticle article = articles[next++ % articles.length];
+        return MinHash.of(article.getTitle(), article.getDescription());
+    }
+
+    @Benchmark
+    public String findCanonicalId() {
+        if (next == articles.length) {
+            next = 0;
+        }
+        return detector.findCanonicalId(articles[next++]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(NearDuplicateBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class NearDuplicateDetectorTest {
+
+    private static final String DESCRIPTION = "Policymakers signalled that rate cuts could come later this year "
+            + "as price growth slowed for a third straight month across most of the economy.";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-04-10T12:00:00Z"));
+
+    private NearDuplicateDetector detector(int maxEntries) {
+        return new NearDuplicateDetector(NearDuplicateDetector.Mode.TAG, 0.7, 6, Duration.ofHours(24), maxEntries,
+                clock);
+    }
+
+    private static NewsArticle article(String id, String title, String description) {
+        NewsArticle article = new NewsArticle();
+        article.setId(id);
+        article.setTitle(title);
+        article.setDescription(description);
+        return article;
+    }
+
+    @Test
+    void shouldReturnCanonicalIdOfFirstArticleOfStory() {
+        // Arrange
+        NearDuplicateDetector detector = detector(1000);
+        NewsArticle original = article("a", "Central bank holds rates steady as inflation cools", DESCRIPTION);
+        NewsArticle copy = article("b", "Central bank holds interest rates steady as inflation cools", DESCRIPTION);
+        NewsArticle copyOfCopy = article("c", "Central bank holds interest rates steady as inflation cools further",
+                DESCRIPTION);
+
+        // Act & Assert - every copy points at the first article, not at the copy it resembles most
+        assertNull(detector.findCanonicalId(original));
+        assertEquals("a", detector.findCanonicalId(copy));
+        assertEquals("a", detector.findCanonicalId(copyOfCopy));
+    }
+
+    @Test
+    void shouldNotMatchDifferentStoriesOrTheSameArticleAgain() {
+        // Arrange
+        NearDuplicateDetector detector = detector(1000);
+        NewsArticle rates = article("a", "Central bank holds rates steady as inflation cools", DESCRIPTION);
+        NewsArticle football = article("b", "Late penalty sends home side into the cup final",
+                "A stoppage-time spot kick settled a tense semi-final that had been goalless for most of the evening.");
+        detector.findCanonicalId(rates);
+
+        // Act & Assert
+        assertNull(detector.findCanonicalId(football));
+        assertNull(detector.findCanonicalId(rates), "A retried article is not a duplicate of itself");
+    }
+
+    @Test
+    void shouldNotMatchArticlesWithTooFewWords() {
+        // Arrange
+        NearDuplicateDetector detector = detector(1000);
+        detector.findCanonicalId(article("a", "Markets close", null));
+
+        // Act & Assert
+        assertNull(detector.findCanonicalId(article("b", "Markets close", null)));
+        assertEquals(0, detector.size());
+    }
+
+    @Test
+    void shouldForgetArticlesOutsideWindow() {
+        // Arrange
+        NearDuplicateDetector detector = detector(1000);
+        detector.findCanonicalId(article("a", "Central bank holds rates steady as inflation cools", DESCRIPTION));
+
+        // Act
+        clock.advance(Duration.ofHours(25));
+        String canonicalId = detector.findCanonicalId(
+                article("b", "Central bank holds rates steady as inflation cools", DESCRIPTION));
+
+        // Assert
+        assertNull(canonicalId);
+        assertEquals(1, detector.size());
+    }
+
+    @Test
+    void shouldEvictOldestEntriesBeyondMaxEntries() {
+        // Arrange
+        NearDuplicateDetector detector = detector(2);
+        detector.findCanonicalId(article("a", "Central bank holds rates steady as inflation cools", DESCRIPTION));
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            detector.findCanonicalId(article("other-" + i, "Unrelated story number " + i + " about gardening",
+                    "Tomatoes, courgettes and beans all benefit from a sunny spot and regular watering " + i));
+        }
+
+        // Assert
+        assertEquals(2, detector.size());
+        assertNull(detector.findCanonicalId(
+                article("b", "Central bank holds rates steady as inflation cools", DESCRIPTION)));
+    }
+}
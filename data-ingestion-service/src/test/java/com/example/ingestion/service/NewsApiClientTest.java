@@ -1,165 +1,241 @@
 package com.example.ingestion.service;
 
 import com.example.ingestion.model.NewsApiResponse;
+import com.example.ingestion.model.NewsArticle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentMatchers;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.util.UriBuilder;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
-import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Collections;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
-@ExtendWith(MockitoExtension.class)
 class NewsApiClientTest {
 
-    @Mock
-    private WebClient webClientMock;
-    
-    @Mock
-    private WebClient.RequestHeadersUriSpec requestHeadersUriSpecMock;
-    
-    @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpecMock;
-    
-    @Mock
-    private WebClient.ResponseSpec responseSpecMock;
-    
+    private static final int PAGE_SIZE = 2;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Requests seen by the stubbed exchange function, in order
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    // Clock of the circuit breakers
+    private long nanoTime;
+
+    private NewsApiCircuitBreakers circuitBreakers;
+
     private NewsApiClient newsApiClient;
-    
+
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreakers = new NewsApiCircuitBreakers(4, 2, 50, Duration.ofMinutes(1), meterRegistry, () -> nanoTime);
+
         // Create the NewsApiClient with test values
         newsApiClient = new NewsApiClient(
-                "https://newsapi.org/v2", 
-                "test-api-key", 
-                "technology");
-        
-        // Inject mocked WebClient
-        ReflectionTestUtils.setField(newsApiClient, "webClient", webClientMock);
-        
-        // Set up the WebClient method chain mocks
-        when(webClientMock.get()).thenReturn(requestHeadersUriSpecMock);
-        
-        // This is the key part - using the specific argument matcher
-        when(requestHeadersUriSpecMock.uri(ArgumentMatchers.<Function<UriBuilder, URI>>any()))
-                .thenReturn(requestHeadersSpecMock);
-                
-        when(requestHeadersSpecMock.retrieve()).thenReturn(responseSpecMock);
-    }
-    
+                "https://newsapi.org/v2",
+                "test-api-key",
+                "technology",
+                "us",
+                PAGE_SIZE,
+                1,
+                10,
+                Duration.ofSeconds(10),
+                new ArticleMapper(meterRegistry),
+                new TokenBucketRateLimiter(1000, 1000, Duration.ofSeconds(1)),
+                circuitBreakers,
+                meterRegistry);
+        ReflectionTestUtils.setField(newsApiClient, "retryBackoff", Duration.ofMillis(1));
+    }
+
+    /**
+     * Replaces the client's WebClient with one whose responses come from the given function.
+     */
+    private void stubResponses(Function<ClientRequest, Mono<ClientResponse>> responder) {
+        WebClient stubbedWebClient = WebClient.builder()
+                .baseUrl("https://newsapi.org/v2")
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return responder.apply(request);
+                })
+                .build();
+        ReflectionTestUtils.setField(newsApiClient, "webClient", stubbedWebClient);
+    }
+
+    private void stubResponse(NewsApiResponse response) {
+        String body = toJson(response);
+        stubResponses(request -> Mono.just(jsonResponse(body).build()));
+    }
+
+    private ClientResponse.Builder jsonResponse(String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body);
+    }
+
+    private String toJson(NewsApiResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Test
     void shouldFetchTopHeadlinesWithCategory() {
         // Arrange
-        NewsApiResponse expectedResponse = new NewsApiResponse();
-        expectedResponse.setStatus("ok");
-        
-        when(responseSpecMock.bodyToMono(NewsApiResponse.class)).thenReturn(Mono.just(expectedResponse));
-        
+        stubResponse(page(1, "Business Article"));
+
         // Act
-        Mono<NewsApiResponse> result = newsApiClient.fetchTopHeadlines("business");
-        
+        Flux<NewsArticle> result = newsApiClient.streamTopHeadlines("business");
+
         // Assert
         StepVerifier.create(result)
-                .expectNext(expectedResponse)
+                .expectNextMatches(article -> "business".equals(article.getCategory()))
                 .verifyComplete();
+        assertEquals("business", queryParam(requests.get(0), "category"));
     }
-    
+
+    @Test
+    void shouldRecordResponseSizeAndMappingTime() {
+        // Arrange
+        String body = toJson(page(1, "Measured Article"));
+        stubResponses(request -> Mono.just(jsonResponse(body).build()));
+
+        // Act
+        newsApiClient.streamTopHeadlines("business").blockLast();
+
+        // Assert
+        var responseSize = meterRegistry.get("newsapi.response.size").tag("endpoint", "top-headlines").summary();
+        assertEquals(1, responseSize.count());
+        assertEquals(body.length(), responseSize.totalAmount());
+        assertEquals(1, meterRegistry.get("ingestion.mapping.time").timer().count());
+    }
+
+    @Test
+    void shouldFetchCountryAndReportEveryRequest() {
+        // Arrange - 3 results at 2 per page means 2 requests
+        stubResponse(page(3, "a", "b"));
+        AtomicInteger requestCount = new AtomicInteger();
+
+        // Act
+        newsApiClient.streamTopHeadlines("gb", "science", requestCount::incrementAndGet).blockLast();
+
+        // Assert
+        assertEquals(2, requestCount.get());
+        assertEquals("gb", queryParam(requests.get(0), "country"));
+        assertEquals("gb", queryParam(requests.get(1), "country"));
+        assertEquals("science", queryParam(requests.get(1), "category"));
+    }
+
     @Test
     void shouldUseDefaultCategoryWhenCategoryIsNull() {
         // Arrange
-        NewsApiResponse expectedResponse = new NewsApiResponse();
-        expectedResponse.setStatus("ok");
-        
-        when(responseSpecMock.bodyToMono(NewsApiResponse.class)).thenReturn(Mono.just(expectedResponse));
-        
+        stubResponse(page(1, "Technology Article"));
+
         // Act
-        Mono<NewsApiResponse> result = newsApiClient.fetchTopHeadlines(null);
-        
+        Flux<NewsArticle> result = newsApiClient.streamTopHeadlines(null);
+
         // Assert
         StepVerifier.create(result)
-                .expectNext(expectedResponse)
+                .expectNextMatches(article -> "technology".equals(article.getCategory()))
                 .verifyComplete();
+        assertEquals("technology", queryParam(requests.get(0), "category"));
+        assertEquals("us", queryParam(requests.get(0), "country"));
     }
-    
+
     @Test
     void shouldHandleErrorFromApi() {
         // Arrange
         RuntimeException testException = new RuntimeException("API Error");
-        when(responseSpecMock.bodyToMono(NewsApiResponse.class)).thenReturn(Mono.error(testException));
-        
+        stubResponses(request -> Mono.error(testException));
+
         // Act
-        Mono<NewsApiResponse> result = newsApiClient.fetchTopHeadlines("science");
-        
+        Flux<NewsArticle> result = newsApiClient.streamTopHeadlines("science");
+
         // Assert
         StepVerifier.create(result)
                 .expectErrorMatches(error -> error.equals(testException))
                 .verify();
     }
-    
+
     @Test
     void shouldCorrectlyParseValidApiResponse() {
         // Arrange - create a realistic API response
         NewsApiResponse apiResponse = new NewsApiResponse();
         apiResponse.setStatus("ok");
         apiResponse.setTotalResults(2);
-        
+
         // Create sample articles
         NewsApiResponse.Article article1 = new NewsApiResponse.Article();
         article1.setTitle("Test Article 1");
         article1.setDescription("Test Description 1");
+        article1.setUrl("https://example.com/article-1");
         article1.setPublishedAt("2023-04-09T15:30:00Z");
-        
+
         NewsApiResponse.Source source1 = new NewsApiResponse.Source();
         source1.setId("source-1");
         source1.setName("Test Source");
         article1.setSource(source1);
-        
+
         NewsApiResponse.Article article2 = new NewsApiResponse.Article();
         article2.setTitle("Test Article 2");
         // Intentionally missing some fields to test robustness
-        
+
         List<NewsApiResponse.Article> articles = new ArrayList<>();
         articles.add(article1);
         articles.add(article2);
         apiResponse.setArticles(articles);
-        
+
         // Mock the API to return our test response
-        when(responseSpecMock.bodyToMono(NewsApiResponse.class)).thenReturn(Mono.just(apiResponse));
-        
+        stubResponse(apiResponse);
+
         // Act
-        Mono<NewsApiResponse> result = newsApiClient.fetchTopHeadlines("technology");
-        
-        // Assert - verify the response structure is preserved
+        Flux<NewsArticle> result = newsApiClient.streamTopHeadlines("technology");
+
+        // Assert - articles are decoded straight into NewsArticle
         StepVerifier.create(result)
-            .expectNextMatches(response -> {
-                // Verify status code
-                boolean statusCorrect = "ok".equals(response.getStatus());
-                
-                // Verify article count
-                boolean countCorrect = response.getTotalResults() == 2;
-                
-                // Verify first article details
-                boolean article1Correct = response.getArticles().get(0).getTitle().equals("Test Article 1") &&
-                                         "Test Source".equals(response.getArticles().get(0).getSource().getName());
-                
-                // Verify the client properly handled the second article with missing fields
-                boolean article2Correct = response.getArticles().size() >= 2 && 
-                                         "Test Article 2".equals(response.getArticles().get(1).getTitle());
-                
-                return statusCorrect && countCorrect && article1Correct && article2Correct;
+            .assertNext(article -> {
+                assertEquals("Test Article 1", article.getTitle());
+                assertEquals("Test Description 1", article.getDescription());
+                assertEquals("source-1", article.getSourceId());
+                assertEquals("Test Source", article.getSourceName());
+                assertEquals(LocalDateTime.of(2023, 4, 9, 15, 30), article.getPublishedAt());
+                assertEquals(ArticleIdGenerator.fromUrl("https://example.com/article-1"), article.getId());
+                assertEquals("technology", article.getCategory());
+            })
+            .assertNext(article -> {
+                // The client properly handled the second article with missing fields
+                assertEquals("Test Article 2", article.getTitle());
+                assertNull(article.getSourceName());
+                assertNull(article.getPublishedAt());
+                assertNotNull(article.getId());
             })
             .verifyComplete();
     }
@@ -171,19 +247,14 @@ class NewsApiClientTest {
         emptyResponse.setStatus("ok");
         emptyResponse.setTotalResults(0);
         emptyResponse.setArticles(new ArrayList<>()); // Using ArrayList instead of Collections.emptyList()
-        
-        when(responseSpecMock.bodyToMono(NewsApiResponse.class)).thenReturn(Mono.just(emptyResponse));
-        
+
+        stubResponse(emptyResponse);
+
         // Act
-        Mono<NewsApiResponse> result = newsApiClient.fetchTopHeadlines("business");
-        
+        Flux<NewsArticle> result = newsApiClient.streamTopHeadlines("business");
+
         // Assert
         StepVerifier.create(result)
-            .expectNextMatches(response -> 
-                "ok".equals(response.getStatus()) && 
-                response.getTotalResults() == 0 && 
-                response.getArticles().isEmpty()
-            )
             .verifyComplete();
     }
 
@@ -194,15 +265,450 @@ class NewsApiClientTest {
         errorResponse.setStatus("error");
         errorResponse.setTotalResults(0);
         // No articles provided
-        
-        when(responseSpecMock.bodyToMono(NewsApiResponse.class)).thenReturn(Mono.just(errorResponse));
-        
+
+        stubResponse(errorResponse);
+
         // Act
-        Mono<NewsApiResponse> result = newsApiClient.fetchTopHeadlines("health");
-        
+        Flux<NewsArticle> result = newsApiClient.streamTopHeadlines("health");
+
         // Assert
         StepVerifier.create(result)
-            .expectNextMatches(response -> "error".equals(response.getStatus()))
             .verifyComplete();
     }
+
+    @Test
+    void shouldSkipRemainingPagesWhenResponseBodyIsUnchanged() {
+        // Arrange - upstream returns the same 2 pages twice and sends no validators
+        stubResponses(request -> {
+            int page = Integer.parseInt(queryParam(request, "page"));
+            return Mono.just(jsonResponse(toJson(page(4, "p" + page + "-a", "p" + page + "-b"))).build());
+        });
+        long secondPageLength = toJson(page(4, "p2-a", "p2-b")).length();
+
+        // Act & Assert - page 1 is decoded again, page 2 is not requested
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectNextCount(4)
+                .verifyComplete();
+        requests.clear();
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectNextCount(2)
+                .verifyComplete();
+
+        assertEquals(1, requests.size());
+        assertEquals(1.0, meterRegistry.get("newsapi.polls.skipped")
+                .tags("category", "business", "reason", "unchanged-body")
+                .counter()
+                .count());
+        assertEquals(secondPageLength, meterRegistry.get("newsapi.bytes.saved")
+                .tag("category", "business")
+                .counter()
+                .count());
+    }
+
+    @Test
+    void shouldNotSkipOtherCategoriesWithSameBody() {
+        // Arrange
+        stubResponse(page(4, "a", "b"));
+
+        // Act & Assert - fingerprints are kept per category
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectNextCount(4)
+                .verifyComplete();
+        StepVerifier.create(newsApiClient.streamTopHeadlines("science"))
+                .expectNextCount(4)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldSendConditionalHeadersAndSkipOnNotModified() {
+        // Arrange - upstream supports ETag validation
+        String body = toJson(page(1, "Business Article"));
+        stubResponses(request -> {
+            if ("\"v1\"".equals(request.headers().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                return Mono.just(ClientResponse.create(HttpStatus.NOT_MODIFIED).build());
+            }
+            return Mono.just(jsonResponse(body)
+                    .header(HttpHeaders.ETAG, "\"v1\"")
+                    .header(HttpHeaders.LAST_MODIFIED, "Tue, 09 Apr 2024 10:00:00 GMT")
+                    .build());
+        });
+
+        // Act & Assert
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .verifyComplete();
+
+        assertNull(requests.get(0).headers().getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("Tue, 09 Apr 2024 10:00:00 GMT",
+                requests.get(1).headers().getFirst(HttpHeaders.IF_MODIFIED_SINCE));
+        assertEquals(1.0, meterRegistry.get("newsapi.polls.skipped")
+                .tags("category", "business", "reason", "not-modified")
+                .counter()
+                .count());
+        assertEquals(body.length(), meterRegistry.get("newsapi.bytes.saved")
+                .tag("category", "business")
+                .counter()
+                .count());
+    }
+
+    @Test
+    void shouldNotRememberErrorResponses() {
+        // Arrange - the same error payload twice must not be treated as "unchanged"
+        NewsApiResponse errorResponse = new NewsApiResponse();
+        errorResponse.setStatus("error");
+        stubResponse(errorResponse);
+
+        // Act
+        newsApiClient.streamTopHeadlines("health").blockLast();
+        newsApiClient.streamTopHeadlines("health").blockLast();
+
+        // Assert
+        assertTrue(meterRegistry.find("newsapi.polls.skipped").counters().isEmpty());
+    }
+
+    @Test
+    void shouldStreamArticlesFromAllPages() {
+        // Arrange - 5 results at 2 per page means 3 pages
+        stubResponses(request -> {
+            int page = Integer.parseInt(queryParam(request, "page"));
+            return Mono.just(jsonResponse(toJson(page(5, "p" + page + "-a", "p" + page + "-b"))).build());
+        });
+
+        // Act & Assert
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business").map(NewsArticle::getTitle))
+                .expectNext("p1-a", "p1-b", "p2-a", "p2-b", "p3-a", "p3-b")
+                .verifyComplete();
+        assertEquals(3, requests.size());
+        assertEquals(String.valueOf(PAGE_SIZE), queryParam(requests.get(0), "pageSize"));
+    }
+
+    @Test
+    void shouldOnlyFetchPagesAheadOfDemand() {
+        // Arrange - 10 pages available
+        stubResponses(request -> {
+            int page = Integer.parseInt(queryParam(request, "page"));
+            return Mono.just(jsonResponse(toJson(page(20, "p" + page + "-a", "p" + page + "-b"))).build());
+        });
+
+        // Act & Assert - consuming one article fetches page 1 plus at most one prefetched page
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"), 1)
+                .expectNextCount(1)
+                .thenCancel()
+                .verify();
+        assertTrue(requests.size() <= 2, "Expected at most 2 page requests but got " + requests.size());
+    }
+
+    @Test
+    void shouldCapNumberOfPages() {
+        // Arrange - upstream reports far more results than max-pages allows
+        stubResponses(request -> {
+            int page = Integer.parseInt(queryParam(request, "page"));
+            return Mono.just(jsonResponse(toJson(page(1000, "p" + page))).build());
+        });
+
+        // Act & Assert
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectNextCount(10)
+                .verifyComplete();
+        assertEquals(10, requests.size());
+    }
+
+    @Test
+    void shouldStopPaginationWhenUpstreamRefusesPage() {
+        // Arrange - page 2 fails, e.g. because the plan limits the number of results
+        stubResponses(request -> {
+            int page = Integer.parseInt(queryParam(request, "page"));
+            if (page >= 2) {
+                return Mono.just(ClientResponse.create(HttpStatus.UPGRADE_REQUIRED).build());
+            }
+            return Mono.just(jsonResponse(toJson(page(10, "p1-a", "p1-b"))).build());
+        });
+
+        // Act & Assert - articles of page 1 are still delivered
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business").map(NewsArticle::getTitle))
+                .expectNext("p1-a", "p1-b")
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldNotFetchFurtherPagesWhenFirstPageIsUnchanged() {
+        // Arrange
+        stubResponses(request -> {
+            int page = Integer.parseInt(queryParam(request, "page"));
+            return Mono.just(jsonResponse(toJson(page(4, "p" + page + "-a", "p" + page + "-b"))).build());
+        });
+        newsApiClient.streamTopHeadlines("business").blockLast();
+        requests.clear();
+
+        // Act & Assert - page 1 articles are emitted again, the published-article cache drops them
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectNextCount(2)
+                .verifyComplete();
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void shouldRetryTransientFailureAndRecordLatency() {
+        // Arrange - the first attempt fails with a 503
+        String body = toJson(page(1, "After retry"));
+        AtomicInteger attempts = new AtomicInteger();
+        stubResponses(request -> attempts.incrementAndGet() == 1
+                ? Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build())
+                : Mono.just(jsonResponse(body).build()));
+
+        // Act & Assert
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business").map(NewsArticle::getTitle))
+                .expectNext("After retry")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertEquals(2, requests.size());
+        assertEquals(1.0, meterRegistry.get("newsapi.retries").counter().count());
+        assertEquals(1, meterRegistry.get("newsapi.fetch.latency").tag("outcome", "error").timer().count());
+        assertEquals(1, meterRegistry.get("newsapi.fetch.latency").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void shouldNotRetryClientErrors() {
+        // Arrange
+        stubResponses(request -> Mono.just(ClientResponse.create(HttpStatus.UNAUTHORIZED).build()));
+
+        // Act & Assert
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectError(WebClientResponseException.Unauthorized.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1, requests.size());
+        assertEquals("CLOSED", circuitBreakers.forEndpoint("top-headlines").getState().name());
+    }
+
+    @Test
+    void shouldStopRetryingWhenBudgetIsSpent() {
+        // Arrange - no time left for a second attempt
+        ReflectionTestUtils.setField(newsApiClient, "retryBudget", Duration.ZERO);
+        stubResponses(request -> Mono.just(ClientResponse.create(HttpStatus.BAD_GATEWAY).build()));
+
+        // Act & Assert
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectError(WebClientResponseException.BadGateway.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void shouldNotRetryWhenBackoffWouldOutlastBudget() {
+        // Arrange - the budget has time left now, but not after the backoff
+        ReflectionTestUtils.setField(newsApiClient, "retryBackoff", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(newsApiClient, "retryBudget", Duration.ofSeconds(5));
+        stubResponses(request -> Mono.just(ClientResponse.create(HttpStatus.BAD_GATEWAY).build()));
+
+        // Act & Assert - fails right away instead of waiting for a retry that would start too late
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectError(WebClientResponseException.BadGateway.class)
+                .verify(Duration.ofSeconds(2));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void shouldServeOnlyFirstPageOfLastGoodResponse() {
+        // Arrange - a good poll of two pages, then the upstream fails
+        ReflectionTestUtils.setField(newsApiClient, "maxAttempts", 1);
+        AtomicBoolean failing = new AtomicBoolean();
+        stubResponses(request -> {
+            if (failing.get()) {
+                return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+            }
+            int page = Integer.parseInt(queryParam(request, "page"));
+            return Mono.just(jsonResponse(toJson(page(4, "p" + page + "-a", "p" + page + "-b"))).build());
+        });
+        newsApiClient.streamTopHeadlines("business").blockLast();
+        failing.set(true);
+
+        // Act & Assert
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business").map(NewsArticle::getTitle))
+                .expectNext("p1-a", "p1-b")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldNotServeLastGoodResponseOlderThanMaxAge() {
+        // Arrange
+        ReflectionTestUtils.setField(newsApiClient, "maxAttempts", 1);
+        ReflectionTestUtils.setField(newsApiClient, "cacheMaxAge", Duration.ZERO);
+        AtomicInteger calls = new AtomicInteger();
+        String body = toJson(page(1, "Stale"));
+        stubResponses(request -> calls.incrementAndGet() == 1
+                ? Mono.just(jsonResponse(body).build())
+                : Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+        newsApiClient.streamTopHeadlines("business").blockLast();
+
+        // Act & Assert
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectError(WebClientResponseException.InternalServerError.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldServeLastGoodResponseWhileCircuitIsOpen() {
+        // Arrange - one good poll, then the upstream fails until the breaker opens
+        String body = toJson(page(2, "cached-a", "cached-b"));
+        AtomicInteger calls = new AtomicInteger();
+        stubResponses(request -> calls.incrementAndGet() == 1
+                ? Mono.just(jsonResponse(body).build())
+                : Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build()));
+        newsApiClient.streamTopHeadlines("business").blockLast();
+        StepVerifier.create(newsApiClient.streamTopHeadlines("science"))
+                .expectError(WebClientResponseException.InternalServerError.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals("OPEN", circuitBreakers.forEndpoint("top-headlines").getState().name());
+        requests.clear();
+
+        // Act & Assert - no request is sent, and the last good articles are served
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business").map(NewsArticle::getTitle))
+                .expectNext("cached-a", "cached-b")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertTrue(requests.isEmpty());
+        assertEquals(2.0, meterRegistry.get("newsapi.cache.served").tag("category", "business").counter().count());
+        assertEquals(2.0, meterRegistry.get("newsapi.circuit.state").tag("endpoint", "top-headlines").gauge().value());
+    }
+
+    @Test
+    void shouldProbeUpstreamAgainAfterOpenDuration() {
+        // Arrange - the breaker opened after failures
+        AtomicInteger calls = new AtomicInteger();
+        String body = toJson(page(1, "Recovered"));
+        stubResponses(request -> calls.incrementAndGet() <= 2
+                ? Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build())
+                : Mono.just(jsonResponse(body).build()));
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business"))
+                .expectError(WebClientResponseException.ServiceUnavailable.class)
+                .verify(Duration.ofSeconds(5));
+        assertEquals("OPEN", circuitBreakers.forEndpoint("top-headlines").getState().name());
+
+        // Act
+        nanoTime += Duration.ofMinutes(1).toNanos();
+
+        // Assert - the trial request succeeds and closes the breaker
+        StepVerifier.create(newsApiClient.streamTopHeadlines("business").map(NewsArticle::getTitle))
+                .expectNext("Recovered")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertEquals("CLOSED", circuitBreakers.forEndpoint("top-headlines").getState().name());
+    }
+
+    @Test
+    void shouldSearchEverythingWithinTimeWindow() {
+        // Arrange
+        stubResponse(page(1, "Archived Article"));
+        Instant from = Instant.parse("2024-03-01T00:00:00Z");
+        AtomicInteger sent = new AtomicInteger();
+
+        // Act
+        Flux<NewsArticle> result = newsApiClient.streamEverything("science", from, from.plus(Duration.ofDays(1)),
+                new TokenBucketRateLimiter(10, 10, Duration.ofSeconds(1)), sent::incrementAndGet);
+
+        // Assert - the window end is sent as an inclusive second
+        StepVerifier.create(result)
+                .expectNextMatches(article -> "science".equals(article.getCategory()))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        ClientRequest request = requests.get(0);
+        assertTrue(request.url().getPath().endsWith("/everything"));
+        assertEquals("science", queryParam(request, "q"));
+        assertEquals("2024-03-01T00:00:00Z", queryParam(request, "from"));
+        assertEquals("2024-03-01T23:59:59Z", queryParam(request, "to"));
+        assertEquals("publishedAt", queryParam(request, "sortBy"));
+        assertNull(queryParam(request, "category"));
+        assertEquals(1, sent.get());
+    }
+
+    @Test
+    void shouldFailSearchWhenLaterPageFails() {
+        // Arrange
+        stubResponses(request -> {
+            int page = Integer.parseInt(queryParam(request, "page"));
+            if (page >= 2) {
+                return Mono.just(ClientResponse.create(HttpStatus.UPGRADE_REQUIRED).build());
+            }
+            return Mono.just(jsonResponse(toJson(page(4, "p1-a", "p1-b"))).build());
+        });
+        Instant from = Instant.parse("2024-03-01T00:00:00Z");
+
+        // Act & Assert - unlike polling, a search does not complete with pages missing
+        StepVerifier.create(newsApiClient.streamEverything("science", from, from.plus(Duration.ofDays(1)),
+                                new TokenBucketRateLimiter(10, 10, Duration.ofSeconds(1)), () -> { })
+                        .map(NewsArticle::getTitle))
+                .expectNext("p1-a", "p1-b")
+                .expectError(WebClientResponseException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldFailSearchMatchingMoreResultsThanFetched() {
+        // Arrange - 10 pages of 2 are fetched at most
+        stubResponse(page(21, "p1-a", "p1-b"));
+        Instant from = Instant.parse("2024-03-01T00:00:00Z");
+
+        // Act & Assert - the caller learns after page 1 that it has to narrow the search
+        StepVerifier.create(newsApiClient.streamEverything("science", from, from.plus(Duration.ofDays(1)),
+                        new TokenBucketRateLimiter(10, 10, Duration.ofSeconds(1)), () -> { }))
+                .expectNextCount(2)
+                .expectErrorMatches(e -> e instanceof ResultLimitExceededException limit
+                        && limit.getTotalResults() == 21)
+                .verify(Duration.ofSeconds(5));
+        assertEquals(1, requests.size());
+    }
+
+    @Test
+    void shouldNotSkipSearchPagesAsUnchanged() {
+        // Arrange - the same search twice, with identical responses
+        stubResponse(page(4, "a", "b"));
+        Instant from = Instant.parse("2024-03-01T00:00:00Z");
+        newsApiClient.streamEverything("science", from, from.plus(Duration.ofDays(1)),
+                new TokenBucketRateLimiter(10, 10, Duration.ofSeconds(1)), () -> { }).blockLast();
+        requests.clear();
+
+        // Act & Assert
+        StepVerifier.create(newsApiClient.streamEverything("science", from, from.plus(Duration.ofDays(1)),
+                        new TokenBucketRateLimiter(10, 10, Duration.ofSeconds(1)), () -> { }))
+                .expectNextCount(4)
+                .verifyComplete();
+        assertEquals(2, requests.size());
+    }
+
+    @Test
+    void shouldNotServeLastGoodResponseForEverythingSearch() {
+        // Arrange
+        stubResponses(request -> Mono.just(ClientResponse.create(HttpStatus.BAD_REQUEST).build()));
+        Instant from = Instant.parse("2024-03-01T00:00:00Z");
+
+        // Act & Assert
+        StepVerifier.create(newsApiClient.streamEverything("science", from, from.plus(Duration.ofDays(1)),
+                        new TokenBucketRateLimiter(10, 10, Duration.ofSeconds(1)), () -> { }))
+                .expectError(WebClientResponseException.BadRequest.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private NewsApiResponse page(int totalResults, String... titles) {
+        NewsApiResponse response = new NewsApiResponse();
+        response.setStatus("ok");
+        response.setTotalResults(totalResults);
+        List<NewsApiResponse.Article> articles = new ArrayList<>();
+        for (String title : titles) {
+            NewsApiResponse.Article article = new NewsApiResponse.Article();
+            article.setTitle(title);
+            articles.add(article);
+        }
+        response.setArticles(articles);
+        return response;
+    }
+
+    private String queryParam(ClientRequest request, String name) {
+        return UriComponentsBuilder.fromUri(request.url())
+                .build()
+                .getQueryParams()
+                .getFirst(name);
+    }
 }
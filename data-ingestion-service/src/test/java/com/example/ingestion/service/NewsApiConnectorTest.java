@@ -0,0 +1,102 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.cluster.TargetOwnership;
+import com.example.ingestion.model.NewsArticle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NewsApiConnectorTest {
+
+    @Mock
+    private NewsApiClient newsApiClient;
+
+    @Mock
+    private TargetOwnership ownership;
+
+    private NewsApiPollingPlanner planner;
+
+    private NewsApiConnector connector;
+
+    @BeforeEach
+    void setUp() {
+        planner = new NewsApiPollingPlanner(List.of("us", "gb"), List.of("business"), 100,
+                Duration.ofMinutes(5), Duration.ofHours(6), 0.3, Clock.systemUTC());
+        connector = new NewsApiConnector(newsApiClient, planner, ownership, 4);
+    }
+
+    @Test
+    void shouldFetchCountryAndCategoryOfTargetAndReportRequestsUsed() {
+        // Arrange - the client reports two requests for the target
+        when(newsApiClient.streamTopHeadlines(eq("gb"), eq("business"), any())).thenAnswer(invocation -> {
+            Runnable onRequest = invocation.getArgument(2);
+            return Flux.defer(() -> {
+                onRequest.run();
+                onRequest.run();
+                return Flux.just(new NewsArticle());
+            });
+        });
+
+        when(ownership.owns(any())).thenReturn(true);
+
+        // Act
+        List<String> targets = connector.getTargets();
+        connector.fetch("gb:business").blockLast();
+        connector.onFetchCompleted("gb:business", 1);
+
+        // Assert
+        assertEquals(List.of("us:business", "gb:business"), targets);
+        assertEquals(2, planner.getUsedToday());
+        NewsApiPollingPlanner.TargetPlan plan = planner.snapshot().targets().get(1);
+        assertEquals(2, plan.requestsToday());
+        assertEquals(1.3, plan.requestsPerPoll(), 1e-9);
+    }
+
+    @Test
+    void shouldOnlyClaimTargetsOwnedByThisInstance() {
+        // Arrange
+        when(ownership.owns("us:business")).thenReturn(false);
+        when(ownership.owns("gb:business")).thenReturn(true);
+
+        // Act
+        List<String> targets = connector.getTargets();
+
+        // Assert - the target owned elsewhere stays due in this instance's plan
+        assertEquals(List.of("gb:business"), targets);
+        when(ownership.owns("us:business")).thenReturn(true);
+        assertEquals(List.of("us:business"), connector.getTargets());
+    }
+
+    @Test
+    void shouldHandDeferredTargetBackToPlanner() {
+        // Arrange
+        when(ownership.owns("us:business")).thenReturn(true);
+        when(ownership.owns("gb:business")).thenReturn(true);
+        connector.getTargets();
+
+        // Act - the cycle skips gb:business, e.g. because storage-service is behind
+        connector.onFetchDeferred("gb:business");
+
+        // Assert
+        assertEquals(List.of("gb:business"), connector.getTargets());
+    }
+
+    @Test
+    void shouldTagMetricsWithCategoryOnly() {
+        // Act & Assert
+        assertEquals("business", connector.getMetricCategory("gb:business"));
+    }
+}
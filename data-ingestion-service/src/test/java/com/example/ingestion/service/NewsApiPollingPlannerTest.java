@@ -0,0 +1,171 @@
+package com.example.ingestion.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NewsApiPollingPlannerTest {
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2024-04-10T00:00:00Z"));
+
+    private NewsApiPollingPlanner planner(List<String> countries, List<String> categories, int dailyQuota) {
+        return new NewsApiPollingPlanner(countries, categories, dailyQuota,
+                Duration.ofMinutes(5), Duration.ofHours(24), 0.5, clock);
+    }
+
+    private NewsApiPollingPlanner.TargetPlan plan(NewsApiPollingPlanner planner, String target) {
+        return planner.snapshot().targets().stream()
+                .filter(plan -> plan.target().equals(target))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /**
+     * Simulates one completed poll of a target that used one request.
+     */
+    private void poll(NewsApiPollingPlanner planner, String target, long newArticles) {
+        planner.recordRequests(target, 1);
+        planner.recordNewArticles(target, newArticles);
+    }
+
+    @Test
+    void shouldExpandCountryCategoryMatrixAndClaimEveryTargetOnce() {
+        // Arrange
+        NewsApiPollingPlanner planner = planner(List.of("us", "gb"), List.of("business", "science"), 100);
+
+        // Act
+        List<String> first = planner.claimDueTargets();
+        List<String> second = planner.claimDueTargets();
+
+        // Assert
+        assertEquals(List.of("us:business", "us:science", "gb:business", "gb:science"), first);
+        assertTrue(second.isEmpty(), "Claimed targets must not be handed out again before their interval");
+        assertEquals("gb", NewsApiPollingPlanner.country("gb:science"));
+        assertEquals("science", NewsApiPollingPlanner.category("gb:science"));
+    }
+
+    @Test
+    void shouldPollBusyTargetsMoreOftenThanQuietOnes() {
+        // Arrange
+        NewsApiPollingPlanner planner = planner(List.of("us"), List.of("business", "science"), 48);
+        planner.claimDueTargets();
+        poll(planner, "us:business", 0);
+        poll(planner, "us:science", 0);
+
+        // Act - business keeps producing new articles, science does not
+        for (int i = 0; i < 5; i++) {
+            clock.advance(Duration.ofHours(1));
+            poll(planner, "us:business", 40);
+            poll(planner, "us:science", 0);
+        }
+
+        // Assert
+        Duration busy = plan(planner, "us:business").interval();
+        Duration quiet = plan(planner, "us:science").interval();
+        assertTrue(busy.compareTo(quiet.dividedBy(5)) < 0, busy + " should be much shorter than " + quiet);
+        assertTrue(plan(planner, "us:business").newArticlesPerHour() > 30);
+    }
+
+    @Test
+    void shouldPlanWithinDailyQuota() {
+        // Arrange
+        NewsApiPollingPlanner planner = planner(List.of("us", "gb", "de"), List.of("business", "science"), 100);
+        planner.claimDueTargets();
+
+        // Act - one target needs three pages per poll
+        for (int i = 0; i < 3; i++) {
+            clock.advance(Duration.ofHours(1));
+            planner.recordRequests("de:science", 3);
+            planner.recordNewArticles("de:science", 10);
+        }
+
+        // Assert
+        double planned = planner.snapshot().targets().stream()
+                .mapToDouble(NewsApiPollingPlanner.TargetPlan::plannedRequestsPerDay)
+                .sum();
+        assertTrue(planned <= 100.5, "Planned " + planned + " requests per day");
+        assertTrue(plan(planner, "de:science").requestsPerPoll() > 2);
+    }
+
+    @Test
+    void shouldGiveQuotaUnusableAtMinimumIntervalToOtherTargets() {
+        // Arrange - 1000 requests per day, but no target is polled more than every 5 minutes (288 per day)
+        NewsApiPollingPlanner planner = planner(List.of("us"), List.of("a", "b", "c", "d", "e"), 1000);
+        planner.claimDueTargets();
+
+        // Act - "a" dominates the new-article rate
+        for (int i = 0; i < 5; i++) {
+            clock.advance(Duration.ofMinutes(30));
+            poll(planner, "us:a", 500);
+        }
+
+        // Assert
+        assertEquals(Duration.ofMinutes(5), plan(planner, "us:a").interval());
+        double others = planner.snapshot().targets().stream()
+                .filter(plan -> !plan.target().equals("us:a"))
+                .mapToDouble(NewsApiPollingPlanner.TargetPlan::plannedRequestsPerDay)
+                .sum();
+        assertTrue(others > 1000 - 288 - 5, "Spare quota was not redistributed: " + others);
+    }
+
+    @Test
+    void shouldPlanWithinQuotaLeftByReserveAndKeepUnusedReserveFree() {
+        // Arrange
+        NewsApiPollingPlanner planner = planner(List.of("us"), List.of("business"), 10);
+        planner.claimDueTargets();
+        planner.recordRequests("us:business", 1);
+        planner.recordNewArticles("us:business", 5);
+
+        // Act - 8 requests are reserved, 3 of them used so far
+        planner.reserve(8);
+        planner.recordUnplannedRequests(3);
+        clock.advance(Duration.ofHours(6));
+
+        // Assert - 2 planned requests per day, and only 1 left for targets today
+        assertEquals(2.0, plan(planner, "us:business").plannedRequestsPerDay(), 0.01);
+        assertEquals(6, planner.getRemainingToday());
+        assertEquals(List.of("us:business"), planner.claimDueTargets());
+        planner.recordRequests("us:business", 1);
+        clock.advance(Duration.ofHours(12));
+        assertTrue(planner.claimDueTargets().isEmpty());
+    }
+
+    @Test
+    void shouldKeepReleasedTargetDueButNotPolledOne() {
+        // Arrange
+        NewsApiPollingPlanner planner = planner(List.of("us"), List.of("business", "science"), 100);
+        planner.claimDueTargets();
+
+        // Act - business is skipped by the cycle, science is polled
+        planner.release("us:business");
+        planner.recordRequests("us:science", 1);
+        planner.release("us:science");
+
+        // Assert
+        assertEquals(List.of("us:business"), planner.claimDueTargets());
+    }
+
+    @Test
+    void shouldDeferDueTargetsOnceQuotaIsUsedUntilNextDay() {
+        // Arrange
+        NewsApiPollingPlanner planner = planner(List.of("us"), List.of("business"), 2);
+        planner.claimDueTargets();
+        planner.recordRequests("us:business", 2);
+        planner.recordNewArticles("us:business", 5);
+
+        // Act & Assert - due again, but the quota is spent
+        clock.advance(Duration.ofHours(23));
+        assertTrue(planner.claimDueTargets().isEmpty());
+        assertEquals(0, planner.getRemainingToday());
+
+        // The quota resets at midnight UTC
+        clock.advance(Duration.ofHours(1));
+        assertEquals(List.of("us:business"), planner.claimDueTargets());
+        assertEquals(2, planner.snapshot().remainingToday());
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NewsApiStreamDecoderTest {
+
+    private static final String RESPONSE = """
+            {
+              "status": "ok",
+              "totalResults": 42,
+              "articles": [
+                {
+                  "source": {"id": "source-1", "name": "Test Source"},
+                  "author": "Jane Doe",
+                  "title": "Test Article 1",
+                  "description": "Test Description 1",
+                  "url": "https://example.com/article-1",
+                  "urlToImage": "https://example.com/image-1.jpg",
+                  "publishedAt": "2023-04-09T15:30:00Z",
+                  "content": "Test Content 1"
+                },
+                {
+                  "source": {"id": null, "name": "Other Source"},
+                  "title": "Test Article 2",
+                  "url": "https://example.com/article-2",
+                  "publishedAt": null
+                }
+              ]
+            }
+            """;
+
+    private NewsApiStreamDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        decoder = new NewsApiStreamDecoder(new ArticleMapper(new SimpleMeterRegistry()), "technology");
+    }
+
+    @Test
+    void shouldDecodeArticlesFromSingleChunk() {
+        // Act
+        List<NewsArticle> articles = decodeInChunks(RESPONSE, Integer.MAX_VALUE);
+
+        // Assert
+        assertEquals("ok", decoder.getStatus());
+        assertEquals(42, decoder.getTotalResults());
+        assertEquals(2, articles.size());
+
+        NewsArticle first = articles.get(0);
+        assertEquals("Test Article 1", first.getTitle());
+        assertEquals("Test Description 1", first.getDescription());
+        assertEquals("Test Content 1", first.getContent());
+        assertEquals("Jane Doe", first.getAuthor());
+        assertEquals("source-1", first.getSourceId());
+        assertEquals("Test Source", first.getSourceName());
+        assertEquals("https://example.com/image-1.jpg", first.getImageUrl());
+        assertEquals(LocalDateTime.of(2023, 4, 9, 15, 30), first.getPublishedAt());
+        assertEquals(ArticleIdGenerator.fromUrl("https://example.com/article-1"), first.getId());
+        assertEquals("technology", first.getCategory());
+
+        NewsArticle second = articles.get(1);
+        assertNull(second.getSourceId());
+        assertEquals("Other Source", second.getSourceName());
+        assertNull(second.getPublishedAt());
+    }
+
+    @Test
+    void shouldDecodeSameArticlesWhenSplitIntoTinyChunks() {
+        // Act - every token boundary, including inside strings and numbers, is crossed
+        List<NewsArticle> articles = decodeInChunks(RESPONSE, 1);
+
+        // Assert
+        assertEquals(42, decoder.getTotalResults());
+        assertEquals(List.of("Test Article 1", "Test Article 2"),
+                articles.stream().map(NewsArticle::getTitle).toList());
+        assertEquals(LocalDateTime.of(2023, 4, 9, 15, 30), articles.get(0).getPublishedAt());
+    }
+
+    @Test
+    void shouldEmitArticleAsSoonAsItIsComplete() {
+        // Arrange
+        byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        int endOfFirstArticle = RESPONSE.indexOf("},", RESPONSE.indexOf("Test Content 1")) + 1;
+
+        // Act
+        List<NewsArticle> firstChunk = decoder.feed(Arrays.copyOfRange(body, 0, endOfFirstArticle));
+        List<NewsArticle> rest = decoder.feed(Arrays.copyOfRange(body, endOfFirstArticle, body.length));
+
+        // Assert
+        assertEquals(1, firstChunk.size());
+        assertEquals("Test Article 1", firstChunk.get(0).getTitle());
+        assertEquals(1, rest.size());
+        assertTrue(decoder.endOfInput().isEmpty());
+    }
+
+    @Test
+    void shouldIgnoreUnknownNestedFields() {
+        // Arrange - fields the mapper does not know about, including objects shaped like articles
+        String response = """
+                {
+                  "status": "ok",
+                  "meta": {"articles": [{"title": "Not an article"}], "source": {"name": "x"}},
+                  "articles": [
+                    {
+                      "tags": [{"title": "Not a title"}, ["nested"]],
+                      "title": "Real Article",
+                      "extra": {"source": {"name": "Not the source"}},
+                      "source": {"name": "Real Source", "country": {"code": "us"}}
+                    }
+                  ],
+                  "totalResults": 1
+                }
+                """;
+
+        // Act
+        List<NewsArticle> articles = decodeInChunks(response, 7);
+
+        // Assert
+        assertEquals(1, articles.size());
+        assertEquals("Real Article", articles.get(0).getTitle());
+        assertEquals("Real Source", articles.get(0).getSourceName());
+        assertEquals(1, decoder.getTotalResults());
+    }
+
+    @Test
+    void shouldReportErrorStatusWithoutArticles() {
+        // Arrange
+        String response = """
+                {"status": "error", "code": "apiKeyInvalid", "message": "Your API key is invalid."}
+                """;
+
+        // Act
+        List<NewsArticle> articles = decodeInChunks(response, 5);
+
+        // Assert
+        assertTrue(articles.isEmpty());
+        assertEquals("error", decoder.getStatus());
+        assertEquals(0, decoder.getTotalResults());
+    }
+
+    private List<NewsArticle> decodeInChunks(String json, int chunkSize) {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        List<NewsArticle> articles = new ArrayList<>();
+        for (int offset = 0; offset < body.length; offset += chunkSize) {
+            int end = (int) Math.min((long) offset + chunkSize, body.length);
+            articles.addAll(decoder.feed(Arrays.copyOfRange(body, offset, end)));
+        }
+        articles.addAll(decoder.endOfInput());
+        return articles;
+    }
+}
@@ -1,126 +1,392 @@
 package com.example.ingestion.service;
 
-import com.example.ingestion.model.NewsApiResponse;
+import com.example.ingestion.crawler.ArticleContentCrawler;
+import com.example.ingestion.enrichment.EnrichmentPipeline;
+import com.example.ingestion.enrichment.HtmlStrippingStage;
+import com.example.ingestion.enrichment.LanguageDetectionStage;
+import com.example.ingestion.enrichment.ReadingTimeStage;
+import com.example.ingestion.enrichment.TruncationMarkerStage;
+import com.example.ingestion.enrichment.WhitespaceNormalizationStage;
+import com.example.ingestion.kafka.ArticleKeyStrategy;
 import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class NewsIngestionServiceTest {
 
+    // Real default methods, so the metric category is the target itself
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private SourceConnector connector;
+
     @Mock
-    private NewsApiClient newsApiClient;
-    
-    @Mock
-    private ArticleMapper articleMapper;
-    
-    @Mock
-    private KafkaTemplate<String, NewsArticle> kafkaTemplate;
-    
+    private ReactiveKafkaSender kafkaSender;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private NewsIngestionService newsIngestionService;
-    
+
     @BeforeEach
     void setUp() {
-        newsIngestionService = new NewsIngestionService(newsApiClient, articleMapper, kafkaTemplate);
+        meterRegistry = new SimpleMeterRegistry();
+        ArticlePublisher articlePublisher = new ArticlePublisher(kafkaSender,
+                ArticlePublisherTest.disabledSpool(meterRegistry), meterRegistry);
         // Set the Kafka topic via reflection since it would normally be injected from properties
-        ReflectionTestUtils.setField(newsIngestionService, "kafkaTopic", "news.incoming");
+        ReflectionTestUtils.setField(articlePublisher, "kafkaTopic", "news.incoming");
+        newsIngestionService = serviceWith(articlePublisher, NearDuplicateDetector.Mode.TAG);
+        lenient().when(connector.getName()).thenReturn("test");
     }
-    
+
+    private NewsIngestionService serviceWith(ArticlePublisher articlePublisher, NearDuplicateDetector.Mode mode) {
+        // Crawling is covered by ArticleContentCrawlerTest
+        return serviceWith(articlePublisher, mode, new ArticleContentCrawler(false, "news.enriched", 1, 1,
+                Duration.ZERO, Duration.ofSeconds(1), DataSize.ofMegabytes(1), 1, "test",
+                ArticleKeyStrategy.URL, kafkaSender,
+                new EnrichmentPipeline(List.of(), meterRegistry, 1, ""), meterRegistry));
+    }
+
+    private NewsIngestionService serviceWith(ArticlePublisher articlePublisher, NearDuplicateDetector.Mode mode,
+                                             ArticleContentCrawler contentCrawler) {
+        EnrichmentPipeline enrichmentPipeline = new EnrichmentPipeline(List.of(new HtmlStrippingStage(),
+                new TruncationMarkerStage(), new WhitespaceNormalizationStage(), new LanguageDetectionStage(),
+                new ReadingTimeStage()), meterRegistry, 2, "");
+        return new NewsIngestionService(articlePublisher,
+                new PublishedArticleCache(Duration.ofHours(24), 1000),
+                new NearDuplicateDetector(mode, 0.7, 6, Duration.ofHours(24), 1000, Clock.systemUTC()),
+                enrichmentPipeline,
+                contentCrawler,
+                meterRegistry);
+    }
+
+    private static NewsArticle wireStory(String id, String sourceName, String title) {
+        NewsArticle article = new NewsArticle();
+        article.setId(id);
+        article.setSourceName(sourceName);
+        article.setTitle(title);
+        article.setDescription("Policymakers signalled that rate cuts could come later this year as price "
+                + "growth slowed for a third straight month across most of the economy.");
+        return article;
+    }
+
+    private static RecordMetadata acknowledged() {
+        return new RecordMetadata(new TopicPartition("news.incoming", 0), 0, 0, 0, 0, 0);
+    }
+
+    private void acknowledgeAllSends() {
+        when(kafkaSender.send(any())).thenReturn(Mono.just(acknowledged()));
+    }
+
+    private static ProducerRecord<String, NewsArticle> record(String key, NewsArticle article) {
+        return argThat(record -> "news.incoming".equals(record.topic())
+                && key.equals(record.key())
+                && article.equals(record.value()));
+    }
+
     @Test
     void shouldFetchAndPublishArticles() {
         // Arrange
         String category = "technology";
-        
-        // Create a mock response from the news API
-        NewsApiResponse apiResponse = new NewsApiResponse();
-        NewsApiResponse.Article article1 = new NewsApiResponse.Article();
-        article1.setTitle("Test Article 1");
-        NewsApiResponse.Article article2 = new NewsApiResponse.Article();
-        article2.setTitle("Test Article 2");
-        apiResponse.setArticles(Arrays.asList(article1, article2));
-        
-        // Create mock mapped articles
+
+        // Create mock articles as decoded by the connector
         NewsArticle mappedArticle1 = new NewsArticle();
         mappedArticle1.setId("1");
         mappedArticle1.setTitle("Test Article 1");
-        
+
         NewsArticle mappedArticle2 = new NewsArticle();
         mappedArticle2.setId("2");
         mappedArticle2.setTitle("Test Article 2");
-        
-        List<NewsArticle> mappedArticles = Arrays.asList(mappedArticle1, mappedArticle2);
-        
+
         // Setup mock behavior
-        when(newsApiClient.fetchTopHeadlines(category)).thenReturn(Mono.just(apiResponse));
-        when(articleMapper.mapFromNewsApiResponse(apiResponse, category)).thenReturn(mappedArticles);
-        
+        when(connector.fetch(category)).thenReturn(Flux.just(mappedArticle1, mappedArticle2));
+        acknowledgeAllSends();
+
         // Act
-        newsIngestionService.fetchAndPublishArticles(category).block(); // Block to make the test synchronous
-        
+        newsIngestionService.fetchAndPublish(connector, category).block(); // Block to make the test synchronous
+
         // Assert
-        verify(newsApiClient).fetchTopHeadlines(category);
-        verify(articleMapper).mapFromNewsApiResponse(apiResponse, category);
-        
+        verify(connector).fetch(category);
+
         // Verify each article was published to Kafka
-        verify(kafkaTemplate).send(eq("news.incoming"), eq(mappedArticle1.getId()), eq(mappedArticle1));
-        verify(kafkaTemplate).send(eq("news.incoming"), eq(mappedArticle2.getId()), eq(mappedArticle2));
+        verify(kafkaSender).send(record(mappedArticle1.getId(), mappedArticle1));
+        verify(kafkaSender).send(record(mappedArticle2.getId(), mappedArticle2));
+
+        // The connector learns how many articles were new
+        verify(connector).onFetchCompleted(category, 2L);
+    }
+
+    @Test
+    void shouldRecordArticleCountsAndFetchToAckTime() {
+        // Arrange - one of three articles was published by an earlier cycle
+        NewsArticle first = wireStory("1", "Wire", "Central bank holds rates steady");
+        NewsArticle second = wireStory("2", "Other", "Storm closes schools across the coast");
+        when(connector.fetch("science")).thenReturn(Flux.just(first), Flux.just(first, second));
+        acknowledgeAllSends();
+        newsIngestionService.fetchAndPublish(connector, "science").block();
+
+        // Act
+        newsIngestionService.fetchAndPublish(connector, "science").block();
+
+        // Assert
+        assertEquals(3.0, meterRegistry.get("ingestion.articles.fetched")
+                .tag("connector", "test").tag("category", "science").counter().count());
+        assertEquals(2.0, meterRegistry.get("ingestion.articles.published")
+                .tag("connector", "test").tag("category", "science").counter().count());
+        assertEquals(2, meterRegistry.get("ingestion.fetch-to-ack")
+                .tag("connector", "test").tag("category", "science").timer().count());
     }
-    
+
     @Test
     void shouldHandleEmptyArticlesList() {
         // Arrange
         String category = "business";
-        
-        // Create a mock response with no articles
-        NewsApiResponse apiResponse = new NewsApiResponse();
-        apiResponse.setArticles(new ArrayList<>());
-        
-        // Setup mock behavior
-        when(newsApiClient.fetchTopHeadlines(category)).thenReturn(Mono.just(apiResponse));
-        when(articleMapper.mapFromNewsApiResponse(apiResponse, category)).thenReturn(new ArrayList<>());
-        
+
+        // Setup mock behavior - no articles (or an unchanged response)
+        when(connector.fetch(category)).thenReturn(Flux.empty());
+
         // Act
-        newsIngestionService.fetchAndPublishArticles(category).block();
-        
+        newsIngestionService.fetchAndPublish(connector, category).block();
+
         // Assert
-        verify(newsApiClient).fetchTopHeadlines(category);
-        verify(articleMapper).mapFromNewsApiResponse(apiResponse, category);
-        
+        verify(connector).fetch(category);
+
         // Verify no articles were published to Kafka
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(NewsArticle.class));
+        verify(kafkaSender, never()).send(any());
     }
-    
+
     @Test
     void shouldHandleErrorFromNewsApi() {
         // Arrange
         String category = "health";
         RuntimeException testException = new RuntimeException("API Error");
-        
+
         // Setup mock behavior to throw an exception
-        when(newsApiClient.fetchTopHeadlines(category)).thenReturn(Mono.error(testException));
-        
+        when(connector.fetch(category)).thenReturn(Flux.error(testException));
+
         // Act & Assert
         // The service should handle the error and return an empty Mono
-        newsIngestionService.fetchAndPublishArticles(category).block();
-        
+        newsIngestionService.fetchAndPublish(connector, category).block();
+
         // Verify the client was called but no articles were processed
-        verify(newsApiClient).fetchTopHeadlines(category);
-        verify(articleMapper, never()).mapFromNewsApiResponse(any(), anyString());
-        verify(kafkaTemplate, never()).send(anyString(), anyString(), any(NewsArticle.class));
+        verify(connector).fetch(category);
+        verify(kafkaSender, never()).send(any());
+    }
+
+    @Test
+    void shouldNotRepublishArticlesSeenInPreviousCycle() {
+        // Arrange
+        String category = "technology";
+        NewsArticle repeatedArticle = new NewsArticle();
+        repeatedArticle.setId("repeated");
+        repeatedArticle.setTitle("Repeated Headline");
+
+        NewsArticle newArticle = new NewsArticle();
+        newArticle.setId("new");
+        newArticle.setTitle("New Headline");
+
+        when(connector.fetch(category))
+                .thenReturn(Flux.just(repeatedArticle))
+                .thenReturn(Flux.just(repeatedArticle, newArticle));
+        acknowledgeAllSends();
+
+        // Act - two consecutive ingestion cycles
+        newsIngestionService.fetchAndPublish(connector, category).block();
+        newsIngestionService.fetchAndPublish(connector, category).block();
+
+        // Assert - the repeated article is only published once
+        verify(kafkaSender, times(1)).send(record("repeated", repeatedArticle));
+        verify(kafkaSender, times(1)).send(record("new", newArticle));
+        assertEquals(1.0, meterRegistry.get("ingestion.articles.duplicates.suppressed")
+                .tag("category", category)
+                .counter()
+                .count());
+    }
+
+    @Test
+    void shouldRetryArticleWhosePublishFailedInNextCycle() {
+        // Arrange
+        String category = "technology";
+        NewsArticle article = new NewsArticle();
+        article.setId("flaky");
+        article.setTitle("Flaky Headline");
+
+        when(connector.fetch(category)).thenReturn(Flux.just(article));
+        when(kafkaSender.send(any()))
+                .thenReturn(Mono.error(new IllegalStateException("Broker unavailable")))
+                .thenReturn(Mono.just(acknowledged()));
+
+        // Act - two consecutive ingestion cycles
+        newsIngestionService.fetchAndPublish(connector, category).block();
+        newsIngestionService.fetchAndPublish(connector, category).block();
+
+        // Assert - the article is not suppressed as a duplicate after the failed send
+        verify(kafkaSender, times(2)).send(record("flaky", article));
+        verify(connector).onPublishFailed(category, article);
+        assertEquals(1.0, meterRegistry.get("ingestion.publish.failures")
+                .tag("category", category)
+                .counter()
+                .count());
+    }
+
+    @Test
+    void shouldCrawlOnlyArticlesThatWerePublished() {
+        // Arrange - the first send fails and the spool is disabled
+        ArticleContentCrawler contentCrawler = mock(ArticleContentCrawler.class);
+        ArticlePublisher articlePublisher = new ArticlePublisher(kafkaSender,
+                ArticlePublisherTest.disabledSpool(meterRegistry), meterRegistry);
+        ReflectionTestUtils.setField(articlePublisher, "kafkaTopic", "news.incoming");
+        ReflectionTestUtils.setField(articlePublisher, "maxInFlightSends", 1);
+        NewsIngestionService service = serviceWith(articlePublisher, NearDuplicateDetector.Mode.OFF, contentCrawler);
+        NewsArticle lost = wireStory("lost", "Reuters", "Inflation cools again");
+        NewsArticle published = wireStory("published", "BBC News", "Central bank holds rates");
+        when(connector.fetch("business")).thenReturn(Flux.just(lost, published));
+        when(kafkaSender.send(any()))
+                .thenReturn(Mono.error(new IllegalStateException("Broker unavailable")))
+                .thenReturn(Mono.just(acknowledged()));
+
+        // Act
+        service.fetchAndPublish(connector, "business").block();
+
+        // Assert
+        verify(contentCrawler).submit(published);
+        verify(contentCrawler, never()).submit(lost);
+    }
+
+    @Test
+    void shouldPublishUndeliveredArticlesServedFromLastGoodResponse() {
+        // Arrange - a good poll whose second article cannot be sent, then the upstream fails
+        String category = "technology";
+        NewsApiClient newsApiClient = new NewsApiClient("https://newsapi.org/v2", "test-api-key", category, "us",
+                10, 1, 1, Duration.ofSeconds(10), new ArticleMapper(meterRegistry),
+                new TokenBucketRateLimiter(1000, 1000, Duration.ofSeconds(1)),
+                new NewsApiCircuitBreakers(10, 10, 100, Duration.ofMinutes(1), meterRegistry), meterRegistry);
+        ReflectionTestUtils.setField(newsApiClient, "maxAttempts", 1);
+        String body = "{\"status\":\"ok\",\"totalResults\":2,\"articles\":["
+                + "{\"title\":\"Delivered\",\"url\":\"https://example.com/delivered\"},"
+                + "{\"title\":\"Undelivered\",\"url\":\"https://example.com/undelivered\"}]}";
+        AtomicInteger polls = new AtomicInteger();
+        ReflectionTestUtils.setField(newsApiClient, "webClient", WebClient.builder()
+                .exchangeFunction(request -> Mono.just(polls.incrementAndGet() == 1
+                        ? ClientResponse.create(HttpStatus.OK)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body(body)
+                                .build()
+                        : ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()))
+                .build());
+        when(connector.fetch(category)).thenAnswer(invocation -> newsApiClient.streamTopHeadlines(category));
+        when(kafkaSender.send(any()))
+                .thenReturn(Mono.just(acknowledged()))
+                .thenReturn(Mono.error(new IllegalStateException("Broker unavailable")))
+                .thenReturn(Mono.just(acknowledged()));
+        newsIngestionService.fetchAndPublish(connector, category).block();
+
+        // Act
+        newsIngestionService.fetchAndPublish(connector, category).block();
+
+        // Assert - of the served articles only the one that was not delivered is published again
+        verify(kafkaSender, times(3)).send(any());
+        verify(kafkaSender, times(2)).send(argThat(record -> "Undelivered".equals(record.value().getTitle())));
+        assertEquals(2.0, meterRegistry.get("newsapi.cache.served").tag("category", category).counter().count());
+        assertEquals(1.0, meterRegistry.get("ingestion.articles.duplicates.suppressed")
+                .tag("category", category)
+                .counter()
+                .count());
+    }
+
+    @Test
+    void shouldTagNearDuplicatesFromOtherSourcesWithCanonicalId() {
+        // Arrange - the same wire story from two sources, with a slightly edited headline
+        String category = "business";
+        NewsArticle original = wireStory("reuters-1", "Reuters", "Central bank holds rates steady as inflation cools");
+        NewsArticle copy = wireStory("yahoo-1", "Yahoo", "Central bank holds interest rates steady as inflation cools");
+        when(connector.fetch(category)).thenReturn(Flux.just(original, copy));
+        acknowledgeAllSends();
+
+        // Act
+        newsIngestionService.fetchAndPublish(connector, category).block();
+
+        // Assert - both are published, the copy points at the original
+        verify(kafkaSender, times(2)).send(any());
+        assertNull(original.getCanonicalId());
+        assertEquals("reuters-1", copy.getCanonicalId());
+        assertEquals(1.0, meterRegistry.get("ingestion.articles.near-duplicates")
+                .tag("category", category)
+                .tag("mode", "tag")
+                .counter()
+                .count());
+    }
+
+    @Test
+    void shouldDropNearDuplicatesInDropMode() {
+        // Arrange
+        ArticlePublisher articlePublisher = new ArticlePublisher(kafkaSender,
+                ArticlePublisherTest.disabledSpool(meterRegistry), meterRegistry);
+        ReflectionTestUtils.setField(articlePublisher, "kafkaTopic", "news.incoming");
+        NewsIngestionService service = serviceWith(articlePublisher, NearDuplicateDetector.Mode.DROP);
+        String category = "business";
+        NewsArticle original = wireStory("reuters-1", "Reuters", "Central bank holds rates steady as inflation cools");
+        NewsArticle copy = wireStory("yahoo-1", "Yahoo", "Central bank holds interest rates steady as inflation cools");
+        when(connector.fetch(category)).thenReturn(Flux.just(original, copy));
+        acknowledgeAllSends();
+
+        // Act
+        service.fetchAndPublish(connector, category).block();
+
+        // Assert
+        verify(kafkaSender).send(record("reuters-1", original));
+        verify(kafkaSender, times(1)).send(any());
+    }
+
+    @Test
+    void shouldPublishEnrichedArticles() {
+        // Arrange - content as NewsAPI delivers it
+        String category = "technology";
+        NewsArticle article = new NewsArticle();
+        article.setId("1");
+        article.setTitle("Chip makers expand   production");
+        article.setContent("<p>The new plant is the largest of its kind and will be built in the north of the "
+                + "state.</p> … [+2760 chars]");
+        when(connector.fetch(category)).thenReturn(Flux.just(article));
+        acknowledgeAllSends();
+
+        // Act
+        newsIngestionService.fetchAndPublish(connector, category).block();
+
+        // Assert
+        verify(kafkaSender).send(argThat(record -> {
+            NewsArticle published = record.value();
+            return "Chip makers expand production".equals(published.getTitle())
+                    && "The new plant is the largest of its kind and will be built in the north of the state."
+                            .equals(published.getContent())
+                    && "en".equals(published.getLanguage())
+                    && Integer.valueOf(2).equals(published.getReadingTimeMinutes());
+        }));
     }
 }
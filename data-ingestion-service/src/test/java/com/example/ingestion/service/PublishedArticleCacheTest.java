@@ -0,0 +1,53 @@
+package com.example.ingestion.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublishedArticleCacheTest {
+
+    @Test
+    void shouldReportDuplicateWithinTtl() {
+        // Arrange
+        PublishedArticleCache cache = new PublishedArticleCache(Duration.ofHours(1), 100);
+        
+        // Act & Assert
+        assertTrue(cache.markIfAbsent("article-1"), "First sighting should be new");
+        assertFalse(cache.markIfAbsent("article-1"), "Second sighting should be a duplicate");
+        assertTrue(cache.markIfAbsent("article-2"), "A different ID should be new");
+    }
+    
+    @Test
+    void shouldForgetEntriesAfterTtl() {
+        // Arrange
+        MutableClock clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        PublishedArticleCache cache = new PublishedArticleCache(Duration.ofMinutes(10), 100, clock);
+        cache.markIfAbsent("article-1");
+        
+        // Act - move past the TTL
+        clock.advance(Duration.ofMinutes(11));
+        
+        // Assert
+        assertTrue(cache.markIfAbsent("article-1"), "Expired entry should be treated as new");
+        assertEquals(1, cache.size());
+    }
+    
+    @Test
+    void shouldEvictOldestEntryWhenFull() {
+        // Arrange
+        PublishedArticleCache cache = new PublishedArticleCache(Duration.ofHours(1), 2);
+        cache.markIfAbsent("article-1");
+        cache.markIfAbsent("article-2");
+        
+        // Act
+        cache.markIfAbsent("article-3");
+        
+        // Assert - size stays bounded and the oldest entry was dropped
+        assertEquals(2, cache.size());
+        assertTrue(cache.markIfAbsent("article-1"), "Evicted entry should be treated as new");
+        assertFalse(cache.markIfAbsent("article-3"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.Callback;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReactiveKafkaSenderTest {
+
+    private final MockProducer<String, NewsArticle> mockProducer =
+            new MockProducer<>(false, new StringSerializer(), new JsonSerializer<>());
+
+    private ReactiveKafkaSender sender;
+
+    @AfterEach
+    void tearDown() {
+        if (sender != null) {
+            sender.destroy();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ReactiveKafkaSender senderFor(Producer<String, NewsArticle> producer) {
+        ProducerFactory<String, NewsArticle> producerFactory = mock(ProducerFactory.class);
+        when(producerFactory.createProducer()).thenReturn(producer);
+        sender = new ReactiveKafkaSender(producerFactory, new SimpleMeterRegistry());
+        return sender;
+    }
+
+    private ProducerRecord<String, NewsArticle> record(String key) {
+        NewsArticle article = new NewsArticle();
+        article.setId(key);
+        return new ProducerRecord<>("news.incoming", key, article);
+    }
+
+    @Test
+    void shouldEmitMetadataOnlyAfterBrokerAcknowledges() {
+        // Arrange
+        ReactiveKafkaSender sender = senderFor(mockProducer);
+
+        // Act & Assert
+        StepVerifier.create(sender.send(record("1")))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .then(() -> {
+                    assertEquals(1, sender.getPendingSends());
+                    mockProducer.completeNext();
+                })
+                .expectNextMatches(metadata -> "news.incoming".equals(metadata.topic()))
+                .verifyComplete();
+        assertEquals(0, sender.getPendingSends());
+    }
+
+    @Test
+    void shouldPropagateSendFailure() {
+        // Arrange
+        ReactiveKafkaSender sender = senderFor(mockProducer);
+
+        // Act & Assert
+        StepVerifier.create(sender.send(record("1")))
+                .expectSubscription()
+                .then(() -> awaitSends(1))
+                .then(() -> mockProducer.errorNext(new IllegalStateException("Broker unavailable")))
+                .expectErrorMessage("Broker unavailable")
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldStopRequestingUpstreamWhileProducerBufferIsFull() throws InterruptedException {
+        // Arrange - a producer whose send blocks, as it does when its buffer is exhausted
+        CountDownLatch bufferFreed = new CountDownLatch(1);
+        CountDownLatch firstSendBlocked = new CountDownLatch(1);
+        @SuppressWarnings("unchecked")
+        Producer<String, NewsArticle> blockingProducer = mock(Producer.class);
+        when(blockingProducer.send(any(), any())).thenAnswer(invocation -> {
+            firstSendBlocked.countDown();
+            bufferFreed.await();
+            Callback callback = invocation.getArgument(1);
+            callback.onCompletion(null, null);
+            return null;
+        });
+        ReactiveKafkaSender sender = senderFor(blockingProducer);
+        AtomicInteger emitted = new AtomicInteger();
+
+        // Act - the caller is not blocked, and only the bounded number of records is requested
+        Flux.range(0, 100)
+                .doOnNext(i -> emitted.incrementAndGet())
+                .flatMap(i -> sender.send(record(String.valueOf(i))), 4)
+                .subscribe();
+
+        // Assert
+        assertTrue(firstSendBlocked.await(5, TimeUnit.SECONDS));
+        assertEquals(4, emitted.get());
+        bufferFreed.countDown();
+    }
+
+    private void awaitSends(int count) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (mockProducer.history().size() < count && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.cluster.TargetOwnership;
+import com.example.ingestion.model.NewsArticle;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RssFeedConnectorTest {
+
+    private RssFeedConnector connector;
+    private HttpServer server;
+
+    // Owns every target unless a test says otherwise
+    private final TargetOwnership ownership = mock(TargetOwnership.class);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(ownership.owns(anyString())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (connector != null) {
+            connector.destroy();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private RssFeedConnector connectorFor(String feeds, Path feedDirectory) {
+        connector = new RssFeedConnector(feeds, feedDirectory == null ? "" : feedDirectory.toString(),
+                "general", 16, Duration.ofSeconds(5), ownership);
+        return connector;
+    }
+
+    private static Path feedDirectory() throws URISyntaxException {
+        return Path.of(Objects.requireNonNull(RssFeedConnectorTest.class.getResource("/feeds")).toURI());
+    }
+
+    @Test
+    void shouldListFeedFilesOfDirectoryAsTargets(@TempDir Path directory) throws IOException {
+        // Arrange
+        Files.writeString(directory.resolve("b.rss"), "<rss/>");
+        Files.writeString(directory.resolve("a.atom"), "<feed/>");
+        Files.writeString(directory.resolve("notes.txt"), "not a feed");
+        RssFeedConnector connector = connectorFor("https://feeds.example.com/rss, ", directory);
+
+        // Act
+        List<String> targets = connector.getTargets();
+
+        // Assert
+        assertEquals(List.of(
+                "https://feeds.example.com/rss",
+                directory.resolve("a.atom").toUri().toString(),
+                directory.resolve("b.rss").toUri().toString()), targets);
+    }
+
+    @Test
+    void shouldFetchArticlesFromLocalFeedFiles() throws URISyntaxException {
+        // Arrange
+        RssFeedConnector connector = connectorFor("", feedDirectory());
+
+        // Act
+        List<NewsArticle> articles = connector.getTargets().stream()
+                .flatMap(target -> connector.fetch(target).collectList().block().stream())
+                .toList();
+
+        // Assert
+        assertEquals(List.of("Comet spotted", "Updated only", "Virtual threads in practice", "Streaming XML with StAX"),
+                articles.stream().map(NewsArticle::getTitle).toList());
+        assertTrue(articles.stream().allMatch(article -> "general".equals(article.getCategory())));
+    }
+
+    @Test
+    void shouldParseOnlyAsManyItemsAsRequested() throws URISyntaxException {
+        // Arrange
+        RssFeedConnector connector = connectorFor("", feedDirectory());
+        String target = feedDirectory().resolve("tech-blog.rss").toUri().toString();
+
+        // Act & Assert
+        StepVerifier.create(connector.fetch(target), 1)
+                .expectNextMatches(article -> "Virtual threads in practice".equals(article.getTitle()))
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenRequest(1)
+                .expectNextCount(1)
+                // The end of the feed is only read on the next request
+                .thenRequest(1)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldFetchFeedOverHttpOnVirtualThread() throws Exception {
+        // Arrange
+        byte[] feed;
+        try (InputStream in = RssFeedConnectorTest.class.getResourceAsStream("/feeds/science-news.atom")) {
+            feed = in.readAllBytes();
+        }
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/feed.atom", exchange -> {
+            exchange.sendResponseHeaders(200, feed.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(feed);
+            }
+        });
+        server.start();
+        RssFeedConnector connector = connectorFor("", null);
+        String target = "http://localhost:" + server.getAddress().getPort() + "/feed.atom";
+
+        // Act & Assert
+        StepVerifier.create(connector.fetch(target)
+                        .map(article -> Thread.currentThread().isVirtual() + ":" + article.getTitle()))
+                .expectNext("true:Comet spotted", "true:Updated only")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldFailFetchOnHttpErrorStatus() throws IOException {
+        // Arrange
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        RssFeedConnector connector = connectorFor("", null);
+
+        // Act & Assert
+        StepVerifier.create(connector.fetch("http://localhost:" + server.getAddress().getPort() + "/missing.rss"))
+                .expectErrorMatches(e -> e instanceof IOException && e.getMessage().contains("HTTP 404"))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void shouldOnlyListFeedsOwnedByThisInstance() {
+        // Arrange
+        when(ownership.owns("https://feeds.example.com/b")).thenReturn(false);
+        RssFeedConnector connector = connectorFor("https://feeds.example.com/a,https://feeds.example.com/b", null);
+
+        // Act & Assert
+        assertEquals(List.of("https://feeds.example.com/a"), connector.getTargets());
+    }
+
+    @Test
+    void shouldReportFeedCategoryAsMetricCategory() {
+        // Act & Assert - feed URLs must never become metric tags
+        assertEquals("general", connectorFor("", null).getMetricCategory("https://feeds.example.com/rss"));
+    }
+}
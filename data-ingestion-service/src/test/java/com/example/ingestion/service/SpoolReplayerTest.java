@@ -0,0 +1,121 @@
+package com.example.ingestion.service;
+
+import com.example.ingestion.model.NewsArticle;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SpoolReplayerTest {
+
+    private static final RecordMetadata ACKNOWLEDGED =
+            new RecordMetadata(new TopicPartition("news.incoming", 0), 0, 0, 0, 0, 0);
+
+    @TempDir
+    private Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReactiveKafkaSender kafkaSender = mock(ReactiveKafkaSender.class);
+    private final List<String> sentIds = new CopyOnWriteArrayList<>();
+
+    private ArticleSpool spool;
+    private SpoolReplayer replayer;
+
+    @BeforeEach
+    void setUp() {
+        spool = new ArticleSpool(true, directory, DataSize.ofKilobytes(4), DataSize.ofKilobytes(64), meterRegistry);
+        replayer = new SpoolReplayer(spool, kafkaSender, meterRegistry);
+        ReflectionTestUtils.setField(replayer, "kafkaTopic", "news.incoming");
+        ReflectionTestUtils.setField(replayer, "batchSize", 10);
+        ReflectionTestUtils.setField(replayer, "maxInFlightSends", 1);
+        IntStream.range(0, 25).forEach(i -> {
+            NewsArticle article = new NewsArticle();
+            article.setId(String.valueOf(i));
+            spool.append(article);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        spool.destroy();
+    }
+
+    private Mono<RecordMetadata> record(ProducerRecord<String, NewsArticle> record) {
+        sentIds.add(record.key());
+        return Mono.just(ACKNOWLEDGED);
+    }
+
+    @Test
+    void shouldReplayAllArticlesInOrder() {
+        // Arrange
+        when(kafkaSender.send(any())).thenAnswer(invocation -> record(invocation.getArgument(0)));
+
+        // Act & Assert
+        StepVerifier.create(replayer.replay())
+                .expectNext(25L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertEquals(IntStream.range(0, 25).mapToObj(String::valueOf).toList(), sentIds);
+        assertTrue(spool.isEmpty());
+        assertEquals(25.0, meterRegistry.get("ingestion.spool.replayed").counter().count());
+    }
+
+    @Test
+    void shouldKeepUnacknowledgedBatchForNextAttempt() {
+        // Arrange - the broker fails again while the second batch is replayed
+        when(kafkaSender.send(any())).thenAnswer(invocation -> {
+            ProducerRecord<String, NewsArticle> record = invocation.getArgument(0);
+            return record.key().equals("13") ? Mono.error(new TimeoutException("Broker unavailable"))
+                    : record(record);
+        });
+
+        // Act & Assert
+        StepVerifier.create(replayer.replay())
+                .expectErrorMessage("Broker unavailable")
+                .verify(Duration.ofSeconds(5));
+        assertEquals(15, spool.getPendingRecords());
+        assertEquals("10", spool.read(1).articles().get(0).getId());
+    }
+
+    @Test
+    void shouldDropArticleThatCannotBeSentAndCommitItsBatch() {
+        // Arrange - one article is too large for the broker
+        when(kafkaSender.send(any())).thenAnswer(invocation -> {
+            ProducerRecord<String, NewsArticle> record = invocation.getArgument(0);
+            return record.key().equals("13") ? Mono.error(new RecordTooLargeException("Record too large"))
+                    : record(record);
+        });
+
+        // Act & Assert
+        StepVerifier.create(replayer.replay())
+                .expectNext(25L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+        assertEquals(24, sentIds.size());
+        assertTrue(spool.isEmpty());
+        assertEquals(24.0, meterRegistry.get("ingestion.spool.replayed").counter().count());
+        assertEquals(1.0, meterRegistry.get("ingestion.spool.dropped").counter().count());
+    }
+}
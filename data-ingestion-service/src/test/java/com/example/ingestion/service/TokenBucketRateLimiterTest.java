@@ -0,0 +1,59 @@
+package com.example.ingestion.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void shouldAllowBurstUpToCapacity() {
+        // Arrange - 3 tokens, refilled at 1 per second
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(3, 60, Duration.ofMinutes(1), nanoTime::get);
+        
+        // Act & Assert
+        assertEquals(Duration.ZERO, limiter.reserve());
+        assertEquals(Duration.ZERO, limiter.reserve());
+        assertEquals(Duration.ZERO, limiter.reserve());
+        assertEquals(Duration.ofSeconds(1), limiter.reserve(), "Fourth request should wait for one refill");
+        assertEquals(Duration.ofSeconds(2), limiter.reserve(), "Fifth request should queue behind the fourth");
+    }
+    
+    @Test
+    void shouldRefillOverTime() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 60, Duration.ofMinutes(1), nanoTime::get);
+        limiter.reserve();
+        
+        // Act - wait long enough for one token
+        nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+        
+        // Assert
+        assertEquals(Duration.ZERO, limiter.reserve());
+    }
+    
+    @Test
+    void shouldNotAccumulateMoreThanCapacity() {
+        // Arrange
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 60, Duration.ofMinutes(1), nanoTime::get);
+        
+        // Act - idle for a long time
+        nanoTime.addAndGet(Duration.ofHours(1).toNanos());
+        
+        // Assert - only the capacity is available as a burst
+        assertEquals(Duration.ZERO, limiter.reserve());
+        assertEquals(Duration.ZERO, limiter.reserve());
+        assertTrue(limiter.reserve().compareTo(Duration.ZERO) > 0);
+    }
+    
+    @Test
+    void shouldRejectInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new TokenBucketRateLimiter(0, 100, Duration.ofDays(1)));
+    }
+}
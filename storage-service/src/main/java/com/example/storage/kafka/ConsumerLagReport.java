@@ -0,0 +1,14 @@
+package com.example.storage.kafka;
+
+/**
+ * How far the article consumer group is behind, published to {@code kafka.topic.lag} as JSON so
+ * that data-ingestion-service can slow down while storage catches up.
+ *
+ * @param group            The consumer group
+ * @param topic            The consumed topic
+ * @param lag              Records published to the topic but not yet committed by the group
+ * @param recordsPerSecond Records the group committed per second since the previous report
+ * @param timestamp        When the lag was measured, in epoch milliseconds
+ */
+public record ConsumerLagReport(String group, String topic, long lag, double recordsPerSecond, long timestamp) {
+}
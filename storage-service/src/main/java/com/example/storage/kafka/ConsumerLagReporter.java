@@ -0,0 +1,166 @@
+package com.example.storage.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Measures how far the article consumer group is behind the news topic and publishes it as a
+ * {@link ConsumerLagReport} to {@code kafka.topic.lag}, where data-ingestion-service reads it to
+ * throttle fetching. The lag is the sum over all partitions of the end offset minus the group's
+ * committed offset; the processing rate is how fast the committed offsets advanced since the
+ * previous report. Both are also exported as gauges.
+ */
+@Component
+@Slf4j
+public class ConsumerLagReporter implements DisposableBean {
+
+    private static final Duration ADMIN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Admin admin;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+    private final String groupId;
+    private final String reportTopic;
+    private final LongSupplier clock;
+
+    private volatile long lag;
+    private volatile double recordsPerSecond;
+    private long previousCommitted = -1;
+    private long previousMeasuredAt;
+
+    @Autowired
+    public ConsumerLagReporter(
+            KafkaAdmin kafkaAdmin,
+            KafkaTemplate<String, String> kafkaTemplate,
+            ObjectMapper objectMapper,
+            @Value("${kafka.topic.news}") String topic,
+            @Value("${spring.kafka.consumer.group-id}") String groupId,
+            @Value("${kafka.topic.lag:storage.lag}") String reportTopic,
+            MeterRegistry meterRegistry) {
+        this(Admin.create(kafkaAdmin.getConfigurationProperties()), kafkaTemplate, objectMapper, topic, groupId,
+                reportTopic, meterRegistry, System::currentTimeMillis);
+    }
+
+    ConsumerLagReporter(Admin admin, KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper,
+                        String topic, String groupId, String reportTopic, MeterRegistry meterRegistry,
+                        LongSupplier clock) {
+        this.admin = admin;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+        this.groupId = groupId;
+        this.reportTopic = reportTopic;
+        this.clock = clock;
+
+        Gauge.builder("storage.consumer.lag", this, reporter -> reporter.lag)
+                .description("Records on the news topic not yet committed by the article consumer group")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        Gauge.builder("storage.consumer.rate", this, reporter -> reporter.recordsPerSecond)
+                .description("Records per second committed by the article consumer group")
+                .tag("topic", topic)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the lag measured by the latest report, 0 before the first one
+     */
+    public long getLag() {
+        return lag;
+    }
+
+    /**
+     * Measures the lag and publishes it, keyed by the consumer group.
+     */
+    @Scheduled(fixedDelayString = "${storage.lag.report-interval:PT5S}")
+    public void report() {
+        try {
+            ConsumerLagReport report = measure();
+            kafkaTemplate.send(reportTopic, groupId, objectMapper.writeValueAsString(report));
+            log.debug("Reported consumer lag: {}", report);
+        } catch (Exception e) {
+            log.warn("Could not report consumer lag of {}: {}", groupId, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the group's committed offsets and the topic's end offsets. Partitions the group has not
+     * committed for yet count from their earliest offset, as the consumer starts there.
+     */
+    synchronized ConsumerLagReport measure() throws ExecutionException, InterruptedException, TimeoutException {
+        Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(groupId)
+                .partitionsToOffsetAndMetadata()
+                .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        List<TopicPartition> partitions = admin.describeTopics(List.of(topic))
+                .allTopicNames()
+                .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .get(topic)
+                .partitions().stream()
+                .map(partition -> new TopicPartition(topic, partition.partition()))
+                .toList();
+
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> ends = offsets(partitions, OffsetSpec.latest());
+        List<TopicPartition> uncommitted = partitions.stream()
+                .filter(partition -> committed.get(partition) == null)
+                .toList();
+        Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> starts = offsets(uncommitted, OffsetSpec.earliest());
+
+        long totalLag = 0;
+        long totalCommitted = 0;
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            long position = offset != null ? offset.offset() : starts.get(partition).offset();
+            totalLag += Math.max(0, ends.get(partition).offset() - position);
+            totalCommitted += position;
+        }
+
+        long now = clock.getAsLong();
+        if (previousCommitted >= 0 && now > previousMeasuredAt) {
+            recordsPerSecond = Math.max(0, totalCommitted - previousCommitted) * 1000.0 / (now - previousMeasuredAt);
+        }
+        previousCommitted = totalCommitted;
+        previousMeasuredAt = now;
+        lag = totalLag;
+        return new ConsumerLagReport(groupId, topic, totalLag, recordsPerSecond, now);
+    }
+
+    private Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> offsets(List<TopicPartition> partitions,
+                                                                               OffsetSpec spec)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        if (partitions.isEmpty()) {
+            return Map.of();
+        }
+        Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+        partitions.forEach(partition -> request.put(partition, spec));
+        return admin.listOffsets(request).all().get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        admin.close(ADMIN_TIMEOUT);
+    }
+}
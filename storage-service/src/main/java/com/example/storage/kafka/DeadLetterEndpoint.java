@@ -0,0 +1,31 @@
+package com.example.storage.kafka;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Controls the {@link DeadLetterReplayer} at {@code /actuator/deadletters}: GET for the number of
+ * dead letters not replayed yet, POST to replay them to the retry topic.
+ */
+@Component
+@Endpoint(id = "deadletters")
+public class DeadLetterEndpoint {
+
+    private final DeadLetterReplayer replayer;
+
+    public DeadLetterEndpoint(DeadLetterReplayer replayer) {
+        this.replayer = replayer;
+    }
+
+    @ReadOperation
+    public DeadLetterReplayer.Result status() {
+        return replayer.status();
+    }
+
+    @WriteOperation
+    public DeadLetterReplayer.Result replay() {
+        return replayer.replay();
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.storage.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the dead-letter topic to {@code kafka.topic.news.failed}, e.g. once the bug or the data
+ * that made the articles fail was fixed; they then get the full number of retries again.
+ * <p>
+ * A replay covers the dead letters that arrived since the previous replay, up to the end of the
+ * topic when it started; progress is committed for the group {@code storage.dead-letter.replay-group-id}.
+ * Records that could not be decoded are skipped, as they would fail the same way again, but stay
+ * on the dead-letter topic.
+ */
+@Component
+@Slf4j
+public class DeadLetterReplayer {
+
+    /**
+     * @param replayed Dead letters sent to the retry topic
+     * @param skipped  Dead letters that could not be decoded and were left alone
+     * @param pending  Dead letters not replayed yet
+     */
+    public record Result(int replayed, int skipped, long pending) {
+    }
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final String UNDECODABLE = DeserializationException.class.getName();
+
+    private final KafkaProperties kafkaProperties;
+    private final FailedRecordForwarder forwarder;
+    private final String retryTopic;
+    private final String deadLetterTopic;
+    private final String groupId;
+    private final Counter replayedCounter;
+
+    public DeadLetterReplayer(
+            KafkaProperties kafkaProperties,
+            FailedRecordForwarder forwarder,
+            @Value("${kafka.topic.news.failed:news.incoming.failed}") String retryTopic,
+            @Value("${storage.dead-letter.replay-group-id:storage-service-dlt-replay}") String groupId,
+            MeterRegistry meterRegistry) {
+        this.kafkaProperties = kafkaProperties;
+        this.forwarder = forwarder;
+        this.retryTopic = retryTopic;
+        this.deadLetterTopic = KafkaRetryConfig.deadLetterTopic(retryTopic);
+        this.groupId = groupId;
+        this.replayedCounter = Counter.builder("storage.consumer.dead-letters.replayed")
+                .description("Dead letters sent back to the retry topic")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts the dead letters a replay would cover.
+     */
+    public Result status() {
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            return new Result(0, 0, pending(consumer, partitions(consumer)));
+        }
+    }
+
+    public synchronized Result replay() {
+        try (Consumer<String, byte[]> consumer = createConsumer()) {
+            List<TopicPartition> partitions = partitions(consumer);
+            consumer.assign(partitions);
+            Map<TopicPartition, Long> ends = consumer.endOffsets(partitions, TIMEOUT);
+            Map<TopicPartition, OffsetAndMetadata> next = new HashMap<>();
+            List<CompletableFuture<SendResult<String, Object>>> sends = new ArrayList<>();
+            int skipped = 0;
+
+            while (partitions.stream().anyMatch(partition -> consumer.position(partition, TIMEOUT) < ends.get(partition))) {
+                for (ConsumerRecord<String, byte[]> record : consumer.poll(POLL_TIMEOUT)) {
+                    TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                    if (record.offset() >= ends.get(partition)) {
+                        // Arrived after the replay started, left for the next one
+                        continue;
+                    }
+                    next.put(partition, new OffsetAndMetadata(record.offset() + 1));
+                    if (record.value() == null || UNDECODABLE.equals(header(record, KafkaHeaders.EXCEPTION_CAUSE_FQCN))) {
+                        skipped++;
+                        continue;
+                    }
+                    // Only the headers of the first failure, without the attempt count of the retry topics
+                    ProducerRecord<String, Object> replayed = new ProducerRecord<>(retryTopic, record.key(), record.value());
+                    for (Header header : record.headers()) {
+                        if (header.key().startsWith(FailedRecordForwarder.HEADER_PREFIX)) {
+                            replayed.headers().add(header);
+                        }
+                    }
+                    sends.add(forwarder.getKafkaTemplate().send(replayed));
+                }
+            }
+
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new)).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            if (!next.isEmpty()) {
+                consumer.commitSync(next, TIMEOUT);
+            }
+            replayedCounter.increment(sends.size());
+            log.info("Replayed {} dead letters from {} to {}, skipped {} undecodable ones",
+                    sends.size(), deadLetterTopic, retryTopic, skipped);
+            return new Result(sends.size(), skipped, pending(consumer, partitions));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while replaying " + deadLetterTopic, e);
+        } catch (Exception e) {
+            // Nothing was committed, the next replay starts over
+            throw new KafkaException("Could not replay " + deadLetterTopic + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Consumer<String, byte[]> createConsumer() {
+        Map<String, Object> properties = new HashMap<>(kafkaProperties.buildConsumerProperties(null));
+        properties.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        properties.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        properties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return new KafkaConsumer<>(properties, new StringDeserializer(), new ByteArrayDeserializer());
+    }
+
+    private List<TopicPartition> partitions(Consumer<String, byte[]> consumer) {
+        return consumer.partitionsFor(deadLetterTopic, TIMEOUT).stream()
+                .map(info -> new TopicPartition(info.topic(), info.partition()))
+                .toList();
+    }
+
+    private static long pending(Consumer<String, byte[]> consumer, List<TopicPartition> partitions) {
+        Map<TopicPartition, Long> ends = consumer.endOffsets(partitions, TIMEOUT);
+        Map<TopicPartition, Long> starts = consumer.beginningOffsets(partitions, TIMEOUT);
+        Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(Set.copyOf(partitions), TIMEOUT);
+        long pending = 0;
+        for (TopicPartition partition : partitions) {
+            OffsetAndMetadata offset = committed.get(partition);
+            long position = Math.max(starts.get(partition), offset != null ? offset.offset() : 0);
+            pending += Math.max(0, ends.get(partition) - position);
+        }
+        return pending;
+    }
+
+    private static String header(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
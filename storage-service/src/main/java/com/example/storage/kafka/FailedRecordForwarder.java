@@ -0,0 +1,138 @@
+package com.example.storage.kafka;
+
+import com.example.storage.model.NewsArticleDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.serializer.DelegatingByTypeSerializer;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Moves records the news consumers could not store to {@code kafka.topic.news.failed}, where
+ * {@link NewsArticleRetryConsumer} retries them with backoff, so they no longer hold up the
+ * partition they came from. Records that could not be decoded are forwarded with their original
+ * bytes and end up on the dead-letter topic right away.
+ * <p>
+ * The forwarded record keeps its key and carries where it came from and why it failed in the
+ * {@code news-original-*} and {@code news-failure} headers. The send is awaited, so the offset of
+ * the original record is only committed once the record is safe on the retry topic.
+ */
+@Component
+@Slf4j
+public class FailedRecordForwarder implements DisposableBean {
+
+    static final String HEADER_PREFIX = "news-";
+    static final String ORIGINAL_TOPIC_HEADER = HEADER_PREFIX + "original-topic";
+    static final String ORIGINAL_PARTITION_HEADER = HEADER_PREFIX + "original-partition";
+    static final String ORIGINAL_OFFSET_HEADER = HEADER_PREFIX + "original-offset";
+    static final String FAILURE_HEADER = HEADER_PREFIX + "failure";
+
+    private static final Duration SEND_TIMEOUT = Duration.ofSeconds(30);
+    private static final LogAccessor LOG_ACCESSOR = new LogAccessor(FailedRecordForwarder.class);
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final String retryTopic;
+    private final Counter forwarded;
+
+    @Autowired
+    public FailedRecordForwarder(
+            KafkaProperties kafkaProperties,
+            @Value("${kafka.topic.news.failed:news.incoming.failed}") String retryTopic,
+            MeterRegistry meterRegistry) {
+        this(new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(kafkaProperties.buildProducerProperties(null),
+                new StringSerializer(), new DelegatingByTypeSerializer(Map.<Class<?>, Serializer<?>>of(
+                        byte[].class, new ByteArraySerializer(),
+                        NewsArticleDto.class, new NewsArticleAvroSerializer())))),
+                retryTopic, meterRegistry);
+    }
+
+    FailedRecordForwarder(KafkaTemplate<String, Object> kafkaTemplate, String retryTopic, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.retryTopic = retryTopic;
+        this.forwarded = Counter.builder("storage.consumer.records.forwarded")
+                .description("Records moved to the retry topic because they could not be stored or decoded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The template the retry topics are fed with; it writes articles as Avro and byte arrays
+     * unchanged.
+     */
+    KafkaTemplate<String, Object> getKafkaTemplate() {
+        return kafkaTemplate;
+    }
+
+    /**
+     * Forwards a record whose article could not be stored.
+     *
+     * @throws KafkaException if the record could not be sent, so the original is consumed again
+     */
+    public void forward(ConsumerRecord<String, NewsArticleDto> record, Exception cause) {
+        send(record, record.value(), cause);
+    }
+
+    /**
+     * Forwards the original bytes of a record that could not be decoded.
+     *
+     * @return false if the record carries no value at all, e.g. a tombstone, and was not forwarded
+     */
+    public boolean forwardUndecodable(ConsumerRecord<String, ?> record) {
+        DeserializationException cause = SerializationUtils.getExceptionFromHeader(record,
+                SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOG_ACCESSOR);
+        if (cause == null || cause.getData() == null) {
+            return false;
+        }
+        send(record, cause.getData(), cause);
+        return true;
+    }
+
+    private void send(ConsumerRecord<String, ?> original, Object value, Exception cause) {
+        ProducerRecord<String, Object> record = new ProducerRecord<>(retryTopic, original.key(), value);
+        record.headers()
+                .add(ORIGINAL_TOPIC_HEADER, original.topic().getBytes(StandardCharsets.UTF_8))
+                .add(ORIGINAL_PARTITION_HEADER, Integer.toString(original.partition()).getBytes(StandardCharsets.UTF_8))
+                .add(ORIGINAL_OFFSET_HEADER, Long.toString(original.offset()).getBytes(StandardCharsets.UTF_8))
+                .add(FAILURE_HEADER, String.valueOf(cause.getMessage()).getBytes(StandardCharsets.UTF_8));
+        try {
+            kafkaTemplate.send(record).get(SEND_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Interrupted while forwarding " + describe(original), e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Could not forward " + describe(original) + " to " + retryTopic, e);
+        }
+        forwarded.increment();
+        log.warn("Moved {} to {}: {}", describe(original), retryTopic, cause.getMessage());
+    }
+
+    private static String describe(ConsumerRecord<String, ?> record) {
+        return "record " + record.topic() + "-" + record.partition() + "@" + record.offset();
+    }
+
+    @Override
+    public void destroy() {
+        kafkaTemplate.destroy();
+    }
+}
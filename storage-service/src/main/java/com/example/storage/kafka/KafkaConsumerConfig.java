@@ -0,0 +1,111 @@
+package com.example.storage.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.ExponentialBackOff;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener container factory for {@link NewsArticleBatchConsumer}.
+ * <p>
+ * A poll returns up to {@code storage.consumer.batch.max-records} records; the broker holds the
+ * fetch until {@code min-bytes} are available or {@code max-wait} has passed, so batches fill
+ * up under load without delaying single articles for long. Offsets are committed after the
+ * listener returns, i.e. after the batch's transaction committed. A batch that fails because
+ * the database is down is retried with exponential backoff until it succeeds, so no offset is
+ * ever committed for an article that was neither stored nor moved to the retry topics (see
+ * {@link KafkaRetryConfig}).
+ * <p>
+ * The container runs one consumer thread per partition of the news topic, up to
+ * {@code storage.consumer.max-concurrency}, unless {@code storage.consumer.concurrency} sets the
+ * number of threads. A partition is only ever consumed by one thread, so its records are applied
+ * in offset order, while different partitions are stored in parallel. Which version of an article
+ * ends up stored does not depend on that order, though: versions also arrive through the retry
+ * topics or a replay, and the latest by {@code fetched_at} wins (see
+ * {@link com.example.storage.service.NewsArticleService#saveAll}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "storage.consumer.batch.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class KafkaConsumerConfig {
+
+    private static final Duration ADMIN_TIMEOUT = Duration.ofSeconds(5);
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            KafkaProperties kafkaProperties,
+            @Value("${storage.consumer.batch.max-records:500}") int maxRecords,
+            @Value("${storage.consumer.batch.max-wait:PT0.5S}") Duration maxWait,
+            @Value("${storage.consumer.batch.min-bytes:64KB}") DataSize minBytes,
+            @Value("${storage.consumer.batch.retry-max-interval:PT30S}") Duration retryMaxInterval,
+            @Value("${storage.consumer.concurrency:0}") int concurrency,
+            @Value("${storage.consumer.max-concurrency:12}") int maxConcurrency,
+            @Value("${kafka.topic.news}") String topic,
+            KafkaAdmin kafkaAdmin) {
+        Map<String, Object> consumerProperties = new HashMap<>(kafkaProperties.buildConsumerProperties(null));
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxRecords);
+        consumerProperties.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, (int) maxWait.toMillis());
+        consumerProperties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, (int) minBytes.toBytes());
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, new DefaultKafkaConsumerFactory<>(consumerProperties));
+        factory.setBatchListener(true);
+        if (concurrency > 0) {
+            factory.setConcurrency(concurrency);
+        } else {
+            try (Admin admin = Admin.create(kafkaAdmin.getConfigurationProperties())) {
+                factory.setConcurrency(concurrency(admin, topic, maxConcurrency));
+            }
+        }
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+
+        ExponentialBackOff backOff = new ExponentialBackOff(1000, 2.0);
+        backOff.setMaxInterval(retryMaxInterval.toMillis());
+        factory.setCommonErrorHandler(new DefaultErrorHandler(backOff));
+        return factory;
+    }
+
+    /**
+     * One thread per partition of the topic, at most {@code maxConcurrency}. If the partitions
+     * cannot be read, e.g. because the topic does not exist yet, {@code maxConcurrency} threads
+     * are started; those without a partition stay idle.
+     */
+    static int concurrency(Admin admin, String topic, int maxConcurrency) {
+        try {
+            int partitions = admin.describeTopics(List.of(topic))
+                    .allTopicNames()
+                    .get(ADMIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                    .get(topic)
+                    .partitions()
+                    .size();
+            int concurrency = Math.max(1, Math.min(partitions, maxConcurrency));
+            log.info("Consuming {} partitions of {} with {} threads", partitions, topic, concurrency);
+            return concurrency;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Could not read the partitions of {}, consuming with {} threads: {}",
+                    topic, maxConcurrency, e.getMessage());
+        }
+        return Math.max(1, maxConcurrency);
+    }
+}
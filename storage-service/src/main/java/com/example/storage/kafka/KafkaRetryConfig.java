@@ -0,0 +1,51 @@
+package com.example.storage.kafka;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking retries for articles that could not be stored. {@link FailedRecordForwarder} moves
+ * them to {@code kafka.topic.news.failed}; from there every failed attempt moves the record on to
+ * the next retry topic, each of which is consumed {@code storage.retry.initial-delay} times
+ * {@code multiplier} to the power of the attempt later, at most {@code max-delay}. After
+ * {@code storage.retry.attempts} attempts, or right away for records that cannot be decoded, it
+ * lands on the dead-letter topic, from where {@link DeadLetterReplayer} can replay it. The news
+ * topic's partitions never wait for a failing record.
+ */
+@Configuration
+public class KafkaRetryConfig {
+
+    static final String RETRY_TOPIC_SUFFIX = "-retry";
+    static final String DEAD_LETTER_TOPIC_SUFFIX = "-dlt";
+
+    static String deadLetterTopic(String retryTopic) {
+        return retryTopic + DEAD_LETTER_TOPIC_SUFFIX;
+    }
+
+    @Bean
+    public RetryTopicConfiguration newsArticleRetryTopicConfiguration(
+            FailedRecordForwarder forwarder,
+            @Value("${kafka.topic.news.failed:news.incoming.failed}") String retryTopic,
+            @Value("${storage.retry.attempts:5}") int attempts,
+            @Value("${storage.retry.initial-delay:PT1S}") Duration initialDelay,
+            @Value("${storage.retry.multiplier:4.0}") double multiplier,
+            @Value("${storage.retry.max-delay:PT5M}") Duration maxDelay,
+            @Value("${storage.retry.topic-partitions:3}") int partitions,
+            @Value("${storage.retry.topic-replicas:-1}") short replicas) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopic(retryTopic)
+                .maxAttempts(attempts)
+                .exponentialBackoff(initialDelay.toMillis(), multiplier, maxDelay.toMillis())
+                .suffixTopicsWithIndexValues()
+                .retryTopicSuffix(RETRY_TOPIC_SUFFIX)
+                .dltSuffix(DEAD_LETTER_TOPIC_SUFFIX)
+                .autoCreateTopicsWith(partitions, replicas)
+                .dltHandlerMethod("newsArticleRetryConsumer", "deadLetter")
+                .create(forwarder.getKafkaTemplate());
+    }
+}
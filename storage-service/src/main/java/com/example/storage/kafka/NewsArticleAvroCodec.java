@@ -0,0 +1,240 @@
+package com.example.storage.kafka;
+
+import com.example.storage.model.NewsArticleDto;
+import org.apache.avro.AvroRuntimeException;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.message.SchemaStore;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Avro codec for the news.incoming topic.
+ * Records use Avro single-object encoding: a two byte marker and the 8 byte fingerprint of the
+ * writer schema, followed by the binary payload without any field names. The decoder resolves
+ * the fingerprint against an in-process schema store holding every schema version that was
+ * ever written to the topic, standing in for an external schema registry. Data-ingestion-service
+ * carries an identical copy of the schema files.
+ * <p>
+ * Records written with the current schema are encoded and decoded field by field, the way
+ * Avro's generated classes do it, without going through a {@link GenericRecord}. Records
+ * written with an older schema version fall back to Avro's schema resolution.
+ */
+public class NewsArticleAvroCodec {
+
+    // Every schema version ever written to news.incoming, oldest first; the last one is current
+    static final List<String> SCHEMA_VERSIONS = List.of(
+            "avro/news-article-v1.avsc",
+            "avro/news-article-v2.avsc",
+            "avro/news-article-v3.avsc");
+
+    private static final byte[] SINGLE_OBJECT_MARKER = {(byte) 0xC3, (byte) 0x01};
+    private static final int HEADER_LENGTH = SINGLE_OBJECT_MARKER.length + Long.BYTES;
+    private static final int TYPICAL_RECORD_SIZE = 512;
+
+    // Branch indexes of the ["null", T] unions in the schema
+    private static final int NULL_BRANCH = 0;
+    private static final int VALUE_BRANCH = 1;
+
+    private final Schema schema;
+    private final long fingerprint;
+    private final byte[] header;
+    private final SchemaStore.Cache schemaStore = new SchemaStore.Cache();
+
+    public NewsArticleAvroCodec() {
+        Schema current = null;
+        for (String location : SCHEMA_VERSIONS) {
+            current = loadSchema(location);
+            schemaStore.addSchema(current);
+        }
+        this.schema = current;
+        this.fingerprint = SchemaNormalization.parsingFingerprint64(schema);
+        this.header = ByteBuffer.allocate(HEADER_LENGTH)
+                .put(SINGLE_OBJECT_MARKER)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(fingerprint)
+                .array();
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    public byte[] encode(NewsArticleDto article) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(TYPICAL_RECORD_SIZE);
+            out.write(header);
+            BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+            encoder.writeString(article.getId());
+            writeNullable(encoder, article.getTitle());
+            writeNullable(encoder, article.getDescription());
+            writeNullable(encoder, article.getContent());
+            writeNullable(encoder, article.getAuthor());
+            writeNullable(encoder, article.getSourceId());
+            writeNullable(encoder, article.getSourceName());
+            writeNullable(encoder, article.getUrl());
+            writeNullable(encoder, article.getImageUrl());
+            writeNullable(encoder, toMicros(article.getPublishedAt()));
+            writeNullable(encoder, toMicros(article.getFetchedAt()));
+            writeNullable(encoder, article.getCategory());
+            writeNullable(encoder, article.getCanonicalId());
+            writeNullable(encoder, article.getLanguage());
+            writeNullable(encoder, article.getReadingTimeMinutes());
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode article " + article.getId(), e);
+        }
+    }
+
+    public NewsArticleDto decode(byte[] data) {
+        if (data.length < HEADER_LENGTH
+                || data[0] != SINGLE_OBJECT_MARKER[0] || data[1] != SINGLE_OBJECT_MARKER[1]) {
+            throw new SerializationException("Not an Avro single-object encoded article");
+        }
+        long writerFingerprint = ByteBuffer.wrap(data, SINGLE_OBJECT_MARKER.length, Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .getLong();
+        BinaryDecoder decoder = DecoderFactory.get()
+                .binaryDecoder(data, HEADER_LENGTH, data.length - HEADER_LENGTH, null);
+
+        try {
+            if (writerFingerprint == fingerprint) {
+                return read(decoder);
+            }
+            Schema writerSchema = schemaStore.findByFingerprint(writerFingerprint);
+            if (writerSchema == null) {
+                throw new SerializationException("Unknown writer schema fingerprint " + writerFingerprint);
+            }
+            return fromRecord(new GenericDatumReader<GenericRecord>(writerSchema, schema).read(null, decoder));
+        } catch (IOException | AvroRuntimeException e) {
+            throw new SerializationException("Could not decode article", e);
+        }
+    }
+
+    private NewsArticleDto read(BinaryDecoder decoder) throws IOException {
+        NewsArticleDto article = new NewsArticleDto();
+        article.setId(decoder.readString());
+        article.setTitle(readNullableString(decoder));
+        article.setDescription(readNullableString(decoder));
+        article.setContent(readNullableString(decoder));
+        article.setAuthor(readNullableString(decoder));
+        article.setSourceId(readNullableString(decoder));
+        article.setSourceName(readNullableString(decoder));
+        article.setUrl(readNullableString(decoder));
+        article.setImageUrl(readNullableString(decoder));
+        article.setPublishedAt(fromMicros(readNullableLong(decoder)));
+        article.setFetchedAt(fromMicros(readNullableLong(decoder)));
+        article.setCategory(readNullableString(decoder));
+        article.setCanonicalId(readNullableString(decoder));
+        article.setLanguage(readNullableString(decoder));
+        article.setReadingTimeMinutes(readNullableInt(decoder));
+        return article;
+    }
+
+    private NewsArticleDto fromRecord(GenericRecord record) {
+        NewsArticleDto article = new NewsArticleDto();
+        article.setId(string(record, "id"));
+        article.setTitle(string(record, "title"));
+        article.setDescription(string(record, "description"));
+        article.setContent(string(record, "content"));
+        article.setAuthor(string(record, "author"));
+        article.setSourceId(string(record, "sourceId"));
+        article.setSourceName(string(record, "sourceName"));
+        article.setUrl(string(record, "url"));
+        article.setImageUrl(string(record, "imageUrl"));
+        article.setPublishedAt(fromMicros((Long) record.get("publishedAt")));
+        article.setFetchedAt(fromMicros((Long) record.get("fetchedAt")));
+        article.setCategory(string(record, "category"));
+        article.setCanonicalId(string(record, "canonicalId"));
+        article.setLanguage(string(record, "language"));
+        article.setReadingTimeMinutes((Integer) record.get("readingTimeMinutes"));
+        return article;
+    }
+
+    private static void writeNullable(BinaryEncoder encoder, String value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(NULL_BRANCH);
+        } else {
+            encoder.writeIndex(VALUE_BRANCH);
+            encoder.writeString(value);
+        }
+    }
+
+    private static void writeNullable(BinaryEncoder encoder, Long value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(NULL_BRANCH);
+        } else {
+            encoder.writeIndex(VALUE_BRANCH);
+            encoder.writeLong(value);
+        }
+    }
+
+    private static void writeNullable(BinaryEncoder encoder, Integer value) throws IOException {
+        if (value == null) {
+            encoder.writeIndex(NULL_BRANCH);
+        } else {
+            encoder.writeIndex(VALUE_BRANCH);
+            encoder.writeInt(value);
+        }
+    }
+
+    private static String readNullableString(BinaryDecoder decoder) throws IOException {
+        return decoder.readIndex() == NULL_BRANCH ? null : decoder.readString();
+    }
+
+    private static Long readNullableLong(BinaryDecoder decoder) throws IOException {
+        return decoder.readIndex() == NULL_BRANCH ? null : decoder.readLong();
+    }
+
+    private static Integer readNullableInt(BinaryDecoder decoder) throws IOException {
+        return decoder.readIndex() == NULL_BRANCH ? null : decoder.readInt();
+    }
+
+    private static String string(GenericRecord record, String field) {
+        Object value = record.get(field);
+        return value != null ? value.toString() : null;
+    }
+
+    private static Long toMicros(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return null;
+        }
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(Long micros) {
+        if (micros == null) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000,
+                ZoneOffset.UTC);
+    }
+
+    private static Schema loadSchema(String location) {
+        try (InputStream in = NewsArticleAvroCodec.class.getClassLoader().getResourceAsStream(location)) {
+            if (in == null) {
+                throw new IllegalStateException("Avro schema not found on classpath: " + location);
+            }
+            return new Schema.Parser().parse(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.storage.kafka;
+
+import com.example.storage.model.NewsArticleDto;
+import org.apache.kafka.common.serialization.Deserializer;
+
+/**
+ * Kafka deserializer reading {@link NewsArticleDto}s from the compact Avro format of {@link NewsArticleAvroCodec}.
+ */
+public class NewsArticleAvroDeserializer implements Deserializer<NewsArticleDto> {
+
+    private final NewsArticleAvroCodec codec = new NewsArticleAvroCodec();
+
+    @Override
+    public NewsArticleDto deserialize(String topic, byte[] data) {
+        return data != null ? codec.decode(data) : null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.storage.kafka;
+
+import com.example.storage.model.NewsArticleDto;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer writing {@link NewsArticleDto}s in the compact Avro format of {@link NewsArticleAvroCodec},
+ * used to move failed articles to the retry topics.
+ */
+public class NewsArticleAvroSerializer implements Serializer<NewsArticleDto> {
+
+    private final NewsArticleAvroCodec codec = new NewsArticleAvroCodec();
+
+    @Override
+    public byte[] serialize(String topic, NewsArticleDto article) {
+        return article != null ? codec.encode(article) : null;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.storage.kafka;
+
+import com.example.storage.model.NewsArticleDto;
+import com.example.storage.service.ArticleBulkLoader;
+import com.example.storage.service.NewsArticleService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stores articles from the news topic a poll at a time: every batch is written in one
+ * transaction with batched inserts (see {@link NewsArticleService#saveAll}), and its offsets are
+ * committed once that transaction committed (see {@link KafkaConsumerConfig}).
+ * <p>
+ * If the batch fails for any reason but an unreachable database, it is split in halves, which are
+ * saved the same way and split again while they fail, so one bad article in a batch of n costs
+ * about 2 log2(n) extra writes instead of n. Single articles that still fail are moved to the
+ * retry topics by {@link FailedRecordForwarder}, as are records that could not be decoded; the
+ * partition moves on without them. While the database is unreachable every record would fail, so
+ * the whole batch is rethrown and retried.
+ * Stored articles are counted per consumer thread as {@code storage.consumer.articles}, the rate
+ * of which is the throughput of that thread.
+ * <p>
+ * Once the consumer lag reaches {@code storage.bulk-load.enter-lag}, e.g. while the topic is
+ * replayed from the start, batches are loaded with {@link ArticleBulkLoader} instead, until the
+ * lag dropped to {@code storage.bulk-load.exit-lag}. The gap between the two keeps the mode from
+ * flapping around a single threshold.
+ */
+@Component
+@ConditionalOnProperty(name = "storage.consumer.batch.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class NewsArticleBatchConsumer {
+
+    private final NewsArticleService articleService;
+    private final ArticleBulkLoader bulkLoader;
+    private final ConsumerLagReporter lagReporter;
+    private final FailedRecordForwarder forwarder;
+    private final long enterBulkLag;
+    private final long exitBulkLag;
+    private final MeterRegistry meterRegistry;
+    private final Timer batchTime;
+    private final DistributionSummary batchSize;
+    private final Counter undecodable;
+
+    private volatile boolean bulkMode;
+
+    public NewsArticleBatchConsumer(
+            NewsArticleService articleService,
+            ArticleBulkLoader bulkLoader,
+            ConsumerLagReporter lagReporter,
+            FailedRecordForwarder forwarder,
+            @Value("${storage.bulk-load.enter-lag:100000}") long enterBulkLag,
+            @Value("${storage.bulk-load.exit-lag:10000}") long exitBulkLag,
+            MeterRegistry meterRegistry) {
+        this.articleService = articleService;
+        this.bulkLoader = bulkLoader;
+        this.lagReporter = lagReporter;
+        this.forwarder = forwarder;
+        this.enterBulkLag = enterBulkLag;
+        this.exitBulkLag = exitBulkLag;
+        this.meterRegistry = meterRegistry;
+        this.batchTime = Timer.builder("storage.consumer.batch.time")
+                .description("Time to store one batch of articles, including the commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("storage.consumer.batch.size")
+                .description("Records per batch received from the news topic")
+                .register(meterRegistry);
+        this.undecodable = Counter.builder("storage.consumer.records.undecodable")
+                .description("Records skipped because they could not be deserialized")
+                .register(meterRegistry);
+        Gauge.builder("storage.consumer.bulk-load.active", this, consumer -> consumer.bulkMode ? 1 : 0)
+                .description("1 while batches are loaded with COPY because the consumer is far behind")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(topics = "${kafka.topic.news}", groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void consume(List<ConsumerRecord<String, NewsArticleDto>> records) {
+        batchSize.record(records.size());
+        List<ConsumerRecord<String, NewsArticleDto>> decoded = new ArrayList<>(records.size());
+        List<NewsArticleDto> articles = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, NewsArticleDto> record : records) {
+            if (record.value() == null) {
+                // The ErrorHandlingDeserializer leaves the value empty when decoding failed
+                undecodable.increment();
+                if (!forwarder.forwardUndecodable(record)) {
+                    log.warn("Skipping empty record {}-{}@{}", record.topic(), record.partition(), record.offset());
+                }
+            } else {
+                decoded.add(record);
+                articles.add(record.value());
+            }
+        }
+        if (articles.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean bulk = isBulkMode();
+        int saved;
+        try {
+            saved = save(articles, bulk);
+        } catch (RuntimeException e) {
+            if (isDatabaseUnreachable(e)) {
+                throw e;
+            }
+            log.warn("Batch of {} articles failed, splitting it to find the failing ones: {}", articles.size(),
+                    e.getMessage());
+            saved = saveHalves(decoded, bulk);
+        }
+        long elapsed = System.nanoTime() - start;
+        batchTime.record(elapsed, TimeUnit.NANOSECONDS);
+        articlesCounter(bulk).increment(saved);
+        log.info("Saved {} articles in {} ms ({} articles/s{})", saved, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                Math.round(saved * 1e9 / Math.max(1, elapsed)), bulk ? ", bulk load" : "");
+    }
+
+    /**
+     * Switches to bulk loading when the lag reached the enter threshold and back when it
+     * dropped to the exit threshold.
+     */
+    boolean isBulkMode() {
+        long lag = lagReporter.getLag();
+        if (!bulkMode && lag >= enterBulkLag && bulkLoader.isAvailable()) {
+            log.info("Consumer lag is {} records, switching to bulk loading", lag);
+            bulkMode = true;
+        } else if (bulkMode && lag <= exitBulkLag) {
+            log.info("Consumer lag is {} records, switching back to batched inserts", lag);
+            bulkMode = false;
+        }
+        return bulkMode;
+    }
+
+    private int save(List<NewsArticleDto> articles, boolean bulk) {
+        return bulk ? bulkLoader.load(articles) : articleService.saveAll(articles);
+    }
+
+    /**
+     * Saves both halves of a failed batch, each in a transaction of its own.
+     */
+    private int saveHalves(List<ConsumerRecord<String, NewsArticleDto>> records, boolean bulk) {
+        int middle = records.size() / 2;
+        return saveOrSplit(records.subList(0, middle), bulk)
+                + saveOrSplit(records.subList(middle, records.size()), bulk);
+    }
+
+    private int saveOrSplit(List<ConsumerRecord<String, NewsArticleDto>> records, boolean bulk) {
+        try {
+            return save(records.stream().map(ConsumerRecord::value).toList(), bulk);
+        } catch (RuntimeException e) {
+            if (isDatabaseUnreachable(e)) {
+                // The articles saved so far are stored as recent already when the batch is retried
+                throw e;
+            }
+            if (records.size() == 1) {
+                forwarder.forward(records.get(0), e);
+                return 0;
+            }
+            log.debug("Part of {} articles failed, splitting it: {}", records.size(), e.getMessage());
+            return saveHalves(records, bulk);
+        }
+    }
+
+    private static boolean isDatabaseUnreachable(RuntimeException e) {
+        return e instanceof DataAccessResourceFailureException || e instanceof CannotCreateTransactionException;
+    }
+
+    private Counter articlesCounter(boolean bulk) {
+        return Counter.builder("storage.consumer.articles")
+                .description("Articles stored, per consumer thread and write mode")
+                .tag("thread", Thread.currentThread().getName())
+                .tag("mode", bulk ? "copy" : "insert")
+                .register(meterRegistry);
+    }
+}
@@ -3,29 +3,50 @@ package com.example.storage.kafka;
 import com.example.storage.model.NewsArticleDto;
 import com.example.storage.service.NewsArticleService;
 import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
+/**
+ * Stores articles from the news topic one record at a time, when batch consumption is off
+ * (see {@link NewsArticleBatchConsumer}). Articles that cannot be stored are moved to the retry
+ * topics by {@link FailedRecordForwarder}, and records that cannot be decoded straight to the
+ * dead-letter topic.
+ */
 @Component
+@ConditionalOnProperty(name = "storage.consumer.batch.enabled", havingValue = "false")
 @Slf4j
 @RequiredArgsConstructor
 public class NewsArticleConsumer {
 
     private final NewsArticleService articleService;
+    private final FailedRecordForwarder forwarder;
 
     /**
      * Listens to the news topic and processes incoming articles
      */
     @KafkaListener(topics = "${kafka.topic.news}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consume(NewsArticleDto article) {
-        log.info("Received article from Kafka: {}", article.getTitle());
-        
+    public void consume(ConsumerRecord<String, NewsArticleDto> record) {
+        NewsArticleDto article = record.value();
+        if (article == null) {
+            if (!forwarder.forwardUndecodable(record)) {
+                log.warn("Skipping empty record {}-{}@{}", record.topic(), record.partition(), record.offset());
+            }
+            return;
+        }
+
         try {
-            articleService.saveArticle(article);
-            log.info("Successfully saved article with ID: {}", article.getId());
+            log.info("Received article from Kafka: {}", article.getTitle());
+            if (articleService.saveArticle(article).isPresent()) {
+                log.info("Successfully saved article with ID: {}", article.getId());
+            } else {
+                log.info("Skipped article with ID {}, the same or a later version is stored", article.getId());
+            }
         } catch (Exception e) {
             log.error("Error saving article: {}", e.getMessage(), e);
+            forwarder.forward(record, e);
         }
     }
 }
@@ -0,0 +1,63 @@
+package com.example.storage.kafka;
+
+import com.example.storage.model.NewsArticleDto;
+import com.example.storage.service.NewsArticleService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Retries articles the news consumers could not store, one record at a time, on the retry topics
+ * set up by {@link KafkaRetryConfig}. A failure moves the record on to the next retry topic, the
+ * last one to the dead-letter topic, where {@link #deadLetter} counts it.
+ * <p>
+ * A retried article may be stored after a newer version of it that did not fail; as a stored
+ * article is only replaced by a version fetched later, the retried one is then dropped.
+ */
+@Component
+@Slf4j
+public class NewsArticleRetryConsumer {
+
+    private final NewsArticleService articleService;
+    private final Counter stored;
+    private final Counter deadLetters;
+
+    public NewsArticleRetryConsumer(NewsArticleService articleService, MeterRegistry meterRegistry) {
+        this.articleService = articleService;
+        this.stored = Counter.builder("storage.consumer.retry.stored")
+                .description("Articles stored by a retry after their first attempt failed")
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder("storage.consumer.dead-letters")
+                .description("Records given up on and moved to the dead-letter topic")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(id = "news-article-retry", topics = "${kafka.topic.news.failed:news.incoming.failed}",
+            groupId = "${spring.kafka.consumer.group-id}")
+    public void retry(ConsumerRecord<String, NewsArticleDto> record) {
+        if (articleService.saveArticle(record.value()).isEmpty()) {
+            log.info("Dropped article {} on retry from {}, a later version is stored", record.key(), record.topic());
+            return;
+        }
+        stored.increment();
+        log.info("Stored article {} on retry from {}", record.key(), record.topic());
+    }
+
+    /**
+     * Receives the records moved to the dead-letter topic. Records that cannot be decoded never
+     * get here; the container logs them instead.
+     */
+    public void deadLetter(ConsumerRecord<String, ?> record) {
+        deadLetters.increment();
+        Header reason = record.headers().lastHeader(KafkaHeaders.EXCEPTION_MESSAGE);
+        log.error("Gave up on article {}, moved to {}@{}: {}", record.key(), record.topic(), record.offset(),
+                reason == null ? null : new String(reason.value(), StandardCharsets.UTF_8));
+    }
+}
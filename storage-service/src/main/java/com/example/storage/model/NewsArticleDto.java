@@ -22,4 +22,7 @@ public class NewsArticleDto {
     private LocalDateTime publishedAt;
     private LocalDateTime fetchedAt;
     private String category;
+    private String canonicalId;
+    private String language;
+    private Integer readingTimeMinutes;
 }
@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "news_articles", indexes = {
     @Index(name = "idx_category", columnList = "category"),
-    @Index(name = "idx_published_at", columnList = "publishedAt")
+    @Index(name = "idx_published_at", columnList = "publishedAt"),
+    @Index(name = "idx_canonical_id", columnList = "canonicalId")
 })
 @Data
 @NoArgsConstructor
@@ -44,4 +45,13 @@ public class NewsArticleEntity {
     private LocalDateTime fetchedAt;
     
     private String category;
+    
+    // Set when the article is a near-duplicate of an earlier article with this ID
+    private String canonicalId;
+    
+    // ISO 639-1 code, null if the language could not be detected
+    @Column(length = 8)
+    private String language;
+    
+    private Integer readingTimeMinutes;
 }
@@ -10,7 +10,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface NewsArticleRepository extends JpaRepository<NewsArticleEntity, String> {
+public interface NewsArticleRepository extends JpaRepository<NewsArticleEntity, String>, NewsArticleUpsertRepository {
     
     // Find articles by category
     List<NewsArticleEntity> findByCategory(String category);
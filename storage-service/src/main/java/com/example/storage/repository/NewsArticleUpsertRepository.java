@@ -0,0 +1,43 @@
+package com.example.storage.repository;
+
+import com.example.storage.model.NewsArticleEntity;
+
+import java.util.List;
+
+/**
+ * Writes that keep the latest version of each article without reading the stored ones first.
+ * An article replaces the stored one only if it was fetched later, so replayed or redelivered
+ * records of an older version are no-ops, whatever order they arrive in.
+ */
+public interface NewsArticleUpsertRepository {
+
+    /**
+     * The conflict clause of a PostgreSQL {@code INSERT INTO news_articles}: the stored article is
+     * replaced only by a version with a later {@code fetched_at}. One without is always replaced.
+     */
+    String ON_CONFLICT_UPDATE_IF_NEWER = """
+            ON CONFLICT (id) DO UPDATE SET
+                title = excluded.title, description = excluded.description, content = excluded.content,
+                author = excluded.author, source_id = excluded.source_id, source_name = excluded.source_name,
+                url = excluded.url, image_url = excluded.image_url, published_at = excluded.published_at,
+                fetched_at = excluded.fetched_at, category = excluded.category,
+                canonical_id = excluded.canonical_id, language = excluded.language,
+                reading_time_minutes = excluded.reading_time_minutes
+            WHERE news_articles.fetched_at IS NULL OR excluded.fetched_at > news_articles.fetched_at""";
+
+    /**
+     * Inserts the article, or replaces the stored one if this version was fetched later, in a
+     * single statement.
+     *
+     * @return true if the article was written, false if the stored version is as recent
+     */
+    boolean upsert(NewsArticleEntity article);
+
+    /**
+     * Like {@link #upsert}, for many articles, with one multi-row statement per up to 1000 of them.
+     * The IDs must be distinct.
+     *
+     * @return the number of articles written
+     */
+    int upsertAll(List<NewsArticleEntity> articles);
+}
@@ -0,0 +1,102 @@
+package com.example.storage.repository;
+
+import com.example.storage.model.NewsArticleEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+class NewsArticleUpsertRepositoryImpl implements NewsArticleUpsertRepository {
+
+    // 15 parameters per row, well below PostgreSQL's limit of 32767 per statement
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String COLUMNS = "id, title, description, content, author, source_id, source_name, url, "
+            + "image_url, published_at, fetched_at, category, canonical_id, language, reading_time_minutes";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Standard SQL for databases without ON CONFLICT (id), e.g. H2 in the tests
+    private static final String MERGE_INTO = "MERGE INTO news_articles a USING (VALUES ";
+    private static final String MERGE_ACTIONS = """
+            ) AS s (%s) ON a.id = s.id
+            WHEN MATCHED AND (a.fetched_at IS NULL OR s.fetched_at > a.fetched_at) THEN UPDATE SET
+                title = s.title, description = s.description, content = s.content, author = s.author,
+                source_id = s.source_id, source_name = s.source_name, url = s.url, image_url = s.image_url,
+                published_at = s.published_at, fetched_at = s.fetched_at, category = s.category,
+                canonical_id = s.canonical_id, language = s.language, reading_time_minutes = s.reading_time_minutes
+            WHEN NOT MATCHED THEN INSERT (%s) VALUES (s.id, s.title, s.description, s.content, s.author,
+                s.source_id, s.source_name, s.url, s.image_url, s.published_at, s.fetched_at, s.category,
+                s.canonical_id, s.language, s.reading_time_minutes)""".formatted(COLUMNS, COLUMNS);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public boolean upsert(NewsArticleEntity article) {
+        return upsertAll(List.of(article)) > 0;
+    }
+
+    @Override
+    public int upsertAll(List<NewsArticleEntity> articles) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            int written = 0;
+            for (int from = 0; from < articles.size(); from += MAX_ROWS_PER_STATEMENT) {
+                List<NewsArticleEntity> rows = articles.subList(from,
+                        Math.min(articles.size(), from + MAX_ROWS_PER_STATEMENT));
+                try (PreparedStatement statement = connection.prepareStatement(statement(connection, rows.size()))) {
+                    int index = 1;
+                    for (NewsArticleEntity article : rows) {
+                        index = bind(statement, index, article);
+                    }
+                    written += statement.executeUpdate();
+                }
+            }
+            return written;
+        });
+    }
+
+    private String statement(Connection connection, int rows) throws SQLException {
+        String values = IntStream.range(0, rows).mapToObj(i -> ROW).collect(Collectors.joining(", "));
+        if (isPostgres(connection)) {
+            return "INSERT INTO news_articles (" + COLUMNS + ") VALUES " + values + " " + ON_CONFLICT_UPDATE_IF_NEWER;
+        }
+        return MERGE_INTO + values + MERGE_ACTIONS;
+    }
+
+    private boolean isPostgres(Connection connection) throws SQLException {
+        Boolean current = postgres;
+        if (current == null) {
+            current = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            postgres = current;
+        }
+        return current;
+    }
+
+    private static int bind(PreparedStatement statement, int index, NewsArticleEntity article) throws SQLException {
+        statement.setString(index++, article.getId());
+        statement.setString(index++, article.getTitle());
+        statement.setString(index++, article.getDescription());
+        statement.setString(index++, article.getContent());
+        statement.setString(index++, article.getAuthor());
+        statement.setString(index++, article.getSourceId());
+        statement.setString(index++, article.getSourceName());
+        statement.setString(index++, article.getUrl());
+        statement.setString(index++, article.getImageUrl());
+        statement.setObject(index++, article.getPublishedAt(), Types.TIMESTAMP);
+        statement.setObject(index++, article.getFetchedAt(), Types.TIMESTAMP);
+        statement.setString(index++, article.getCategory());
+        statement.setString(index++, article.getCanonicalId());
+        statement.setString(index++, article.getLanguage());
+        statement.setObject(index++, article.getReadingTimeMinutes(), Types.INTEGER);
+        return index;
+    }
+}
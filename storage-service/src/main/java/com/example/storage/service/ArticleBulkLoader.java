@@ -0,0 +1,140 @@
+package com.example.storage.service;
+
+import com.example.storage.model.NewsArticleDto;
+import com.example.storage.repository.NewsArticleUpsertRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Loads large batches of articles with PostgreSQL's binary {@code COPY} protocol, which is much
+ * faster than inserting them row by row, e.g. while the consumer replays the news topic.
+ * <p>
+ * Articles are streamed into a session-local staging table and merged into {@code news_articles}
+ * with a single {@code INSERT ... SELECT ... ON CONFLICT (id) DO UPDATE}, which, like
+ * {@link NewsArticleService#saveAll}, replaces a stored article only by a version fetched later. The staging table is
+ * emptied when the transaction commits. On other databases the loader is not available.
+ */
+@Service
+@Slf4j
+public class ArticleBulkLoader {
+
+    private static final String COLUMNS = "id, title, description, content, author, source_id, source_name, url, "
+            + "image_url, published_at, fetched_at, category, canonical_id, language, reading_time_minutes";
+    private static final int FIELDS = 15;
+
+    private static final String CREATE_STAGING_TABLE = "CREATE TEMP TABLE IF NOT EXISTS news_articles_staging "
+            + "(LIKE news_articles INCLUDING DEFAULTS) ON COMMIT DELETE ROWS";
+    private static final String COPY = "COPY news_articles_staging (" + COLUMNS + ") FROM STDIN (FORMAT BINARY)";
+    private static final String MERGE = "INSERT INTO news_articles (" + COLUMNS + ") SELECT " + COLUMNS
+            + " FROM news_articles_staging " + NewsArticleUpsertRepository.ON_CONFLICT_UPDATE_IF_NEWER;
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    // Maps SQL states, e.g. class 23 to DataIntegrityViolationException
+    private static final SQLStateSQLExceptionTranslator EXCEPTION_TRANSLATOR = new SQLStateSQLExceptionTranslator();
+
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private volatile Boolean available;
+
+    public ArticleBulkLoader(DataSource dataSource, @Value("${storage.bulk-load.enabled:true}") boolean enabled) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return true if bulk loading is enabled and the database is PostgreSQL
+     */
+    public boolean isAvailable() {
+        if (!enabled) {
+            return false;
+        }
+        Boolean current = available;
+        if (current == null) {
+            try (Connection connection = dataSource.getConnection()) {
+                current = connection.isWrapperFor(PGConnection.class);
+            } catch (SQLException e) {
+                log.warn("Could not determine whether bulk loading is supported: {}", e.getMessage());
+                return false;
+            }
+            available = current;
+            log.info("Bulk loading with COPY is {}", current ? "available" : "not available for this database");
+        }
+        return current;
+    }
+
+    /**
+     * Loads the articles in one transaction. If the batch holds an article more than once, the
+     * latest fetched one wins, as with {@link NewsArticleService#saveAll}.
+     *
+     * @return the number of articles written
+     */
+    @Transactional
+    public int load(List<NewsArticleDto> articleDtos) {
+        Collection<NewsArticleDto> articles = NewsArticleService.latestVersions(articleDtos);
+
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING_TABLE);
+            copy(connection.unwrap(PGConnection.class), articles);
+            int written = statement.executeUpdate(MERGE);
+            log.debug("Bulk loaded {} articles, {} were stored in the same or a later version", written,
+                    articles.size() - written);
+            return written;
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    private static DataAccessException translate(SQLException e) {
+        DataAccessException translated = EXCEPTION_TRANSLATOR.translate("bulk load", MERGE, e);
+        return translated != null ? translated : new UncategorizedSQLException("bulk load", MERGE, e);
+    }
+
+    private static void copy(PGConnection connection, Iterable<NewsArticleDto> articles) throws SQLException {
+        try (BinaryCopyWriter writer = new BinaryCopyWriter(new PGCopyOutputStream(connection, COPY,
+                COPY_BUFFER_SIZE))) {
+            for (NewsArticleDto article : articles) {
+                writer.startRow(FIELDS);
+                writer.writeText(article.getId());
+                writer.writeText(article.getTitle());
+                writer.writeText(article.getDescription());
+                writer.writeText(article.getContent());
+                writer.writeText(article.getAuthor());
+                writer.writeText(article.getSourceId());
+                writer.writeText(article.getSourceName());
+                writer.writeText(article.getUrl());
+                writer.writeText(article.getImageUrl());
+                writer.writeTimestamp(article.getPublishedAt());
+                writer.writeTimestamp(article.getFetchedAt());
+                writer.writeText(article.getCategory());
+                writer.writeText(article.getCanonicalId());
+                writer.writeText(article.getLanguage());
+                writer.writeInteger(article.getReadingTimeMinutes());
+            }
+        } catch (IOException e) {
+            // The driver reports errors of the server, such as a violated constraint, as the cause
+            if (e.getCause() instanceof SQLException sqlException) {
+                throw sqlException;
+            }
+            throw new DataAccessResourceFailureException("COPY to the staging table failed", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.storage.service;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Writes rows in the binary format of PostgreSQL's {@code COPY ... FROM STDIN (FORMAT BINARY)}:
+ * a signature and header, then per row the number of fields and each field as its length and
+ * its bytes in the type's binary send format, and a trailer. Only the types of
+ * {@code news_articles} are supported: text and varchar, timestamp without time zone, integer.
+ */
+final class BinaryCopyWriter implements Closeable {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final DataOutputStream out;
+
+    BinaryCopyWriter(OutputStream out) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.out.write(SIGNATURE);
+        // Flags (no OIDs) and length of the header extension area
+        this.out.writeInt(0);
+        this.out.writeInt(0);
+    }
+
+    void startRow(int fields) throws IOException {
+        out.writeShort(fields);
+    }
+
+    void writeText(String value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Timestamps are sent as microseconds since 2000-01-01 00:00.
+     */
+    void writeTimestamp(LocalDateTime value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        out.writeInt(Long.BYTES);
+        out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, value));
+    }
+
+    void writeInteger(Integer value) throws IOException {
+        if (value == null) {
+            writeNull();
+            return;
+        }
+        out.writeInt(Integer.BYTES);
+        out.writeInt(value);
+    }
+
+    private void writeNull() throws IOException {
+        out.writeInt(-1);
+    }
+
+    /**
+     * Writes the trailer and closes the stream, which ends the COPY.
+     */
+    @Override
+    public void close() throws IOException {
+        out.writeShort(-1);
+        out.close();
+    }
+}
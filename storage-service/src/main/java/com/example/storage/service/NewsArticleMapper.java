@@ -28,6 +28,9 @@ public class NewsArticleMapper {
         entity.setPublishedAt(dto.getPublishedAt());
         entity.setFetchedAt(dto.getFetchedAt());
         entity.setCategory(dto.getCategory());
+        entity.setCanonicalId(dto.getCanonicalId());
+        entity.setLanguage(dto.getLanguage());
+        entity.setReadingTimeMinutes(dto.getReadingTimeMinutes());
         
         return entity;
     }
@@ -53,6 +56,9 @@ public class NewsArticleMapper {
         dto.setPublishedAt(entity.getPublishedAt());
         dto.setFetchedAt(entity.getFetchedAt());
         dto.setCategory(entity.getCategory());
+        dto.setCanonicalId(entity.getCanonicalId());
+        dto.setLanguage(entity.getLanguage());
+        dto.setReadingTimeMinutes(entity.getReadingTimeMinutes());
         
         return dto;
     }
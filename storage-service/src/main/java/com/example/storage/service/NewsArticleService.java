@@ -11,7 +11,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -24,16 +27,58 @@ public class NewsArticleService {
     private final NewsArticleMapper mapper;
 
     /**
-     * Save a news article to the database
+     * Save a news article to the database, with a single upsert. The stored
+     * article is only replaced by a version fetched later, so replayed
+     * records of an older version are no-ops.
+     *
+     * @return the article, or empty if the stored version is as recent
      */
     @Transactional
-    public NewsArticleDto saveArticle(NewsArticleDto articleDto) {
+    public Optional<NewsArticleDto> saveArticle(NewsArticleDto articleDto) {
         log.info("Saving article with id: {}", articleDto.getId());
         
         NewsArticleEntity entity = mapper.toEntity(articleDto);
-        entity = repository.save(entity);
+        if (!repository.upsert(entity)) {
+            log.debug("Article {} is stored in the same or a later version", articleDto.getId());
+            return Optional.empty();
+        }
         
-        return mapper.toDto(entity);
+        return Optional.of(mapper.toDto(entity));
+    }
+
+    /**
+     * Save a batch of news articles in one transaction, with multi-row
+     * upserts and without reading the stored articles first. Like with
+     * {@link #saveArticle}, a stored article is only replaced by a version
+     * fetched later. If the batch holds an article more than once, the
+     * latest fetched one wins, and of equally recent ones the last.
+     *
+     * @return the number of articles written
+     */
+    @Transactional
+    public int saveAll(List<NewsArticleDto> articleDtos) {
+        List<NewsArticleEntity> entities = latestVersions(articleDtos).stream()
+                .map(mapper::toEntity)
+                .toList();
+
+        int written = repository.upsertAll(entities);
+        log.debug("Wrote {} articles, {} were stored in the same or a later version", written,
+                entities.size() - written);
+        return written;
+    }
+
+    /**
+     * One version per article ID, in the order the IDs first occur: the latest fetched one, and of
+     * equally recent ones the last. A version without fetch time only wins over another without.
+     */
+    static Collection<NewsArticleDto> latestVersions(List<NewsArticleDto> articleDtos) {
+        Map<String, NewsArticleDto> latest = new LinkedHashMap<>();
+        for (NewsArticleDto articleDto : articleDtos) {
+            latest.merge(articleDto.getId(), articleDto, (first, second) -> first.getFetchedAt() != null
+                    && (second.getFetchedAt() == null || second.getFetchedAt().isBefore(first.getFetchedAt()))
+                    ? first : second);
+        }
+        return latest.values();
     }
 
     /**
@@ -1,7 +1,9 @@
 package com.example.storage.integration;
 
+import com.example.storage.model.NewsArticleDto;
 import com.example.storage.model.NewsArticleEntity;
 import com.example.storage.repository.NewsArticleRepository;
+import com.example.storage.service.ArticleBulkLoader;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -28,6 +30,9 @@ public class DatabaseIntegrationTest {
     @Autowired
     private NewsArticleRepository repository;
 
+    @Autowired
+    private ArticleBulkLoader bulkLoader;
+
     @Test
     public void testSaveAndRetrieveArticle() {
         // Create a test article
@@ -125,6 +130,41 @@ public class DatabaseIntegrationTest {
         assertThat(climateArticles.get(0).getId()).isEqualTo(id1);
     }
 
+    @Test
+    public void testBulkLoadSkipsExistingArticles() {
+        // An article that is already stored, and a batch that repeats it next to a new one
+        String existingId = UUID.randomUUID().toString();
+        String newId = UUID.randomUUID().toString();
+        repository.saveAndFlush(createTestArticle(existingId));
+
+        NewsArticleDto repeated = createTestDto(existingId);
+        repeated.setTitle("Changed Title");
+        NewsArticleDto added = createTestDto(newId);
+
+        // Copy the batch in
+        int inserted = bulkLoader.load(List.of(repeated, added, added));
+
+        // Verify only the new article was inserted and the stored one kept its title
+        assertThat(bulkLoader.isAvailable()).isTrue();
+        assertThat(inserted).isEqualTo(1);
+        assertThat(repository.findById(newId)).get()
+            .extracting(NewsArticleEntity::getTitle).isEqualTo("Integration Test Article");
+        assertThat(repository.findById(existingId)).get()
+            .extracting(NewsArticleEntity::getTitle).isEqualTo("Integration Test Article");
+    }
+
+    private NewsArticleDto createTestDto(String id) {
+        NewsArticleDto article = new NewsArticleDto();
+        article.setId(id);
+        article.setTitle("Integration Test Article");
+        article.setDescription("Description for integration test");
+        article.setUrl("https://example.com/" + id);
+        article.setPublishedAt(LocalDateTime.now());
+        article.setFetchedAt(LocalDateTime.now());
+        article.setCategory("integration-test");
+        return article;
+    }
+
     private NewsArticleEntity createTestArticle(String id) {
         NewsArticleEntity article = new NewsArticleEntity();
         article.setId(id);
@@ -1,5 +1,6 @@
 package com.example.storage.integration;
 
+import com.example.storage.kafka.NewsArticleAvroCodec;
 import com.example.storage.model.NewsArticleDto;
 import com.example.storage.model.NewsArticleEntity;
 import com.example.storage.repository.NewsArticleRepository;
@@ -13,7 +14,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.kafka.test.EmbeddedKafkaBroker;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
@@ -52,12 +52,13 @@ public class KafkaIntegrationTest {
     
     @BeforeEach
     void setUp() {
-        // Configure the producer
+        // Configure the producer to write the same Avro format as data-ingestion-service
         Map<String, Object> producerProps = KafkaTestUtils.producerProps(embeddedKafkaBroker);
-        producer = new DefaultKafkaProducerFactory<>(
+        NewsArticleAvroCodec codec = new NewsArticleAvroCodec();
+        producer = new DefaultKafkaProducerFactory<String, NewsArticleDto>(
                 producerProps, 
                 new StringSerializer(), 
-                new JsonSerializer<NewsArticleDto>()).createProducer();
+                (topic, article) -> codec.encode(article)).createProducer();
     }
     
     @AfterEach
@@ -99,4 +100,40 @@ public class KafkaIntegrationTest {
             assertThat(saved.getCategory()).isEqualTo("kafka-test");
         });
     }
+
+    @Test
+    public void testKafkaBatchConsumerStoresBatchesAndCommitsOffsets() throws Exception {
+        // Given - a burst of articles, one of them delivered again in a later fetched version
+        String prefix = UUID.randomUUID().toString();
+        LocalDateTime fetchedAt = LocalDateTime.now();
+        int articles = 300;
+        long endOffset = 0;
+        for (int i = 0; i < articles; i++) {
+            NewsArticleDto articleDto = new NewsArticleDto();
+            articleDto.setId(prefix + "-" + i);
+            articleDto.setTitle("Batch Article " + i);
+            articleDto.setCategory("kafka-batch-test");
+            articleDto.setPublishedAt(LocalDateTime.now());
+            articleDto.setFetchedAt(fetchedAt);
+            endOffset = producer.send(new ProducerRecord<>(topic, articleDto.getId(), articleDto)).get().offset() + 1;
+        }
+        NewsArticleDto redelivered = new NewsArticleDto();
+        redelivered.setId(prefix + "-0");
+        redelivered.setTitle("Batch Article 0, redelivered");
+        redelivered.setCategory("kafka-batch-test");
+        redelivered.setFetchedAt(fetchedAt.plusMinutes(5));
+        long lastOffset = producer.send(new ProducerRecord<>(topic, redelivered.getId(), redelivered)).get().offset();
+        producer.flush();
+
+        // When / Then - every article is stored, the later version replaces the first, and the
+        // offsets are committed afterwards
+        await().atMost(30, TimeUnit.SECONDS).untilAsserted(() -> {
+            assertThat(repository.findByCategory("kafka-batch-test")).hasSize(articles);
+            assertThat(repository.findById(prefix + "-0").orElseThrow().getTitle())
+                    .isEqualTo("Batch Article 0, redelivered");
+            assertThat(KafkaTestUtils.getCurrentOffset(embeddedKafkaBroker.getBrokersAsString(),
+                    "storage-service-kafka-test", topic, 0).offset()).isEqualTo(lastOffset + 1);
+        });
+        assertThat(endOffset).isEqualTo(lastOffset);
+    }
 }
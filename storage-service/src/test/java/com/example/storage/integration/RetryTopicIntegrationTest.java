@@ -0,0 +1,157 @@
+package com.example.storage.integration;
+
+import com.example.storage.kafka.DeadLetterReplayer;
+import com.example.storage.kafka.NewsArticleAvroCodec;
+import com.example.storage.model.NewsArticleDto;
+import com.example.storage.repository.NewsArticleRepository;
+import com.example.storage.service.NewsArticleService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Verifies that articles which cannot be stored are moved through the retry topics to the
+ * dead-letter topic without holding up the news topic, and that they can be replayed from there.
+ */
+@SpringBootTest(properties = {
+        "storage.retry.attempts=3",
+        "storage.retry.initial-delay=PT0.1S",
+        "storage.retry.multiplier=2.0",
+        "storage.retry.max-delay=PT1S",
+        "storage.retry.topic-partitions=1",
+        "storage.retry.topic-replicas=1"})
+@EmbeddedKafka(partitions = 1, topics = {"news.incoming"})
+@TestPropertySource(locations = "classpath:application-kafka-test.properties")
+@DirtiesContext
+public class RetryTopicIntegrationTest {
+
+    @Autowired
+    private NewsArticleRepository repository;
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafkaBroker;
+
+    @Autowired
+    private DeadLetterReplayer replayer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private NewsArticleService articleService;
+
+    @Value("${kafka.topic.news}")
+    private String topic;
+
+    private final AtomicBoolean failing = new AtomicBoolean(true);
+    private Producer<String, byte[]> producer;
+    private String poisonId;
+
+    @BeforeEach
+    void setUp() {
+        producer = new DefaultKafkaProducerFactory<>(KafkaTestUtils.producerProps(embeddedKafkaBroker),
+                new StringSerializer(), new ByteArraySerializer()).createProducer();
+        poisonId = UUID.randomUUID().toString();
+
+        // Storing the poison article fails until the test fixes it
+        doAnswer(invocation -> {
+            Collection<NewsArticleDto> articles = invocation.getArgument(0);
+            if (failing.get() && articles.stream().anyMatch(article -> article.getId().equals(poisonId))) {
+                throw new QueryTimeoutException("lock timeout");
+            }
+            return invocation.callRealMethod();
+        }).when(articleService).saveAll(anyList());
+        doAnswer(invocation -> {
+            NewsArticleDto article = invocation.getArgument(0);
+            if (failing.get() && article.getId().equals(poisonId)) {
+                throw new QueryTimeoutException("lock timeout");
+            }
+            return invocation.callRealMethod();
+        }).when(articleService).saveArticle(any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        producer.close();
+    }
+
+    private void send(NewsArticleDto article) throws Exception {
+        producer.send(new ProducerRecord<>(topic, article.getId(), new NewsArticleAvroCodec().encode(article))).get();
+    }
+
+    private static NewsArticleDto article(String id) {
+        NewsArticleDto article = new NewsArticleDto();
+        article.setId(id);
+        article.setTitle("Retry Article " + id);
+        article.setCategory("retry-test");
+        article.setPublishedAt(LocalDateTime.now());
+        return article;
+    }
+
+    private double deadLetters() {
+        return meterRegistry.get("storage.consumer.dead-letters").counter().count();
+    }
+
+    @Test
+    public void testFailingArticlesAreMovedAsideAndReplayedFromDeadLetterTopic() throws Exception {
+        // Given - a poison article and an undecodable record between healthy articles
+        String prefix = UUID.randomUUID().toString();
+        send(article(prefix + "-0"));
+        send(article(poisonId));
+        producer.send(new ProducerRecord<>(topic, "garbage", "not avro".getBytes(StandardCharsets.UTF_8))).get();
+        for (int i = 1; i <= 3; i++) {
+            send(article(prefix + "-" + i));
+        }
+
+        // Then - the healthy articles are stored, the two others end on the dead-letter topic
+        await().atMost(30, TimeUnit.SECONDS).untilAsserted(() -> {
+            for (int i = 0; i <= 3; i++) {
+                assertThat(repository.existsById(prefix + "-" + i)).isTrue();
+            }
+        });
+        await().atMost(30, TimeUnit.SECONDS).until(() -> replayer.status().pending() == 2);
+        await().atMost(10, TimeUnit.SECONDS).until(() -> deadLetters() == 1.0);
+        assertThat(repository.existsById(poisonId)).isFalse();
+        assertThat(meterRegistry.get("storage.consumer.records.forwarded").counter().count()).isEqualTo(2.0);
+
+        // When - the cause is fixed and the dead letters are replayed
+        failing.set(false);
+        DeadLetterReplayer.Result result = replayer.replay();
+
+        // Then - the poison article is stored, the undecodable record stays where it is
+        assertThat(result.replayed()).isEqualTo(1);
+        assertThat(result.skipped()).isEqualTo(1);
+        assertThat(result.pending()).isZero();
+        await().atMost(30, TimeUnit.SECONDS).until(() -> repository.existsById(poisonId));
+        assertThat(replayer.status().pending()).isZero();
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.storage.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsumerLagReporterTest {
+
+    private static final String TOPIC = "news.incoming";
+    private static final String MEASURED_TOPIC = "news.measured";
+    private static final String LAG_TOPIC = "storage.lag";
+    private static final String GROUP = "storage-service-group";
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private KafkaTemplate<String, String> kafkaTemplate;
+    private Admin admin;
+    private long now = 1_000_000;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 2, TOPIC, MEASURED_TOPIC, LAG_TOPIC);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        kafkaTemplate = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                KafkaTestUtils.producerProps(broker.getBrokersAsString()),
+                new StringSerializer(), new StringSerializer()));
+        admin = Admin.create(Map.of("bootstrap.servers", broker.getBrokersAsString()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        admin.close();
+        kafkaTemplate.destroy();
+    }
+
+    private ConsumerLagReporter reporter(String topic, String group) {
+        return new ConsumerLagReporter(admin, kafkaTemplate, objectMapper, topic, group, LAG_TOPIC,
+                meterRegistry, () -> now);
+    }
+
+    private void publish(String topic, int partition, int records) {
+        for (int i = 0; i < records; i++) {
+            kafkaTemplate.send(new ProducerRecord<>(topic, partition, "key-" + i, "value"));
+        }
+        kafkaTemplate.flush();
+    }
+
+    private void commit(String group, String topic, int partition, long offset) {
+        try (Consumer<String, String> consumer = new KafkaConsumer<>(
+                KafkaTestUtils.consumerProps(broker.getBrokersAsString(), group),
+                new StringDeserializer(), new StringDeserializer())) {
+            consumer.commitSync(Map.of(new TopicPartition(topic, partition), new OffsetAndMetadata(offset)));
+        }
+    }
+
+    @Test
+    void shouldMeasureLagAndRateFromCommittedOffsets() throws Exception {
+        // Given - 3 records on partition 0 of which 2 were consumed, 2 on partition 1 not consumed yet
+        publish(MEASURED_TOPIC, 0, 3);
+        publish(MEASURED_TOPIC, 1, 2);
+        commit(GROUP, MEASURED_TOPIC, 0, 2);
+        ConsumerLagReporter reporter = reporter(MEASURED_TOPIC, GROUP);
+
+        // When
+        ConsumerLagReport first = reporter.measure();
+        commit(GROUP, MEASURED_TOPIC, 1, 2);
+        now += 2_000;
+        ConsumerLagReport second = reporter.measure();
+
+        // Then
+        assertThat(first.lag()).isEqualTo(3);
+        assertThat(first.recordsPerSecond()).isZero();
+        assertThat(second.lag()).isEqualTo(1);
+        assertThat(second.recordsPerSecond()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("storage.consumer.lag").tag("topic", MEASURED_TOPIC).gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldPublishReportKeyedByGroup() throws Exception {
+        // Given
+        ConsumerLagReporter reporter = reporter(TOPIC, GROUP);
+        publish(TOPIC, 0, 1);
+
+        // When
+        reporter.report();
+        kafkaTemplate.flush();
+
+        // Then
+        try (Consumer<String, String> consumer = new KafkaConsumer<>(
+                KafkaTestUtils.consumerProps(broker.getBrokersAsString(), "lag-reader"),
+                new StringDeserializer(), new StringDeserializer())) {
+            consumer.subscribe(List.of(LAG_TOPIC));
+            ConsumerRecord<String, String> record = KafkaTestUtils.getSingleRecord(consumer, LAG_TOPIC,
+                    Duration.ofSeconds(10));
+            ConsumerLagReport report = objectMapper.readValue(record.value(), ConsumerLagReport.class);
+            assertThat(record.key()).isEqualTo(GROUP);
+            assertThat(report.group()).isEqualTo(GROUP);
+            assertThat(report.topic()).isEqualTo(TOPIC);
+            assertThat(report.lag()).isPositive();
+            assertThat(report.timestamp()).isEqualTo(now);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.storage.kafka;
+
+import com.example.storage.model.NewsArticleDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FailedRecordForwarderTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FailedRecordForwarder forwarder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        forwarder = new FailedRecordForwarder(kafkaTemplate, "news.incoming.failed", meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, Object> sent() {
+        ArgumentCaptor<ProducerRecord<String, Object>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private static String header(ProducerRecord<String, Object> record, String name) {
+        return new String(record.headers().lastHeader(name).value(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void shouldForwardArticleWithItsOriginAndFailure() {
+        // Given
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(
+                (SendResult<String, Object>) null));
+        NewsArticleDto article = new NewsArticleDto();
+        article.setId("a");
+
+        // When
+        forwarder.forward(new ConsumerRecord<>("news.incoming", 2, 17, "a", article),
+                new QueryTimeoutException("lock timeout"));
+
+        // Then
+        ProducerRecord<String, Object> record = sent();
+        assertThat(record.topic()).isEqualTo("news.incoming.failed");
+        assertThat(record.key()).isEqualTo("a");
+        assertThat(record.value()).isSameAs(article);
+        assertThat(header(record, FailedRecordForwarder.ORIGINAL_TOPIC_HEADER)).isEqualTo("news.incoming");
+        assertThat(header(record, FailedRecordForwarder.ORIGINAL_PARTITION_HEADER)).isEqualTo("2");
+        assertThat(header(record, FailedRecordForwarder.ORIGINAL_OFFSET_HEADER)).isEqualTo("17");
+        assertThat(header(record, FailedRecordForwarder.FAILURE_HEADER)).isEqualTo("lock timeout");
+        assertThat(meterRegistry.get("storage.consumer.records.forwarded").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldForwardOriginalBytesOfUndecodableRecord() {
+        // Given - the ErrorHandlingDeserializer put the failure with the raw bytes into a header
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(CompletableFuture.completedFuture(
+                (SendResult<String, Object>) null));
+        byte[] data = "not avro".getBytes(StandardCharsets.UTF_8);
+        RecordHeaders headers = new RecordHeaders();
+        try (ErrorHandlingDeserializer<NewsArticleDto> deserializer =
+                     new ErrorHandlingDeserializer<>(new NewsArticleAvroDeserializer())) {
+            assertThat(deserializer.deserialize("news.incoming", headers, data)).isNull();
+        }
+        ConsumerRecord<String, NewsArticleDto> undecodable = new ConsumerRecord<>("news.incoming", 0, 3, 0L,
+                TimestampType.CREATE_TIME, 0, 0, "x", null, headers, Optional.empty());
+
+        // When
+        boolean forwarded = forwarder.forwardUndecodable(undecodable);
+
+        // Then
+        assertThat(forwarded).isTrue();
+        assertThat(sent().value()).isEqualTo(data);
+    }
+
+    @Test
+    void shouldNotForwardEmptyRecord() {
+        // When
+        boolean forwarded = forwarder.forwardUndecodable(new ConsumerRecord<>("news.incoming", 0, 3, "x", null));
+
+        // Then
+        assertThat(forwarded).isFalse();
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void shouldFailWhenRecordCannotBeForwarded() {
+        // Given - the broker rejects the send, so the original must not be committed
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        NewsArticleDto article = new NewsArticleDto();
+
+        // When / Then
+        assertThatThrownBy(() -> forwarder.forward(new ConsumerRecord<>("news.incoming", 0, 0, "a", article),
+                new QueryTimeoutException("lock timeout")))
+                .isInstanceOf(KafkaException.class)
+                .hasMessageContaining("news.incoming.failed");
+    }
+}
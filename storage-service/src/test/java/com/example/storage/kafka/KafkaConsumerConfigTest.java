@@ -0,0 +1,51 @@
+package com.example.storage.kafka;
+
+import org.apache.kafka.clients.admin.Admin;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaConsumerConfigTest {
+
+    private static final String TOPIC = "news.partitioned";
+
+    private static EmbeddedKafkaKraftBroker broker;
+
+    @BeforeAll
+    static void startBroker() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, TOPIC);
+        broker.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopBroker() {
+        broker.destroy();
+    }
+
+    @Test
+    void shouldStartOneConsumerPerPartitionUpToTheMaximum() {
+        // Given
+        try (Admin admin = Admin.create(Map.of("bootstrap.servers", broker.getBrokersAsString()))) {
+            // When / Then
+            assertThat(KafkaConsumerConfig.concurrency(admin, TOPIC, 12)).isEqualTo(3);
+            assertThat(KafkaConsumerConfig.concurrency(admin, TOPIC, 2)).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void shouldStartMaximumConsumersWhenTopicIsMissing() {
+        // Given
+        try (Admin admin = Admin.create(Map.of("bootstrap.servers", broker.getBrokersAsString()))) {
+            // When
+            int concurrency = KafkaConsumerConfig.concurrency(admin, "news.missing", 4);
+
+            // Then
+            assertThat(concurrency).isEqualTo(4);
+        }
+    }
+}
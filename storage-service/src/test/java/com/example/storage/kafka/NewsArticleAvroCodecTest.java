@@ -0,0 +1,64 @@
+package com.example.storage.kafka;
+
+import com.example.storage.model.NewsArticleDto;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NewsArticleAvroCodecTest {
+
+    // An article as encoded by data-ingestion-service with schema v1; pins the wire format both services share
+    private static final String INGESTION_RECORD_HEX = "c30136500924aac1c41f1261727469636c652d3102244b61666b6120546573742041"
+            + "727469636c650000000002165465737420536f75726365023a68747470733a2f2f6578616d706c652e636f6d2f61727469636c"
+            + "652d3100028098e793bcf08a060280cc979abef08a060210627573696e657373";
+
+    private final NewsArticleAvroCodec codec = new NewsArticleAvroCodec();
+
+    @Test
+    void testDecodeRecordWrittenByIngestionServiceWithPreviousSchema() {
+        // When
+        NewsArticleDto article = codec.decode(HexFormat.of().parseHex(INGESTION_RECORD_HEX));
+
+        // Then
+        assertThat(article.getId()).isEqualTo("article-1");
+        assertThat(article.getTitle()).isEqualTo("Kafka Test Article");
+        assertThat(article.getDescription()).isNull();
+        assertThat(article.getSourceName()).isEqualTo("Test Source");
+        assertThat(article.getUrl()).isEqualTo("https://example.com/article-1");
+        assertThat(article.getPublishedAt()).isEqualTo(LocalDateTime.of(2024, 4, 10, 18, 5, 12));
+        assertThat(article.getFetchedAt()).isEqualTo(LocalDateTime.of(2024, 4, 10, 18, 9, 47, 123_456_000));
+        assertThat(article.getCategory()).isEqualTo("business");
+        assertThat(article.getCanonicalId()).isNull();
+        assertThat(article.getLanguage()).isNull();
+        assertThat(article.getReadingTimeMinutes()).isNull();
+    }
+
+    @Test
+    void testRoundTrip() {
+        // Given
+        NewsArticleDto article = new NewsArticleDto("id-1", "Title", "Description", "Content", "Author",
+                "source-id", "Source", "https://example.com/1", "https://example.com/1.jpg",
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5), LocalDateTime.of(2024, 1, 2, 3, 5, 0), "science", "id-0", "en", 4);
+
+        // When
+        NewsArticleDto decoded = codec.decode(codec.encode(article));
+
+        // Then
+        assertThat(decoded).isEqualTo(article);
+    }
+
+    @Test
+    void testRejectJsonPayload() {
+        // Given - a record still in the old JSON format
+        byte[] json = "{\"id\":\"1\",\"title\":\"Old format\"}".getBytes(StandardCharsets.UTF_8);
+
+        // When / Then
+        assertThatThrownBy(() -> codec.decode(json)).isInstanceOf(SerializationException.class);
+    }
+}
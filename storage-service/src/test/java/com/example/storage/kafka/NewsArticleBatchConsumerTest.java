@@ -0,0 +1,258 @@
+package com.example.storage.kafka;
+
+import com.example.storage.model.NewsArticleDto;
+import com.example.storage.service.ArticleBulkLoader;
+import com.example.storage.service.NewsArticleService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NewsArticleBatchConsumerTest {
+
+    @Mock
+    private NewsArticleService articleService;
+
+    @Mock
+    private ArticleBulkLoader bulkLoader;
+
+    @Mock
+    private ConsumerLagReporter lagReporter;
+
+    @Mock
+    private FailedRecordForwarder forwarder;
+
+    private SimpleMeterRegistry meterRegistry;
+    private NewsArticleBatchConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new NewsArticleBatchConsumer(articleService, bulkLoader, lagReporter, forwarder, 1000, 100,
+                meterRegistry);
+    }
+
+    private static ConsumerRecord<String, NewsArticleDto> record(long offset, String id) {
+        NewsArticleDto article = null;
+        if (id != null) {
+            article = new NewsArticleDto();
+            article.setId(id);
+            article.setTitle("Article " + id);
+        }
+        return new ConsumerRecord<>("news.incoming", 0, offset, id, article);
+    }
+
+    private static boolean contains(List<NewsArticleDto> articles, String id) {
+        return articles.stream().anyMatch(article -> article.getId().equals(id));
+    }
+
+    private double storedArticles() {
+        return meterRegistry.get("storage.consumer.articles").counter().count();
+    }
+
+    @Test
+    void shouldSaveWholeBatchInOneCall() {
+        // Given
+        when(articleService.saveAll(anyList())).thenReturn(3);
+
+        // When
+        consumer.consume(List.of(record(0, "a"), record(1, "b"), record(2, "c")));
+
+        // Then
+        verify(articleService).saveAll(argThat(articles -> articles.size() == 3));
+        verify(articleService, never()).saveArticle(any());
+        assertThat(storedArticles()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("storage.consumer.articles").counter().getId().getTag("thread"))
+                .isEqualTo(Thread.currentThread().getName());
+    }
+
+    @Test
+    void shouldForwardUndecodableRecords() {
+        // Given
+        when(articleService.saveAll(anyList())).thenReturn(1);
+        ConsumerRecord<String, NewsArticleDto> undecodable = record(0, null);
+
+        // When
+        consumer.consume(List.of(undecodable, record(1, "b")));
+
+        // Then
+        verify(forwarder).forwardUndecodable(undecodable);
+        verify(articleService).saveAll(argThat(articles -> articles.size() == 1
+                && articles.get(0).getId().equals("b")));
+        assertThat(meterRegistry.get("storage.consumer.records.undecodable").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldSplitBatchToMoveAsideArticleViolatingConstraint() {
+        // Given - article "b" has no title
+        when(articleService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<NewsArticleDto> articles = invocation.getArgument(0);
+            if (contains(articles, "b")) {
+                throw new DataIntegrityViolationException("title is null");
+            }
+            return articles.size();
+        });
+        ConsumerRecord<String, NewsArticleDto> failing = record(1, "b");
+
+        // When
+        consumer.consume(List.of(record(0, "a"), failing, record(2, "c")));
+
+        // Then - [a, b, c] fails, then [a] is saved, [b, c] fails, and [b] is moved aside while [c] is saved
+        verify(articleService, times(5)).saveAll(anyList());
+        verify(forwarder).forward(eq(failing), any(DataIntegrityViolationException.class));
+        verifyNoMoreInteractions(forwarder);
+        verify(articleService, never()).saveArticle(any());
+        assertThat(storedArticles()).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldFindPoisonArticleInLargeBatchWithFewWrites() {
+        // Given - one article of 512 fails
+        List<ConsumerRecord<String, NewsArticleDto>> records = IntStream.range(0, 512)
+                .mapToObj(i -> record(i, "article-" + i))
+                .toList();
+        when(articleService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<NewsArticleDto> articles = invocation.getArgument(0);
+            if (contains(articles, "article-300")) {
+                throw new DataIntegrityViolationException("value too long");
+            }
+            return articles.size();
+        });
+
+        // When
+        consumer.consume(records);
+
+        // Then - the batch, and two halves on each of the 9 levels down to the single article
+        verify(articleService, atMost(1 + 2 * 9)).saveAll(anyList());
+        verify(forwarder).forward(eq(records.get(300)), any(DataIntegrityViolationException.class));
+        verifyNoMoreInteractions(forwarder);
+        assertThat(storedArticles()).isEqualTo(511.0);
+    }
+
+    @Test
+    void shouldForwardArticlesThatFailForOtherReasons() {
+        // Given - "a" runs into a lock timeout, in the batch and on its own
+        when(articleService.saveAll(anyList())).thenAnswer(invocation -> {
+            List<NewsArticleDto> articles = invocation.getArgument(0);
+            if (contains(articles, "a")) {
+                throw new QueryTimeoutException("lock timeout");
+            }
+            return articles.size();
+        });
+        ConsumerRecord<String, NewsArticleDto> failing = record(0, "a");
+
+        // When
+        consumer.consume(List.of(failing, record(1, "b")));
+
+        // Then
+        verify(forwarder).forward(eq(failing), any(QueryTimeoutException.class));
+        assertThat(storedArticles()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldRethrowWhenDatabaseBecomesUnreachableWhileSplitting() {
+        // Given
+        when(articleService.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("title is null"))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        // When / Then - nothing is forwarded, the batch is retried
+        assertThatThrownBy(() -> consumer.consume(List.of(record(0, "a"), record(1, "b"))))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        verifyNoInteractions(forwarder);
+    }
+
+    @Test
+    void shouldSplitFailingBulkLoadWithBulkLoader() {
+        // Given - bulk mode, and article "b" fails the load
+        when(lagReporter.getLag()).thenReturn(1_000_000L);
+        when(bulkLoader.isAvailable()).thenReturn(true);
+        when(bulkLoader.load(anyList())).thenAnswer(invocation -> {
+            List<NewsArticleDto> articles = invocation.getArgument(0);
+            if (contains(articles, "b")) {
+                throw new DataIntegrityViolationException("title is null");
+            }
+            return articles.size();
+        });
+        ConsumerRecord<String, NewsArticleDto> failing = record(1, "b");
+
+        // When
+        consumer.consume(List.of(record(0, "a"), failing));
+
+        // Then
+        verify(forwarder).forward(eq(failing), any(DataIntegrityViolationException.class));
+        verify(articleService, never()).saveAll(anyList());
+        assertThat(meterRegistry.get("storage.consumer.articles").tag("mode", "copy").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldRethrowOtherFailuresSoTheBatchIsRetried() {
+        // Given - the database is down
+        when(articleService.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+        // When / Then - the offsets of the batch are not committed
+        assertThatThrownBy(() -> consumer.consume(List.of(record(0, "a"))))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        verify(articleService, never()).saveArticle(any());
+    }
+
+    @Test
+    void shouldBulkLoadWhileLagIsHigh() {
+        // Given
+        when(bulkLoader.isAvailable()).thenReturn(true);
+        when(bulkLoader.load(anyList())).thenReturn(1);
+        when(articleService.saveAll(anyList())).thenReturn(1);
+
+        // When / Then - enters bulk mode at 1000 and leaves it only at 100
+        when(lagReporter.getLag()).thenReturn(999L);
+        consumer.consume(List.of(record(0, "a")));
+        verify(bulkLoader, never()).load(anyList());
+
+        when(lagReporter.getLag()).thenReturn(1000L);
+        consumer.consume(List.of(record(1, "b")));
+        when(lagReporter.getLag()).thenReturn(101L);
+        consumer.consume(List.of(record(2, "c")));
+        verify(bulkLoader, times(2)).load(anyList());
+        assertThat(meterRegistry.get("storage.consumer.bulk-load.active").gauge().value()).isEqualTo(1.0);
+
+        when(lagReporter.getLag()).thenReturn(100L);
+        consumer.consume(List.of(record(3, "d")));
+        verify(bulkLoader, times(2)).load(anyList());
+        verify(articleService, times(2)).saveAll(anyList());
+        assertThat(meterRegistry.get("storage.consumer.articles").tag("mode", "copy").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldNotBulkLoadWhenDatabaseDoesNotSupportIt() {
+        // Given
+        when(lagReporter.getLag()).thenReturn(1_000_000L);
+        when(bulkLoader.isAvailable()).thenReturn(false);
+        when(articleService.saveAll(anyList())).thenReturn(1);
+
+        // When
+        consumer.consume(List.of(record(0, "a")));
+
+        // Then
+        verify(bulkLoader, never()).load(anyList());
+        verify(articleService).saveAll(anyList());
+    }
+}
@@ -2,6 +2,7 @@ package com.example.storage.kafka;
 
 import com.example.storage.model.NewsArticleDto;
 import com.example.storage.service.NewsArticleService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -9,9 +10,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,6 +23,9 @@ public class NewsArticleConsumerTest {
     @Mock
     private NewsArticleService articleService;
 
+    @Mock
+    private FailedRecordForwarder forwarder;
+
     @InjectMocks
     private NewsArticleConsumer consumer;
 
@@ -32,17 +38,18 @@ public class NewsArticleConsumerTest {
         article.setDescription("Test Description");
         article.setPublishedAt(LocalDateTime.now());
         
-        when(articleService.saveArticle(any(NewsArticleDto.class))).thenReturn(article);
+        when(articleService.saveArticle(any(NewsArticleDto.class))).thenReturn(Optional.of(article));
         
         // When
-        consumer.consume(article);
+        consumer.consume(new ConsumerRecord<>("news.incoming", 0, 0, article.getId(), article));
         
         // Then
         verify(articleService, times(1)).saveArticle(article);
+        verifyNoInteractions(forwarder);
     }
 
     @Test
-    void testConsumeHandlesException() {
+    void testConsumeForwardsFailedArticle() {
         // Given
         NewsArticleDto article = new NewsArticleDto();
         article.setId(UUID.randomUUID().toString());
@@ -50,11 +57,27 @@ public class NewsArticleConsumerTest {
         doThrow(new RuntimeException("Test exception"))
                 .when(articleService).saveArticle(any(NewsArticleDto.class));
         
+        ConsumerRecord<String, NewsArticleDto> record = new ConsumerRecord<>("news.incoming", 0, 0, article.getId(), article);
+
         // When - this should not throw exception outside
-        consumer.consume(article);
+        consumer.consume(record);
         
-        // Then
+        // Then - the article is moved to the retry topics
         verify(articleService, times(1)).saveArticle(article);
-        // No assertion needed - we're just verifying it doesn't throw
+        verify(forwarder).forward(eq(record), any(RuntimeException.class));
+    }
+
+    @Test
+    void testConsumeForwardsUndecodableRecord() {
+        // Given - the deserializer could not decode the value
+        ConsumerRecord<String, NewsArticleDto> record = new ConsumerRecord<>("news.incoming", 0, 0, "key", null);
+        when(forwarder.forwardUndecodable(record)).thenReturn(true);
+
+        // When
+        consumer.consume(record);
+
+        // Then - the record goes to the dead-letter topic without a save attempt
+        verify(forwarder).forwardUndecodable(record);
+        verifyNoInteractions(articleService);
     }
 }
@@ -0,0 +1,128 @@
+package com.example.storage.kafka;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consumer throughput by partition count on an embedded broker: records keyed like articles are
+ * published to a topic and drained by a batch listener container with one thread per
+ * partition, as {@link KafkaConsumerConfig} sets it up. Each batch waits as long as storing it
+ * in the database would take, so the run measures how well that wait parallelizes, and checks
+ * that the records of every key arrive in the order they were published.
+ * Not part of the test suite; run {@link #main} from the IDE.
+ */
+public class PartitionScalingBenchmark {
+
+    private static final int[] PARTITIONS = {1, 2, 4, 8};
+    private static final int RECORDS = 20_000;
+    private static final int KEYS = 2_000;
+    private static final int MAX_POLL_RECORDS = 500;
+    // Simulated database time per batch: a fixed round trip plus a share per record
+    private static final long BATCH_MILLIS = 20;
+    private static final double RECORD_MILLIS = 0.1;
+
+    public static void main(String[] args) throws Exception {
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, 1);
+        broker.afterPropertiesSet();
+        try {
+            double baseline = 0;
+            for (int partitions : PARTITIONS) {
+                String topic = "news.bench." + partitions;
+                broker.addTopics(new NewTopic(topic, partitions, (short) 1));
+                double perSecond = consume(broker, topic, partitions);
+                baseline = baseline == 0 ? perSecond : baseline;
+                System.out.printf(Locale.ROOT, "%d partitions: %,.0f records/s (%.2fx)%n",
+                        partitions, perSecond, perSecond / baseline);
+            }
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static void publish(EmbeddedKafkaKraftBroker broker, String topic) {
+        Map<String, Object> props = KafkaTestUtils.producerProps(broker.getBrokersAsString());
+        props.put("enable.idempotence", false);
+        props.put("max.in.flight.requests.per.connection", 1);
+        KafkaTemplate<String, String> template = new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(
+                props, new StringSerializer(), new StringSerializer()));
+        for (int i = 0; i < RECORDS; i++) {
+            // The value is the version of the article, which must only ever increase per key
+            template.send(new ProducerRecord<>(topic, "article-" + (i % KEYS), Integer.toString(i / KEYS)));
+        }
+        template.flush();
+        template.destroy();
+    }
+
+    private static double consume(EmbeddedKafkaKraftBroker broker, String topic, int partitions)
+            throws InterruptedException {
+        Map<String, Object> props = KafkaTestUtils.consumerProps(broker.getBrokersAsString(), topic + ".group");
+        props.put("auto.offset.reset", "earliest");
+        props.put("max.poll.records", MAX_POLL_RECORDS);
+        ContainerProperties containerProperties = new ContainerProperties(topic);
+        containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+
+        CountDownLatch done = new CountDownLatch(RECORDS);
+        Map<String, Integer> versions = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        containerProperties.setMessageListener((BatchMessageListener<String, String>) records -> {
+            for (ConsumerRecord<String, String> record : records) {
+                int version = Integer.parseInt(record.value());
+                Integer previous = versions.put(record.key(), version);
+                if (previous != null && previous > version) {
+                    outOfOrder.incrementAndGet();
+                }
+            }
+            sleep(BATCH_MILLIS + (long) (records.size() * RECORD_MILLIS));
+            records.forEach(record -> done.countDown());
+        });
+
+        ConcurrentMessageListenerContainer<String, String> container = new ConcurrentMessageListenerContainer<>(
+                new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new StringDeserializer()),
+                containerProperties);
+        container.setConcurrency(partitions);
+        container.start();
+        try {
+            // Publish only once every partition is assigned, so no rebalance falls into the run
+            ContainerTestUtils.waitForAssignment(container, partitions);
+            long start = System.nanoTime();
+            publish(broker, topic);
+            if (!done.await(5, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Timed out with " + done.getCount() + " records left");
+            }
+            if (outOfOrder.get() > 0) {
+                throw new IllegalStateException(outOfOrder.get() + " records arrived out of order");
+            }
+            return RECORDS / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            container.stop();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
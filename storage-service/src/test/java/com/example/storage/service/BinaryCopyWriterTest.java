@@ -0,0 +1,50 @@
+package com.example.storage.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryCopyWriterTest {
+
+    @Test
+    void shouldWriteHeaderRowsAndTrailerInPostgresBinaryFormat() throws Exception {
+        // Given
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // When
+        try (BinaryCopyWriter writer = new BinaryCopyWriter(bytes)) {
+            writer.startRow(4);
+            writer.writeText("Grüße");
+            writer.writeText(null);
+            writer.writeTimestamp(LocalDateTime.of(2000, 1, 2, 0, 0, 0, 1_000));
+            writer.writeInteger(7);
+        }
+
+        // Then
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        byte[] signature = new byte[11];
+        in.readFully(signature);
+        assertThat(signature).isEqualTo(new byte[] {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0});
+        assertThat(in.readInt()).as("flags").isZero();
+        assertThat(in.readInt()).as("header extension").isZero();
+
+        assertThat(in.readShort()).as("fields").isEqualTo((short) 4);
+        byte[] text = new byte[in.readInt()];
+        in.readFully(text);
+        assertThat(new String(text, StandardCharsets.UTF_8)).isEqualTo("Grüße");
+        assertThat(in.readInt()).as("null").isEqualTo(-1);
+        assertThat(in.readInt()).isEqualTo(8);
+        assertThat(in.readLong()).as("microseconds since 2000-01-01").isEqualTo(86_400_000_001L);
+        assertThat(in.readInt()).isEqualTo(4);
+        assertThat(in.readInt()).isEqualTo(7);
+
+        assertThat(in.readShort()).as("trailer").isEqualTo((short) -1);
+        assertThat(in.available()).isZero();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.storage.service;
+
+import com.example.storage.model.NewsArticleDto;
+import com.example.storage.model.NewsArticleEntity;
+import com.example.storage.repository.NewsArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements the write paths send per saved article. Every save commits its own
+ * transaction, as it does when called from the consumers.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:statements")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({NewsArticleService.class, NewsArticleMapper.class, StatementRecorder.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NewsArticleServiceStatementTest {
+
+    private static final int ARTICLES = 100;
+    private static final LocalDateTime FETCHED_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Autowired
+    private NewsArticleService service;
+
+    @Autowired
+    private NewsArticleRepository repository;
+
+    @Autowired
+    private StatementRecorder statements;
+
+    @BeforeEach
+    void setUp() {
+        statements.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    private static List<NewsArticleDto> articles(String title, LocalDateTime fetchedAt) {
+        return IntStream.range(0, ARTICLES)
+                .mapToObj(i -> {
+                    NewsArticleDto article = new NewsArticleDto();
+                    article.setId("article-" + i);
+                    article.setTitle(title + " " + i);
+                    article.setCategory("technology");
+                    article.setPublishedAt(FETCHED_AT.minusHours(1));
+                    article.setFetchedAt(fetchedAt);
+                    return article;
+                })
+                .toList();
+    }
+
+    private String storedTitle() {
+        return repository.findById("article-0").orElseThrow().getTitle();
+    }
+
+    @Test
+    void shouldSaveEachArticleWithOneStatementAndKeepLatestVersion() {
+        // When
+        long written = articles("Original", FETCHED_AT).stream()
+                .filter(article -> service.saveArticle(article).isPresent())
+                .count();
+
+        // Then - one statement per article, no SELECT
+        assertThat(written).isEqualTo(ARTICLES);
+        assertThat(statements.roundTrips()).isEqualTo(ARTICLES);
+        assertThat(statements.count("select")).isZero();
+
+        // When - the same records are consumed again
+        statements.reset();
+        written = articles("Replayed", FETCHED_AT).stream()
+                .filter(article -> service.saveArticle(article).isPresent())
+                .count();
+
+        // Then - still one statement each, and the stored articles are unchanged
+        assertThat(written).isZero();
+        assertThat(statements.roundTrips()).isEqualTo(ARTICLES);
+        assertThat(repository.count()).isEqualTo(ARTICLES);
+        assertThat(storedTitle()).isEqualTo("Original 0");
+
+        // When - a later fetched version arrives
+        written = articles("Updated", FETCHED_AT.plusMinutes(5)).stream()
+                .filter(article -> service.saveArticle(article).isPresent())
+                .count();
+
+        // Then
+        assertThat(written).isEqualTo(ARTICLES);
+        assertThat(storedTitle()).isEqualTo("Updated 0");
+    }
+
+    @Test
+    void shouldSaveBatchWithOneStatementAndKeepLatestVersion() {
+        // When
+        int written = service.saveAll(articles("Original", FETCHED_AT));
+
+        // Then - one multi-row statement for the whole batch
+        assertThat(written).isEqualTo(ARTICLES);
+        assertThat(statements.roundTrips()).isEqualTo(1);
+        assertThat(statements.count("select")).isZero();
+
+        // When - the batch is replayed, and then an older version of it arrives
+        statements.reset();
+        int replayed = service.saveAll(articles("Replayed", FETCHED_AT));
+        int older = service.saveAll(articles("Older", FETCHED_AT.minusMinutes(5)));
+
+        // Then - one statement each, writing nothing
+        assertThat(replayed).isZero();
+        assertThat(older).isZero();
+        assertThat(statements.roundTrips()).isEqualTo(2);
+        assertThat(storedTitle()).isEqualTo("Original 0");
+
+        // When - a later fetched version arrives
+        int updated = service.saveAll(articles("Updated", FETCHED_AT.plusMinutes(5)));
+
+        // Then
+        assertThat(updated).isEqualTo(ARTICLES);
+        assertThat(repository.count()).isEqualTo(ARTICLES);
+        assertThat(storedTitle()).isEqualTo("Updated 0");
+    }
+
+    @Test
+    void mergeIssuesSelectBeforeEveryInsert() {
+        // Given - what repository.save does with an assigned ID
+        NewsArticleMapper mapper = new NewsArticleMapper();
+
+        // When
+        articles("Merged", FETCHED_AT).forEach(article -> repository.save(mapper.toEntity(article)));
+
+        // Then - twice the statements of the paths above
+        assertThat(statements.count("select")).isEqualTo(ARTICLES);
+        assertThat(statements.count("insert")).isEqualTo(ARTICLES);
+    }
+}
@@ -67,16 +67,79 @@ public class NewsArticleServiceTest {
     void testSaveArticle() {
         // Setup mock behavior specific to this test
         when(mapper.toEntity(articleDto)).thenReturn(articleEntity);
-        when(repository.save(articleEntity)).thenReturn(articleEntity);
+        when(repository.upsert(articleEntity)).thenReturn(true);
         when(mapper.toDto(articleEntity)).thenReturn(articleDto);
         
         // When
-        NewsArticleDto result = service.saveArticle(articleDto);
+        Optional<NewsArticleDto> result = service.saveArticle(articleDto);
         
         // Then
-        assertThat(result).isNotNull();
-        assertThat(result.getId()).isEqualTo(articleId);
-        verify(repository, times(1)).save(any(NewsArticleEntity.class));
+        assertThat(result).isPresent();
+        assertThat(result.get().getId()).isEqualTo(articleId);
+        verify(repository, times(1)).upsert(any(NewsArticleEntity.class));
+        verify(repository, never()).save(any(NewsArticleEntity.class));
+    }
+
+    @Test
+    void testSaveArticleStoredInLaterVersion() {
+        // Given - the upsert leaves the stored article as it is
+        when(mapper.toEntity(articleDto)).thenReturn(articleEntity);
+        when(repository.upsert(articleEntity)).thenReturn(false);
+        
+        // When
+        Optional<NewsArticleDto> result = service.saveArticle(articleDto);
+        
+        // Then
+        assertThat(result).isEmpty();
+        verify(mapper, never()).toDto(any());
+    }
+
+    @Test
+    void testSaveAllInsertsNewAndUpdatesStoredArticles() {
+        // Given - the article from setUp is stored already, a second one is new and sent twice
+        NewsArticleDto newDto = new NewsArticleDto();
+        newDto.setId("new-article");
+        newDto.setTitle("New Article");
+        newDto.setFetchedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        NewsArticleDto newDtoAgain = new NewsArticleDto();
+        newDtoAgain.setId("new-article");
+        newDtoAgain.setTitle("New Article, updated");
+        newDtoAgain.setFetchedAt(LocalDateTime.of(2024, 5, 1, 12, 5));
+        NewsArticleEntity newEntityAgain = new NewsArticleEntity();
+        newEntityAgain.setId("new-article");
+        newEntityAgain.setTitle("New Article, updated");
+
+        when(mapper.toEntity(articleDto)).thenReturn(articleEntity);
+        when(mapper.toEntity(newDtoAgain)).thenReturn(newEntityAgain);
+        when(repository.upsertAll(List.of(articleEntity, newEntityAgain))).thenReturn(2);
+
+        // When
+        int saved = service.saveAll(List.of(articleDto, newDto, newDtoAgain));
+
+        // Then - one upsert for both, with the later fetched version of the new article
+        assertThat(saved).isEqualTo(2);
+        verify(mapper, never()).toEntity(newDto);
+        verify(repository, never()).save(any(NewsArticleEntity.class));
+    }
+
+    @Test
+    void testSaveAllKeepsLatestFetchedVersionWhateverTheOrder() {
+        // Given - the later fetched version comes first
+        NewsArticleDto later = new NewsArticleDto();
+        later.setId(articleId);
+        later.setTitle("Test Article, updated");
+        later.setFetchedAt(LocalDateTime.of(2024, 5, 1, 12, 5));
+        articleDto.setFetchedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+
+        when(mapper.toEntity(later)).thenReturn(articleEntity);
+        when(repository.upsertAll(List.of(articleEntity))).thenReturn(0);
+
+        // When
+        int saved = service.saveAll(List.of(later, articleDto));
+
+        // Then - nothing written, as the stored version is as recent
+        assertThat(saved).isZero();
+        verify(mapper, never()).toEntity(articleDto);
     }
 
     @Test
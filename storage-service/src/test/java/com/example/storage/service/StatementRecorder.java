@@ -0,0 +1,98 @@
+package com.example.storage.service;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Wraps the DataSource and records every SQL statement sent to the database. A statement added
+ * to a JDBC batch counts as a statement; the batch as a whole counts as one round trip.
+ */
+class StatementRecorder implements BeanPostProcessor {
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+    private final AtomicInteger roundTrips = new AtomicInteger();
+
+    void reset() {
+        statements.clear();
+        roundTrips.set(0);
+    }
+
+    /**
+     * @return the number of recorded statements starting with the keyword, e.g. "select"
+     */
+    long count(String keyword) {
+        return statements.stream()
+                .filter(sql -> sql.strip().toLowerCase(Locale.ROOT).startsWith(keyword))
+                .count();
+    }
+
+    int roundTrips() {
+        return roundTrips.get();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                Object result = method.invoke(target, args);
+                return result instanceof Connection connection ? connection(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            if (result instanceof PreparedStatement statement && args != null && args[0] instanceof String sql) {
+                return statement(PreparedStatement.class, statement, sql);
+            }
+            if (result instanceof Statement statement && !(result instanceof PreparedStatement)) {
+                return statement(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    private <T extends Statement> T statement(Class<T> type, T statement, String preparedSql) {
+        return proxy(type, statement, (target, method, args) -> {
+            String name = method.getName();
+            if (name.equals("addBatch")) {
+                statements.add(preparedSql != null ? preparedSql : (String) args[0]);
+            } else if (name.equals("executeBatch") || name.equals("executeLargeBatch")) {
+                roundTrips.incrementAndGet();
+            } else if (name.startsWith("execute")) {
+                statements.add(args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql);
+                roundTrips.incrementAndGet();
+            }
+            return method.invoke(target, args);
+        });
+    }
+
+    private interface Invoker<T> {
+        Object invoke(T target, java.lang.reflect.Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Invoker<T> invoker) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            try {
+                return invoker.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}